@@ -0,0 +1,79 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ratpack;
+
+import ratpack.exec.internal.DefaultExecController;
+import ratpack.exec.internal.ExecControllerInternal;
+import ratpack.exec.internal.ExecThreadBinding;
+import ratpack.handling.Handlers;
+import ratpack.impose.Impositions;
+import ratpack.registry.Registry;
+import ratpack.server.RatpackServer;
+import ratpack.server.ServerConfig;
+import ratpack.server.internal.ServerRegistry;
+
+/**
+ * Fixtures for running framework code on the benchmark thread.
+ * <p>
+ * Executions are started on an embedded event loop, which runs all work inline on the calling thread.
+ * This keeps thread hand-off out of the measurements, so that they reflect the cost of the framework code itself.
+ */
+public final class BenchmarkSupport {
+
+  private BenchmarkSupport() {
+  }
+
+  /**
+   * Creates an exec controller, and binds the current thread to it as a compute thread.
+   *
+   * @return an exec controller
+   */
+  public static ExecControllerInternal bindExecController() {
+    DefaultExecController execController = new DefaultExecController(1);
+    ExecThreadBinding.bind(true, execController);
+    return execController;
+  }
+
+  public static void unbind(ExecControllerInternal execController) {
+    ExecThreadBinding.unbind();
+    execController.close();
+  }
+
+  /**
+   * The server registry that a non development application would have, with no user registry.
+   *
+   * @param execController the exec controller
+   * @return the server registry
+   * @throws Exception any
+   */
+  public static Registry serverRegistry(ExecControllerInternal execController) throws Exception {
+    return serverRegistry(execController, ServerConfig.builder().development(false).build());
+  }
+
+  /**
+   * The server registry that an application with the given config would have, with no user registry.
+   *
+   * @param execController the exec controller
+   * @param serverConfig the server config
+   * @return the server registry
+   * @throws Exception any
+   */
+  public static Registry serverRegistry(ExecControllerInternal execController, ServerConfig serverConfig) throws Exception {
+    RatpackServer server = RatpackServer.of(s -> s.serverConfig(serverConfig).handler(r -> Handlers.notFound()));
+    return ServerRegistry.serverRegistry(server, Impositions.none(), execController, serverConfig, r -> Registry.empty());
+  }
+
+}
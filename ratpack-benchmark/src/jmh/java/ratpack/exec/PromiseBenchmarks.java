@@ -0,0 +1,90 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ratpack.exec;
+
+import io.netty.channel.EventLoop;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.openjdk.jmh.annotations.*;
+import ratpack.BenchmarkSupport;
+import ratpack.exec.internal.ExecControllerInternal;
+import ratpack.func.Function;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of promise chains, and of the execution draining their segments.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class PromiseBenchmarks {
+
+  @Param({"1", "10", "100"})
+  int steps;
+
+  ExecControllerInternal execController;
+  EmbeddedChannel channel;
+  EventLoop eventLoop;
+  int result;
+
+  @Setup
+  public void setup() {
+    execController = BenchmarkSupport.bindExecController();
+    channel = new EmbeddedChannel();
+    eventLoop = channel.eventLoop();
+  }
+
+  @TearDown
+  public void tearDown() {
+    channel.finishAndReleaseAll();
+    BenchmarkSupport.unbind(execController);
+  }
+
+  @Benchmark
+  public int map() {
+    return run(promise -> promise.map(i -> i + 1));
+  }
+
+  @Benchmark
+  public int flatMapValue() {
+    return run(promise -> promise.flatMap(i -> Promise.value(i + 1)));
+  }
+
+  @Benchmark
+  public int flatMapAsync() {
+    return run(promise -> promise.flatMap(i -> Promise.async(down -> down.success(i + 1))));
+  }
+
+  @Benchmark
+  public int next() {
+    return run(promise -> promise.next(i -> result += i));
+  }
+
+  private int run(Function<Promise<Integer>, Promise<Integer>> step) {
+    execController.fork()
+      .eventLoop(eventLoop)
+      .start(execution -> {
+        Promise<Integer> promise = Promise.value(0);
+        for (int i = 0; i < steps; ++i) {
+          promise = step.apply(promise);
+        }
+        promise.then(value -> result = value);
+      });
+    channel.runPendingTasks();
+    return result;
+  }
+
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ratpack.http;
+
+import com.google.common.collect.ImmutableList;
+import org.openjdk.jmh.annotations.*;
+import ratpack.http.internal.MimeParse;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures content negotiation, as performed by {@code byContent()}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class MimeParseBenchmarks {
+
+  private static final List<String> SUPPORTED = ImmutableList.of("application/json", "application/xml", "text/html", "text/plain");
+
+  @Param({
+    "application/json",
+    "text/html,application/xhtml+xml,application/xml;q=0.9,image/webp,*/*;q=0.8",
+    "*/*"
+  })
+  String accept;
+
+  @Benchmark
+  public String bestMatch() {
+    return MimeParse.bestMatch(SUPPORTED, accept);
+  }
+
+}
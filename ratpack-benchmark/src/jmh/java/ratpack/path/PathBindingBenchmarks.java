@@ -0,0 +1,73 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ratpack.path;
+
+import org.openjdk.jmh.annotations.*;
+import ratpack.path.internal.RootPathBinding;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures binding a request path against a chain of token path binders, as done on a path binding cache miss.
+ * <p>
+ * The matching binder is last, so each operation tries every binder in the chain.
+ * See {@code RequestBenchmarks} for routing through a complete handler chain.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class PathBindingBenchmarks {
+
+  @Param({"1", "10", "100"})
+  int routes;
+
+  PathBinder[] binders;
+  PathBinding literalPath;
+  PathBinding tokenPath;
+
+  @Setup
+  public void setup() {
+    binders = new PathBinder[routes];
+    for (int i = 0; i < routes - 1; ++i) {
+      binders[i] = PathBinder.parse("api/resource" + i + "/:id/items/:item?", true);
+    }
+    binders[routes - 1] = PathBinder.parse("api/target/:id/items/:item?", true);
+    literalPath = new RootPathBinding("api/target");
+    tokenPath = new RootPathBinding("api/target/123/items/456");
+  }
+
+  @Benchmark
+  public Optional<PathBinding> bindTokens() {
+    return bind(tokenPath);
+  }
+
+  @Benchmark
+  public Optional<PathBinding> noMatch() {
+    return bind(literalPath);
+  }
+
+  private Optional<PathBinding> bind(PathBinding path) {
+    for (PathBinder binder : binders) {
+      Optional<PathBinding> binding = binder.bind(path);
+      if (binding.isPresent()) {
+        return binding;
+      }
+    }
+    return Optional.empty();
+  }
+
+}
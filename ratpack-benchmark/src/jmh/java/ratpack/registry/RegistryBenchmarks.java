@@ -0,0 +1,109 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ratpack.registry;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.reflect.TypeToken;
+import org.openjdk.jmh.annotations.*;
+import ratpack.BenchmarkSupport;
+import ratpack.exec.internal.ExecControllerInternal;
+import ratpack.jackson.JsonRender;
+import ratpack.registry.internal.CachingRegistry;
+import ratpack.registry.internal.TypeCaching;
+import ratpack.render.Renderer;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures registry lookups against the server registry, as performed for each request by handlers and renderers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class RegistryBenchmarks {
+
+  private static final TypeToken<Renderer<?>> RENDERER = new TypeToken<Renderer<?>>() {};
+  private static final TypeToken<Renderer<JsonRender>> JSON_RENDERER = new TypeToken<Renderer<JsonRender>>() {};
+  private static final TypeToken<Runnable> ABSENT = TypeToken.of(Runnable.class);
+
+  ExecControllerInternal execController;
+  Registry registry;
+  Registry cachingRegistry;
+  ConcurrentMap<TypeToken<?>, Boolean> assignabilityCache;
+
+  @Setup
+  public void setup() throws Exception {
+    execController = BenchmarkSupport.bindExecController();
+    registry = BenchmarkSupport.serverRegistry(execController);
+    cachingRegistry = CachingRegistry.of(registry);
+    assignabilityCache = TypeCaching.cache(RENDERER);
+  }
+
+  @TearDown
+  public void tearDown() {
+    BenchmarkSupport.unbind(execController);
+  }
+
+  @Benchmark
+  public Object get() {
+    return registry.get(ObjectMapper.class);
+  }
+
+  @Benchmark
+  public Object cachingGet() {
+    return cachingRegistry.get(ObjectMapper.class);
+  }
+
+  @Benchmark
+  public Object maybeGetAbsent() {
+    return registry.maybeGet(ABSENT);
+  }
+
+  @Benchmark
+  public Object cachingMaybeGetAbsent() {
+    return cachingRegistry.maybeGet(ABSENT);
+  }
+
+  @Benchmark
+  public int getAll() {
+    return count(registry.getAll(RENDERER));
+  }
+
+  @Benchmark
+  public int cachingGetAll() {
+    return count(cachingRegistry.getAll(RENDERER));
+  }
+
+  @Benchmark
+  public boolean typeCachingIsAssignableFrom() {
+    return TypeCaching.isAssignableFrom(assignabilityCache, RENDERER, JSON_RENDERER);
+  }
+
+  @Benchmark
+  public boolean typeTokenIsSupertypeOf() {
+    return RENDERER.isSupertypeOf(JSON_RENDERER);
+  }
+
+  private static int count(Iterable<?> iterable) {
+    int i = 0;
+    for (Object ignored : iterable) {
+      ++i;
+    }
+    return i;
+  }
+
+}
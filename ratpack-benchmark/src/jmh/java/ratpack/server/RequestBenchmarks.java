@@ -0,0 +1,154 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ratpack.server;
+
+import com.google.common.collect.ImmutableMap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.*;
+import io.netty.handler.stream.ChunkedWriteHandler;
+import io.netty.util.ReferenceCountUtil;
+import org.openjdk.jmh.annotations.*;
+import ratpack.BenchmarkSupport;
+import ratpack.exec.internal.ExecControllerInternal;
+import ratpack.handling.Handler;
+import ratpack.handling.Handlers;
+import ratpack.http.internal.ConnectionIdleTimeout;
+import ratpack.jackson.Jackson;
+import ratpack.registry.Registry;
+import ratpack.server.internal.NettyHandlerAdapter;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the complete handling of a request, from the decoded Netty request to the encoded response.
+ * <p>
+ * This covers request construction in {@link NettyHandlerAdapter}, routing through a handler chain with the given number of routes
+ * (the requested route being last), rendering and response transmission.
+ * Routing is measured both with and without {@link ServerConfig#isCompiledRouting() compiled routing}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class RequestBenchmarks {
+
+  private static final InetSocketAddress LOCAL_ADDRESS = InetSocketAddress.createUnresolved("localhost", 5050);
+  private static final InetSocketAddress REMOTE_ADDRESS = InetSocketAddress.createUnresolved("localhost", 50000);
+
+  @Param({"1", "10", "100"})
+  int routes;
+
+  @Param({"false", "true"})
+  boolean compiledRouting;
+
+  ExecControllerInternal execController;
+  EmbeddedChannel channel;
+
+  HttpRequest textRequest;
+  HttpRequest jsonRequest;
+  HttpRequest notFoundRequest;
+
+  @Setup
+  public void setup() throws Exception {
+    execController = BenchmarkSupport.bindExecController();
+    ServerConfig serverConfig = ServerConfig.builder().development(false).compiledRouting(compiledRouting).build();
+    Registry serverRegistry = BenchmarkSupport.serverRegistry(execController, serverConfig);
+
+    Handler handler = Handlers.chain(serverRegistry, chain -> {
+      for (int i = 0; i < routes - 1; ++i) {
+        chain.get("resource" + i + "/:id", ctx -> ctx.render("ok"));
+      }
+      chain
+        .get("text/:id", ctx -> ctx.render(ctx.getPathTokens().get("id")))
+        .get("json/:id", ctx -> ctx.render(Jackson.json(ImmutableMap.of("id", ctx.getPathTokens().get("id"), "name", "benchmark"))));
+    });
+    NettyHandlerAdapter handlerAdapter = new NettyHandlerAdapter(serverRegistry, handler);
+
+    channel = new EmbeddedChannel(new ChannelInitializer<Channel>() {
+      @Override
+      protected void initChannel(Channel ch) {
+        new ConnectionIdleTimeout(ch.pipeline(), serverConfig.getIdleTimeout());
+        ch.pipeline().addLast("encoder", new HttpResponseEncoder());
+        ch.pipeline().addLast("chunkedWriter", new ChunkedWriteHandler());
+        ch.pipeline().addLast("adapter", handlerAdapter);
+      }
+    }) {
+      @Override
+      protected SocketAddress localAddress0() {
+        return LOCAL_ADDRESS;
+      }
+
+      @Override
+      protected SocketAddress remoteAddress0() {
+        return REMOTE_ADDRESS;
+      }
+    };
+
+    textRequest = request("/text/1");
+    jsonRequest = request("/json/1");
+    notFoundRequest = request("/missing");
+  }
+
+  @TearDown
+  public void tearDown() {
+    channel.finishAndReleaseAll();
+    BenchmarkSupport.unbind(execController);
+  }
+
+  @Benchmark
+  public int text() {
+    return handle(textRequest);
+  }
+
+  @Benchmark
+  public int json() {
+    return handle(jsonRequest);
+  }
+
+  @Benchmark
+  public int notFound() {
+    return handle(notFoundRequest);
+  }
+
+  private static HttpRequest request(String uri) {
+    HttpRequest request = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, uri);
+    request.headers()
+      .set(HttpHeaderNames.HOST, "localhost:5050")
+      .set(HttpHeaderNames.ACCEPT, "*/*");
+    return request;
+  }
+
+  private int handle(HttpRequest request) {
+    channel.writeInbound(request, LastHttpContent.EMPTY_LAST_CONTENT);
+    channel.runPendingTasks();
+
+    int bytes = 0;
+    Object msg = channel.readOutbound();
+    while (msg != null) {
+      if (msg instanceof ByteBuf) {
+        bytes += ((ByteBuf) msg).readableBytes();
+      }
+      ReferenceCountUtil.release(msg);
+      msg = channel.readOutbound();
+    }
+    return bytes;
+  }
+
+}
@@ -24,12 +24,15 @@ import com.fasterxml.jackson.databind.JsonDeserializer;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.databind.node.POJONode;
+import com.google.common.collect.ImmutableMap;
 import io.netty.handler.ssl.ClientAuth;
 import io.netty.handler.ssl.JdkSslContext;
 import io.netty.handler.ssl.SslContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import ratpack.exec.BlockingPoolConfig;
 import ratpack.file.FileSystemBinding;
+import ratpack.server.FlushConsolidationConfig;
 import ratpack.server.ServerConfig;
 import ratpack.server.internal.ServerConfigData;
 import ratpack.server.internal.ServerEnvironment;
@@ -40,6 +43,8 @@ import java.net.InetAddress;
 import java.net.URI;
 import java.nio.file.Path;
 import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Supplier;
 
@@ -124,6 +129,33 @@ public class ServerConfigDataDeserializer extends JsonDeserializer<ServerConfigD
     if (serverNode.hasNonNull("connectQueueSize")) {
       parseOptionalIntValue("connectQueueSize", serverNode.get("connectQueueSize")).ifPresent(data::setConnectQueueSize);
     }
+    if (serverNode.hasNonNull("http2")) {
+      data.setHttp2(serverNode.get("http2").asBoolean(false));
+    }
+    if (serverNode.hasNonNull("compiledRouting")) {
+      data.setCompiledRouting(serverNode.get("compiledRouting").asBoolean(false));
+    }
+    if (serverNode.hasNonNull("virtualBlockingThreads")) {
+      data.setVirtualBlockingThreads(serverNode.get("virtualBlockingThreads").asBoolean(false));
+    }
+    if (serverNode.hasNonNull("virtualBlockingThreadCarriers")) {
+      data.setVirtualBlockingThreadCarriers(serverNode.get("virtualBlockingThreadCarriers").asInt(0));
+    }
+    if (serverNode.hasNonNull("blockingPools")) {
+      ImmutableMap.Builder<String, BlockingPoolConfig> blockingPools = ImmutableMap.builder();
+      Iterator<Map.Entry<String, JsonNode>> fields = serverNode.get("blockingPools").fields();
+      while (fields.hasNext()) {
+        Map.Entry<String, JsonNode> field = fields.next();
+        blockingPools.put(field.getKey(), toValue(codec, field.getValue(), BlockingPoolConfig.class));
+      }
+      data.setBlockingPools(blockingPools.build());
+    }
+    if (serverNode.hasNonNull("flushConsolidation")) {
+      data.setFlushConsolidation(toValue(codec, serverNode.get("flushConsolidation"), FlushConsolidationConfig.class));
+    }
+    if (serverNode.hasNonNull("recycleResponses")) {
+      data.setRecycleResponses(serverNode.get("recycleResponses").asBoolean(false));
+    }
     if (serverNode.hasNonNull("portFile")) {
       data.setPortFile(toValue(codec, serverNode.get("portFile"), Path.class));
     }
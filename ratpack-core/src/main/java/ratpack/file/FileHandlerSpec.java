@@ -188,4 +188,95 @@ public interface FileHandlerSpec {
    */
   FileHandlerSpec indexFiles(String... indexFiles);
 
+  /**
+   * Keeps the content of small files in memory, so that they can be served without reading the file system.
+   * <p>
+   * Files no larger than {@code maxFileSize} bytes are read into off heap buffers when first requested,
+   * and are then served from memory while their size and last modified time are unchanged.
+   * When the total size of the cached files exceeds {@code maxSize} bytes, the least useful files are evicted.
+   * <p>
+   * Files served from memory are also given an {@code ETag} header, based on their size and last modified time,
+   * and conditional requests using {@code If-None-Match} are honoured.
+   * <p>
+   * This is useful for frequently requested small files, such as the assets of a web frontend.
+   * By default, file content is not cached.
+   *
+   * <pre class="java">{@code
+   * import ratpack.test.embed.EphemeralBaseDir;
+   * import ratpack.test.embed.EmbeddedApp;
+   *
+   * import static org.junit.Assert.assertEquals;
+   *
+   * public class Example {
+   *   public static void main(String... args) throws Exception {
+   *     EphemeralBaseDir.tmpDir().use(baseDir -> {
+   *       baseDir.write("a.txt", "a");
+   *       EmbeddedApp.of(s -> s
+   *         .serverConfig(c -> c.baseDir(baseDir.getRoot()))
+   *         .handlers(c -> c
+   *           .files(f -> f.cacheContent(64 * 1024, 16 * 1024 * 1024))
+   *         )
+   *       ).test(httpClient -> {
+   *         assertEquals("a", httpClient.getText("a.txt"));
+   *         assertEquals("a", httpClient.getText("a.txt"));
+   *       });
+   *     });
+   *   }
+   * }
+   * }</pre>
+   *
+   * @param maxFileSize the size in bytes of the largest file to keep in memory
+   * @param maxSize the maximum total size in bytes of the files to keep in memory
+   * @return {@code this}
+   * @since 1.10
+   */
+  FileHandlerSpec cacheContent(int maxFileSize, long maxSize);
+
+  /**
+   * Serves precompressed variants of files, when the client accepts their encoding.
+   * <p>
+   * For a request for {@code app.js}, a sibling file named {@code app.js.br} is served for the {@code br} encoding,
+   * and {@code app.js.gz} for the {@code gzip} encoding.
+   * The encodings are tried in the given order, and the first that is accepted by the request's {@code Accept-Encoding} header,
+   * and whose variant exists and is not older than the file, is served.
+   * Otherwise the file itself is served.
+   * <p>
+   * Variants are served with a {@code Content-Encoding} header and the content type of the file, and are not compressed again.
+   * All responses for files are given a {@code Vary: Accept-Encoding} header.
+   * <p>
+   * Serving precompressed variants avoids compressing the same content for every request,
+   * and allows files to be sent without copying them through user space.
+   * Variants are also subject to {@link #cacheContent(int, long) content caching}.
+   *
+   * <pre class="java">{@code
+   * import ratpack.test.embed.EphemeralBaseDir;
+   * import ratpack.test.embed.EmbeddedApp;
+   *
+   * import static org.junit.Assert.assertEquals;
+   *
+   * public class Example {
+   *   public static void main(String... args) throws Exception {
+   *     EphemeralBaseDir.tmpDir().use(baseDir -> {
+   *       baseDir.write("app.js", "original");
+   *       baseDir.write("app.js.br", "brotli");
+   *       EmbeddedApp.of(s -> s
+   *         .serverConfig(c -> c.baseDir(baseDir.getRoot()))
+   *         .handlers(c -> c
+   *           .files(f -> f.precompressed("br", "gzip"))
+   *         )
+   *       ).test(httpClient -> {
+   *         httpClient.requestSpec(r -> r.headers(h -> h.set("Accept-Encoding", "br")).decompressResponse(false));
+   *         assertEquals("br", httpClient.get("app.js").getHeaders().get("Content-Encoding"));
+   *       });
+   *     });
+   *   }
+   * }
+   * }</pre>
+   *
+   * @param encodings the encodings to serve variants for, in order of preference; supported values are {@code br} and {@code gzip}
+   * @return {@code this}
+   * @since 1.10
+   */
+  FileHandlerSpec precompressed(String... encodings);
+
 }
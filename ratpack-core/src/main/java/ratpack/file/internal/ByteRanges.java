@@ -0,0 +1,200 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.file.internal;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import ratpack.api.Nullable;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The byte ranges of a file requested by a {@code Range} header, as per RFC 7233.
+ * <p>
+ * A single range is sent as the body of a 206 response.
+ * Multiple ranges are sent as a {@code multipart/byteranges} body, whose part headers are created by this object.
+ */
+public final class ByteRanges {
+
+  /**
+   * Requests for more ranges than this are served in full, to bound the cost of a request.
+   */
+  public static final int MAX_RANGES = 16;
+
+  private static final String UNIT_PREFIX = "bytes=";
+  private static final String CRLF = "\r\n";
+
+  private final long size;
+  private final long[] starts;
+  private final long[] ends;
+
+  @Nullable
+  private final String boundary;
+  @Nullable
+  private final String partContentType;
+
+  private ByteRanges(long size, long[] starts, long[] ends, @Nullable String boundary, @Nullable String partContentType) {
+    this.size = size;
+    this.starts = starts;
+    this.ends = ends;
+    this.boundary = boundary;
+    this.partContentType = partContentType;
+  }
+
+  /**
+   * Parses a {@code Range} header value for a file of the given size.
+   *
+   * @return the satisfiable ranges, or {@code null} if the header is invalid or should otherwise be ignored
+   */
+  @Nullable
+  public static ByteRanges parse(String header, long size) {
+    if (!header.regionMatches(true, 0, UNIT_PREFIX, 0, UNIT_PREFIX.length())) {
+      return null;
+    }
+    String[] specs = header.substring(UNIT_PREFIX.length()).split(",");
+    if (specs.length > MAX_RANGES) {
+      return null;
+    }
+
+    long[] starts = new long[specs.length];
+    long[] ends = new long[specs.length];
+    int count = 0;
+    for (String spec : specs) {
+      String trimmed = spec.trim();
+      int dash = trimmed.indexOf('-');
+      if (dash == -1) {
+        return null;
+      }
+      long first;
+      long last;
+      try {
+        if (dash == 0) {
+          long suffixLength = Long.parseLong(trimmed.substring(1));
+          if (suffixLength == 0) {
+            continue;
+          }
+          first = Math.max(0, size - suffixLength);
+          last = size - 1;
+        } else {
+          first = Long.parseLong(trimmed.substring(0, dash));
+          last = dash == trimmed.length() - 1 ? size - 1 : Long.parseLong(trimmed.substring(dash + 1));
+          if (last < first) {
+            return null;
+          }
+          last = Math.min(last, size - 1);
+        }
+      } catch (NumberFormatException e) {
+        return null;
+      }
+      if (first < 0) {
+        return null;
+      }
+      if (first < size) {
+        starts[count] = first;
+        ends[count] = last;
+        ++count;
+      }
+    }
+
+    return new ByteRanges(size, Arrays.copyOf(starts, count), Arrays.copyOf(ends, count), null, null);
+  }
+
+  /**
+   * Whether any of the ranges can be served; if not, a 416 response is due.
+   */
+  public boolean isSatisfiable() {
+    return starts.length > 0;
+  }
+
+  public boolean isMultipart() {
+    return starts.length > 1;
+  }
+
+  public int getCount() {
+    return starts.length;
+  }
+
+  public long getStart(int i) {
+    return starts[i];
+  }
+
+  public long getLength(int i) {
+    return ends[i] - starts[i] + 1;
+  }
+
+  public String getContentRange(int i) {
+    return "bytes " + starts[i] + "-" + ends[i] + "/" + size;
+  }
+
+  public static String unsatisfiedContentRange(long size) {
+    return "bytes */" + size;
+  }
+
+  /**
+   * Creates a copy of these ranges that can create the parts of a multipart body.
+   *
+   * @param partContentType the content type of the file
+   * @return a copy of these ranges with a random boundary
+   */
+  public ByteRanges multipart(String partContentType) {
+    String boundary = Long.toHexString(ThreadLocalRandom.current().nextLong()) + Long.toHexString(ThreadLocalRandom.current().nextLong());
+    return new ByteRanges(size, starts, ends, boundary, partContentType);
+  }
+
+  public String getMultipartContentType() {
+    return "multipart/byteranges; boundary=" + boundary;
+  }
+
+  /**
+   * The length of the body, including multipart headers if multipart.
+   */
+  public long getContentLength() {
+    long length = 0;
+    for (int i = 0; i < starts.length; ++i) {
+      if (boundary != null) {
+        length += partHeader(i).length();
+      }
+      length += getLength(i);
+    }
+    if (boundary != null) {
+      length += trailer().length();
+    }
+    return length;
+  }
+
+  public ByteBuf partHeader(int i, ByteBufAllocator allocator) {
+    return ByteBufUtil.writeAscii(allocator, partHeader(i));
+  }
+
+  public ByteBuf trailer(ByteBufAllocator allocator) {
+    return ByteBufUtil.writeAscii(allocator, trailer());
+  }
+
+  private String partHeader(int i) {
+    return CRLF + "--" + boundary + CRLF
+      + "Content-Type: " + partContentType + CRLF
+      + "Content-Range: " + getContentRange(i) + CRLF
+      + CRLF;
+  }
+
+  private String trailer() {
+    return CRLF + "--" + boundary + "--" + CRLF;
+  }
+
+}
@@ -29,6 +29,9 @@ public class DefaultFileHandlerSpec implements FileHandlerSpec {
   private String path;
   private String dir;
   private ImmutableList<String> indexFiles = ImmutableList.of();
+  private int contentCacheMaxFileSize;
+  private long contentCacheMaxSize;
+  private ImmutableList<String> precompressedEncodings = ImmutableList.of();
 
   @Override
   public FileHandlerSpec path(String path) {
@@ -48,13 +51,38 @@ public class DefaultFileHandlerSpec implements FileHandlerSpec {
     return this;
   }
 
+  @Override
+  public FileHandlerSpec cacheContent(int maxFileSize, long maxSize) {
+    if (maxFileSize < 1) {
+      throw new IllegalArgumentException("'maxFileSize' must be > 0");
+    }
+    if (maxSize < maxFileSize) {
+      throw new IllegalArgumentException("'maxSize' must be >= 'maxFileSize'");
+    }
+    this.contentCacheMaxFileSize = maxFileSize;
+    this.contentCacheMaxSize = maxSize;
+    return this;
+  }
+
+  @Override
+  public FileHandlerSpec precompressed(String... encodings) {
+    for (String encoding : encodings) {
+      if (!FileHandler.PRECOMPRESSED_EXTENSIONS.containsKey(encoding)) {
+        throw new IllegalArgumentException("Unsupported precompressed encoding '" + encoding + "' (supported: " + FileHandler.PRECOMPRESSED_EXTENSIONS.keySet() + ")");
+      }
+    }
+    this.precompressedEncodings = ImmutableList.copyOf(encodings);
+    return this;
+  }
+
   public static Handler build(ServerConfig serverConfig, Action<? super FileHandlerSpec> config) throws Exception {
     if (!serverConfig.isHasBaseDir()) {
       throw new BaseDirRequiredException("no base dir set for application");
     }
     DefaultFileHandlerSpec spec = new DefaultFileHandlerSpec();
     config.execute(spec);
-    Handler handler = new FileHandler(spec.indexFiles, !serverConfig.isDevelopment());
+    FileContentCache contentCache = spec.contentCacheMaxFileSize == 0 ? null : new FileContentCache(spec.contentCacheMaxFileSize, spec.contentCacheMaxSize);
+    Handler handler = new FileHandler(spec.indexFiles, !serverConfig.isDevelopment(), contentCache, spec.precompressedEncodings);
     if (spec.dir != null) {
       handler = Handlers.fileSystem(serverConfig, spec.dir, handler);
     }
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.file.internal;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.util.IllegalReferenceCountException;
+import ratpack.api.Nullable;
+import ratpack.exec.Blocking;
+import ratpack.exec.Promise;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * An in memory cache of the content of small files, held as direct buffers.
+ * <p>
+ * Entries are keyed by path, and are only used while the size and last modified time of the file are unchanged.
+ * Each response is sent a retained duplicate of the cached buffer, so that an entry can be evicted while it is being sent.
+ * Concurrent misses for the same file share a single read.
+ */
+public class FileContentCache {
+
+  private final int maxFileSize;
+  private final Cache<Path, Entry> cache;
+  private final ConcurrentMap<Path, CompletableFuture<Entry>> loads = new ConcurrentHashMap<>();
+
+  public FileContentCache(int maxFileSize, long maxSize) {
+    this.maxFileSize = maxFileSize;
+    this.cache = Caffeine.newBuilder()
+      .maximumWeight(maxSize)
+      .<Path, Entry>weigher((path, entry) -> entry.content.capacity())
+      .<Path, Entry>removalListener((path, entry, cause) -> {
+        if (entry != null) {
+          entry.content.release();
+        }
+      })
+      .build();
+  }
+
+  public boolean isCacheable(BasicFileAttributes attributes) {
+    return attributes.size() <= maxFileSize;
+  }
+
+  /**
+   * Returns the cached entry for the file, if it is for the given attributes.
+   */
+  @Nullable
+  public Entry get(Path file, BasicFileAttributes attributes) {
+    Entry entry = cache.getIfPresent(file);
+    if (entry == null || !entry.isFor(attributes)) {
+      return null;
+    } else {
+      return entry;
+    }
+  }
+
+  /**
+   * Reads the file into the cache, providing a retained buffer of its content.
+   * <p>
+   * Concurrent loads of the same file are coalesced, so that the file is read once.
+   * Callers that joined a load that turned out not to be for the file's current attributes, or whose entry was evicted, load it again.
+   */
+  public Promise<ByteBuf> load(Path file, BasicFileAttributes attributes, String contentType, ByteBufAllocator allocator) {
+    return Promise.flatten(() -> {
+      CompletableFuture<Entry> loading = new CompletableFuture<>();
+      CompletableFuture<Entry> existing = loads.putIfAbsent(file, loading);
+      if (existing == null) {
+        return read(file, attributes, contentType, allocator, loading);
+      } else {
+        return Promise.<Entry>async(down -> down.accept(existing))
+          .flatMap(entry -> {
+            ByteBuf content = entry.isFor(attributes) ? entry.retainedContent() : null;
+            return content == null ? load(file, attributes, contentType, allocator) : Promise.value(content);
+          });
+      }
+    });
+  }
+
+  private Promise<ByteBuf> read(Path file, BasicFileAttributes attributes, String contentType, ByteBufAllocator allocator, CompletableFuture<Entry> loading) {
+    return Blocking.get(() -> {
+      try {
+        Entry entry = new Entry(read(file, attributes, allocator), contentType, attributes);
+        ByteBuf retained = entry.content.retainedDuplicate();
+        cache.put(file, entry);
+        loading.complete(entry);
+        return retained;
+      } catch (Throwable e) {
+        loading.completeExceptionally(e);
+        throw e;
+      } finally {
+        loads.remove(file, loading);
+      }
+    });
+  }
+
+  private static ByteBuf read(Path file, BasicFileAttributes attributes, ByteBufAllocator allocator) throws Exception {
+    int size = (int) attributes.size();
+    ByteBuf content = allocator.directBuffer(size, size);
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      int read = 0;
+      while (read != -1 && content.isWritable()) {
+        read = content.writeBytes(channel, content.writerIndex(), content.writableBytes());
+      }
+    } catch (Exception e) {
+      content.release();
+      throw e;
+    }
+    return content;
+  }
+
+  public static String etag(BasicFileAttributes attributes) {
+    return "\"" + Long.toHexString(attributes.size()) + "-" + Long.toHexString(attributes.lastModifiedTime().toMillis()) + "\"";
+  }
+
+  public static final class Entry {
+
+    private final ByteBuf content;
+    private final String contentType;
+    private final String etag;
+    private final long size;
+    private final long lastModified;
+
+    private Entry(ByteBuf content, String contentType, BasicFileAttributes attributes) {
+      this.content = content;
+      this.contentType = contentType;
+      this.etag = etag(attributes);
+      this.size = attributes.size();
+      this.lastModified = attributes.lastModifiedTime().toMillis();
+    }
+
+    private boolean isFor(BasicFileAttributes attributes) {
+      return size == attributes.size() && lastModified == attributes.lastModifiedTime().toMillis();
+    }
+
+    public String getContentType() {
+      return contentType;
+    }
+
+    public String getEtag() {
+      return etag;
+    }
+
+    /**
+     * A retained duplicate of the content, or {@code null} if the entry was evicted and released concurrently.
+     */
+    @Nullable
+    public ByteBuf retainedContent() {
+      try {
+        return content.retainedDuplicate();
+      } catch (IllegalReferenceCountException e) {
+        return null;
+      }
+    }
+  }
+
+}
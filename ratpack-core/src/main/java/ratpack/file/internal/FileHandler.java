@@ -17,15 +17,21 @@
 package ratpack.file.internal;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.QueryStringDecoder;
 import io.netty.util.CharsetUtil;
+import ratpack.api.Nullable;
+import ratpack.file.MimeTypes;
 import ratpack.handling.Context;
 import ratpack.handling.Handler;
 import ratpack.http.Request;
+import ratpack.http.Response;
 import ratpack.path.internal.PathBindingStorage;
 
 import java.nio.charset.Charset;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 
 import static io.netty.util.internal.StringUtil.EMPTY_STRING;
 import static ratpack.file.internal.FileRenderer.readAttributes;
@@ -33,12 +39,18 @@ import static ratpack.file.internal.FileRenderer.sendFile;
 
 public class FileHandler implements Handler {
 
+  public static final ImmutableMap<String, String> PRECOMPRESSED_EXTENSIONS = ImmutableMap.of("br", ".br", "gzip", ".gz");
+
   private final ImmutableList<String> indexFiles;
   private final boolean cacheMetadata;
+  private final FileContentCache contentCache;
+  private final ImmutableList<String> precompressedEncodings;
 
-  public FileHandler(ImmutableList<String> indexFiles, boolean cacheMetadata) {
+  public FileHandler(ImmutableList<String> indexFiles, boolean cacheMetadata, @Nullable FileContentCache contentCache, ImmutableList<String> precompressedEncodings) {
     this.indexFiles = indexFiles;
     this.cacheMetadata = cacheMetadata;
+    this.contentCache = contentCache;
+    this.precompressedEncodings = precompressedEncodings;
   }
 
   public void handle(Context context) throws Exception {
@@ -59,7 +71,7 @@ public class FileHandler implements Handler {
         context.next();
       } else if (attributes.isRegularFile()) {
         if (context.getRequest().getMethod().isGet()) {
-          sendFile(context, file, attributes);
+          send(context, file, attributes);
         } else {
           context.clientError(405);
         }
@@ -85,7 +97,7 @@ public class FileHandler implements Handler {
         if (attributes != null && attributes.isRegularFile()) {
           String path = context.getRequest().getPath();
           if (path.endsWith("/") || path.isEmpty()) {
-            sendFile(context, indexFile, attributes);
+            send(context, indexFile, attributes);
           } else {
             context.redirect(currentUriWithTrailingSlash(context));
           }
@@ -96,6 +108,73 @@ public class FileHandler implements Handler {
     }
   }
 
+  private void send(Context context, Path file, BasicFileAttributes attributes) throws Exception {
+    if (precompressedEncodings.isEmpty()) {
+      sendFile(context, file, attributes, contentCache);
+    } else {
+      context.getResponse().getHeaders().add(HttpHeaderNames.VARY, HttpHeaderNames.ACCEPT_ENCODING);
+      String acceptEncoding = context.getRequest().getHeaders().get(HttpHeaderNames.ACCEPT_ENCODING);
+      if (acceptEncoding == null) {
+        sendFile(context, file, attributes, contentCache);
+      } else {
+        maybeSendPrecompressed(context, file, attributes, acceptEncoding, 0);
+      }
+    }
+  }
+
+  private void maybeSendPrecompressed(Context context, Path file, BasicFileAttributes attributes, String acceptEncoding, int i) throws Exception {
+    if (i == precompressedEncodings.size()) {
+      sendFile(context, file, attributes, contentCache);
+    } else {
+      String encoding = precompressedEncodings.get(i);
+      if (isAccepted(acceptEncoding, encoding)) {
+        Path variant = file.resolveSibling(file.getFileName().toString() + PRECOMPRESSED_EXTENSIONS.get(encoding));
+        readAttributes(variant, cacheMetadata, variantAttributes -> {
+          // A variant older than the file is stale, as the file has changed since it was compressed
+          if (variantAttributes != null && variantAttributes.isRegularFile() && variantAttributes.lastModifiedTime().compareTo(attributes.lastModifiedTime()) >= 0) {
+            Response response = context.getResponse();
+            response.contentTypeIfNotSet(() -> context.get(MimeTypes.class).getContentType(file.getFileName().toString()));
+            response.getHeaders().set(HttpHeaderNames.CONTENT_ENCODING, encoding);
+            sendFile(context, variant, variantAttributes, contentCache);
+          } else {
+            maybeSendPrecompressed(context, file, attributes, acceptEncoding, i + 1);
+          }
+        });
+      } else {
+        maybeSendPrecompressed(context, file, attributes, acceptEncoding, i + 1);
+      }
+    }
+  }
+
+  private static boolean isAccepted(String acceptEncoding, String encoding) {
+    boolean wildcard = false;
+    for (String element : acceptEncoding.split(",")) {
+      int paramsStart = element.indexOf(';');
+      String coding = (paramsStart == -1 ? element : element.substring(0, paramsStart)).trim();
+      boolean acceptable = paramsStart == -1 || !isZeroQuality(element.substring(paramsStart + 1));
+      if (coding.equalsIgnoreCase(encoding)) {
+        return acceptable;
+      } else if (coding.equals("*")) {
+        wildcard = acceptable;
+      }
+    }
+    return wildcard;
+  }
+
+  private static boolean isZeroQuality(String params) {
+    for (String param : params.split(";")) {
+      String trimmed = param.trim();
+      if (trimmed.startsWith("q=")) {
+        try {
+          return Float.parseFloat(trimmed.substring(2)) == 0;
+        } catch (NumberFormatException e) {
+          return false;
+        }
+      }
+    }
+    return false;
+  }
+
   private String currentUriWithTrailingSlash(Context context) {
     Request request = context.getRequest();
     String redirectUri = "/" + request.getPath() + "/";
@@ -19,26 +19,34 @@ package ratpack.file.internal;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.common.reflect.TypeToken;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import ratpack.api.Nullable;
 import ratpack.exec.Blocking;
 import ratpack.file.MimeTypes;
 import ratpack.func.Action;
 import ratpack.func.Factory;
 import ratpack.handling.Context;
+import ratpack.http.Headers;
+import ratpack.http.MutableHeaders;
 import ratpack.http.Response;
+import ratpack.http.internal.DefaultResponse;
 import ratpack.http.internal.HttpHeaderConstants;
 import ratpack.render.Renderer;
 import ratpack.render.RendererSupport;
 import ratpack.util.Exceptions;
 import ratpack.util.Types;
 
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Date;
 import java.util.Optional;
 
-import static io.netty.handler.codec.http.HttpResponseStatus.NOT_MODIFIED;
+import static io.netty.handler.codec.http.HttpResponseStatus.*;
 
 public class FileRenderer extends RendererSupport<Path> {
 
@@ -67,6 +75,10 @@ public class FileRenderer extends RendererSupport<Path> {
   }
 
   public static void sendFile(Context context, Path file, BasicFileAttributes attributes) {
+    sendFile(context, file, attributes, null);
+  }
+
+  public static void sendFile(Context context, Path file, BasicFileAttributes attributes, @Nullable FileContentCache contentCache) {
     Date date = new Date(attributes.lastModifiedTime().toMillis());
 
     context.lastModified(date, () -> {
@@ -77,6 +89,23 @@ public class FileRenderer extends RendererSupport<Path> {
         return;
       }
 
+      if (file.getFileSystem().equals(FileSystems.getDefault())) {
+        response.getHeaders().set(HttpHeaderNames.ACCEPT_RANGES, HttpHeaderValues.BYTES);
+        String range = context.getRequest().getMethod().isGet() ? context.getRequest().getHeaders().get(HttpHeaderNames.RANGE) : null;
+        if (range != null && response instanceof DefaultResponse && isIfRangeSatisfied(context.getRequest().getHeaders(), attributes)) {
+          ByteRanges ranges = ByteRanges.parse(range, attributes.size());
+          if (ranges != null) {
+            sendRanges(context, (DefaultResponse) response, file, attributes, ranges);
+            return;
+          }
+        }
+      }
+
+      if (contentCache != null && contentCache.isCacheable(attributes)) {
+        sendCachedFile(context, file, attributes, contentCache, ifNoneMatch);
+        return;
+      }
+
       response.contentTypeIfNotSet(() -> context.get(MimeTypes.class).getContentType(file.getFileName().toString()));
       response.getHeaders().set(HttpHeaderConstants.CONTENT_LENGTH, Long.toString(attributes.size()));
       try {
@@ -87,6 +116,78 @@ public class FileRenderer extends RendererSupport<Path> {
     });
   }
 
+  private static boolean isIfRangeSatisfied(Headers headers, BasicFileAttributes attributes) {
+    String ifRange = headers.get(HttpHeaderNames.IF_RANGE);
+    if (ifRange == null) {
+      return true;
+    }
+    ifRange = ifRange.trim();
+    if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+      // Weak entity tags never match, as ranges require byte for byte equality
+      return ifRange.equals(FileContentCache.etag(attributes));
+    }
+    Date date = headers.getDate(HttpHeaderNames.IF_RANGE);
+    return date != null && date.getTime() / 1000 == attributes.lastModifiedTime().toMillis() / 1000;
+  }
+
+  private static void sendRanges(Context context, DefaultResponse response, Path file, BasicFileAttributes attributes, ByteRanges ranges) {
+    MutableHeaders headers = response.getHeaders();
+    if (!ranges.isSatisfiable()) {
+      headers.set(HttpHeaderNames.CONTENT_RANGE, ByteRanges.unsatisfiedContentRange(attributes.size()));
+      response.status(REQUESTED_RANGE_NOT_SATISFIABLE.code()).send();
+      return;
+    }
+
+    // The ranges are of the file as is, so must not be compressed on the fly
+    if (!headers.contains(HttpHeaderNames.CONTENT_ENCODING)) {
+      response.noCompress();
+    }
+    response.contentTypeIfNotSet(() -> context.get(MimeTypes.class).getContentType(file.getFileName().toString()));
+    response.status(PARTIAL_CONTENT.code());
+    if (ranges.isMultipart()) {
+      ranges = ranges.multipart(headers.get(HttpHeaderNames.CONTENT_TYPE));
+      response.contentType(ranges.getMultipartContentType());
+    } else {
+      headers.set(HttpHeaderNames.CONTENT_RANGE, ranges.getContentRange(0));
+    }
+    headers.set(HttpHeaderConstants.CONTENT_LENGTH, Long.toString(ranges.getContentLength()));
+    response.sendFile(file, ranges);
+  }
+
+  private static void sendCachedFile(Context context, Path file, BasicFileAttributes attributes, FileContentCache contentCache, @Nullable String ifNoneMatch) {
+    Response response = context.getResponse();
+    FileContentCache.Entry entry = contentCache.get(file, attributes);
+    String etag = entry == null ? FileContentCache.etag(attributes) : entry.getEtag();
+    response.getHeaders().set(HttpHeaderNames.ETAG, etag);
+    if (ifNoneMatch != null && matches(ifNoneMatch, etag)) {
+      response.status(NOT_MODIFIED.code()).send();
+      return;
+    }
+
+    ByteBuf content = entry == null ? null : entry.retainedContent();
+    if (content == null) {
+      String contentType = context.get(MimeTypes.class).getContentType(file.getFileName().toString());
+      response.contentTypeIfNotSet(contentType);
+      contentCache.load(file, attributes, contentType, context.get(ByteBufAllocator.class)).then(response::send);
+    } else {
+      response.contentTypeIfNotSet(entry.getContentType());
+      response.send(content);
+    }
+  }
+
+  private static boolean matches(String ifNoneMatch, String etag) {
+    for (String candidate : ifNoneMatch.split(",")) {
+      candidate = candidate.trim();
+      if (candidate.startsWith("W/")) {
+        candidate = candidate.substring(2);
+      }
+      if (candidate.equals(etag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   private static Factory<BasicFileAttributes> getter(Path file) {
     return () -> {
       if (Files.exists(file)) {
@@ -22,6 +22,7 @@ import org.reactivestreams.Subscription;
 import ratpack.exec.Downstream;
 import ratpack.exec.Promise;
 
+import java.nio.ByteBuffer;
 import java.nio.channels.AsynchronousFileChannel;
 import java.nio.channels.CompletionHandler;
 
@@ -64,21 +65,7 @@ public class FileWritingSubscriber implements Subscriber<ByteBuf> {
       return;
     }
 
-    Promise.<Integer>async(down ->
-      out.write(byteBuf.nioBuffer(), position, null, new CompletionHandler<Integer, Void>() {
-        @Override
-        public void completed(Integer result, Void attachment) {
-          byteBuf.release();
-          down.success(result);
-        }
-
-        @Override
-        public void failed(Throwable exc, Void attachment) {
-          byteBuf.release();
-          down.error(exc);
-        }
-      })
-    )
+    Promise.<Integer>async(down -> write(byteBuf, byteBuf.nioBuffer(), position, down))
       .onError(e -> {
         cancelled = true;
         s.cancel();
@@ -90,6 +77,28 @@ public class FileWritingSubscriber implements Subscriber<ByteBuf> {
       });
   }
 
+  // Asynchronous writes may be partial, so writes until the buffer has been written
+  private void write(ByteBuf byteBuf, ByteBuffer buffer, long at, Downstream<? super Integer> down) {
+    out.write(buffer, at, null, new CompletionHandler<Integer, Void>() {
+      @Override
+      public void completed(Integer result, Void attachment) {
+        if (buffer.hasRemaining()) {
+          write(byteBuf, buffer, at + result, down);
+        } else {
+          int written = byteBuf.readableBytes();
+          byteBuf.release();
+          down.success(written);
+        }
+      }
+
+      @Override
+      public void failed(Throwable exc, Void attachment) {
+        byteBuf.release();
+        down.error(exc);
+      }
+    });
+  }
+
   @Override
   public void onError(Throwable t) {
     if (!cancelled) {
@@ -30,6 +30,8 @@ public interface ResponseTransmitter {
 
   void transmit(HttpResponseStatus status, Path file);
 
+  void transmit(HttpResponseStatus status, Path file, ByteRanges ranges);
+
   Subscriber<ByteBuf> transmitter(HttpResponseStatus status);
 
   void addOutcomeListener(Action<? super RequestOutcome> action);
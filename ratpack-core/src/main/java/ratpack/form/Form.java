@@ -17,7 +17,10 @@
 package ratpack.form;
 
 import ratpack.api.Nullable;
+import ratpack.exec.Promise;
 import ratpack.form.internal.DefaultFormParseOpts;
+import ratpack.form.internal.StreamingFormDecoder;
+import ratpack.handling.Context;
 import ratpack.parse.Parse;
 import ratpack.util.MultiValueMap;
 
@@ -105,4 +108,77 @@ public interface Form extends MultiValueMap<String, String> {
     return Parse.of(Form.class, new DefaultFormParseOpts(includeQueryParams));
   }
 
+  /**
+   * Parses the request body into a form as it is received, without first reading the whole body into memory.
+   * <p>
+   * Uses {@link ratpack.http.Request#getMaxContentLength()} as the max content length.
+   *
+   * @param context the context of the request
+   * @param maxInMemorySize the size in bytes above which uploaded files are written to temporary files
+   * @return a promise for the form
+   * @see #stream(Context, long, long)
+   * @since 1.10
+   */
+  static Promise<Form> stream(Context context, long maxInMemorySize) {
+    return stream(context, context.getRequest().getMaxContentLength(), maxInMemorySize);
+  }
+
+  /**
+   * Parses the request body into a form as it is received, without first reading the whole body into memory.
+   * <p>
+   * When a form is {@link ratpack.handling.Context#parse parsed}, the whole request body is read into memory before it is decoded.
+   * This method instead decodes the body as it is received.
+   * Uploaded files larger than {@code maxInMemorySize} bytes are written to {@link UploadedFile#getTempFile() temporary files}
+   * as they are received, so that the memory used to receive large uploads is independent of their size.
+   * Form fields are kept in memory.
+   * <p>
+   * Temporary files are deleted when the request completes.
+   *
+   * <pre class="java">{@code
+   * import ratpack.form.Form;
+   * import ratpack.form.UploadedFile;
+   * import ratpack.test.embed.EmbeddedApp;
+   *
+   * import static org.junit.Assert.assertEquals;
+   *
+   * public class Example {
+   *   public static void main(String... args) throws Exception {
+   *     EmbeddedApp.fromHandler(ctx ->
+   *       Form.stream(ctx, 1024).then(form -> {
+   *         UploadedFile file = form.file("file");
+   *         ctx.render(form.get("name") + ": " + file.getTempFile().isPresent() + " " + file.getBytes().length);
+   *       })
+   *     ).test(httpClient -> {
+   *       String content = new String(new char[4096]).replace('\0', 'a');
+   *       String response = httpClient.request(r -> r
+   *         .method("POST")
+   *         .body(b -> b
+   *           .type("multipart/form-data; boundary=xyz")
+   *           .text("--xyz\r\n"
+   *             + "Content-Disposition: form-data; name=\"name\"\r\n\r\n"
+   *             + "upload\r\n"
+   *             + "--xyz\r\n"
+   *             + "Content-Disposition: form-data; name=\"file\"; filename=\"file.txt\"\r\n"
+   *             + "Content-Type: text/plain\r\n\r\n"
+   *             + content + "\r\n"
+   *             + "--xyz--\r\n"
+   *           )
+   *         )
+   *       ).getBody().getText();
+   *       assertEquals("upload: true 4096", response);
+   *     });
+   *   }
+   * }
+   * }</pre>
+   *
+   * @param context the context of the request
+   * @param maxContentLength the maximum size of the request body in bytes
+   * @param maxInMemorySize the size in bytes above which uploaded files are written to temporary files
+   * @return a promise for the form
+   * @since 1.10
+   */
+  static Promise<Form> stream(Context context, long maxContentLength, long maxInMemorySize) {
+    return StreamingFormDecoder.decode(context, maxContentLength, maxInMemorySize);
+  }
+
 }
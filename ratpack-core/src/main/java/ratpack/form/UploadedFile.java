@@ -16,8 +16,17 @@
 
 package ratpack.form;
 
+import io.netty.buffer.ByteBuf;
 import ratpack.api.Nullable;
+import ratpack.exec.Promise;
+import ratpack.handling.Context;
 import ratpack.http.TypedData;
+import ratpack.stream.Streams;
+import ratpack.stream.TransformablePublisher;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Optional;
 
 /**
  * A file that was uploaded via a form.
@@ -34,4 +43,30 @@ public interface UploadedFile extends TypedData {
   @Nullable
   String getFileName();
 
+  /**
+   * The temporary file that the content of the uploaded file was written to, if it was too large to keep in memory.
+   * <p>
+   * Uploaded files are only written to temporary files when the form is parsed with {@link Form#stream(Context, long)}.
+   * The temporary file is deleted when the request completes, so must be moved elsewhere if it is to be kept.
+   * Note that the methods of this object that provide the content in memory will block while reading the temporary file.
+   *
+   * @return the temporary file containing the content of the uploaded file, if any
+   * @since 1.10
+   */
+  default Optional<Path> getTempFile() {
+    return Optional.empty();
+  }
+
+  /**
+   * Streams the content of the uploaded file.
+   * <p>
+   * If the content was written to a {@link #getTempFile() temporary file}, it is read in chunks without blocking.
+   *
+   * @return a publisher of the content of the uploaded file
+   * @since 1.10
+   */
+  default TransformablePublisher<ByteBuf> getContentStream() {
+    return Streams.publish(Promise.sync(() -> Collections.singletonList(getBuffer().retainedSlice())));
+  }
+
 }
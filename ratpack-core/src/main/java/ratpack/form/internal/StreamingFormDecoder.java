@@ -0,0 +1,174 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.form.internal;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.handler.codec.http.*;
+import io.netty.handler.codec.http.multipart.*;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import ratpack.exec.Blocking;
+import ratpack.exec.Downstream;
+import ratpack.exec.Promise;
+import ratpack.form.Form;
+import ratpack.form.UploadedFile;
+import ratpack.handling.Context;
+import ratpack.http.MediaType;
+import ratpack.http.Request;
+import ratpack.http.internal.ByteBufBackedTypedData;
+import ratpack.http.internal.DefaultMediaType;
+import ratpack.util.internal.ImmutableDelegatingMultiValueMap;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decodes a form as the request body is received, writing large uploaded files to temporary files.
+ * <p>
+ * Each chunk of the body is decoded on a blocking thread, as decoding may write to disk.
+ * The decoder, and the temporary files, are released when the request completes.
+ */
+public class StreamingFormDecoder {
+
+  private final HttpPostRequestDecoder decoder;
+  private final ByteBufAllocator allocator;
+  private final Map<String, List<String>> attributes = new LinkedHashMap<>();
+  private final Map<String, List<UploadedFile>> files = new LinkedHashMap<>();
+
+  private StreamingFormDecoder(Context context, long maxInMemorySize) {
+    Request request = context.getRequest();
+    HttpMethod method = HttpMethod.valueOf(request.getMethod().getName());
+    HttpRequest nettyRequest = new DefaultHttpRequest(HttpVersion.HTTP_1_1, method, request.getUri());
+    nettyRequest.headers().add(HttpHeaderNames.CONTENT_TYPE, request.getContentType().toString());
+
+    DefaultHttpDataFactory dataFactory = new DefaultHttpDataFactory(maxInMemorySize);
+    // Temporary files are deleted when the request completes, so need not be tracked for the lifetime of the JVM
+    dataFactory.setDeleteOnExit(false);
+    this.decoder = new HttpPostRequestDecoder(dataFactory, nettyRequest);
+    // Discard decoded bytes as soon as possible, so that memory use is bounded by the chunk size
+    this.decoder.setDiscardThreshold(0);
+    this.allocator = context.get(ByteBufAllocator.class);
+    context.onClose(outcome -> decoder.destroy());
+  }
+
+  public static Promise<Form> decode(Context context, long maxContentLength, long maxInMemorySize) {
+    StreamingFormDecoder formDecoder = new StreamingFormDecoder(context, maxInMemorySize);
+    Publisher<? extends ByteBuf> body = context.getRequest().getBodyStream(maxContentLength);
+    return Promise.<Void>async(down -> body.subscribe(formDecoder.new Offering(down)))
+      .flatMap(v -> Blocking.get(formDecoder::complete));
+  }
+
+  private void offer(ByteBuf chunk) throws IOException {
+    try {
+      decoder.offer(new DefaultHttpContent(chunk));
+    } finally {
+      chunk.release();
+    }
+    drain();
+  }
+
+  /**
+   * Offers each chunk to the decoder on a blocking thread, requesting the next chunk once it has been decoded.
+   */
+  private final class Offering implements Subscriber<ByteBuf> {
+
+    private final Downstream<? super Void> downstream;
+    private Subscription subscription;
+
+    private Offering(Downstream<? super Void> downstream) {
+      this.downstream = downstream;
+    }
+
+    @Override
+    public void onSubscribe(Subscription subscription) {
+      this.subscription = subscription;
+      subscription.request(1);
+    }
+
+    @Override
+    public void onNext(ByteBuf chunk) {
+      Blocking.op(() -> offer(chunk))
+        .onError(e -> {
+          subscription.cancel();
+          downstream.error(e);
+        })
+        .then(() -> subscription.request(1));
+    }
+
+    @Override
+    public void onError(Throwable t) {
+      downstream.error(t);
+    }
+
+    @Override
+    public void onComplete() {
+      downstream.success(null);
+    }
+  }
+
+  private Form complete() throws IOException {
+    decoder.offer(LastHttpContent.EMPTY_LAST_CONTENT);
+    drain();
+    return new DefaultForm(new ImmutableDelegatingMultiValueMap<>(attributes), new ImmutableDelegatingMultiValueMap<>(files));
+  }
+
+  private void drain() throws IOException {
+    try {
+      while (decoder.hasNext()) {
+        InterfaceHttpData data = decoder.next();
+        if (data.getHttpDataType().equals(InterfaceHttpData.HttpDataType.Attribute)) {
+          attributes.computeIfAbsent(data.getName(), k -> new ArrayList<>(1)).add(((Attribute) data).getValue());
+        } else if (data.getHttpDataType().equals(InterfaceHttpData.HttpDataType.FileUpload)) {
+          files.computeIfAbsent(data.getName(), k -> new ArrayList<>(1)).add(toUploadedFile((FileUpload) data));
+        }
+      }
+    } catch (HttpPostRequestDecoder.EndOfDataDecoderException ignore) {
+      // no more data
+    }
+  }
+
+  private UploadedFile toUploadedFile(FileUpload upload) throws IOException {
+    MediaType contentType = contentType(upload);
+    if (upload.isInMemory()) {
+      // Released by the decoder when the request completes
+      return new DefaultUploadedFile(new ByteBufBackedTypedData(upload.getByteBuf(), contentType), upload.getFilename());
+    } else {
+      return new TempFileUploadedFile(upload.getFile().toPath(), contentType, upload.getFilename(), allocator);
+    }
+  }
+
+  private static MediaType contentType(FileUpload upload) {
+    String rawContentType = upload.getContentType();
+    if (rawContentType == null) {
+      return null;
+    } else {
+      Charset charset = upload.getCharset();
+      if (charset == null) {
+        return DefaultMediaType.get(rawContentType);
+      } else {
+        return DefaultMediaType.get(rawContentType + ";charset=" + charset);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.form.internal;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.util.CharsetUtil;
+import ratpack.file.FileIo;
+import ratpack.form.UploadedFile;
+import ratpack.http.MediaType;
+import ratpack.stream.TransformablePublisher;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static ratpack.util.Exceptions.uncheck;
+
+/**
+ * An uploaded file whose content was written to a temporary file, as it was too large to keep in memory.
+ * <p>
+ * The methods that provide the content in memory read the whole file, and block.
+ */
+public class TempFileUploadedFile implements UploadedFile {
+
+  private static final int STREAM_BUFFER_SIZE = 8192;
+
+  private final Path file;
+  private final MediaType contentType;
+  private final String fileName;
+  private final ByteBufAllocator allocator;
+
+  public TempFileUploadedFile(Path file, MediaType contentType, String fileName, ByteBufAllocator allocator) {
+    this.file = file;
+    this.contentType = contentType;
+    this.fileName = fileName;
+    this.allocator = allocator;
+  }
+
+  @Override
+  public MediaType getContentType() {
+    return contentType;
+  }
+
+  @Override
+  public String getFileName() {
+    return fileName;
+  }
+
+  @Override
+  public Optional<Path> getTempFile() {
+    return Optional.of(file);
+  }
+
+  @Override
+  public TransformablePublisher<ByteBuf> getContentStream() {
+    return FileIo.readStream(FileIo.open(file), allocator, STREAM_BUFFER_SIZE);
+  }
+
+  @Override
+  public String getText() {
+    return getText(CharsetUtil.UTF_8);
+  }
+
+  @Override
+  public String getText(Charset charset) {
+    Charset effectiveCharset = contentType == null ? charset : Charset.forName(contentType.getCharset(charset.name()));
+    return new String(getBytes(), effectiveCharset);
+  }
+
+  @Override
+  public byte[] getBytes() {
+    return uncheck(() -> Files.readAllBytes(file));
+  }
+
+  @Override
+  public ByteBuf getBuffer() {
+    return Unpooled.wrappedBuffer(getBytes()).asReadOnly();
+  }
+
+  @Override
+  public void writeTo(OutputStream outputStream) throws IOException {
+    Files.copy(file, outputStream);
+  }
+
+  @Override
+  public InputStream getInputStream() {
+    return uncheck(() -> Files.newInputStream(file));
+  }
+
+}
@@ -560,6 +560,48 @@ public interface Chain {
     return insert(getRegistry().get(action));
   }
 
+  /**
+   * Limits the size of the request body for the subsequent handlers of this chain.
+   * <p>
+   * The handler to add is created via {@link Handlers#maxContentLength(long)}.
+   * Requests that advertise a larger body are rejected with a 413 client error, before any of the body is received.
+   * <p>
+   * The limit applies to all requests that reach it,
+   * so is typically used within a {@link #prefix(String, Action) prefix} or {@link #path(String, Handler) path} to limit specific routes.
+   *
+   * <pre class="java">{@code
+   * import ratpack.http.client.ReceivedResponse;
+   * import ratpack.test.embed.EmbeddedApp;
+   *
+   * import static org.junit.Assert.assertEquals;
+   *
+   * public class Example {
+   *   public static void main(String... args) throws Exception {
+   *     EmbeddedApp.fromHandlers(c -> c
+   *       .prefix("avatar", a -> a
+   *         .maxContentLength(16)
+   *         .post(ctx -> ctx.getRequest().getBody().then(body -> ctx.render("received " + body.getBytes().length)))
+   *       )
+   *     ).test(http -> {
+   *       ReceivedResponse small = http.request("avatar", r -> r.post().getBody().text("small"));
+   *       assertEquals("received 5", small.getBody().getText());
+   *
+   *       ReceivedResponse large = http.request("avatar", r -> r.post().getBody().text("much too large for an avatar"));
+   *       assertEquals(413, large.getStatusCode());
+   *     });
+   *   }
+   * }
+   * }</pre>
+   *
+   * @param maxContentLength the maximum number of bytes allowed for the request body
+   * @return this
+   * @see Handlers#maxContentLength(long)
+   * @since 1.10
+   */
+  default Chain maxContentLength(long maxContentLength) {
+    return all(Handlers.maxContentLength(maxContentLength));
+  }
+
   /**
    * Adds a handler that delegates to the given handler if
    * the relative {@code path} matches the given {@code path} and the {@code request} {@code HTTPMethod}
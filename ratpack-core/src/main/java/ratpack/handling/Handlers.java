@@ -85,7 +85,7 @@ public abstract class Handlers {
    * @throws Exception any thrown by {@code action}
    */
   public static Handler chain(@Nullable ServerConfig serverConfig, @Nullable Registry registry, Action<? super Chain> action) throws Exception {
-    return ChainBuilders.build(new ChainActionTransformer(serverConfig, registry), action);
+    return ChainBuilders.build(serverConfig, new ChainActionTransformer(serverConfig, registry), action);
   }
 
   /**
@@ -184,6 +184,27 @@ public abstract class Handlers {
     return MethodHandler.GET;
   }
 
+  /**
+   * A handler that limits the size of the request body for subsequent handlers.
+   * <p>
+   * If the request advertises a {@code Content-Length} greater than {@code maxContentLength}, a 413 client error is raised immediately.
+   * As the body has not been read, a client that sent {@code Expect: 100-continue} is not told to continue,
+   * and the connection is closed after the response instead of the body being received.
+   * <p>
+   * Otherwise, the request's {@link ratpack.http.Request#setMaxContentLength(long) max content length} is set to {@code maxContentLength},
+   * which applies when the body is read by subsequent handlers, including when the length of the body is not advertised,
+   * and the request is delegated to the next handler.
+   * <p>
+   * The limit may be smaller or larger than the server's {@link ratpack.server.ServerConfig#getMaxContentLength() max content length}.
+   *
+   * @param maxContentLength the maximum number of bytes allowed for the request body
+   * @return A handler
+   * @since 1.10
+   */
+  public static Handler maxContentLength(long maxContentLength) {
+    return new MaxContentLengthHandler(maxContentLength);
+  }
+
   /**
    * A handler that simply delegates to the next handler.
    * <p>
@@ -17,19 +17,29 @@
 package ratpack.handling.internal;
 
 import com.google.common.collect.Lists;
+import ratpack.api.Nullable;
 import ratpack.func.Action;
 import ratpack.func.Function;
 import ratpack.handling.Handler;
 import ratpack.handling.Handlers;
+import ratpack.path.internal.PathRouter;
+import ratpack.server.ServerConfig;
 
 import java.util.List;
 
 public class ChainBuilders {
 
   public static <T> Handler build(final Function<List<Handler>, ? extends T> toChainBuilder, final Action<? super T> chainBuilderAction) throws Exception {
+    return build(null, toChainBuilder, chainBuilderAction);
+  }
+
+  public static <T> Handler build(@Nullable ServerConfig serverConfig, final Function<List<Handler>, ? extends T> toChainBuilder, final Action<? super T> chainBuilderAction) throws Exception {
     List<Handler> handlers = Lists.newLinkedList();
     T chainBuilder = toChainBuilder.apply(handlers);
     chainBuilderAction.execute(chainBuilder);
+    if (serverConfig != null && serverConfig.isCompiledRouting()) {
+      handlers = PathRouter.compile(handlers);
+    }
     return Handlers.chain(handlers.toArray(new Handler[handlers.size()]));
   }
 
@@ -395,7 +395,7 @@ public class DefaultContext implements Context {
     private final Channel channel;
     private final ResponseTransmitter responseTransmitter;
     private final Action<Action<Object>> onTakeOwnership;
-    private final Deque<ChainIndex> indexes = new ArrayDeque<>();
+    private final Deque<ChainIndex> indexes = new ArrayDeque<>(4);
     public Response response;
     public Context context;
     public Handler handler;
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.handling.internal;
+
+import io.netty.handler.codec.http.HttpResponseStatus;
+import ratpack.handling.Context;
+import ratpack.handling.Handler;
+import ratpack.http.Request;
+
+public class MaxContentLengthHandler implements Handler {
+
+  private final long maxContentLength;
+
+  public MaxContentLengthHandler(long maxContentLength) {
+    if (maxContentLength < 1) {
+      throw new IllegalArgumentException("maxContentLength must be > 0");
+    }
+    this.maxContentLength = maxContentLength;
+  }
+
+  @Override
+  public void handle(Context context) {
+    Request request = context.getRequest();
+    request.setMaxContentLength(maxContentLength);
+    // The body is not read, so no 100 Continue is sent, and the connection is closed instead of draining the body
+    if (request.getContentLength() > maxContentLength) {
+      context.clientError(HttpResponseStatus.REQUEST_ENTITY_TOO_LARGE.code());
+    } else {
+      context.next();
+    }
+  }
+
+}
@@ -33,6 +33,7 @@ import ratpack.stream.TransformablePublisher;
 import ratpack.util.MultiValueMap;
 import ratpack.util.Types;
 
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Optional;
@@ -328,6 +329,67 @@ public interface Request extends MutableRegistry {
    */
   TransformablePublisher<? extends ByteBuf> getBodyStream(long maxContentLength);
 
+  /**
+   * Writes the body to the given file, as it is received.
+   * <p>
+   * Similar to {@link #getBodyTo(Path, long)}, except uses {@link ServerConfig#getMaxContentLength()} as the max content length.
+   *
+   * @param file the file to write the body to
+   * @return a promise for the written body
+   * @see #getBodyTo(Path, long)
+   * @since 1.10
+   */
+  Promise<WrittenBody> getBodyTo(Path file);
+
+  /**
+   * Writes the body to the given file, as it is received.
+   * <p>
+   * The body is {@link #getBodyStream(long) streamed} to the file, without being aggregated in memory.
+   * Each part of the body is written before the next is read from the connection,
+   * so that a client sending faster than the disk can write is slowed down, instead of the body being buffered.
+   * The file is written using asynchronous IO on the blocking executor, so that the event loop is not blocked by the disk.
+   * <p>
+   * The file is created if it does not exist, and truncated if it does.
+   * If the body cannot be written, including when it is larger than the given {@code maxContentLength}, the file is deleted and the promise fails.
+   * <p>
+   * The returned promise provides the number of bytes written, and their {@link WrittenBody#getCrc32() checksum}.
+   *
+   * <pre class="java">{@code
+   * import ratpack.test.embed.EmbeddedApp;
+   * import ratpack.test.embed.EphemeralBaseDir;
+   *
+   * import java.nio.charset.StandardCharsets;
+   * import java.nio.file.Files;
+   * import java.nio.file.Path;
+   *
+   * import static org.junit.Assert.assertEquals;
+   *
+   * public class Example {
+   *   public static void main(String[] args) throws Exception {
+   *     EphemeralBaseDir.tmpDir().use(dir -> {
+   *       Path file = dir.path("upload.txt");
+   *
+   *       EmbeddedApp.fromHandler(ctx ->
+   *         ctx.getRequest().getBodyTo(file, 1024).then(body ->
+   *           ctx.render("wrote " + body.getLength() + " bytes")
+   *         )
+   *       ).test(http -> {
+   *         String response = http.request(spec -> spec.method("PUT").getBody().text("hello")).getBody().getText();
+   *         assertEquals("wrote 5 bytes", response);
+   *         assertEquals("hello", new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+   *       });
+   *     });
+   *   }
+   * }
+   * }</pre>
+   *
+   * @param file the file to write the body to
+   * @param maxContentLength the maximum number of bytes allowed for the request
+   * @return a promise for the written body
+   * @since 1.10
+   */
+  Promise<WrittenBody> getBodyTo(Path file, long maxContentLength);
+
   /**
    * The request headers.
    *
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.http;
+
+import java.nio.file.Path;
+
+/**
+ * A request body that has been written to a file.
+ *
+ * @see Request#getBodyTo(Path)
+ * @since 1.10
+ */
+public interface WrittenBody {
+
+  /**
+   * The file that the body was written to.
+   *
+   * @return the file that the body was written to
+   */
+  Path getFile();
+
+  /**
+   * The number of bytes written.
+   *
+   * @return the number of bytes written
+   */
+  long getLength();
+
+  /**
+   * The CRC-32 checksum of the bytes written, as per {@link java.util.zip.CRC32}.
+   * <p>
+   * The checksum is calculated as the body is written, and can be used to verify the integrity of the upload,
+   * without reading the file again.
+   *
+   * @return the CRC-32 checksum of the bytes written
+   */
+  long getCrc32();
+
+}
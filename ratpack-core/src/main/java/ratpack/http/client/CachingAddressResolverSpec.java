@@ -0,0 +1,94 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.http.client;
+
+import io.netty.resolver.dns.DnsNameResolverBuilder;
+import ratpack.func.Action;
+
+import java.time.Duration;
+
+/**
+ * A specification of a caching, asynchronous DNS resolver for an {@link HttpClient}.
+ * <p>
+ * The resolver is based on Netty's non blocking DNS resolver.
+ * A single cache of resolved addresses is shared by all of the event loops of the client,
+ * and concurrent lookups of the same host name are coalesced into a single query,
+ * so that establishing many connections to the same host does not result in many queries.
+ * <p>
+ * Failed lookups are also cached, for the {@link #negativeTtl(Duration) negative TTL},
+ * so that an unresolvable host name does not result in a query for each connection attempt.
+ *
+ * @see HttpClientSpec#cachingAddressResolver(Action)
+ * @since 1.10
+ */
+public interface CachingAddressResolverSpec {
+
+  /**
+   * The minimum time that a resolved address is cached for, regardless of the TTL of its record.
+   * <p>
+   * Defaults to {@link Duration#ZERO}.
+   *
+   * @param minTtl the minimum time that a resolved address is cached for
+   * @return {@code this}
+   */
+  CachingAddressResolverSpec minTtl(Duration minTtl);
+
+  /**
+   * The maximum time that a resolved address is cached for, regardless of the TTL of its record.
+   * <p>
+   * By default, the TTL of the record is used.
+   *
+   * @param maxTtl the maximum time that a resolved address is cached for
+   * @return {@code this}
+   */
+  CachingAddressResolverSpec maxTtl(Duration maxTtl);
+
+  /**
+   * The time that a failure to resolve a host name is cached for.
+   * <p>
+   * A zero duration disables caching of failures.
+   * Defaults to 5 seconds.
+   *
+   * @param negativeTtl the time that a failure to resolve a host name is cached for
+   * @return {@code this}
+   */
+  CachingAddressResolverSpec negativeTtl(Duration negativeTtl);
+
+  /**
+   * Whether to spread connections across all of the addresses of a host name.
+   * <p>
+   * If {@code true}, each connection is made to an address selected from all of the resolved addresses of the host.
+   * If {@code false}, connections are made to the first resolved address.
+   * <p>
+   * Defaults to {@code true}.
+   *
+   * @param roundRobin whether to spread connections across all of the addresses of a host name
+   * @return {@code this}
+   */
+  CachingAddressResolverSpec roundRobin(boolean roundRobin);
+
+  /**
+   * Further configures the underlying resolver, such as the name servers to query.
+   * <p>
+   * The cache of the resolver is managed by this specification, and cannot be replaced.
+   *
+   * @param resolver the configuration of the underlying resolver
+   * @return {@code this}
+   */
+  CachingAddressResolverSpec resolver(Action<? super DnsNameResolverBuilder> resolver);
+
+}
@@ -17,6 +17,7 @@
 package ratpack.http.client;
 
 import io.netty.buffer.ByteBufAllocator;
+import io.netty.handler.ssl.SslContext;
 import io.netty.resolver.AddressResolverGroup;
 import io.netty.resolver.DefaultAddressResolverGroup;
 import io.netty.resolver.dns.DnsNameResolverBuilder;
@@ -25,6 +26,7 @@ import ratpack.exec.Operation;
 import ratpack.func.Action;
 import ratpack.server.ServerConfig;
 
+import java.net.URI;
 import java.time.Duration;
 
 /**
@@ -103,6 +105,134 @@ public interface HttpClientSpec {
    */
   HttpClientSpec idleTimeout(Duration idleTimeout);
 
+  /**
+   * Whether to use HTTP/2 for requests to servers that support it.
+   * <p>
+   * Defaults to {@code false}.
+   * <p>
+   * When enabled, concurrent requests to a given protocol/host/port are sent as streams over shared HTTP/2 connections,
+   * instead of each in-flight request requiring its own connection.
+   * A new connection is only opened when the existing connections have reached the maximum number of concurrent streams allowed by the server,
+   * up to {@link #poolSize(int)} connections per event loop.
+   * Requests beyond this are queued, subject to {@link #poolQueueSize(int)}.
+   * <p>
+   * For {@code https} URIs, HTTP/2 is negotiated via ALPN during the TLS handshake.
+   * If the server does not select HTTP/2, HTTP/1.1 connection pooling is used for the host instead.
+   * If an SSL context is specified via {@link RequestSpec#sslContext(io.netty.handler.ssl.SslContext)}, it must be configured for ALPN for HTTP/2 to be negotiated.
+   * For {@code http} URIs, HTTP/2 is used with prior knowledge, which requires that the server supports cleartext HTTP/2.
+   * <p>
+   * The option is not applied if pool size is not set, or for requests that are sent via a {@link #proxy(Action) proxy}.
+   *
+   * @param http2 whether to use HTTP/2
+   * @return {@code this}
+   * @since 1.10
+   */
+  HttpClientSpec http2(boolean http2);
+
+  /**
+   * The minimum number of idle connections to keep open to a given protocol/host/port.
+   * <p>
+   * Defaults to 0.
+   * <p>
+   * Connections are opened in advance when the connection pool for a target is created, that is when the first request is made to it,
+   * and on each {@link #healthCheckInterval(Duration) health check} to replace connections that have been closed.
+   * This avoids requests waiting for connections to be established, including the TLS handshake for {@code https} targets.
+   * The number of connections to a target never exceeds {@link #poolSize(int)}.
+   * <p>
+   * The TLS handshake of a connection opened in advance uses the SSL context of the most recent request to the target,
+   * or the default client context if no request has been made.
+   * <p>
+   * The option is not applied if pool size is not set, or for targets that are connected to with {@link #http2(boolean) HTTP/2}.
+   *
+   * @param minIdleConnections the minimum number of idle connections per target
+   * @return {@code this}
+   * @since 1.10
+   */
+  HttpClientSpec minIdleConnections(int minIdleConnections);
+
+  /**
+   * How often the idle connections in the connection pool are checked.
+   * <p>
+   * Defaults to {@link Duration#ZERO}, which disables checking.
+   * <p>
+   * Each check discards the idle connections that have been closed, such as by the server or due to the {@link #idleTimeout(Duration) idle timeout},
+   * and opens new connections to restore the {@link #minIdleConnections(int) minimum number of idle connections}.
+   * Checks are made on the event loop of each target's connection pool.
+   * <p>
+   * The option is not applied if pool size is not set, or for targets that are connected to with {@link #http2(boolean) HTTP/2}.
+   *
+   * @param healthCheckInterval how often the idle connections are checked
+   * @return {@code this}
+   * @since 1.10
+   */
+  HttpClientSpec healthCheckInterval(Duration healthCheckInterval);
+
+  /**
+   * Opens connections to the protocol/host/port of the given URI when the client is built.
+   * <p>
+   * The {@link #minIdleConnections(int) minimum number of idle connections}, or one connection if not set, is opened asynchronously,
+   * so that the first requests to the target do not wait for connections to be established.
+   * Failures to connect are ignored.
+   * <p>
+   * This function is additive.
+   * It requires that pooling is enabled via {@link #poolSize(int)},
+   * and that the client is built on a managed thread or that an {@link #execController(ExecController) exec controller} is specified.
+   * <p>
+   * Connections to HTTPS targets are made with a default {@link SslContext}, as no request has specified one yet.
+   * If requests to the target will use a {@link RequestSpec#sslContext(SslContext) different context}, use {@link #prewarm(URI, SslContext)},
+   * otherwise the prewarmed connections will use a context other than the one the requests ask for.
+   *
+   * @param target a URI of the target to connect to
+   * @return {@code this}
+   * @since 1.10
+   */
+  HttpClientSpec prewarm(URI target);
+
+  /**
+   * Opens connections to the protocol/host/port of the given URI when the client is built, using the given SSL context.
+   * <p>
+   * This is the same as {@link #prewarm(URI)}, except that connections to HTTPS targets are made with the given context,
+   * which should be the same as the {@link RequestSpec#sslContext(SslContext) context} used by requests to the target.
+   *
+   * @param target a URI of the target to connect to
+   * @param sslContext the SSL context to connect to the target with
+   * @return {@code this}
+   * @since 1.10
+   */
+  HttpClientSpec prewarm(URI target, SslContext sslContext);
+
+  /**
+   * Limits the number of {@link RequestSpec#retry(ratpack.func.Factory) retries} and {@link RequestSpec#hedge(Duration) hedged requests} to a ratio of the requests made.
+   * <p>
+   * Defaults to a ratio of {@code 0.1} and a burst of {@code 10}.
+   * <p>
+   * Each request adds the ratio to the budget, and each retry or backup request takes one from it.
+   * When the budget is exhausted, failed requests are not retried and backup requests are not sent.
+   * The budget is capped at, and starts at, the burst size, which allows occasional retries of infrequent requests.
+   * This prevents retries from multiplying the load on a server that is failing due to being overloaded,
+   * as at most the given ratio of additional requests are made once the burst has been used.
+   * <p>
+   * The budget is shared by all requests made by the client, regardless of their target.
+   *
+   * @param ratio the number of retries allowed per request, such as {@code 0.1} to allow one retry for every ten requests
+   * @param burst the number of retries that can be made in excess of the ratio
+   * @return {@code this}
+   * @since 1.10
+   */
+  HttpClientSpec retryBudget(double ratio, int burst);
+
+  /**
+   * Enables caching of responses, according to the caching directives of the server.
+   * <p>
+   * Responses are not cached by default.
+   * See {@link ResponseCacheSpec} for details.
+   *
+   * @param cache the configuration of the cache
+   * @return {@code this}
+   * @since 1.10
+   */
+  HttpClientSpec responseCache(Action<? super ResponseCacheSpec> cache);
+
   /**
    * The maximum size to allow for responses.
    * <p>
@@ -230,6 +360,19 @@ public interface HttpClientSpec {
    */
   HttpClientSpec addressResolver(Action<? super DnsNameResolverBuilder> resolver);
 
+  /**
+   * Specifies that a caching, asynchronous DNS resolver should be used.
+   * <p>
+   * The default resolver caches each host name per event loop, and does not spread connections across the addresses of a host.
+   * This resolver shares its cache across all event loops, caches failed lookups, and spreads connections across addresses.
+   * See {@link CachingAddressResolverSpec} for details.
+   *
+   * @param resolver the configuration of the resolver
+   * @return {@code this}
+   * @since 1.10
+   */
+  HttpClientSpec cachingAddressResolver(Action<? super CachingAddressResolverSpec> resolver);
+
   /**
    * Specifies that the JDK name resolver should be used.
    * <p>
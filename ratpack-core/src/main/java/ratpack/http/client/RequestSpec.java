@@ -20,6 +20,7 @@ import io.netty.buffer.ByteBuf;
 import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.ssl.SslContext;
 import io.netty.handler.ssl.SslContextBuilder;
+import ratpack.exec.util.retry.RetryPolicy;
 import ratpack.func.Action;
 import ratpack.func.Factory;
 import ratpack.func.Function;
@@ -354,6 +355,67 @@ public interface RequestSpec {
    */
   Duration getReadTimeout();
 
+  /**
+   * Sends a second, backup, request if no response has been received within the given delay, and uses whichever response is received first.
+   * <p>
+   * Hedging reduces tail latency when a small proportion of requests are slow, such as due to a slow server instance or a lost packet,
+   * at the cost of sending more requests.
+   * Once either request receives a response, the other is abandoned, and its connection closed.
+   * If one request fails, the response of the other is used.
+   * <p>
+   * Backup requests count against the client's {@link HttpClientSpec#retryBudget(double, int) retry budget},
+   * and are not sent if it has been exhausted.
+   * <p>
+   * Hedging only applies to requests made with {@link HttpClient#request(URI, Action)} and its variants, not to streamed requests.
+   * As the same request may be received by the server twice, it should only be used for idempotent requests.
+   *
+   * @param delay how long to wait for a response before sending the backup request
+   * @return {@code this}
+   * @see #hedge(double, Duration)
+   * @since 1.10
+   */
+  RequestSpec hedge(Duration delay);
+
+  /**
+   * Sends a second, backup, request if no response has been received within the given percentile of the recent response times of the host.
+   * <p>
+   * Behaves as {@link #hedge(Duration)}, using the total request time that the given percentage of requests to the host have completed within.
+   * For example, a percentile of {@code 95} sends a backup request for roughly the slowest 5% of requests.
+   * <p>
+   * The response times are only known if {@link HttpClientSpec#enableMetricsCollection(boolean) metrics collection} is enabled,
+   * and only once enough requests have been made to the host.
+   * Until then, the given default delay is used.
+   *
+   * @param percentile the percentile of response times to wait for, between 0 and 100
+   * @param defaultDelay the delay to use if the response times of the host are not known
+   * @return {@code this}
+   * @since 1.10
+   */
+  RequestSpec hedge(double percentile, Duration defaultDelay);
+
+  /**
+   * Retries the request according to the given policy if it fails.
+   * <p>
+   * The request is retried if it could not be sent or no response was received, such as due to a connection being refused or a timeout.
+   * Responses with error statuses are not retried.
+   * <p>
+   * Retries count against the client's {@link HttpClientSpec#retryBudget(double, int) retry budget},
+   * and the failure is propagated if it has been exhausted.
+   * This avoids retries multiplying the load on a server that is failing due to being overloaded.
+   * <p>
+   * The request configuration is applied again for each retry, except for the retry policy.
+   * Retrying only applies to requests made with {@link HttpClient#request(URI, Action)} and its variants, not to streamed requests.
+   * <p>
+   * Retry policies are stateful, as they count the attempts made.
+   * The given factory is called once for each request, when it is first attempted,
+   * so it <b>MUST</b> return a new policy each time it is called, not a shared instance.
+   *
+   * @param retryPolicy a factory of the policy that determines the number of retries, and the delay between them
+   * @return {@code this}
+   * @since 1.10
+   */
+  RequestSpec retry(Factory<? extends RetryPolicy> retryPolicy);
+
   /**
    * The body of the request, used for specifying the body content.
    *
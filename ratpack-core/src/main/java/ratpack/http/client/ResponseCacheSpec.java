@@ -0,0 +1,86 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ratpack.http.client;
+
+import ratpack.func.Action;
+
+/**
+ * A specification of the cache of responses of an {@link HttpClient}.
+ * <p>
+ * The cache is an in memory, shared cache of responses, that follows the caching directives of the server.
+ * Only responses to {@code GET} requests, with a status of {@code 200}, that the server allows to be cached are cached.
+ * That is, responses with a {@code Cache-Control} {@code max-age} or {@code s-maxage} directive or an {@code Expires} header,
+ * or with an {@code ETag} or {@code Last-Modified} validator,
+ * and without a {@code no-store} or {@code private} directive.
+ * Requests with an {@code Authorization} header, or a {@code no-store} directive, are not cached.
+ * <p>
+ * Responses are cached per request method, URI, and the values of the request headers named by the response's {@code Vary} header.
+ * While a response is fresh, requests for it are served from the cache without making a request to the server.
+ * Once stale, a response is revalidated with a conditional request using its validators,
+ * and the cached response is used if the server responds with {@code 304} (not modified).
+ * If the response has a {@code stale-while-revalidate} directive, the stale response is used during that period
+ * while it is revalidated in the background.
+ * <p>
+ * Concurrent requests for a response that is not cached, or that is being revalidated, result in a single request to the server.
+ * The requests waiting for it use the response if it can be cached, or make their own requests to the server if not.
+ * <p>
+ * The cache only applies to requests made with {@link HttpClient#request(java.net.URI, Action)} and its variants, not to streamed requests.
+ * Cached responses are served with an {@code Age} header, and the client's response interceptors are applied to them.
+ *
+ * @see HttpClientSpec#responseCache(Action)
+ * @since 1.10
+ */
+public interface ResponseCacheSpec {
+
+  /**
+   * The maximum total size of the bodies of the cached responses, in bytes.
+   * <p>
+   * Defaults to 10 MiB.
+   * The least recently used responses are evicted when the cache exceeds this size.
+   *
+   * @param maxSize the maximum size of the cache in bytes
+   * @return {@code this}
+   */
+  ResponseCacheSpec maxSize(long maxSize);
+
+  /**
+   * The maximum size of the body of a response that is cached, in bytes.
+   * <p>
+   * Defaults to 1 MiB.
+   * Larger responses are not cached.
+   *
+   * @param maxEntrySize the maximum size of a cached response body in bytes
+   * @return {@code this}
+   */
+  ResponseCacheSpec maxEntrySize(int maxEntrySize);
+
+  /**
+   * Whether to store the bodies of cached responses off heap.
+   * <p>
+   * Defaults to {@code false}.
+   * <p>
+   * If {@code true}, bodies are stored in direct buffers of the client's {@link HttpClientSpec#byteBufAllocator(io.netty.buffer.ByteBufAllocator) allocator},
+   * which reduces the size of the heap and the work of the garbage collector for large caches.
+   * If {@code false}, bodies are stored in heap buffers.
+   *
+   * @param offHeap whether to store the bodies of cached responses off heap
+   * @return {@code this}
+   */
+  ResponseCacheSpec offHeap(boolean offHeap);
+
+}
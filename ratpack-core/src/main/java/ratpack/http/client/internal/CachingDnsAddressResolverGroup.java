@@ -0,0 +1,58 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.http.client.internal;
+
+import io.netty.channel.EventLoop;
+import io.netty.resolver.AddressResolver;
+import io.netty.resolver.NameResolver;
+import io.netty.resolver.RoundRobinInetAddressResolver;
+import io.netty.resolver.dns.DnsAddressResolverGroup;
+import io.netty.resolver.dns.DnsNameResolverBuilder;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+
+/**
+ * A DNS resolver group whose resolvers share a single, counting cache.
+ * <p>
+ * Concurrent lookups of the same host name, from any event loop, are coalesced by the group.
+ */
+public class CachingDnsAddressResolverGroup extends DnsAddressResolverGroup {
+
+  private final CountingDnsCache cache;
+  private final boolean roundRobin;
+
+  CachingDnsAddressResolverGroup(DnsNameResolverBuilder builder, CountingDnsCache cache, boolean roundRobin) {
+    super(builder.resolveCache(cache));
+    this.cache = cache;
+    this.roundRobin = roundRobin;
+  }
+
+  public DnsCacheStats getCacheStats() {
+    return cache.getStats();
+  }
+
+  @Override
+  protected AddressResolver<InetSocketAddress> newAddressResolver(EventLoop eventLoop, NameResolver<InetAddress> resolver) throws Exception {
+    if (roundRobin) {
+      return new RoundRobinInetAddressResolver(eventLoop, resolver).asAddressResolver();
+    } else {
+      return super.newAddressResolver(eventLoop, resolver);
+    }
+  }
+
+}
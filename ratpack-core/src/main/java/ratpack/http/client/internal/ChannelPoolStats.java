@@ -24,8 +24,16 @@ public interface ChannelPoolStats {
 
   int getIdleConnectionCount();
 
+  default long getWarmedConnectionCount() {
+    return 0;
+  }
+
+  default long getEvictedConnectionCount() {
+    return 0;
+  }
+
   default HostStats getHostStats() {
-    return new HostStats(getActiveConnectionCount(), getIdleConnectionCount());
+    return new HostStats(getActiveConnectionCount(), getIdleConnectionCount(), getWarmedConnectionCount(), getEvictedConnectionCount());
   }
 
 }
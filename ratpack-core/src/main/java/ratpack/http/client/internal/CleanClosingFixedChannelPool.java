@@ -20,11 +20,65 @@ import io.netty.bootstrap.Bootstrap;
 import io.netty.channel.Channel;
 import io.netty.channel.pool.ChannelPoolHandler;
 import io.netty.channel.pool.FixedChannelPool;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.Promise;
+import ratpack.api.Nullable;
 
+/**
+ * A fixed channel pool that closes its idle channels when closed, and that limits the acquisitions waiting for a channel itself.
+ * <p>
+ * The waiting acquisitions are limited by this pool, rather than by {@link FixedChannelPool}, so that rejections can be counted.
+ * Acquisitions are accounted for on the pool's executor, which is the event loop of its bootstrap.
+ */
 public class CleanClosingFixedChannelPool extends FixedChannelPool {
 
-  public CleanClosingFixedChannelPool(Bootstrap bootstrap, ChannelPoolHandler handler, int maxConnections, int maxPendingAcquires) {
-    super(bootstrap, handler, maxConnections, maxPendingAcquires);
+  private final EventExecutor executor;
+  private final int maxConnections;
+  private final int maxPendingAcquires;
+  @Nullable
+  private final HostLatencies latencies;
+
+  // Only accessed on the executor
+  private int pendingAcquires;
+
+  public CleanClosingFixedChannelPool(Bootstrap bootstrap, ChannelPoolHandler handler, int maxConnections, int maxPendingAcquires, @Nullable HostLatencies latencies) {
+    super(bootstrap, handler, maxConnections, Integer.MAX_VALUE);
+    this.executor = bootstrap.config().group().next();
+    this.maxConnections = maxConnections;
+    this.maxPendingAcquires = maxPendingAcquires;
+    this.latencies = latencies;
+  }
+
+  @Override
+  public Future<Channel> acquire(Promise<Channel> promise) {
+    if (executor.inEventLoop()) {
+      acquireOrReject(promise);
+    } else {
+      executor.execute(() -> acquireOrReject(promise));
+    }
+    return promise;
+  }
+
+  private void acquireOrReject(Promise<Channel> promise) {
+    if (acquiredChannelCount() >= maxConnections) {
+      if (pendingAcquires >= maxPendingAcquires) {
+        if (latencies != null) {
+          latencies.rejectedAcquire();
+        }
+        promise.setFailure(new IllegalStateException("Too many outstanding acquire operations"));
+        return;
+      }
+      ++pendingAcquires;
+      promise.addListener(future -> {
+        if (executor.inEventLoop()) {
+          --pendingAcquires;
+        } else {
+          executor.execute(() -> --pendingAcquires);
+        }
+      });
+    }
+    super.acquire(promise);
   }
 
   public void closeCleanly() {
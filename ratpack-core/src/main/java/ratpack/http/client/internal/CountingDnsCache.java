@@ -0,0 +1,79 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.http.client.internal;
+
+import io.netty.channel.EventLoop;
+import io.netty.handler.codec.dns.DnsRecord;
+import io.netty.resolver.dns.DnsCache;
+import io.netty.resolver.dns.DnsCacheEntry;
+
+import java.net.InetAddress;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A DNS cache that counts its hits and misses.
+ */
+final class CountingDnsCache implements DnsCache {
+
+  private final DnsCache delegate;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder negativeHits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  CountingDnsCache(DnsCache delegate) {
+    this.delegate = delegate;
+  }
+
+  DnsCacheStats getStats() {
+    return new DnsCacheStats(hits.sum(), negativeHits.sum(), misses.sum());
+  }
+
+  @Override
+  public List<? extends DnsCacheEntry> get(String hostname, DnsRecord[] additionals) {
+    List<? extends DnsCacheEntry> entries = delegate.get(hostname, additionals);
+    if (entries == null || entries.isEmpty()) {
+      misses.increment();
+    } else if (entries.get(0).cause() != null) {
+      negativeHits.increment();
+    } else {
+      hits.increment();
+    }
+    return entries;
+  }
+
+  @Override
+  public DnsCacheEntry cache(String hostname, DnsRecord[] additionals, InetAddress address, long originalTtl, EventLoop loop) {
+    return delegate.cache(hostname, additionals, address, originalTtl, loop);
+  }
+
+  @Override
+  public DnsCacheEntry cache(String hostname, DnsRecord[] additionals, Throwable cause, EventLoop loop) {
+    return delegate.cache(hostname, additionals, cause, loop);
+  }
+
+  @Override
+  public void clear() {
+    delegate.clear();
+  }
+
+  @Override
+  public boolean clear(String hostname) {
+    return delegate.clear(hostname);
+  }
+
+}
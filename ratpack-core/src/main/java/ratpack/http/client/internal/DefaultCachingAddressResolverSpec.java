@@ -0,0 +1,85 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.http.client.internal;
+
+import io.netty.resolver.dns.DefaultDnsCache;
+import io.netty.resolver.dns.DnsNameResolverBuilder;
+import ratpack.func.Action;
+import ratpack.http.client.CachingAddressResolverSpec;
+import ratpack.util.Exceptions;
+
+import java.time.Duration;
+
+public class DefaultCachingAddressResolverSpec implements CachingAddressResolverSpec {
+
+  private Duration minTtl = Duration.ZERO;
+  private Duration maxTtl = Duration.ofSeconds(Integer.MAX_VALUE);
+  private Duration negativeTtl = Duration.ofSeconds(5);
+  private boolean roundRobin = true;
+  private Action<? super DnsNameResolverBuilder> resolver = Action.noop();
+
+  @Override
+  public CachingAddressResolverSpec minTtl(Duration minTtl) {
+    this.minTtl = validate("minTtl", minTtl);
+    return this;
+  }
+
+  @Override
+  public CachingAddressResolverSpec maxTtl(Duration maxTtl) {
+    this.maxTtl = validate("maxTtl", maxTtl);
+    return this;
+  }
+
+  @Override
+  public CachingAddressResolverSpec negativeTtl(Duration negativeTtl) {
+    this.negativeTtl = validate("negativeTtl", negativeTtl);
+    return this;
+  }
+
+  @Override
+  public CachingAddressResolverSpec roundRobin(boolean roundRobin) {
+    this.roundRobin = roundRobin;
+    return this;
+  }
+
+  @Override
+  public CachingAddressResolverSpec resolver(Action<? super DnsNameResolverBuilder> resolver) {
+    this.resolver = this.resolver.append(resolver);
+    return this;
+  }
+
+  CachingDnsAddressResolverGroup build(DnsNameResolverBuilder builder) {
+    if (minTtl.compareTo(maxTtl) > 0) {
+      throw new IllegalArgumentException("minTtl (" + minTtl + ") must be <= maxTtl (" + maxTtl + ")");
+    }
+    Exceptions.uncheck(() -> resolver.execute(builder));
+    CountingDnsCache cache = new CountingDnsCache(new DefaultDnsCache(seconds(minTtl), seconds(maxTtl), seconds(negativeTtl)));
+    return new CachingDnsAddressResolverGroup(builder, cache, roundRobin);
+  }
+
+  private static Duration validate(String name, Duration ttl) {
+    if (ttl.isNegative()) {
+      throw new IllegalArgumentException(name + " must be >= 0 (was " + ttl + ")");
+    }
+    return ttl;
+  }
+
+  private static int seconds(Duration ttl) {
+    return (int) Math.min(ttl.getSeconds(), Integer.MAX_VALUE);
+  }
+
+}
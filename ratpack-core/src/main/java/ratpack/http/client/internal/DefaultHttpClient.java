@@ -22,18 +22,23 @@ import io.netty.channel.ChannelOption;
 import io.netty.channel.pool.ChannelHealthChecker;
 import io.netty.channel.pool.ChannelPool;
 import io.netty.channel.pool.SimpleChannelPool;
+import io.netty.handler.ssl.SslContext;
 import io.netty.resolver.AddressResolverGroup;
 import ratpack.api.Nullable;
 import ratpack.exec.ExecController;
 import ratpack.exec.Execution;
 import ratpack.exec.Promise;
+import ratpack.exec.internal.DefaultExecution;
 import ratpack.exec.internal.ExecControllerInternal;
+import ratpack.exec.util.retry.RetryPolicy;
 import ratpack.func.Action;
+import ratpack.func.Factory;
 import ratpack.http.client.*;
 import ratpack.util.internal.TransportDetector;
 
 import java.net.URI;
 import java.time.Duration;
+import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
@@ -47,6 +52,7 @@ public class DefaultHttpClient implements HttpClientInternal {
   final int poolSize;
   final int poolQueueSize;
   final Duration idleTimeout;
+  final boolean http2;
   final int maxContentLength;
   final int responseMaxChunkSize;
   final Duration readTimeout;
@@ -56,11 +62,22 @@ public class DefaultHttpClient implements HttpClientInternal {
   final Action<? super Throwable> errorInterceptor;
   final boolean enableMetricsCollection;
   final AddressResolverGroup<?> resolver;
+  final int minIdleConnections;
+  final Duration healthCheckInterval;
+  final Map<URI, SslContext> prewarmTargets;
+  final double retryBudgetRatio;
+  final int retryBudgetBurst;
+  @Nullable
+  final DefaultResponseCacheSpec responseCacheSpec;
 
   @Nullable
   final ProxyInternal proxy;
 
   private final Map<String, ChannelPoolStats> hostStats = new ConcurrentHashMap<>();
+  private final Map<String, HostLatencies> hostLatencies = new ConcurrentHashMap<>();
+  private final RetryBudget retryBudget;
+  @Nullable
+  private final ResponseCache responseCache;
 
   private final HttpChannelPoolMap channelPoolMap = new HttpChannelPoolMap() {
     @Override
@@ -77,8 +94,28 @@ public class DefaultHttpClient implements HttpClientInternal {
 
       if (isPooling()) {
         InstrumentedChannelPoolHandler channelPoolHandler = getPoolingHandler(key);
-        hostStats.put(key.host, channelPoolHandler);
-        CleanClosingFixedChannelPool channelPool = new CleanClosingFixedChannelPool(bootstrap, channelPoolHandler, getPoolSize(), getPoolQueueSize());
+        if (isHttp2(key)) {
+          CleanClosingFixedChannelPool channelPool = new CleanClosingFixedChannelPool(bootstrap, channelPoolHandler, getPoolSize(), getPoolQueueSize(), getHostLatencies(key.host));
+          Http2ChannelPool http2ChannelPool = new Http2ChannelPool(bootstrap, key, getPoolSize(), getPoolQueueSize(), getHostLatencies(key.host), getIdleTimeout(), channelPool, channelPoolHandler);
+          hostStats.put(key.host, http2ChannelPool);
+          ((ExecControllerInternal) key.execution.getController()).onClose(() -> {
+            remove(key);
+            http2ChannelPool.close();
+          });
+          return http2ChannelPool;
+        }
+        CleanClosingFixedChannelPool channelPool;
+        if (isMaintaining()) {
+          MaintainedFixedChannelPool maintainedChannelPool = new MaintainedFixedChannelPool(
+            bootstrap, channelPoolHandler, key, byteBufAllocator, getPoolSize(), getPoolQueueSize(), getHostLatencies(key.host), minIdleConnections, healthCheckInterval
+          );
+          hostStats.put(key.host, maintainedChannelPool);
+          maintainedChannelPool.start();
+          channelPool = maintainedChannelPool;
+        } else {
+          channelPool = new CleanClosingFixedChannelPool(bootstrap, channelPoolHandler, getPoolSize(), getPoolQueueSize(), getHostLatencies(key.host));
+          hostStats.put(key.host, channelPoolHandler);
+        }
         ((ExecControllerInternal) key.execution.getController()).onClose(() -> {
           remove(key);
           channelPool.closeCleanly();
@@ -97,6 +134,7 @@ public class DefaultHttpClient implements HttpClientInternal {
     int poolSize,
     int poolQueueSize,
     Duration idleTimeout,
+    boolean http2,
     int maxContentLength,
     int responseMaxChunkSize,
     Duration readTimeout,
@@ -106,12 +144,19 @@ public class DefaultHttpClient implements HttpClientInternal {
     Action<? super Throwable> errorInterceptor,
     boolean enableMetricsCollection,
     AddressResolverGroup<?> resolver,
-    @Nullable ProxyInternal proxy
+    @Nullable ProxyInternal proxy,
+    int minIdleConnections,
+    Duration healthCheckInterval,
+    Map<URI, SslContext> prewarmTargets,
+    double retryBudgetRatio,
+    int retryBudgetBurst,
+    @Nullable DefaultResponseCacheSpec responseCacheSpec
   ) {
     this.byteBufAllocator = byteBufAllocator;
     this.poolSize = poolSize;
     this.poolQueueSize = poolQueueSize;
     this.idleTimeout = idleTimeout;
+    this.http2 = http2;
     this.maxContentLength = maxContentLength;
     this.responseMaxChunkSize = responseMaxChunkSize;
     this.readTimeout = readTimeout;
@@ -122,6 +167,14 @@ public class DefaultHttpClient implements HttpClientInternal {
     this.enableMetricsCollection = enableMetricsCollection;
     this.resolver = resolver;
     this.proxy = proxy;
+    this.minIdleConnections = minIdleConnections;
+    this.healthCheckInterval = healthCheckInterval;
+    this.prewarmTargets = prewarmTargets;
+    this.retryBudgetRatio = retryBudgetRatio;
+    this.retryBudgetBurst = retryBudgetBurst;
+    this.retryBudget = new RetryBudget(retryBudgetRatio, retryBudgetBurst);
+    this.responseCacheSpec = responseCacheSpec;
+    this.responseCache = responseCacheSpec == null ? null : responseCacheSpec.build(byteBufAllocator);
   }
 
   private InstrumentedChannelPoolHandler getPoolingHandler(HttpChannelKey key) {
@@ -159,6 +212,14 @@ public class DefaultHttpClient implements HttpClientInternal {
     return getPoolSize() > 0;
   }
 
+  private boolean isMaintaining() {
+    return minIdleConnections > 0 || !healthCheckInterval.isZero() || !prewarmTargets.isEmpty();
+  }
+
+  private boolean isHttp2(HttpChannelKey key) {
+    return http2 && (proxy == null || !proxy.shouldProxy(key.host));
+  }
+
   @Override
   public HttpChannelPoolMap getChannelPoolMap() {
     return channelPoolMap;
@@ -174,6 +235,16 @@ public class DefaultHttpClient implements HttpClientInternal {
     return responseInterceptor;
   }
 
+  @Override
+  @Nullable
+  public HostLatencies getHostLatencies(String host) {
+    if (enableMetricsCollection) {
+      return hostLatencies.computeIfAbsent(host, h -> new HostLatencies());
+    } else {
+      return null;
+    }
+  }
+
   public ByteBufAllocator getByteBufAllocator() {
     return byteBufAllocator;
   }
@@ -203,6 +274,24 @@ public class DefaultHttpClient implements HttpClientInternal {
   @Override
   public void close() {
     channelPoolMap.close();
+    if (responseCache != null) {
+      responseCache.invalidateAll();
+    }
+  }
+
+  void prewarm(ExecController execController) {
+    prewarmTargets.forEach((target, sslContext) ->
+      execController.fork().start(execution -> {
+        ChannelPool channelPool = channelPoolMap.get(new HttpChannelKey(target, connectTimeout, execution));
+        if (channelPool instanceof MaintainedFixedChannelPool) {
+          MaintainedFixedChannelPool maintainedChannelPool = (MaintainedFixedChannelPool) channelPool;
+          if (sslContext != null) {
+            maintainedChannelPool.setSslContext(sslContext);
+          }
+          maintainedChannelPool.warm(Math.max(1, minIdleConnections));
+        }
+      })
+    );
   }
 
   @Override
@@ -224,13 +313,50 @@ public class DefaultHttpClient implements HttpClientInternal {
 
   @Override
   public Promise<ReceivedResponse> request(URI uri, final Action<? super RequestSpec> requestConfigurer) {
+    Promise<ReceivedResponse> response;
+    if (responseCache == null) {
+      response = attempt(uri, requestConfigurer.append(requestInterceptor), new Attempts());
+    } else {
+      response = responseCache.request(uri, this, requestConfigurer, networkConfigurer -> attempt(uri, networkConfigurer.append(requestInterceptor), new Attempts()));
+    }
     return intercept(
-      Promise.async(downstream -> new ContentAggregatingRequestAction(uri, this, 0, false, Execution.current(), requestConfigurer.append(requestInterceptor)).connect(downstream)),
+      response,
       responseInterceptor,
       errorInterceptor
     );
   }
 
+  private Promise<ReceivedResponse> attempt(URI uri, Action<? super RequestSpec> requestConfigurer, Attempts attempts) {
+    return Promise.<ReceivedResponse>async(downstream -> {
+      Execution execution = Execution.current();
+      ContentAggregatingRequestAction action = new ContentAggregatingRequestAction(uri, this, 0, false, execution, requestConfigurer);
+      if (attempts.first) {
+        attempts.first = false;
+        retryBudget.deposit();
+        attempts.retryPolicy = action.requestConfig.retryPolicy == null ? null : action.requestConfig.retryPolicy.create();
+      }
+      if (HedgingRequest.isHedged(action.requestConfig)) {
+        // The backup is only configured once the hedge delay elapses, off the execution, so bind it to the execution as redirects do
+        Factory<ContentAggregatingRequestAction> backup = () -> ((DefaultExecution) execution).runSync(() ->
+          new ContentAggregatingRequestAction(uri, this, 0, false, execution, requestConfigurer)
+        );
+        new HedgingRequest(action, backup, retryBudget, this).connect(downstream);
+      } else {
+        action.connect(downstream);
+      }
+    })
+      .flatMapError(error -> {
+        RetryPolicy retryPolicy = attempts.retryPolicy;
+        if (retryPolicy == null || retryPolicy.isExhausted() || !retryBudget.tryWithdraw()) {
+          return Promise.error(error);
+        }
+        return retryPolicy.delay().flatMap(delay -> {
+          retryPolicy.increaseAttempt();
+          return attempt(uri, requestConfigurer, attempts).defer(delay);
+        });
+      });
+  }
+
   @Override
   public Promise<StreamedResponse> requestStream(URI uri, Action<? super RequestSpec> requestConfigurer) {
     return intercept(
@@ -266,7 +392,15 @@ public class DefaultHttpClient implements HttpClientInternal {
       hostStats.entrySet().stream().collect(Collectors.toMap(
         Map.Entry::getKey,
         e -> e.getValue().getHostStats()
-      ))
+      )),
+      resolver instanceof CachingDnsAddressResolverGroup ? ((CachingDnsAddressResolverGroup) resolver).getCacheStats() : null,
+      Collections.unmodifiableMap(hostLatencies)
     );
   }
+
+  // The retry policy is taken from the first attempt, as the request configuration is applied again for each attempt
+  private static final class Attempts {
+    private boolean first = true;
+    private RetryPolicy retryPolicy;
+  }
 }
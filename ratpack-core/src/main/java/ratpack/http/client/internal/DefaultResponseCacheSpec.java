@@ -0,0 +1,57 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ratpack.http.client.internal;
+
+import io.netty.buffer.ByteBufAllocator;
+import ratpack.http.client.ResponseCacheSpec;
+
+public class DefaultResponseCacheSpec implements ResponseCacheSpec {
+
+  private long maxSize = 10 * 1024 * 1024;
+  private int maxEntrySize = 1024 * 1024;
+  private boolean offHeap;
+
+  @Override
+  public ResponseCacheSpec maxSize(long maxSize) {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("maxSize must be > 0 (was " + maxSize + ")");
+    }
+    this.maxSize = maxSize;
+    return this;
+  }
+
+  @Override
+  public ResponseCacheSpec maxEntrySize(int maxEntrySize) {
+    if (maxEntrySize < 0) {
+      throw new IllegalArgumentException("maxEntrySize must be >= 0 (was " + maxEntrySize + ")");
+    }
+    this.maxEntrySize = maxEntrySize;
+    return this;
+  }
+
+  @Override
+  public ResponseCacheSpec offHeap(boolean offHeap) {
+    this.offHeap = offHeap;
+    return this;
+  }
+
+  ResponseCache build(ByteBufAllocator byteBufAllocator) {
+    return new ResponseCache(maxSize, (int) Math.min(maxEntrySize, maxSize), offHeap ? byteBufAllocator : null);
+  }
+
+}
@@ -17,6 +17,7 @@
 package ratpack.http.client.internal;
 
 import io.netty.handler.ssl.SslContext;
+import ratpack.exec.util.retry.RetryPolicy;
 import ratpack.func.Action;
 import ratpack.func.Factory;
 import ratpack.func.Function;
@@ -143,6 +144,24 @@ public class DelegatingRequestSpec implements RequestSpec {
     return delegate.getReadTimeout();
   }
 
+  @Override
+  public RequestSpec hedge(Duration delay) {
+    delegate.hedge(delay);
+    return this;
+  }
+
+  @Override
+  public RequestSpec hedge(double percentile, Duration defaultDelay) {
+    delegate.hedge(percentile, defaultDelay);
+    return this;
+  }
+
+  @Override
+  public RequestSpec retry(Factory<? extends RetryPolicy> retryPolicy) {
+    delegate.retry(retryPolicy);
+    return this;
+  }
+
   @Override
   public Body getBody() {
     return delegate.getBody();
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.http.client.internal;
+
+public class DnsCacheStats {
+  private final long hitCount;
+  private final long negativeHitCount;
+  private final long missCount;
+
+  public DnsCacheStats(long hitCount, long negativeHitCount, long missCount) {
+    this.hitCount = hitCount;
+    this.negativeHitCount = negativeHitCount;
+    this.missCount = missCount;
+  }
+
+  /**
+   * @return The number of lookups that were answered with cached addresses.
+   */
+  public long getHitCount() {
+    return hitCount;
+  }
+
+  /**
+   * @return The number of lookups that were answered with a cached failure.
+   */
+  public long getNegativeHitCount() {
+    return negativeHitCount;
+  }
+
+  /**
+   * @return The number of lookups that required a query.
+   */
+  public long getMissCount() {
+    return missCount;
+  }
+
+  /**
+   * @return The ratio of lookups answered from the cache, either successfully or with a cached failure, to all lookups.
+   */
+  public double getHitRate() {
+    long lookups = hitCount + negativeHitCount + missCount;
+    return lookups == 0 ? 1.0 : (double) (hitCount + negativeHitCount) / lookups;
+  }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ratpack.http.client.internal;
+
+import io.netty.channel.EventLoop;
+import io.netty.util.concurrent.ScheduledFuture;
+import ratpack.exec.Downstream;
+import ratpack.exec.Upstream;
+import ratpack.func.Factory;
+import ratpack.http.client.ReceivedResponse;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends a backup of a request if no response has been received after a delay, and yields whichever response is received first.
+ * <p>
+ * The backup request is only configured, and sent, if the delay elapses and the retry budget allows.
+ * The outcomes of both requests are handled on the execution's event loop, so that no synchronization is needed.
+ */
+final class HedgingRequest implements Upstream<ReceivedResponse> {
+
+  // The number of requests to a host that must have been made for its response time percentiles to be used
+  private static final long MIN_PERCENTILE_COUNT = 100;
+
+  private final ContentAggregatingRequestAction primary;
+  private final Factory<? extends ContentAggregatingRequestAction> backupFactory;
+  private final RetryBudget retryBudget;
+  private final EventLoop eventLoop;
+  private final long delayNanos;
+
+  private Downstream<? super ReceivedResponse> downstream;
+  private ScheduledFuture<?> backupTimer;
+  private ContentAggregatingRequestAction backup;
+  private boolean done;
+  private int inFlight;
+
+  HedgingRequest(ContentAggregatingRequestAction primary, Factory<? extends ContentAggregatingRequestAction> backupFactory, RetryBudget retryBudget, HttpClientInternal client) {
+    this.primary = primary;
+    this.backupFactory = backupFactory;
+    this.retryBudget = retryBudget;
+    this.eventLoop = primary.execution.getEventLoop();
+    this.delayNanos = delayNanos(primary.requestConfig, client.getHostLatencies(primary.requestConfig.uri.getHost()));
+  }
+
+  private static long delayNanos(RequestConfig requestConfig, HostLatencies latencies) {
+    if (requestConfig.hedgePercentile > 0 && latencies != null) {
+      long percentile = latencies.getTotalPercentile(requestConfig.hedgePercentile, MIN_PERCENTILE_COUNT);
+      if (percentile >= 0) {
+        return percentile;
+      }
+    }
+    return requestConfig.hedgeDelay.toNanos();
+  }
+
+  /**
+   * Whether the given request should be hedged.
+   */
+  static boolean isHedged(RequestConfig requestConfig) {
+    return requestConfig.hedgeDelay != null;
+  }
+
+  @Override
+  public void connect(Downstream<? super ReceivedResponse> downstream) throws Exception {
+    this.downstream = downstream;
+    inFlight = 1;
+    backupTimer = eventLoop.schedule(this::sendBackup, delayNanos, TimeUnit.NANOSECONDS);
+    primary.connect(attempt(primary));
+  }
+
+  private void sendBackup() {
+    if (done || !retryBudget.tryWithdraw()) {
+      return;
+    }
+    ++inFlight;
+    try {
+      backup = backupFactory.create();
+      backup.connect(attempt(backup));
+    } catch (Exception e) {
+      attempt(backup).error(e);
+    }
+  }
+
+  private Downstream<ReceivedResponse> attempt(RequestActionSupport<ReceivedResponse> request) {
+    return new Downstream<ReceivedResponse>() {
+      @Override
+      public void success(ReceivedResponse value) {
+        onEventLoop(() -> {
+          if (done) {
+            value.getBody().getBuffer().release();
+          } else {
+            finish();
+            RequestActionSupport<ReceivedResponse> other = other(request);
+            if (other != null) {
+              other.cancel();
+            }
+            downstream.success(value);
+          }
+        });
+      }
+
+      @Override
+      public void error(Throwable throwable) {
+        onEventLoop(() -> {
+          // If the other request is still in flight, wait for its outcome
+          if (!done && --inFlight == 0) {
+            finish();
+            downstream.error(throwable);
+          }
+        });
+      }
+
+      @Override
+      public void complete() {
+        onEventLoop(() -> {
+          if (!done && --inFlight == 0) {
+            finish();
+            downstream.complete();
+          }
+        });
+      }
+    };
+  }
+
+  private RequestActionSupport<ReceivedResponse> other(RequestActionSupport<ReceivedResponse> request) {
+    return request == primary ? backup : primary;
+  }
+
+  private void finish() {
+    done = true;
+    backupTimer.cancel(false);
+  }
+
+  private void onEventLoop(Runnable runnable) {
+    if (eventLoop.inEventLoop()) {
+      runnable.run();
+    } else {
+      eventLoop.execute(runnable);
+    }
+  }
+
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.http.client.internal;
+
+import io.netty.util.AttributeKey;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The latencies of the requests to a host, collected when metrics collection is enabled.
+ */
+public class HostLatencies {
+
+  /**
+   * The time that the connection of a new channel was started, which is cleared when the channel is first acquired.
+   */
+  static final AttributeKey<Long> CONNECT_STARTED = AttributeKey.valueOf(HostLatencies.class, "connectStarted");
+
+  // Percentiles of the total time are recomputed at most this often, as each computation takes a snapshot of the histogram
+  private static final long PERCENTILE_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private final LatencyHistogram poolWait = new LatencyHistogram();
+  private final LatencyHistogram connect = new LatencyHistogram();
+  private final LatencyHistogram tlsHandshake = new LatencyHistogram();
+  private final LatencyHistogram timeToFirstByte = new LatencyHistogram();
+  private final LatencyHistogram total = new LatencyHistogram();
+  private final LongAdder rejectedAcquires = new LongAdder();
+
+  private volatile TotalPercentile totalPercentile;
+
+  /**
+   * @return The time waited for a connection from the pool, excluding the time taken to connect new connections.
+   */
+  public LatencyHistogram getPoolWait() {
+    return poolWait;
+  }
+
+  /**
+   * @return The time taken to resolve the address of, and connect, new connections.
+   */
+  public LatencyHistogram getConnect() {
+    return connect;
+  }
+
+  /**
+   * @return The time taken for the TLS handshake of new connections.
+   */
+  public LatencyHistogram getTlsHandshake() {
+    return tlsHandshake;
+  }
+
+  /**
+   * @return The time from sending the request, to receiving the response status and headers.
+   */
+  public LatencyHistogram getTimeToFirstByte() {
+    return timeToFirstByte;
+  }
+
+  /**
+   * @return The time from starting the request, to receiving the response (or its status and headers, for streamed responses).
+   */
+  public LatencyHistogram getTotal() {
+    return total;
+  }
+
+  /**
+   * @return The number of requests that failed as the queue of requests waiting for a connection from the pool was full.
+   */
+  public long getRejectedAcquireCount() {
+    return rejectedAcquires.sum();
+  }
+
+  void rejectedAcquire() {
+    rejectedAcquires.increment();
+  }
+
+  /**
+   * The given percentile of the total time of requests, if enough requests have been made for it to be meaningful.
+   * <p>
+   * The value may be up to a second old.
+   *
+   * @param percentile the percentile, between 0 and 100
+   * @param minCount the number of requests that must have been made
+   * @return the percentile in nanoseconds, or -1 if fewer than {@code minCount} requests have been made
+   */
+  long getTotalPercentile(double percentile, long minCount) {
+    long now = System.nanoTime();
+    TotalPercentile current = totalPercentile;
+    if (current == null || current.percentile != percentile || now - current.computedAt > PERCENTILE_REFRESH_NANOS) {
+      LatencyHistogram.Snapshot snapshot = total.snapshot();
+      current = new TotalPercentile(percentile, now, snapshot.getCount(), snapshot.getValueAtPercentile(percentile));
+      totalPercentile = current;
+    }
+    return current.count < minCount ? -1 : current.value;
+  }
+
+  private static final class TotalPercentile {
+    private final double percentile;
+    private final long computedAt;
+    private final long count;
+    private final long value;
+
+    TotalPercentile(double percentile, long computedAt, long count, long value) {
+      this.percentile = percentile;
+      this.computedAt = computedAt;
+      this.count = count;
+      this.value = value;
+    }
+  }
+
+}
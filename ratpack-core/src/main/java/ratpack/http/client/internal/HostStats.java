@@ -20,11 +20,19 @@ public class HostStats {
   private final long activeConnectionCount;
   private final long idleConnectionCount;
   private final long totalConnectionCount;
+  private final long warmedConnectionCount;
+  private final long evictedConnectionCount;
 
   public HostStats(long activeConnectionCount, long idleConnectionCount) {
+    this(activeConnectionCount, idleConnectionCount, 0, 0);
+  }
+
+  public HostStats(long activeConnectionCount, long idleConnectionCount, long warmedConnectionCount, long evictedConnectionCount) {
     this.activeConnectionCount = activeConnectionCount;
     this.idleConnectionCount = idleConnectionCount;
     this.totalConnectionCount = activeConnectionCount + idleConnectionCount;
+    this.warmedConnectionCount = warmedConnectionCount;
+    this.evictedConnectionCount = evictedConnectionCount;
   }
 
   public long getActiveConnectionCount() {
@@ -38,4 +46,18 @@ public class HostStats {
   public long getTotalConnectionCount() {
     return totalConnectionCount;
   }
+
+  /**
+   * @return The number of connections that have been opened in advance of requests.
+   */
+  public long getWarmedConnectionCount() {
+    return warmedConnectionCount;
+  }
+
+  /**
+   * @return The number of idle connections that have been discarded by health checks, as they were closed.
+   */
+  public long getEvictedConnectionCount() {
+    return evictedConnectionCount;
+  }
 }
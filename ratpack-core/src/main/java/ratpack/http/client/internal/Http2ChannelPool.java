@@ -0,0 +1,501 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.http.client.internal;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.*;
+import io.netty.channel.pool.ChannelPool;
+import io.netty.handler.codec.PrematureChannelClosureException;
+import io.netty.handler.codec.http2.*;
+import io.netty.handler.ssl.*;
+import io.netty.handler.timeout.IdleStateEvent;
+import io.netty.handler.timeout.IdleStateHandler;
+import io.netty.util.AttributeKey;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.Promise;
+import ratpack.api.Nullable;
+import ratpack.util.Exceptions;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A channel pool that multiplexes requests as streams over shared HTTP/2 connections.
+ * <p>
+ * The acquired channels are {@link Http2StreamChannel stream channels}, which are released by closing them.
+ * Connections are maintained per event loop, so that streams are always on the event loop of the requesting execution.
+ * A new connection is only opened when the existing connections of the event loop have no stream capacity left.
+ * <p>
+ * If a server does not negotiate HTTP/2, all subsequent acquisitions are delegated to the given HTTP/1.1 pool.
+ */
+class Http2ChannelPool implements ChannelPool, ChannelPoolStats {
+
+  private static final AttributeKey<Connection> CONNECTION_KEY = AttributeKey.valueOf(Http2ChannelPool.class, "connection");
+
+  // Server push is disabled, so any inbound streams are unexpected.
+  private static final ChannelHandler INBOUND_STREAM_REJECTER = new ChannelInitializer<Channel>() {
+    @Override
+    protected void initChannel(Channel ch) {
+      ch.close();
+    }
+  };
+
+  private final Bootstrap bootstrap;
+  private final HttpChannelKey channelKey;
+  private final int maxConnections;
+  private final int maxPendingAcquires;
+  @Nullable
+  private final HostLatencies latencies;
+  private final Duration idleTimeout;
+  private final CleanClosingFixedChannelPool http1Pool;
+  private final ChannelPoolStats http1PoolStats;
+
+  private final Map<EventLoop, EventLoopConnections> eventLoopConnections = new ConcurrentHashMap<>();
+  private final AtomicInteger activeConnectionCount = new AtomicInteger();
+  private final AtomicInteger idleConnectionCount = new AtomicInteger();
+
+  private volatile SslContext defaultSslContext;
+  private volatile boolean http1Only;
+  private volatile boolean closed;
+
+  Http2ChannelPool(
+    Bootstrap bootstrap,
+    HttpChannelKey channelKey,
+    int maxConnections,
+    int maxPendingAcquires,
+    @Nullable HostLatencies latencies,
+    Duration idleTimeout,
+    CleanClosingFixedChannelPool http1Pool,
+    ChannelPoolStats http1PoolStats
+  ) {
+    this.bootstrap = bootstrap;
+    this.channelKey = channelKey;
+    this.maxConnections = maxConnections;
+    this.maxPendingAcquires = maxPendingAcquires;
+    this.latencies = latencies;
+    this.idleTimeout = idleTimeout;
+    this.http1Pool = http1Pool;
+    this.http1PoolStats = http1PoolStats;
+  }
+
+  /**
+   * Acquires a channel for a request on the given event loop.
+   * <p>
+   * The returned channel is either a stream channel on the given event loop,
+   * or a HTTP/1.1 connection if the server did not negotiate HTTP/2.
+   *
+   * @param eventLoop the event loop of the requesting execution
+   * @param sslContext the request's SSL context, used if a new TLS connection is required
+   * @return the channel
+   */
+  Future<Channel> acquire(EventLoop eventLoop, @Nullable SslContext sslContext) {
+    if (http1Only) {
+      return http1Pool.acquire();
+    }
+
+    Promise<Channel> promise = eventLoop.newPromise();
+    EventLoopConnections connections = eventLoopConnections.computeIfAbsent(eventLoop, EventLoopConnections::new);
+    if (eventLoop.inEventLoop()) {
+      connections.acquire(promise, sslContext);
+    } else {
+      eventLoop.execute(() -> connections.acquire(promise, sslContext));
+    }
+    return promise;
+  }
+
+  @Override
+  public Future<Channel> acquire() {
+    return acquire(bootstrap.config().group().next(), null);
+  }
+
+  @Override
+  public Future<Channel> acquire(Promise<Channel> promise) {
+    acquire().addListener(future -> {
+      if (future.isSuccess()) {
+        promise.setSuccess((Channel) future.getNow());
+      } else {
+        promise.setFailure(future.cause());
+      }
+    });
+    return promise;
+  }
+
+  @Override
+  public Future<Void> release(Channel channel) {
+    return release(channel, channel.eventLoop().newPromise());
+  }
+
+  @Override
+  public Future<Void> release(Channel channel, Promise<Void> promise) {
+    if (channel instanceof Http2StreamChannel) {
+      EventLoop eventLoop = channel.eventLoop();
+      if (eventLoop.inEventLoop()) {
+        releaseStream(channel, promise);
+      } else {
+        eventLoop.execute(() -> releaseStream(channel, promise));
+      }
+      return promise;
+    } else {
+      return http1Pool.release(channel, promise);
+    }
+  }
+
+  private void releaseStream(Channel channel, Promise<Void> promise) {
+    if (channel.isOpen()) {
+      channel.close();
+    }
+    Connection connection = channel.parent().attr(CONNECTION_KEY).get();
+    if (connection != null) {
+      connection.streamReleased();
+    }
+    promise.setSuccess(null);
+  }
+
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    for (EventLoopConnections connections : eventLoopConnections.values()) {
+      connections.eventLoop.execute(connections::close);
+    }
+    eventLoopConnections.clear();
+    http1Pool.closeCleanly();
+  }
+
+  @Override
+  public String getHost() {
+    return channelKey.host;
+  }
+
+  @Override
+  public int getActiveConnectionCount() {
+    return activeConnectionCount.get() + http1PoolStats.getActiveConnectionCount();
+  }
+
+  @Override
+  public int getIdleConnectionCount() {
+    return idleConnectionCount.get() + http1PoolStats.getIdleConnectionCount();
+  }
+
+  private SslContext sslContext(@Nullable SslContext requestSslContext) {
+    if (requestSslContext != null) {
+      return requestSslContext;
+    }
+    SslContext sslContext = defaultSslContext;
+    if (sslContext == null) {
+      sslContext = Exceptions.uncheck(() ->
+        SslContextBuilder.forClient()
+          .applicationProtocolConfig(new ApplicationProtocolConfig(
+            ApplicationProtocolConfig.Protocol.ALPN,
+            ApplicationProtocolConfig.SelectorFailureBehavior.NO_ADVERTISE,
+            ApplicationProtocolConfig.SelectedListenerFailureBehavior.ACCEPT,
+            ApplicationProtocolNames.HTTP_2,
+            ApplicationProtocolNames.HTTP_1_1
+          ))
+          .build()
+      );
+      defaultSslContext = sslContext;
+    }
+    return sslContext;
+  }
+
+  /**
+   * The connections of a single event loop.
+   * <p>
+   * All state is only accessed from the event loop.
+   */
+  private final class EventLoopConnections {
+
+    private final EventLoop eventLoop;
+    private final List<Connection> connections = new ArrayList<>();
+    private final Deque<Promise<Channel>> pendingAcquires = new ArrayDeque<>();
+
+    private boolean connecting;
+    private SslContext lastSslContext;
+
+    EventLoopConnections(EventLoop eventLoop) {
+      this.eventLoop = eventLoop;
+    }
+
+    void acquire(Promise<Channel> promise, @Nullable SslContext sslContext) {
+      if (closed) {
+        promise.setFailure(new IllegalStateException("Channel pool is closed"));
+        return;
+      }
+      if (http1Only) {
+        delegate(promise);
+        return;
+      }
+
+      lastSslContext = sslContext;
+      Connection connection = available();
+      if (connection != null) {
+        connection.openStream(promise);
+      } else if (pendingAcquires.size() >= maxPendingAcquires) {
+        if (latencies != null) {
+          latencies.rejectedAcquire();
+        }
+        promise.setFailure(new IllegalStateException("Too many outstanding acquire operations"));
+      } else {
+        pendingAcquires.add(promise);
+        connectIfPossible();
+      }
+    }
+
+    private void delegate(Promise<Channel> promise) {
+      http1Pool.acquire().addListener(future -> {
+        if (future.isSuccess()) {
+          promise.setSuccess((Channel) future.getNow());
+        } else {
+          promise.setFailure(future.cause());
+        }
+      });
+    }
+
+    @Nullable
+    private Connection available() {
+      for (Connection connection : connections) {
+        if (connection.hasCapacity()) {
+          return connection;
+        }
+      }
+      return null;
+    }
+
+    void drain() {
+      while (!pendingAcquires.isEmpty()) {
+        if (closed) {
+          fail(new IllegalStateException("Channel pool is closed"));
+          return;
+        }
+        if (http1Only) {
+          delegate(pendingAcquires.poll());
+          continue;
+        }
+
+        Connection connection = available();
+        if (connection == null) {
+          connectIfPossible();
+          return;
+        }
+        connection.openStream(pendingAcquires.poll());
+      }
+    }
+
+    void fail(Throwable cause) {
+      Promise<Channel> promise = pendingAcquires.poll();
+      while (promise != null) {
+        promise.tryFailure(cause);
+        promise = pendingAcquires.poll();
+      }
+    }
+
+    private void connectIfPossible() {
+      if (connecting || connections.size() >= maxConnections) {
+        return;
+      }
+
+      connecting = true;
+      ChannelFuture connectFuture = bootstrap.clone(eventLoop)
+        .option(ChannelOption.AUTO_READ, true)
+        .handler(new ChannelInitializer<Channel>() {
+          @Override
+          protected void initChannel(Channel ch) {
+            initConnection(ch, lastSslContext);
+          }
+        })
+        .connect();
+
+      Channel channel = connectFuture.channel();
+      Connection connection = new Connection(this, channel);
+      connections.add(connection);
+      channel.attr(CONNECTION_KEY).set(connection);
+      connectFuture.addListener(future -> {
+        if (future.isSuccess()) {
+          channel.closeFuture().addListener(closeFuture -> connection.closed());
+          if (!channelKey.ssl) {
+            connection.ready();
+          }
+        } else {
+          connections.remove(connection);
+          connecting = false;
+          fail(future.cause());
+        }
+      });
+    }
+
+    private void initConnection(Channel ch, @Nullable SslContext requestSslContext) {
+      ChannelPipeline pipeline = ch.pipeline();
+      if (channelKey.ssl) {
+        pipeline.addLast("ssl", RequestActionSupport.createSslHandler(sslContext(requestSslContext), ch.alloc(), channelKey.host, channelKey.port));
+        pipeline.addLast("alpn", new ApplicationProtocolNegotiationHandler(ApplicationProtocolNames.HTTP_1_1) {
+          @Override
+          protected void configurePipeline(ChannelHandlerContext ctx, String protocol) {
+            Connection connection = ctx.channel().attr(CONNECTION_KEY).get();
+            if (ApplicationProtocolNames.HTTP_2.equals(protocol)) {
+              addHttp2Handlers(ctx.pipeline());
+              connection.ready();
+            } else {
+              http1Only = true;
+              ctx.close();
+            }
+          }
+
+          @Override
+          protected void handshakeFailure(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+            ctx.channel().attr(CONNECTION_KEY).get().failure = cause;
+            super.handshakeFailure(ctx, cause);
+          }
+        });
+      } else {
+        addHttp2Handlers(pipeline);
+      }
+    }
+
+    private void addHttp2Handlers(ChannelPipeline pipeline) {
+      pipeline.addLast("h2Codec", Http2FrameCodecBuilder.forClient()
+        .initialSettings(Http2Settings.defaultSettings().pushEnabled(false))
+        .build()
+      );
+      pipeline.addLast("h2Multiplexer", new Http2MultiplexHandler(INBOUND_STREAM_REJECTER));
+      if (idleTimeout.toNanos() > 0) {
+        pipeline.addLast("idleState", new IdleStateHandler(0, 0, idleTimeout.toNanos(), TimeUnit.NANOSECONDS));
+        pipeline.addLast("idleTimeout", new IdleConnectionCloser());
+      }
+    }
+
+    void close() {
+      fail(new IllegalStateException("Channel pool is closed"));
+      for (Connection connection : new ArrayList<>(connections)) {
+        connection.channel.close();
+      }
+    }
+  }
+
+  /**
+   * A single HTTP/2 connection.
+   * <p>
+   * All state is only accessed from the connection's event loop.
+   */
+  private final class Connection {
+
+    private final EventLoopConnections owner;
+    private final Channel channel;
+
+    private boolean ready;
+    private int activeStreams;
+    private Throwable failure;
+
+    Connection(EventLoopConnections owner, Channel channel) {
+      this.owner = owner;
+      this.channel = channel;
+    }
+
+    boolean hasCapacity() {
+      if (!ready || !channel.isActive()) {
+        return false;
+      }
+      Http2FrameCodec frameCodec = channel.pipeline().get(Http2FrameCodec.class);
+      return frameCodec != null && activeStreams < frameCodec.connection().local().maxActiveStreams();
+    }
+
+    void ready() {
+      owner.connecting = false;
+      ready = true;
+      idleConnectionCount.incrementAndGet();
+      owner.drain();
+    }
+
+    void openStream(Promise<Channel> promise) {
+      if (activeStreams++ == 0) {
+        idleConnectionCount.decrementAndGet();
+        activeConnectionCount.incrementAndGet();
+      }
+
+      new Http2StreamChannelBootstrap(channel).open().addListener(future -> {
+        if (future.isSuccess()) {
+          Http2StreamChannel stream = (Http2StreamChannel) future.getNow();
+          if (!promise.trySuccess(stream)) {
+            stream.close();
+            streamReleased();
+          }
+        } else {
+          streamReleased();
+          promise.tryFailure(future.cause());
+        }
+      });
+    }
+
+    void streamReleased() {
+      if (ready && --activeStreams == 0) {
+        activeConnectionCount.decrementAndGet();
+        idleConnectionCount.incrementAndGet();
+      }
+      owner.drain();
+    }
+
+    void closed() {
+      owner.connections.remove(this);
+      if (ready) {
+        ready = false;
+        if (activeStreams > 0) {
+          activeConnectionCount.decrementAndGet();
+        } else {
+          idleConnectionCount.decrementAndGet();
+        }
+      } else {
+        owner.connecting = false;
+        if (!http1Only) {
+          owner.fail(failure == null
+            ? new PrematureChannelClosureException("Server " + channelKey.host + ":" + channelKey.port + " closed the connection before HTTP/2 was established")
+            : failure
+          );
+          return;
+        }
+      }
+      owner.drain();
+    }
+
+    int getActiveStreams() {
+      return activeStreams;
+    }
+  }
+
+  private static class IdleConnectionCloser extends ChannelInboundHandlerAdapter {
+    @Override
+    public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+      if (evt instanceof IdleStateEvent) {
+        Connection connection = ctx.channel().attr(CONNECTION_KEY).get();
+        if (connection == null || connection.getActiveStreams() == 0) {
+          ctx.close();
+        }
+      } else {
+        super.userEventTriggered(ctx, evt);
+      }
+    }
+  }
+
+}
@@ -17,6 +17,7 @@
 package ratpack.http.client.internal;
 
 import io.netty.buffer.ByteBufAllocator;
+import io.netty.handler.ssl.SslContext;
 import io.netty.resolver.AddressResolverGroup;
 import io.netty.resolver.dns.DnsAddressResolverGroup;
 import io.netty.resolver.dns.DnsNameResolverBuilder;
@@ -28,7 +29,10 @@ import ratpack.server.ServerConfig;
 import ratpack.util.Exceptions;
 import ratpack.util.internal.TransportDetector;
 
+import java.net.URI;
 import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.function.Supplier;
 
 public class HttpClientBuilder implements HttpClientSpec {
@@ -37,6 +41,7 @@ public class HttpClientBuilder implements HttpClientSpec {
   private int poolSize;
   private int poolQueueSize = Integer.MAX_VALUE;
   private Duration idleTimeout = Duration.ofSeconds(0);
+  private boolean http2;
   private int maxContentLength = ServerConfig.DEFAULT_MAX_CONTENT_LENGTH;
   private int responseMaxChunkSize = 8192;
   private Duration readTimeout = Duration.ofSeconds(30);
@@ -48,6 +53,12 @@ public class HttpClientBuilder implements HttpClientSpec {
   private ProxyInternal proxy;
   private Supplier<AddressResolverGroup<?>> resolver = addressResolverSupplier(Action.noop());
   private ExecController execController;
+  private int minIdleConnections;
+  private Duration healthCheckInterval = Duration.ZERO;
+  private final Map<URI, SslContext> prewarmTargets = new LinkedHashMap<>();
+  private double retryBudgetRatio = 0.1;
+  private int retryBudgetBurst = 10;
+  private DefaultResponseCacheSpec responseCache;
 
   public HttpClientBuilder() {
   }
@@ -57,6 +68,7 @@ public class HttpClientBuilder implements HttpClientSpec {
     this.poolSize = builder.poolSize;
     this.poolQueueSize = builder.poolQueueSize;
     this.idleTimeout = builder.idleTimeout;
+    this.http2 = builder.http2;
     this.maxContentLength = builder.maxContentLength;
     this.responseMaxChunkSize = builder.responseMaxChunkSize;
     this.readTimeout = builder.readTimeout;
@@ -66,6 +78,12 @@ public class HttpClientBuilder implements HttpClientSpec {
     this.enableMetricsCollection = builder.enableMetricsCollection;
     this.proxy = builder.proxy;
     this.resolver = () -> builder.resolver;
+    this.minIdleConnections = builder.minIdleConnections;
+    this.healthCheckInterval = builder.healthCheckInterval;
+    this.prewarmTargets.putAll(builder.prewarmTargets);
+    this.retryBudgetRatio = builder.retryBudgetRatio;
+    this.retryBudgetBurst = builder.retryBudgetBurst;
+    this.responseCache = builder.responseCacheSpec;
   }
 
   @Override
@@ -92,6 +110,57 @@ public class HttpClientBuilder implements HttpClientSpec {
     return this;
   }
 
+  @Override
+  public HttpClientSpec http2(boolean http2) {
+    this.http2 = http2;
+    return this;
+  }
+
+  @Override
+  public HttpClientSpec minIdleConnections(int minIdleConnections) {
+    this.minIdleConnections = minIdleConnections;
+    return this;
+  }
+
+  @Override
+  public HttpClientSpec healthCheckInterval(Duration healthCheckInterval) {
+    this.healthCheckInterval = healthCheckInterval;
+    return this;
+  }
+
+  @Override
+  public HttpClientSpec prewarm(URI target) {
+    this.prewarmTargets.putIfAbsent(target, null);
+    return this;
+  }
+
+  @Override
+  public HttpClientSpec prewarm(URI target, SslContext sslContext) {
+    this.prewarmTargets.put(target, sslContext);
+    return this;
+  }
+
+  @Override
+  public HttpClientSpec retryBudget(double ratio, int burst) {
+    if (ratio < 0) {
+      throw new IllegalArgumentException("ratio must be >= 0");
+    }
+    if (burst < 0) {
+      throw new IllegalArgumentException("burst must be >= 0");
+    }
+    this.retryBudgetRatio = ratio;
+    this.retryBudgetBurst = burst;
+    return this;
+  }
+
+  @Override
+  public HttpClientSpec responseCache(Action<? super ResponseCacheSpec> cache) {
+    DefaultResponseCacheSpec spec = new DefaultResponseCacheSpec();
+    Exceptions.uncheck(() -> cache.execute(spec));
+    this.responseCache = spec;
+    return this;
+  }
+
   @Override
   public HttpClientSpec byteBufAllocator(ByteBufAllocator byteBufAllocator) {
     this.byteBufAllocator = byteBufAllocator;
@@ -172,12 +241,24 @@ public class HttpClientBuilder implements HttpClientSpec {
     return this;
   }
 
+  @Override
+  public HttpClientSpec cachingAddressResolver(Action<? super CachingAddressResolverSpec> resolver) {
+    DefaultCachingAddressResolverSpec spec = new DefaultCachingAddressResolverSpec();
+    Exceptions.uncheck(() -> resolver.execute(spec));
+    this.resolver = () -> spec.build(newResolverBuilder());
+    return this;
+  }
+
   public HttpClient build() {
-    return new DefaultHttpClient(
+    if (!prewarmTargets.isEmpty() && poolSize == 0) {
+      throw new IllegalStateException("Cannot prewarm connections as connection pooling is disabled. Use HttpClientSpec.poolSize().");
+    }
+    DefaultHttpClient client = new DefaultHttpClient(
       byteBufAllocator,
       poolSize,
       poolQueueSize,
       idleTimeout,
+      http2,
       maxContentLength,
       responseMaxChunkSize,
       readTimeout,
@@ -187,29 +268,54 @@ public class HttpClientBuilder implements HttpClientSpec {
       errorInterceptor,
       enableMetricsCollection,
       resolver.get(),
-      proxy
+      proxy,
+      minIdleConnections,
+      healthCheckInterval,
+      new LinkedHashMap<>(prewarmTargets),
+      retryBudgetRatio,
+      retryBudgetBurst,
+      responseCache
     );
+    if (!prewarmTargets.isEmpty()) {
+      client.prewarm(execController());
+    }
+    return client;
+  }
+
+  private ExecController execController() {
+    if (execController == null) {
+      return ExecController.current().orElseThrow(() ->
+        new IllegalStateException(
+          "Cannot prewarm connections as HttpClient is built on non managed thread, and execController not specified."
+          + " Use HttpClientSpec.execController()."
+        )
+      );
+    }
+    return execController;
   }
 
   private Supplier<AddressResolverGroup<?>> addressResolverSupplier(Action<? super DnsNameResolverBuilder> spec) {
     return () -> {
-      ExecController execController = this.execController;
-      if (execController == null) {
-        execController = ExecController.current().orElseThrow(() ->
-          new IllegalStateException(
-            "Cannot build addressResolver as HttpClient is built on non managed thread, and execController not specified."
-            + " Use HttpClientSpec.execController() or useJdkAddressResolver()."
-          )
-        );
-      }
-
-      DnsNameResolverBuilder resolverBuilder = new DnsNameResolverBuilder()
-        .eventLoop(execController.getEventLoopGroup().next())
-        .channelType(TransportDetector.getDatagramChannelImpl())
-        .socketChannelType(TransportDetector.getSocketChannelImpl());
-
+      DnsNameResolverBuilder resolverBuilder = newResolverBuilder();
       Exceptions.uncheck(() -> spec.execute(resolverBuilder));
       return new DnsAddressResolverGroup(resolverBuilder);
     };
   }
+
+  private DnsNameResolverBuilder newResolverBuilder() {
+    ExecController execController = this.execController;
+    if (execController == null) {
+      execController = ExecController.current().orElseThrow(() ->
+        new IllegalStateException(
+          "Cannot build addressResolver as HttpClient is built on non managed thread, and execController not specified."
+          + " Use HttpClientSpec.execController() or useJdkAddressResolver()."
+        )
+      );
+    }
+
+    return new DnsNameResolverBuilder()
+      .eventLoop(execController.getEventLoopGroup().next())
+      .channelType(TransportDetector.getDatagramChannelImpl())
+      .socketChannelType(TransportDetector.getSocketChannelImpl());
+  }
 }
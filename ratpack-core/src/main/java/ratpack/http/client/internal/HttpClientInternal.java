@@ -16,6 +16,7 @@
 
 package ratpack.http.client.internal;
 
+import ratpack.api.Nullable;
 import ratpack.func.Action;
 import ratpack.http.client.HttpClient;
 import ratpack.http.client.HttpResponse;
@@ -29,4 +30,10 @@ interface HttpClientInternal extends HttpClient {
 
   Action<? super HttpResponse> getResponseInterceptor();
 
+  /**
+   * The latencies of requests to the given host, if metrics collection is enabled.
+   */
+  @Nullable
+  HostLatencies getHostLatencies(String host);
+
 }
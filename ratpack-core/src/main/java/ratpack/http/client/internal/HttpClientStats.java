@@ -16,20 +16,46 @@
 
 package ratpack.http.client.internal;
 
+import ratpack.api.Nullable;
+
+import java.util.Collections;
 import java.util.Map;
 
 public class HttpClientStats {
 
   private final Map<String, HostStats> statsPerHost;
+  private final DnsCacheStats dnsCacheStats;
+  private final Map<String, HostLatencies> latenciesPerHost;
 
   public HttpClientStats(Map<String, HostStats> statsPerHost) {
+    this(statsPerHost, null, Collections.emptyMap());
+  }
+
+  public HttpClientStats(Map<String, HostStats> statsPerHost, @Nullable DnsCacheStats dnsCacheStats, Map<String, HostLatencies> latenciesPerHost) {
     this.statsPerHost = statsPerHost;
+    this.dnsCacheStats = dnsCacheStats;
+    this.latenciesPerHost = latenciesPerHost;
   }
 
   public Map<String, HostStats> getStatsPerHost() {
     return statsPerHost;
   }
 
+  /**
+   * @return The stats of the DNS cache, if the client uses a {@link ratpack.http.client.HttpClientSpec#cachingAddressResolver(ratpack.func.Action) caching resolver}.
+   */
+  @Nullable
+  public DnsCacheStats getDnsCacheStats() {
+    return dnsCacheStats;
+  }
+
+  /**
+   * @return The latencies of requests per host, which are collected if {@link ratpack.http.client.HttpClientSpec#enableMetricsCollection(boolean) metrics collection} is enabled.
+   */
+  public Map<String, HostLatencies> getLatenciesPerHost() {
+    return latenciesPerHost;
+  }
+
   /**
    * @return The sum of {@link #getTotalActiveConnectionCount()} and {@link #getTotalIdleConnectionCount()},
    * a long representing the total number of connections in the connection pool.
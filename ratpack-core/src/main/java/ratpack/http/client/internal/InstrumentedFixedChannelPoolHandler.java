@@ -32,6 +32,12 @@ public class InstrumentedFixedChannelPoolHandler extends NoopFixedChannelPoolHan
     this.maxConnectionCount = poolSize;
   }
 
+  @Override
+  public void channelCreated(Channel ch) throws Exception {
+    ch.attr(HostLatencies.CONNECT_STARTED).set(System.nanoTime());
+    super.channelCreated(ch);
+  }
+
   @Override
   public void channelReleased(Channel ch) throws Exception {
     super.channelReleased(ch);
@@ -30,6 +30,12 @@ public class InstrumentedSimpleChannelPoolHandler extends NoopSimpleChannelPoolH
     this.activeConnectionCount = new LongAdder();
   }
 
+  @Override
+  public void channelCreated(Channel ch) throws Exception {
+    ch.attr(HostLatencies.CONNECT_STARTED).set(System.nanoTime());
+    super.channelCreated(ch);
+  }
+
   @Override
   public void channelReleased(Channel ch) throws Exception {
     super.channelReleased(ch);
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.http.client.internal;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A concurrent histogram of durations, in nanoseconds, with log-linear buckets.
+ * <p>
+ * Each power of two range is divided into 16 buckets,
+ * so that recorded values are accurate to within about 6%, using a fixed amount of memory.
+ * Recording a value is lock free, and does not allocate.
+ */
+public final class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 4;
+  private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+  private final LongAdder sum = new LongAdder();
+
+  public void record(long nanos) {
+    long value = Math.max(0, nanos);
+    counts.incrementAndGet(index(value));
+    sum.add(value);
+  }
+
+  public Snapshot snapshot() {
+    long[] snapshot = new long[BUCKET_COUNT];
+    for (int i = 0; i < BUCKET_COUNT; ++i) {
+      snapshot[i] = counts.get(i);
+    }
+    return new Snapshot(snapshot, sum.sum());
+  }
+
+  static int index(long value) {
+    if (value < SUB_BUCKET_COUNT) {
+      return (int) value;
+    }
+    int magnitude = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+    int shift = magnitude - SUB_BUCKET_BITS;
+    int subBucket = (int) (value >>> shift) & (SUB_BUCKET_COUNT - 1);
+    return (shift + 1) * SUB_BUCKET_COUNT + subBucket;
+  }
+
+  static long highestValue(int index) {
+    if (index < SUB_BUCKET_COUNT) {
+      return index;
+    }
+    int shift = index / SUB_BUCKET_COUNT - 1;
+    long lowest = (long) (SUB_BUCKET_COUNT | index % SUB_BUCKET_COUNT) << shift;
+    return lowest + (1L << shift) - 1;
+  }
+
+  /**
+   * The counts of a histogram at a point in time.
+   */
+  public static final class Snapshot {
+
+    private final long[] counts;
+    private final long sum;
+    private final long count;
+
+    private Snapshot(long[] counts, long sum) {
+      this.counts = counts;
+      this.sum = sum;
+      long count = 0;
+      for (long c : counts) {
+        count += c;
+      }
+      this.count = count;
+    }
+
+    /**
+     * @return The values recorded since the given, earlier, snapshot of the same histogram.
+     */
+    public Snapshot since(Snapshot previous) {
+      long[] interval = new long[BUCKET_COUNT];
+      for (int i = 0; i < BUCKET_COUNT; ++i) {
+        interval[i] = counts[i] - previous.counts[i];
+      }
+      return new Snapshot(interval, sum - previous.sum);
+    }
+
+    /**
+     * @return The number of recorded values.
+     */
+    public long getCount() {
+      return count;
+    }
+
+    /**
+     * @return The mean of the recorded values, or 0 if none have been recorded.
+     */
+    public long getMean() {
+      return count == 0 ? 0 : sum / count;
+    }
+
+    /**
+     * @return The largest recorded value, to the accuracy of the histogram.
+     */
+    public long getMax() {
+      for (int i = BUCKET_COUNT - 1; i >= 0; --i) {
+        if (counts[i] != 0) {
+          return highestValue(i);
+        }
+      }
+      return 0;
+    }
+
+    /**
+     * @param percentile the percentile, between 0 and 100
+     * @return The value that the given percentage of recorded values are less than or equal to, to the accuracy of the histogram.
+     */
+    public long getValueAtPercentile(double percentile) {
+      if (count == 0) {
+        return 0;
+      }
+      long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+      long seen = 0;
+      for (int i = 0; i < BUCKET_COUNT; ++i) {
+        seen += counts[i];
+        if (seen >= rank) {
+          return highestValue(i);
+        }
+      }
+      return getMax();
+    }
+  }
+
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.http.client.internal;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoop;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.ScheduledFuture;
+import ratpack.api.Nullable;
+
+import javax.net.ssl.SSLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed channel pool that keeps a minimum number of idle connections open, and periodically checks its idle connections.
+ * <p>
+ * Connections are opened in advance by acquiring a new channel from the pool, completing its TLS handshake if required, and releasing it.
+ * This happens on the pool's event loop, where the pool also serves acquisitions,
+ * so the acquisitions made to open connections are not interleaved with the acquisitions made by requests.
+ */
+public class MaintainedFixedChannelPool extends CleanClosingFixedChannelPool implements ChannelPoolStats {
+
+  private final HttpChannelKey key;
+  private final ByteBufAllocator byteBufAllocator;
+  private final EventLoop eventLoop;
+  private final int maxConnections;
+  private final int minIdleConnections;
+  private final Duration healthCheckInterval;
+
+  private final AtomicInteger idleConnections = new AtomicInteger();
+  private final LongAdder warmedConnections = new LongAdder();
+  private final LongAdder evictedConnections = new LongAdder();
+
+  // Only accessed on the event loop
+  private int connecting;
+  private boolean connectNew;
+
+  private volatile ScheduledFuture<?> healthCheck;
+
+  private volatile SslContext sslContext;
+  private volatile boolean closed;
+
+  MaintainedFixedChannelPool(
+    Bootstrap bootstrap,
+    InstrumentedChannelPoolHandler handler,
+    HttpChannelKey key,
+    ByteBufAllocator byteBufAllocator,
+    int maxConnections,
+    int maxPendingAcquires,
+    @Nullable HostLatencies latencies,
+    int minIdleConnections,
+    Duration healthCheckInterval
+  ) {
+    super(bootstrap, handler, maxConnections, maxPendingAcquires, latencies);
+    this.key = key;
+    this.byteBufAllocator = byteBufAllocator;
+    this.eventLoop = key.execution.getEventLoop();
+    this.maxConnections = maxConnections;
+    this.minIdleConnections = minIdleConnections;
+    this.healthCheckInterval = healthCheckInterval;
+  }
+
+  /**
+   * Opens the minimum number of idle connections, and schedules the health check if enabled.
+   */
+  void start() {
+    eventLoop.execute(() -> {
+      if (!closed && !healthCheckInterval.isZero()) {
+        long interval = healthCheckInterval.toNanos();
+        healthCheck = eventLoop.scheduleWithFixedDelay(this::checkIdleConnections, interval, interval, TimeUnit.NANOSECONDS);
+      }
+      warm(minIdleConnections);
+    });
+  }
+
+  /**
+   * Opens connections until there are at least the given number of idle connections, subject to the maximum number of connections.
+   */
+  void warm(int connections) {
+    if (!eventLoop.inEventLoop()) {
+      eventLoop.execute(() -> warm(connections));
+      return;
+    }
+    if (closed) {
+      return;
+    }
+    int idle = idleConnections.get();
+    int needed = Math.min(connections - idle - connecting, maxConnections - acquiredChannelCount() - idle);
+    for (int i = 0; i < needed; ++i) {
+      connect();
+    }
+  }
+
+  void setSslContext(SslContext sslContext) {
+    this.sslContext = sslContext;
+  }
+
+  private void connect() {
+    ++connecting;
+    Future<Channel> acquireFuture;
+    connectNew = true;
+    try {
+      acquireFuture = acquire();
+    } finally {
+      connectNew = false;
+    }
+    acquireFuture.addListener(future -> {
+      if (future.isSuccess()) {
+        Channel channel = (Channel) future.getNow();
+        channel.attr(HostLatencies.CONNECT_STARTED).set(null);
+        handshake(channel).addListener(handshakeFuture -> {
+          --connecting;
+          if (handshakeFuture.isSuccess()) {
+            warmedConnections.increment();
+          } else {
+            channel.close();
+          }
+          release(channel);
+        });
+      } else {
+        --connecting;
+      }
+    });
+  }
+
+  private Future<?> handshake(Channel channel) {
+    if (!key.ssl || channel.pipeline().get(RequestActionSupport.SSL_HANDLER_NAME) != null) {
+      return channel.newSucceededFuture();
+    }
+    SslHandler sslHandler;
+    try {
+      sslHandler = RequestActionSupport.createSslHandler(sslContext(), byteBufAllocator, key.host, key.port);
+    } catch (SSLException e) {
+      return channel.newFailedFuture(e);
+    }
+    channel.config().setAutoRead(true);
+    channel.pipeline().addLast(RequestActionSupport.SSL_HANDLER_NAME, sslHandler);
+    return sslHandler.handshakeFuture();
+  }
+
+  private SslContext sslContext() throws SSLException {
+    SslContext sslContext = this.sslContext;
+    if (sslContext == null) {
+      sslContext = SslContextBuilder.forClient().build();
+      this.sslContext = sslContext;
+    }
+    return sslContext;
+  }
+
+  private void checkIdleConnections() {
+    if (closed) {
+      healthCheck.cancel(false);
+      return;
+    }
+    List<Channel> channels = new ArrayList<>(idleConnections.get());
+    for (int i = idleConnections.get(); i > 0; --i) {
+      Channel channel = pollChannel();
+      if (channel == null) {
+        break;
+      }
+      channels.add(channel);
+    }
+    // Offer in reverse, to retain the order that connections are polled in
+    for (int i = channels.size() - 1; i >= 0; --i) {
+      Channel channel = channels.get(i);
+      if (channel.isActive()) {
+        offerChannel(channel);
+      } else {
+        evictedConnections.increment();
+        channel.close();
+      }
+    }
+    warm(minIdleConnections);
+  }
+
+  @Override
+  protected Channel pollChannel() {
+    if (connectNew) {
+      return null;
+    }
+    Channel channel = super.pollChannel();
+    if (channel != null) {
+      idleConnections.decrementAndGet();
+    }
+    return channel;
+  }
+
+  @Override
+  protected boolean offerChannel(Channel channel) {
+    if (super.offerChannel(channel)) {
+      idleConnections.incrementAndGet();
+      return true;
+    } else {
+      return false;
+    }
+  }
+
+  @Override
+  public Future<Void> closeAsync() {
+    closed = true;
+    ScheduledFuture<?> healthCheck = this.healthCheck;
+    if (healthCheck != null) {
+      healthCheck.cancel(false);
+    }
+    return super.closeAsync();
+  }
+
+  @Override
+  public String getHost() {
+    return key.host;
+  }
+
+  @Override
+  public int getActiveConnectionCount() {
+    return acquiredChannelCount();
+  }
+
+  @Override
+  public int getIdleConnectionCount() {
+    return idleConnections.get();
+  }
+
+  @Override
+  public long getWarmedConnectionCount() {
+    return warmedConnections.sum();
+  }
+
+  @Override
+  public long getEvictedConnectionCount() {
+    return evictedConnections.sum();
+  }
+
+}
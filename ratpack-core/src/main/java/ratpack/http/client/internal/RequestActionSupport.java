@@ -18,11 +18,15 @@ package ratpack.http.client.internal;
 
 import com.google.common.net.HostAndPort;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.*;
 import io.netty.channel.pool.ChannelPool;
 import io.netty.handler.codec.PrematureChannelClosureException;
 import io.netty.handler.codec.http.*;
+import io.netty.handler.codec.http2.Http2StreamChannel;
+import io.netty.handler.codec.http2.Http2StreamFrameToHttpObjectCodec;
+import io.netty.handler.codec.http2.HttpConversionUtil;
 import io.netty.handler.ssl.SslContext;
 import io.netty.handler.ssl.SslContextBuilder;
 import io.netty.handler.ssl.SslHandler;
@@ -30,6 +34,7 @@ import io.netty.handler.timeout.ReadTimeoutException;
 import io.netty.handler.timeout.ReadTimeoutHandler;
 import io.netty.util.ReferenceCountUtil;
 import io.netty.util.concurrent.Future;
+import ratpack.api.Nullable;
 import ratpack.exec.Downstream;
 import ratpack.exec.Execution;
 import ratpack.exec.Upstream;
@@ -52,7 +57,7 @@ import java.util.concurrent.TimeUnit;
 
 abstract class RequestActionSupport<T> implements Upstream<T> {
 
-  private static final String SSL_HANDLER_NAME = "ssl";
+  static final String SSL_HANDLER_NAME = "ssl";
   private static final String CLIENT_CODEC_HANDLER_NAME = "clientCodec";
   private static final String READ_TIMEOUT_HANDLER_NAME = "readTimeout";
   private static final String REDIRECT_HANDLER_NAME = "redirect";
@@ -66,12 +71,21 @@ abstract class RequestActionSupport<T> implements Upstream<T> {
   private final ChannelPool channelPool;
   private final int redirectCount;
   private final Action<? super RequestSpec> requestConfigurer;
+  @Nullable
+  private final HostLatencies latencies;
 
   private boolean fired;
   private boolean disposed;
+  private boolean cancelled;
+  // The channel that the request has been sent on, once its response handlers have been added
+  private Channel channel;
   private boolean expectContinue;
   private boolean receivedContinue;
 
+  private long started;
+  private long handshakeStarted;
+  private long requestSent;
+
   RequestActionSupport(URI uri, HttpClientInternal client, int redirectCount, boolean expectContinue, Execution execution, Action<? super RequestSpec> requestConfigurer) throws Exception {
     this.requestConfigurer = requestConfigurer;
     this.requestConfig = RequestConfig.of(uri, client, requestConfigurer);
@@ -81,6 +95,7 @@ abstract class RequestActionSupport<T> implements Upstream<T> {
     this.expectContinue = expectContinue;
     this.channelKey = new HttpChannelKey(requestConfig.uri, requestConfig.connectTimeout, execution);
     this.channelPool = client.getChannelPoolMap().get(channelKey);
+    this.latencies = client.getHostLatencies(channelKey.host);
 
     finalizeHeaders();
   }
@@ -89,9 +104,13 @@ abstract class RequestActionSupport<T> implements Upstream<T> {
 
   @Override
   public void connect(final Downstream<? super T> downstream) throws Exception {
-    channelPool.acquire().addListener(acquireFuture -> {
+    if (latencies != null) {
+      started = System.nanoTime();
+    }
+    acquire().addListener(acquireFuture -> {
       if (acquireFuture.isSuccess()) {
         Channel channel = (Channel) acquireFuture.getNow();
+        recordAcquired(channel);
         if (channel.eventLoop().equals(execution.getEventLoop())) {
           send(downstream, channel);
         } else {
@@ -113,8 +132,35 @@ abstract class RequestActionSupport<T> implements Upstream<T> {
     });
   }
 
+  private void recordAcquired(Channel channel) {
+    if (latencies != null) {
+      long now = System.nanoTime();
+      Long connectStarted = channel.attr(HostLatencies.CONNECT_STARTED).getAndSet(null);
+      if (connectStarted == null) {
+        latencies.getPoolWait().record(now - started);
+      } else {
+        latencies.getPoolWait().record(connectStarted - started);
+        latencies.getConnect().record(now - connectStarted);
+      }
+    }
+  }
+
+  private Future<Channel> acquire() {
+    if (channelPool instanceof Http2ChannelPool) {
+      return ((Http2ChannelPool) channelPool).acquire(execution.getEventLoop(), requestConfig.sslContext);
+    } else {
+      return channelPool.acquire();
+    }
+  }
+
   private void send(Downstream<? super T> downstream, Channel channel) throws Exception {
+    if (cancelled) {
+      ReferenceCountUtil.release(requestConfig.body);
+      channelPool.release(channel);
+      return;
+    }
     channel.config().setAutoRead(true);
+    boolean http2 = channel instanceof Http2StreamChannel;
 
     HttpMessage request;
     if (requestConfig.headers.getNettyHeaders().contains(HttpHeaderNames.EXPECT, HttpHeaderValues.CONTINUE, true)) {
@@ -136,10 +182,15 @@ abstract class RequestActionSupport<T> implements Upstream<T> {
       );
     }
 
+    if (http2) {
+      request.headers().set(HttpConversionUtil.ExtensionHeaderNames.SCHEME.text(), channelKey.ssl ? "https" : "http");
+    }
+
     addCommonResponseHandlers(channel.pipeline(), downstream);
+    this.channel = channel;
 
     Future<?> channelFuture;
-    if (channelKey.ssl) {
+    if (channelKey.ssl && !http2) {
       channelFuture = channel.pipeline().get(SslHandler.class).handshakeFuture();
     } else {
       channelFuture = channel.newSucceededFuture();
@@ -148,6 +199,13 @@ abstract class RequestActionSupport<T> implements Upstream<T> {
     final HttpMessage msg = request;
     channelFuture.addListener(firstFuture -> {
       if (firstFuture.isSuccess()) {
+        if (latencies != null) {
+          long now = System.nanoTime();
+          if (handshakeStarted != 0) {
+            latencies.getTlsHandshake().record(now - handshakeStarted);
+          }
+          requestSent = now;
+        }
         channel.writeAndFlush(msg).addListener(writeFuture -> {
           if (!writeFuture.isSuccess()) {
             error(downstream, writeFuture.cause());
@@ -159,6 +217,23 @@ abstract class RequestActionSupport<T> implements Upstream<T> {
     });
   }
 
+  /**
+   * Abandons this request, so that the downstream is not signalled.
+   * <p>
+   * If the request has been sent, its connection is closed and released, as the response is not wanted.
+   * If it is waiting for a connection, the connection is released when acquired, without sending the request.
+   * Must be called on the execution's event loop.
+   */
+  void cancel() {
+    if (!fired) {
+      fired = true;
+      cancelled = true;
+      if (channel != null) {
+        forceDispose(channel.pipeline());
+      }
+    }
+  }
+
   private void connectFailure(Downstream<? super T> downstream, Throwable e) {
     ReferenceCountUtil.release(requestConfig.body);
 
@@ -217,14 +292,22 @@ abstract class RequestActionSupport<T> implements Upstream<T> {
   }
 
   private void addCommonResponseHandlers(ChannelPipeline p, Downstream<? super T> downstream) throws Exception {
-    if (channelKey.ssl && p.get(SSL_HANDLER_NAME) == null) {
-      //this is added once because netty is not able to properly replace this handler on
-      //pooled channels from request to request. Because a pool is unique to a uri,
-      //doing this works, as subsequent requests would be passing in the same certs.
-      p.addLast(SSL_HANDLER_NAME, createSslHandler());
-    }
+    if (p.channel() instanceof Http2StreamChannel) {
+      // TLS is handled by the parent connection
+      p.addLast(CLIENT_CODEC_HANDLER_NAME, new Http2StreamFrameToHttpObjectCodec(false));
+    } else {
+      if (channelKey.ssl && p.get(SSL_HANDLER_NAME) == null) {
+        //this is added once because netty is not able to properly replace this handler on
+        //pooled channels from request to request. Because a pool is unique to a uri,
+        //doing this works, as subsequent requests would be passing in the same certs.
+        p.addLast(SSL_HANDLER_NAME, createSslHandler());
+        if (latencies != null) {
+          handshakeStarted = System.nanoTime();
+        }
+      }
 
-    p.addLast(CLIENT_CODEC_HANDLER_NAME, new HttpClientCodec(4096, 8192, requestConfig.responseMaxChunkSize, false));
+      p.addLast(CLIENT_CODEC_HANDLER_NAME, new HttpClientCodec(4096, 8192, requestConfig.responseMaxChunkSize, false));
+    }
 
     p.addLast(READ_TIMEOUT_HANDLER_NAME, new ReadTimeoutHandler(requestConfig.readTimeout.toNanos(), TimeUnit.NANOSECONDS));
 
@@ -258,6 +341,10 @@ abstract class RequestActionSupport<T> implements Upstream<T> {
             if (status == HttpResponseStatus.CONTINUE.code()) {
               // received the continue, now wait for the end frame before sending the body
               receivedContinue = true;
+              if (msg instanceof LastHttpContent) {
+                // HTTP/2 informational responses are decoded as full messages
+                channelRead0(ctx, msg);
+              }
               return;
             } else if (!isRedirect(status)) {
               // Received a response other than 100 Continue and not a redirect, so clear that we expect a 100
@@ -266,6 +353,10 @@ abstract class RequestActionSupport<T> implements Upstream<T> {
             }
           }
           this.response = (HttpResponse) msg;
+          if (latencies != null && requestSent != 0) {
+            latencies.getTimeToFirstByte().record(System.nanoTime() - requestSent);
+            requestSent = 0;
+          }
           int maxRedirects = requestConfig.maxRedirects;
           int status = response.status().code();
           String locationValue = response.headers().getAsString(HttpHeaderConstants.LOCATION);
@@ -318,12 +409,20 @@ abstract class RequestActionSupport<T> implements Upstream<T> {
   }
 
   private SslHandler createSslHandler() throws SSLException {
-    SSLEngine sslEngine;
+    SslContext sslContext;
     if (requestConfig.sslContext != null) {
-      sslEngine = createSslEngine(requestConfig.sslContext);
+      sslContext = requestConfig.sslContext;
     } else {
-      sslEngine = createSslEngine(SslContextBuilder.forClient().build());
+      sslContext = SslContextBuilder.forClient().build();
+    }
+    if (channelPool instanceof MaintainedFixedChannelPool) {
+      ((MaintainedFixedChannelPool) channelPool).setSslContext(sslContext);
     }
+    return createSslHandler(sslContext, client.getByteBufAllocator(), channelKey.host, channelKey.port);
+  }
+
+  static SslHandler createSslHandler(SslContext sslContext, ByteBufAllocator byteBufAllocator, String host, int port) {
+    SSLEngine sslEngine = sslContext.newEngine(byteBufAllocator, host, port);
     sslEngine.setUseClientMode(true);
     SSLParameters sslParameters = sslEngine.getSSLParameters();
     sslParameters.setEndpointIdentificationAlgorithm("HTTPS");
@@ -331,19 +430,14 @@ abstract class RequestActionSupport<T> implements Upstream<T> {
     return new SslHandler(sslEngine);
   }
 
-  private SSLEngine createSslEngine(SslContext sslContext) {
-    int port = requestConfig.uri.getPort();
-    if (port == -1) {
-      port = 443;
-    }
-    return sslContext.newEngine(client.getByteBufAllocator(), requestConfig.uri.getHost(), port);
-  }
-
   protected abstract Upstream<T> onRedirect(URI locationUrl, int redirectCount, boolean expectContinue, Action<? super RequestSpec> redirectRequestConfig) throws Exception;
 
   protected void success(Downstream<? super T> downstream, T value) {
     if (!fired) {
       fired = true;
+      if (latencies != null) {
+        latencies.getTotal().record(System.nanoTime() - started);
+      }
       downstream.success(value);
     }
   }
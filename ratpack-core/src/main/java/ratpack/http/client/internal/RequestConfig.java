@@ -26,7 +26,9 @@ import io.netty.handler.ssl.ClientAuth;
 import io.netty.handler.ssl.JdkSslContext;
 import io.netty.handler.ssl.SslContext;
 import io.netty.util.CharsetUtil;
+import ratpack.exec.util.retry.RetryPolicy;
 import ratpack.func.Action;
+import ratpack.func.Factory;
 import ratpack.func.Function;
 import ratpack.http.HttpMethod;
 import ratpack.http.MutableHeaders;
@@ -56,9 +58,24 @@ class RequestConfig {
   final SslContext sslContext;
   final Function<? super ReceivedResponse, Action<? super RequestSpec>> onRedirect;
   final int responseMaxChunkSize;
+  final Duration hedgeDelay;
+  final double hedgePercentile;
+  final Factory<? extends RetryPolicy> retryPolicy;
+
+  /**
+   * The method, URI and headers of the request configured by the given action.
+   * <p>
+   * The body of the request is not created.
+   * Stream body actions are not executed, and given body buffers are released.
+   */
+  static Summary summarize(URI uri, HttpClient httpClient, Action<? super RequestSpec> action) throws Exception {
+    Spec spec = new Spec(uri, httpClient.getByteBufAllocator(), true);
+    action.execute(spec);
+    return new Summary(spec.uri, spec.method, spec.headers, spec.hasBody);
+  }
 
   static RequestConfig of(URI uri, HttpClient httpClient, Action<? super RequestSpec> action) throws Exception {
-    Spec spec = new Spec(uri, httpClient.getByteBufAllocator());
+    Spec spec = new Spec(uri, httpClient.getByteBufAllocator(), false);
 
     spec.readTimeout = httpClient.getReadTimeout();
     spec.connectTimeout = httpClient.getConnectTimeout();
@@ -86,11 +103,14 @@ class RequestConfig {
       spec.decompressResponse,
       spec.maxRedirects,
       spec.sslContext,
-      spec.onRedirect
+      spec.onRedirect,
+      spec.hedgeDelay,
+      spec.hedgePercentile,
+      spec.retryPolicy
     );
   }
 
-  private RequestConfig(URI uri, HttpMethod method, MutableHeaders headers, ByteBuf body, int maxContentLength, int responseMaxChunkSize, Duration connectTimeout, Duration readTimeout, boolean decompressResponse, int maxRedirects, SslContext sslContext, Function<? super ReceivedResponse, Action<? super RequestSpec>> onRedirect) {
+  private RequestConfig(URI uri, HttpMethod method, MutableHeaders headers, ByteBuf body, int maxContentLength, int responseMaxChunkSize, Duration connectTimeout, Duration readTimeout, boolean decompressResponse, int maxRedirects, SslContext sslContext, Function<? super ReceivedResponse, Action<? super RequestSpec>> onRedirect, Duration hedgeDelay, double hedgePercentile, Factory<? extends RetryPolicy> retryPolicy) {
     this.uri = uri;
     this.method = method;
     this.headers = headers;
@@ -103,12 +123,31 @@ class RequestConfig {
     this.maxRedirects = maxRedirects;
     this.sslContext = sslContext;
     this.onRedirect = onRedirect;
+    this.hedgeDelay = hedgeDelay;
+    this.hedgePercentile = hedgePercentile;
+    this.retryPolicy = retryPolicy;
+  }
+
+  static final class Summary {
+
+    final URI uri;
+    final HttpMethod method;
+    final MutableHeaders headers;
+    final boolean hasBody;
+
+    private Summary(URI uri, HttpMethod method, MutableHeaders headers, boolean hasBody) {
+      this.uri = uri;
+      this.method = method;
+      this.headers = headers;
+      this.hasBody = hasBody;
+    }
   }
 
   private static class Spec implements RequestSpec {
 
     private final ByteBufAllocator byteBufAllocator;
     private final URI uri;
+    private final boolean summary;
 
     private MutableHeaders headers = new NettyHeadersBackedMutableHeaders(new DefaultHttpHeaders());
     private boolean decompressResponse = true;
@@ -122,10 +161,15 @@ class RequestConfig {
     private Function<? super ReceivedResponse, Action<? super RequestSpec>> onRedirect;
     private BodyImpl body = new BodyImpl();
     private int responseMaxChunkSize = 8192;
+    private Duration hedgeDelay;
+    private double hedgePercentile;
+    private Factory<? extends RetryPolicy> retryPolicy;
+    private boolean hasBody;
 
-    Spec(URI uri, ByteBufAllocator byteBufAllocator) {
+    Spec(URI uri, ByteBufAllocator byteBufAllocator, boolean summary) {
       this.uri = uri;
       this.byteBufAllocator = byteBufAllocator;
+      this.summary = summary;
     }
 
     @Override
@@ -244,7 +288,34 @@ class RequestConfig {
       return this.readTimeout;
     }
 
+    @Override
+    public RequestSpec hedge(Duration delay) {
+      Preconditions.checkArgument(!delay.isNegative(), "delay must not be negative");
+      this.hedgeDelay = delay;
+      this.hedgePercentile = 0;
+      return this;
+    }
+
+    @Override
+    public RequestSpec hedge(double percentile, Duration defaultDelay) {
+      Preconditions.checkArgument(percentile > 0 && percentile <= 100, "percentile must be > 0 and <= 100");
+      hedge(defaultDelay);
+      this.hedgePercentile = percentile;
+      return this;
+    }
+
+    @Override
+    public RequestSpec retry(Factory<? extends RetryPolicy> retryPolicy) {
+      this.retryPolicy = retryPolicy;
+      return this;
+    }
+
     private void setBodyByteBuf(ByteBuf byteBuf) {
+      if (summary) {
+        hasBody = byteBuf.isReadable();
+        byteBuf.release();
+        return;
+      }
       if (bodyByteBuf != null) {
         bodyByteBuf.release();
       }
@@ -261,6 +332,10 @@ class RequestConfig {
 
       @Override
       public Body stream(Action<? super OutputStream> action) throws Exception {
+        if (summary) {
+          hasBody = true;
+          return this;
+        }
         ByteBuf byteBuf = byteBufAllocator.buffer();
         try (OutputStream outputStream = new ByteBufOutputStream(byteBuf)) {
           action.execute(outputStream);
@@ -0,0 +1,537 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ratpack.http.client.internal;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.DateFormatter;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.util.IllegalReferenceCountException;
+import ratpack.api.Nullable;
+import ratpack.bytebuf.ByteBufRef;
+import ratpack.exec.Downstream;
+import ratpack.exec.Execution;
+import ratpack.exec.Promise;
+import ratpack.func.Action;
+import ratpack.func.Function;
+import ratpack.http.Status;
+import ratpack.http.client.HttpClient;
+import ratpack.http.client.ReceivedResponse;
+import ratpack.http.client.RequestSpec;
+import ratpack.http.internal.ByteBufBackedTypedData;
+import ratpack.http.internal.DefaultMediaType;
+import ratpack.http.internal.NettyHeadersBackedHeaders;
+
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A shared cache of responses, following the caching directives of the server.
+ * <p>
+ * Entries are keyed by method, URI and the values of the request headers named by the {@code Vary} header of the response,
+ * the names of which are remembered per method and URI.
+ * Each response served from the cache is given a retained duplicate of the cached body, so that an entry can be evicted while a response is in use.
+ * Requests that miss while a request for the same key is in flight wait for its response, instead of each making a request.
+ */
+final class ResponseCache {
+
+  private static final int MAX_VARY_INDEX_SIZE = 10_000;
+  private static final long NO_LIFETIME = -1;
+
+  private final int maxEntrySize;
+  @Nullable
+  private final ByteBufAllocator directAllocator;
+
+  private final Cache<String, Entry> entries;
+  private final Cache<String, List<String>> varyIndex;
+  private final ConcurrentMap<String, Flight> inFlight = new ConcurrentHashMap<>();
+
+  ResponseCache(long maxSize, int maxEntrySize, @Nullable ByteBufAllocator directAllocator) {
+    this.maxEntrySize = maxEntrySize;
+    this.directAllocator = directAllocator;
+    this.entries = Caffeine.newBuilder()
+      .maximumWeight(maxSize)
+      .<String, Entry>weigher((key, entry) -> entry.weight)
+      .<String, Entry>removalListener((key, entry, cause) -> {
+        if (entry != null) {
+          entry.content.release();
+        }
+      })
+      .build();
+    this.varyIndex = Caffeine.newBuilder()
+      .maximumSize(MAX_VARY_INDEX_SIZE)
+      .build();
+  }
+
+  /**
+   * Serves the request from the cache if possible, otherwise makes it with the given function and caches the response.
+   * <p>
+   * The configurer is applied to find the cached response without creating the request body,
+   * and should not include the client's request interceptor, which the network function is responsible for,
+   * so that it is only applied to requests that are sent.
+   *
+   * @param network makes the request, with the given configuration
+   */
+  Promise<ReceivedResponse> request(URI uri, HttpClient client, Action<? super RequestSpec> configurer, Function<? super Action<? super RequestSpec>, ? extends Promise<ReceivedResponse>> network) {
+    return Promise.flatten(() -> {
+      RequestConfig.Summary request = RequestConfig.summarize(uri, client, configurer);
+      HttpHeaders requestHeaders = request.headers.getNettyHeaders();
+      Map<String, String> directives = directives(requestHeaders);
+      if (!isCacheable(request, directives)) {
+        return network.apply(configurer);
+      }
+
+      String resource = request.method.getName() + " " + request.uri;
+      List<String> varyNames = varyIndex.getIfPresent(resource);
+      String key = key(resource, varyNames == null ? Collections.emptyList() : varyNames, requestHeaders);
+      Entry entry = entries.getIfPresent(key);
+
+      boolean revalidate = directives.containsKey("no-cache")
+        || "0".equals(directives.get("max-age"))
+        || requestHeaders.containsValue(HttpHeaderNames.PRAGMA, "no-cache", true);
+
+      if (entry != null && !revalidate) {
+        long now = System.nanoTime();
+        if (entry.isFresh(now)) {
+          ReceivedResponse response = toResponse(entry, entry.headers, now);
+          if (response != null) {
+            return Promise.value(response);
+          }
+        } else if (entry.isStaleWhileRevalidate(now)) {
+          ReceivedResponse response = toResponse(entry, entry.headers, now);
+          if (response != null) {
+            if (!inFlight.containsKey(key)) {
+              Execution.fork().start(e ->
+                fetch(key, resource, entry, requestHeaders, configurer, network).result(r -> { })
+              );
+            }
+            return Promise.value(response);
+          }
+        }
+      }
+
+      return fetch(key, resource, entry, requestHeaders, configurer, network);
+    });
+  }
+
+  /**
+   * Releases the cached responses.
+   */
+  void invalidateAll() {
+    entries.invalidateAll();
+  }
+
+  private static boolean isCacheable(RequestConfig.Summary request, Map<String, String> directives) {
+    HttpHeaders headers = request.headers.getNettyHeaders();
+    return request.method.isGet()
+      && !request.hasBody
+      && !directives.containsKey("no-store")
+      && !headers.contains(HttpHeaderNames.AUTHORIZATION)
+      // Conditional and partial requests are made by the caller for its own purposes
+      && !headers.contains(HttpHeaderNames.IF_NONE_MATCH)
+      && !headers.contains(HttpHeaderNames.IF_MODIFIED_SINCE)
+      && !headers.contains(HttpHeaderNames.IF_MATCH)
+      && !headers.contains(HttpHeaderNames.IF_UNMODIFIED_SINCE)
+      && !headers.contains(HttpHeaderNames.RANGE);
+  }
+
+  private Promise<ReceivedResponse> fetch(
+    String key,
+    String resource,
+    @Nullable Entry stale,
+    HttpHeaders requestHeaders,
+    Action<? super RequestSpec> configurer,
+    Function<? super Action<? super RequestSpec>, ? extends Promise<ReceivedResponse>> network
+  ) throws Exception {
+    Flight flight = new Flight();
+    Flight existing = inFlight.putIfAbsent(key, flight);
+    if (existing != null) {
+      return existing.join().flatMap(entry -> {
+        // The response may vary on headers that were not known when the request was made
+        ReceivedResponse response = entry == null || !entry.isFor(requestHeaders) ? null : toResponse(entry, entry.headers, System.nanoTime());
+        if (response == null) {
+          return network.apply(configurer);
+        } else {
+          return Promise.value(response);
+        }
+      });
+    }
+
+    Action<? super RequestSpec> conditionalConfigurer = stale == null ? configurer : configurer.append(stale::addValidators);
+    return network.apply(conditionalConfigurer)
+      .wiretap(result -> {
+        if (result.isError()) {
+          land(key, flight, null);
+        }
+      })
+      .flatMap(response -> {
+        Entry entry = null;
+        try {
+          if (stale != null && response.getStatus().getCode() == 304) {
+            entry = refresh(key, stale, response);
+            ReceivedResponse cached = toResponse(stale, entry == null ? merge(stale.headers, response) : entry.headers, System.nanoTime());
+            if (cached != null) {
+              return Promise.value(cached);
+            } else {
+              // The stale response was evicted and released while being revalidated
+              return network.apply(configurer);
+            }
+          } else {
+            entry = store(resource, requestHeaders, response);
+            return Promise.value(response);
+          }
+        } finally {
+          land(key, flight, entry);
+        }
+      });
+  }
+
+  private void land(String key, Flight flight, @Nullable Entry entry) {
+    inFlight.remove(key, flight);
+    flight.complete(entry);
+  }
+
+  @Nullable
+  private Entry store(String resource, HttpHeaders requestHeaders, ReceivedResponse response) {
+    HttpHeaders headers = response.getHeaders().getNettyHeaders();
+    ByteBuf body = response.getBody().getBuffer();
+    if (response.getStatus().getCode() != 200 || body.readableBytes() > maxEntrySize) {
+      return null;
+    }
+    Freshness freshness = Freshness.of(headers);
+    if (freshness == null) {
+      return null;
+    }
+
+    List<String> varyNames = freshness.varyNames;
+    if (!varyNames.equals(varyIndex.getIfPresent(resource))) {
+      varyIndex.put(resource, varyNames);
+    }
+    ByteBuf content = copy(body);
+    Entry entry = new Entry(response.getStatus(), new DefaultHttpHeaders().add(headers), content, freshness, varyValues(varyNames, requestHeaders));
+    entries.put(key(resource, varyNames, requestHeaders), entry);
+    return entry;
+  }
+
+  /**
+   * Replaces the stale entry with one that has the headers of the not modified response.
+   *
+   * @return the refreshed entry, or {@code null} if the response may no longer be cached or the stale entry was released
+   */
+  @Nullable
+  private Entry refresh(String key, Entry stale, ReceivedResponse notModified) {
+    HttpHeaders headers = merge(stale.headers, notModified);
+    Freshness freshness = Freshness.of(headers);
+    if (freshness == null) {
+      entries.invalidate(key);
+      return null;
+    }
+    ByteBuf content;
+    try {
+      content = stale.content.retainedDuplicate();
+    } catch (IllegalReferenceCountException e) {
+      return null;
+    }
+    Entry entry = new Entry(stale.status, headers, content, freshness, stale.varyValues);
+    entries.put(key, entry);
+    return entry;
+  }
+
+  private static HttpHeaders merge(HttpHeaders stored, ReceivedResponse notModified) {
+    HttpHeaders headers = new DefaultHttpHeaders().add(stored);
+    HttpHeaders updates = notModified.getHeaders().getNettyHeaders();
+    for (String name : updates.names()) {
+      if (!HttpHeaderNames.CONTENT_LENGTH.contentEqualsIgnoreCase(name)) {
+        headers.set(name, updates.getAll(name));
+      }
+    }
+    return headers;
+  }
+
+  private ByteBuf copy(ByteBuf body) {
+    int size = body.readableBytes();
+    ByteBuf content = directAllocator == null ? Unpooled.buffer(size, size) : directAllocator.directBuffer(size, size);
+    return content.writeBytes(body, body.readerIndex(), size);
+  }
+
+  @Nullable
+  private static ReceivedResponse toResponse(Entry entry, HttpHeaders headers, long now) {
+    ByteBuf content;
+    try {
+      content = entry.content.retainedDuplicate();
+    } catch (IllegalReferenceCountException e) {
+      return null;
+    }
+    ByteBuf body = new ByteBufRef(content);
+    Execution.current().onComplete(() -> {
+      if (body.refCnt() > 0) {
+        body.release();
+      }
+    });
+    HttpHeaders responseHeaders = new DefaultHttpHeaders()
+      .add(headers)
+      .set(HttpHeaderNames.AGE, entry.age(now));
+    ByteBufBackedTypedData typedData = new ByteBufBackedTypedData(body, DefaultMediaType.get(responseHeaders.get(HttpHeaderNames.CONTENT_TYPE)));
+    return new DefaultReceivedResponse(entry.status, new NettyHeadersBackedHeaders(responseHeaders), typedData);
+  }
+
+  private static String key(String resource, List<String> varyNames, HttpHeaders requestHeaders) {
+    if (varyNames.isEmpty()) {
+      return resource;
+    }
+    StringBuilder key = new StringBuilder(resource);
+    List<String> values = varyValues(varyNames, requestHeaders);
+    for (int i = 0; i < varyNames.size(); ++i) {
+      key.append('\n').append(varyNames.get(i)).append(':').append(values.get(i));
+    }
+    return key.toString();
+  }
+
+  private static List<String> varyValues(List<String> varyNames, HttpHeaders requestHeaders) {
+    List<String> values = new ArrayList<>(varyNames.size());
+    for (String name : varyNames) {
+      values.add(String.join(",", requestHeaders.getAll(name)));
+    }
+    return values;
+  }
+
+  /**
+   * Parses the {@code Cache-Control} directives of the given headers, with lower case names and unquoted values.
+   */
+  static Map<String, String> directives(HttpHeaders headers) {
+    List<String> values = headers.getAll(HttpHeaderNames.CACHE_CONTROL);
+    if (values.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    Map<String, String> directives = new HashMap<>();
+    for (String value : values) {
+      for (String directive : value.split(",")) {
+        int equals = directive.indexOf('=');
+        if (equals == -1) {
+          directives.put(directive.trim().toLowerCase(Locale.ROOT), "");
+        } else {
+          String argument = directive.substring(equals + 1).trim();
+          if (argument.length() > 1 && argument.startsWith("\"") && argument.endsWith("\"")) {
+            argument = argument.substring(1, argument.length() - 1);
+          }
+          directives.put(directive.substring(0, equals).trim().toLowerCase(Locale.ROOT), argument);
+        }
+      }
+    }
+    return directives;
+  }
+
+  private static long seconds(@Nullable String value) {
+    if (value == null) {
+      return NO_LIFETIME;
+    }
+    try {
+      return Math.max(0, Long.parseLong(value));
+    } catch (NumberFormatException e) {
+      // Invalid values are treated as stale, as per RFC 7234
+      return 0;
+    }
+  }
+
+  /**
+   * How long a response may be used for, as determined by its headers.
+   */
+  private static final class Freshness {
+
+    private final long lifetimeSeconds;
+    private final long initialAgeSeconds;
+    private final long staleWhileRevalidateSeconds;
+    private final List<String> varyNames;
+
+    private Freshness(long lifetimeSeconds, long initialAgeSeconds, long staleWhileRevalidateSeconds, List<String> varyNames) {
+      this.lifetimeSeconds = lifetimeSeconds;
+      this.initialAgeSeconds = initialAgeSeconds;
+      this.staleWhileRevalidateSeconds = staleWhileRevalidateSeconds;
+      this.varyNames = varyNames;
+    }
+
+    /**
+     * @return the freshness of a response with the given headers, or {@code null} if it may not be stored or there is no benefit in storing it
+     */
+    @Nullable
+    static Freshness of(HttpHeaders headers) {
+      Map<String, String> directives = directives(headers);
+      if (directives.containsKey("no-store") || directives.containsKey("private")) {
+        return null;
+      }
+
+      List<String> varyNames = new ArrayList<>();
+      for (String vary : headers.getAll(HttpHeaderNames.VARY)) {
+        for (String name : vary.split(",")) {
+          String trimmed = name.trim().toLowerCase(Locale.ROOT);
+          if (trimmed.equals("*")) {
+            return null;
+          } else if (!trimmed.isEmpty()) {
+            varyNames.add(trimmed);
+          }
+        }
+      }
+
+      long lifetime;
+      if (directives.containsKey("no-cache")) {
+        lifetime = 0;
+      } else if (directives.containsKey("s-maxage")) {
+        lifetime = seconds(directives.get("s-maxage"));
+      } else if (directives.containsKey("max-age")) {
+        lifetime = seconds(directives.get("max-age"));
+      } else {
+        lifetime = expiresLifetime(headers);
+      }
+
+      long staleWhileRevalidate = 0;
+      if (!directives.containsKey("must-revalidate") && !directives.containsKey("no-cache") && !directives.containsKey("proxy-revalidate")) {
+        staleWhileRevalidate = Math.max(0, seconds(directives.get("stale-while-revalidate")));
+      }
+
+      boolean hasValidators = headers.contains(HttpHeaderNames.ETAG) || headers.contains(HttpHeaderNames.LAST_MODIFIED);
+      if (lifetime <= 0 && staleWhileRevalidate == 0 && !hasValidators) {
+        return null;
+      }
+
+      return new Freshness(Math.max(0, lifetime), Math.max(0, seconds(headers.get(HttpHeaderNames.AGE))), staleWhileRevalidate, Collections.unmodifiableList(varyNames));
+    }
+
+    private static long expiresLifetime(HttpHeaders headers) {
+      String expires = headers.get(HttpHeaderNames.EXPIRES);
+      if (expires == null) {
+        return NO_LIFETIME;
+      }
+      Date expiresDate = DateFormatter.parseHttpDate(expires);
+      if (expiresDate == null) {
+        return 0;
+      }
+      String date = headers.get(HttpHeaderNames.DATE);
+      Date dateDate = date == null ? null : DateFormatter.parseHttpDate(date);
+      long from = dateDate == null ? System.currentTimeMillis() : dateDate.getTime();
+      return TimeUnit.MILLISECONDS.toSeconds(expiresDate.getTime() - from);
+    }
+  }
+
+  private static final class Entry {
+
+    private final Status status;
+    private final HttpHeaders headers;
+    private final ByteBuf content;
+    private final List<String> varyNames;
+    private final List<String> varyValues;
+    private final String etag;
+    private final String lastModified;
+    private final long storedAt;
+    private final long initialAgeSeconds;
+    private final long freshUntil;
+    private final long staleUntil;
+    private final int weight;
+
+    private Entry(Status status, HttpHeaders headers, ByteBuf content, Freshness freshness, List<String> varyValues) {
+      this.status = status;
+      this.headers = headers;
+      this.content = content;
+      this.varyNames = freshness.varyNames;
+      this.varyValues = varyValues;
+      this.etag = headers.get(HttpHeaderNames.ETAG);
+      this.lastModified = headers.get(HttpHeaderNames.LAST_MODIFIED);
+      this.storedAt = System.nanoTime();
+      this.initialAgeSeconds = freshness.initialAgeSeconds;
+      this.freshUntil = storedAt + TimeUnit.SECONDS.toNanos(Math.max(0, freshness.lifetimeSeconds - freshness.initialAgeSeconds));
+      this.staleUntil = freshUntil + TimeUnit.SECONDS.toNanos(freshness.staleWhileRevalidateSeconds);
+      this.weight = content.capacity() + headersSize(headers);
+    }
+
+    private static int headersSize(HttpHeaders headers) {
+      int size = 0;
+      for (Map.Entry<String, String> header : headers) {
+        size += header.getKey().length() + header.getValue().length();
+      }
+      return size;
+    }
+
+    boolean isFresh(long now) {
+      return now - freshUntil < 0;
+    }
+
+    boolean isStaleWhileRevalidate(long now) {
+      return now - staleUntil < 0;
+    }
+
+    boolean isFor(HttpHeaders requestHeaders) {
+      return varyValues.equals(varyValues(varyNames, requestHeaders));
+    }
+
+    long age(long now) {
+      return initialAgeSeconds + TimeUnit.NANOSECONDS.toSeconds(now - storedAt);
+    }
+
+    void addValidators(RequestSpec spec) {
+      if (etag != null) {
+        spec.getHeaders().set(HttpHeaderNames.IF_NONE_MATCH, etag);
+      }
+      if (lastModified != null) {
+        spec.getHeaders().set(HttpHeaderNames.IF_MODIFIED_SINCE, lastModified);
+      }
+    }
+  }
+
+  /**
+   * A request in flight, that other requests for the same key can wait for.
+   */
+  private static final class Flight {
+
+    private final List<Downstream<? super Entry>> waiters = new ArrayList<>();
+    private boolean landed;
+    private Entry entry;
+
+    Promise<Entry> join() {
+      return Promise.async(downstream -> {
+        synchronized (this) {
+          if (!landed) {
+            waiters.add(downstream);
+            return;
+          }
+        }
+        downstream.success(entry);
+      });
+    }
+
+    void complete(@Nullable Entry entry) {
+      List<Downstream<? super Entry>> toSignal;
+      synchronized (this) {
+        this.entry = entry;
+        landed = true;
+        toSignal = new ArrayList<>(waiters);
+        waiters.clear();
+      }
+      for (Downstream<? super Entry> waiter : toSignal) {
+        waiter.success(entry);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ratpack.http.client.internal;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits the retries and hedged requests of a client to a ratio of its requests.
+ * <p>
+ * Each request deposits the ratio into a balance, and each retry withdraws one from it.
+ * The balance is capped at the burst size, which is also the initial balance,
+ * so that a failing target cannot accumulate more retries than that.
+ */
+final class RetryBudget {
+
+  // The balance is held in thousandths of a retry, so that fractional ratios accumulate without floating point arithmetic
+  private static final long SCALE = 1000;
+
+  private final long deposit;
+  private final long capacity;
+  private final AtomicLong balance;
+
+  RetryBudget(double ratio, int burst) {
+    this.deposit = Math.round(ratio * SCALE);
+    this.capacity = burst * SCALE;
+    this.balance = new AtomicLong(capacity);
+  }
+
+  /**
+   * Records that a request has been made.
+   */
+  void deposit() {
+    long current;
+    do {
+      current = balance.get();
+      if (current >= capacity) {
+        return;
+      }
+    } while (!balance.compareAndSet(current, Math.min(capacity, current + deposit)));
+  }
+
+  /**
+   * Attempts to withdraw one retry.
+   *
+   * @return whether the retry is within the budget
+   */
+  boolean tryWithdraw() {
+    long current;
+    do {
+      current = balance.get();
+      if (current < SCALE) {
+        return false;
+      }
+    } while (!balance.compareAndSet(current, current - SCALE));
+    return true;
+  }
+
+}
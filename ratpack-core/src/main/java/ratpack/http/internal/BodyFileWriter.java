@@ -0,0 +1,106 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.http.internal;
+
+import com.google.common.collect.ImmutableSet;
+import io.netty.buffer.ByteBuf;
+import ratpack.exec.Blocking;
+import ratpack.exec.Execution;
+import ratpack.exec.Promise;
+import ratpack.file.FileIo;
+import ratpack.http.WrittenBody;
+import ratpack.stream.TransformablePublisher;
+import ratpack.util.Exceptions;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.zip.CRC32;
+
+/**
+ * Writes a request body to a file, as it is received.
+ * <p>
+ * The file channel performs its IO on the blocking executor, so that writing to disk does not block the event loop.
+ * Each buffer is written before the next is requested, so that reading the body from the connection is throttled to the speed of the disk.
+ */
+public final class BodyFileWriter {
+
+  private static final Set<OpenOption> OPTIONS = ImmutableSet.of(StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+
+  private BodyFileWriter() {
+  }
+
+  public static Promise<WrittenBody> write(TransformablePublisher<? extends ByteBuf> body, Path file) {
+    CRC32 crc32 = new CRC32();
+    ExecutorService executor = Execution.current().getController().getBlockingExecutor();
+    Promise<AsynchronousFileChannel> channel = Blocking.get(() -> AsynchronousFileChannel.open(file, OPTIONS, executor));
+    TransformablePublisher<ByteBuf> checksummed = body.map(byteBuf -> {
+      for (ByteBuffer buffer : byteBuf.nioBuffers()) {
+        crc32.update(buffer);
+      }
+      return byteBuf;
+    });
+
+    return FileIo.write(checksummed, channel)
+      .<WrittenBody>map(length -> new DefaultWrittenBody(file, length, crc32.getValue()))
+      .flatMapError(e ->
+        Blocking.get(() -> {
+          Files.deleteIfExists(file);
+          throw Exceptions.toException(e);
+        })
+      );
+  }
+
+  private static final class DefaultWrittenBody implements WrittenBody {
+
+    private final Path file;
+    private final long length;
+    private final long crc32;
+
+    DefaultWrittenBody(Path file, long length, long crc32) {
+      this.file = file;
+      this.length = length;
+      this.crc32 = crc32;
+    }
+
+    @Override
+    public Path getFile() {
+      return file;
+    }
+
+    @Override
+    public long getLength() {
+      return length;
+    }
+
+    @Override
+    public long getCrc32() {
+      return crc32;
+    }
+
+    @Override
+    public String toString() {
+      return "WrittenBody{file=" + file + ", length=" + length + ", crc32=" + Long.toHexString(crc32) + '}';
+    }
+  }
+
+}
@@ -44,6 +44,7 @@ import ratpack.util.internal.ImmutableDelegatingMultiValueMap;
 
 import java.net.InetSocketAddress;
 import java.net.URI;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
@@ -303,6 +304,16 @@ public class DefaultRequest implements Request {
     return getBodyStream();
   }
 
+  @Override
+  public Promise<WrittenBody> getBodyTo(Path file) {
+    return BodyFileWriter.write(getBodyStream(), file);
+  }
+
+  @Override
+  public Promise<WrittenBody> getBodyTo(Path file, long maxContentLength) {
+    return BodyFileWriter.write(getBodyStream(maxContentLength), file);
+  }
+
   @Override
   public Headers getHeaders() {
     return headers;
@@ -32,6 +32,7 @@ import io.netty.util.CharsetUtil;
 import org.reactivestreams.Publisher;
 import ratpack.api.Nullable;
 import ratpack.exec.Operation;
+import ratpack.file.internal.ByteRanges;
 import ratpack.file.internal.ResponseTransmitter;
 import ratpack.func.Action;
 import ratpack.http.Headers;
@@ -54,7 +55,7 @@ public class DefaultResponse implements Response {
   private Status status = Status.OK;
   private final MutableHeaders headers;
   private final ByteBufAllocator byteBufAllocator;
-  private final ResponseTransmitter responseTransmitter;
+  private ResponseTransmitter responseTransmitter;
 
   private boolean contentTypeSet;
   private Set<Cookie> cookies;
@@ -64,7 +65,21 @@ public class DefaultResponse implements Response {
     this.byteBufAllocator = byteBufAllocator;
     this.responseTransmitter = responseTransmitter;
     this.headers = new MutableHeadersWrapper(headers);
-    this.responseFinalizers = Lists.newArrayList();
+  }
+
+  /**
+   * Prepares this response for reuse by a subsequent request, which must only happen once this response has been sent.
+   * <p>
+   * The underlying headers are not cleared by this method, as they are owned by the caller.
+   *
+   * @param responseTransmitter the transmitter of the subsequent request
+   */
+  public void reset(ResponseTransmitter responseTransmitter) {
+    this.responseTransmitter = responseTransmitter;
+    this.status = Status.OK;
+    this.contentTypeSet = false;
+    this.cookies = null;
+    this.responseFinalizers = null;
   }
 
   class MutableHeadersWrapper implements MutableHeaders {
@@ -282,6 +297,15 @@ public class DefaultResponse implements Response {
     });
   }
 
+  public void sendFile(Path file, ByteRanges ranges) {
+    finalizeResponse(() -> {
+      setCookieHeader();
+      responseTransmitter.transmit(status.getNettyStatus(), file, ranges);
+    }, t -> {
+      throw t;
+    });
+  }
+
   @Override
   public void sendStream(Publisher<? extends ByteBuf> stream) {
     finalizeResponse(() -> {
@@ -294,6 +318,9 @@ public class DefaultResponse implements Response {
 
   @Override
   public Response beforeSend(Action<? super Response> responseFinalizer) {
+    if (responseFinalizers == null) {
+      responseFinalizers = Lists.newArrayList();
+    }
     responseFinalizers.add(responseFinalizer);
     return this;
   }
@@ -357,15 +384,15 @@ public class DefaultResponse implements Response {
   }
 
   private void finalizeResponse(Runnable then, Consumer<? super RuntimeException> onError) {
-    List<Action<? super Response>> finalizersCopy = ImmutableList.copyOf(responseFinalizers);
-    responseFinalizers.clear();
-    if (finalizersCopy.isEmpty()) {
+    if (responseFinalizers == null || responseFinalizers.isEmpty()) {
       try {
         then.run();
       } catch (Exception t) {
         onError.accept(Exceptions.uncheck(t));
       }
     } else {
+      List<Action<? super Response>> finalizersCopy = ImmutableList.copyOf(responseFinalizers);
+      responseFinalizers.clear();
       finalizeResponse(finalizersCopy.iterator(), then, onError);
     }
   }
@@ -21,22 +21,25 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
 import com.google.common.reflect.TypeToken;
-import io.netty.buffer.Unpooled;
+import io.netty.buffer.ByteBufAllocator;
 import org.reactivestreams.Publisher;
 import ratpack.api.Nullable;
 import ratpack.func.Function;
+import ratpack.handling.Context;
 import ratpack.http.ResponseChunks;
 import ratpack.http.internal.HttpHeaderConstants;
+import ratpack.jackson.internal.BatchingByteBufOutputStream;
 import ratpack.jackson.internal.DefaultJsonParseOpts;
 import ratpack.jackson.internal.DefaultJsonRender;
+import ratpack.jackson.internal.JsonStreamParser;
 import ratpack.parse.Parse;
 import ratpack.registry.Registry;
 import ratpack.stream.StreamMapper;
 import ratpack.stream.Streams;
+import ratpack.stream.TransformablePublisher;
 import ratpack.stream.WriteStream;
 
 import java.io.IOException;
-import java.io.OutputStream;
 
 /**
  * Provides key integration points with the Jackson support for dealing with JSON.
@@ -483,6 +486,100 @@ public abstract class Jackson {
     return Parse.<T, JsonParseOpts>of(type, new DefaultJsonParseOpts(objectMapper));
   }
 
+  /**
+   * Incrementally parses the request body as a stream of JSON values of the given type.
+   * <p>
+   * Unlike {@link #fromJson(Class)}, the request body is not buffered in memory before parsing.
+   * Each chunk of the body is fed to a non-blocking parser as it is received,
+   * and the elements of a top level JSON array are emitted as soon as they have been parsed.
+   * The body is only read as fast as the elements are requested by the subscriber,
+   * so arbitrarily large arrays can be consumed in memory proportional to the size of a single element.
+   * <pre class="java">{@code
+   * import ratpack.test.embed.EmbeddedApp;
+   * import ratpack.jackson.Jackson;
+   *
+   * import static org.junit.Assert.*;
+   *
+   * public class Example {
+   *
+   *   public static class Person {
+   *     public String name;
+   *   }
+   *
+   *   public static void main(String... args) throws Exception {
+   *     EmbeddedApp.of(s -> s
+   *       .handlers(chain -> chain
+   *         .post(ctx ->
+   *           Jackson.fromJsonStream(ctx, Person.class)
+   *             .map(person -> person.name)
+   *             .toList()
+   *             .then(names -> ctx.render(String.join(",", names)))
+   *         )
+   *       )
+   *     ).test(httpClient -> {
+   *       String response = httpClient.requestSpec(r -> r.getBody()
+   *         .type("application/json")
+   *         .text("[{\"name\":\"a\"},{\"name\":\"b\"}]")
+   *       ).postText();
+   *       assertEquals("a,b", response);
+   *     });
+   *   }
+   * }
+   * }</pre>
+   * <p>
+   * Top level values that are not arrays, such as a single object or a sequence of whitespace separated objects, are each emitted as a single element.
+   * JSON {@code null} elements are skipped for all element types, including {@link JsonNode}, as they cannot be emitted by a stream.
+   * <p>
+   * The body is read via {@link ratpack.http.Request#getBodyStream()}, and so is subject to the request's maximum content length.
+   * The request content type is not checked.
+   * <p>
+   * The request body will be parsed using an {@link ObjectMapper} obtained from the context registry.
+   *
+   * @param context the request context
+   * @param type the type of the elements
+   * @param <T> the type of the elements
+   * @return a publisher of the parsed elements
+   * @since 1.10
+   */
+  public static <T> TransformablePublisher<T> fromJsonStream(Context context, Class<T> type) {
+    return fromJsonStream(context, TypeToken.of(type), null);
+  }
+
+  /**
+   * Incrementally parses the request body as a stream of JSON values of the given type.
+   * <p>
+   * See {@link #fromJsonStream(Context, Class)} for details.
+   *
+   * @param context the request context
+   * @param type the type of the elements
+   * @param <T> the type of the elements
+   * @return a publisher of the parsed elements
+   * @since 1.10
+   */
+  public static <T> TransformablePublisher<T> fromJsonStream(Context context, TypeToken<T> type) {
+    return fromJsonStream(context, type, null);
+  }
+
+  /**
+   * Incrementally parses the request body as a stream of JSON values of the given type.
+   * <p>
+   * See {@link #fromJsonStream(Context, Class)} for details.
+   * <p>
+   * The request body will be parsed using the given {@link ObjectMapper}.
+   * If it is {@code null}, a mapper will be obtained from the context registry.
+   *
+   * @param context the request context
+   * @param type the type of the elements
+   * @param objectMapper the object mapper to use to convert the JSON into Java objects
+   * @param <T> the type of the elements
+   * @return a publisher of the parsed elements
+   * @since 1.10
+   */
+  public static <T> TransformablePublisher<T> fromJsonStream(Context context, TypeToken<T> type, @Nullable ObjectMapper objectMapper) {
+    ObjectMapper mapper = objectMapper == null ? context.get(ObjectMapper.class) : objectMapper;
+    return JsonStreamParser.parse(context.getRequest().getBodyStream(), type, mapper);
+  }
+
   /**
    * Renders a data stream as a JSON list, directly streaming the JSON.
    * <p>
@@ -534,9 +631,38 @@ public abstract class Jackson {
    * @see Streams#streamMap(Publisher, StreamMapper)
    */
   public static <T> ResponseChunks chunkedJsonList(Registry registry, Publisher<T> stream) {
-    return chunkedJsonList(getObjectWriter(registry), stream);
+    return chunkedJsonList(registry, stream, 1);
+  }
+
+  /**
+   * Renders a data stream as a JSON list, directly streaming the JSON in batches of at least the given number of bytes.
+   * <p>
+   * Identical to {@link #chunkedJsonList(Registry, Publisher)}, except that the JSON of consecutive items is coalesced into pooled buffers obtained from the registry's {@link ByteBufAllocator}.
+   * A buffer is only written to the response once it holds at least {@code batchSize} bytes, or the stream completes.
+   * This reduces the number of writes to the network when streaming many small items,
+   * at the expense of delaying items until enough subsequent items have been produced to fill a batch.
+   * As such, it is best suited to streams that produce items quickly, and not to streams of infrequent events.
+   *
+   * @param registry the registry to obtain the object mapper and buffer allocator from
+   * @param stream the stream to render
+   * @param batchSize the minimum number of bytes to write to the response at a time, where {@code 1} writes each item as it is produced
+   * @param <T> the type of item in the stream
+   * @return a renderable object
+   * @since 1.10
+   */
+  public static <T> ResponseChunks chunkedJsonList(Registry registry, Publisher<T> stream, int batchSize) {
+    return chunkedJsonList(getObjectWriter(registry), stream, registry.get(ByteBufAllocator.class), batchSize);
   }
 
+  /**
+   * Returns the object writer to use for rendering JSON.
+   * <p>
+   * If the registry contains an {@link ObjectWriter}, it is used.
+   * Otherwise, the default writer of the {@link ObjectMapper} in the registry is used.
+   *
+   * @param registry the registry to obtain the writer or mapper from
+   * @return an object writer
+   */
   public static ObjectWriter getObjectWriter(Registry registry) {
     return registry.maybeGet(ObjectWriter.class)
       .orElseGet(() -> registry.get(ObjectMapper.class).writer());
@@ -554,18 +680,30 @@ public abstract class Jackson {
    * @see #chunkedJsonList(Registry, Publisher)
    */
   public static <T> ResponseChunks chunkedJsonList(ObjectWriter objectWriter, Publisher<T> stream) {
-    return ResponseChunks.bufferChunks(HttpHeaderConstants.JSON, Streams.streamMap(stream, (s, out) -> {
-      JsonGenerator generator = objectWriter.getFactory().createGenerator(new OutputStream() {
-        @Override
-        public void write(int b) throws IOException {
-          throw new UnsupportedOperationException();
-        }
+    return chunkedJsonList(objectWriter, stream, ByteBufAllocator.DEFAULT, 1);
+  }
 
-        @Override
-        public void write(@SuppressWarnings("NullableProblems") byte[] b, int off, int len) throws IOException {
-          out.item(Unpooled.copiedBuffer(b, off, len));
-        }
-      });
+  /**
+   * Renders a data stream as a JSON list, directly streaming the JSON in batches of at least the given number of bytes.
+   * <p>
+   * Identical to {@link #chunkedJsonList(Registry, Publisher, int)}, except uses the given object writer and allocator instead of obtaining them from the registry.
+   *
+   * @param objectWriter the object write to use to convert stream items to their JSON representation
+   * @param stream the stream to render
+   * @param allocator the allocator of the buffers to write the JSON to
+   * @param batchSize the minimum number of bytes to write to the response at a time, where {@code 1} writes each item as it is produced
+   * @param <T> the type of item in the stream
+   * @return a renderable object
+   * @see #chunkedJsonList(Registry, Publisher, int)
+   * @since 1.10
+   */
+  public static <T> ResponseChunks chunkedJsonList(ObjectWriter objectWriter, Publisher<T> stream, ByteBufAllocator allocator, int batchSize) {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("batchSize must be > 0");
+    }
+    return ResponseChunks.bufferChunks(HttpHeaderConstants.JSON, Streams.streamMap(stream, (s, out) -> {
+      BatchingByteBufOutputStream outputStream = new BatchingByteBufOutputStream(allocator, batchSize, out);
+      JsonGenerator generator = objectWriter.getFactory().createGenerator(outputStream);
 
       generator.writeStartArray();
 
@@ -576,12 +714,14 @@ public abstract class Jackson {
             generator.writeObject(item);
           } catch (Exception e) {
             s.cancel();
+            outputStream.discard();
             out.error(e);
           }
         }
 
         @Override
         public void error(Throwable throwable) {
+          outputStream.discard();
           out.error(throwable);
         }
 
@@ -590,8 +730,10 @@ public abstract class Jackson {
           try {
             generator.writeEndArray();
             generator.close();
+            outputStream.emit();
             out.complete();
           } catch (IOException e) {
+            outputStream.discard();
             out.error(e);
           }
         }
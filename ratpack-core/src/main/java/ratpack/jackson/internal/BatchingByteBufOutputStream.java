@@ -0,0 +1,93 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.jackson.internal;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import ratpack.stream.WriteStream;
+
+import java.io.OutputStream;
+
+/**
+ * An output stream that accumulates bytes in pooled buffers, emitting each buffer once it holds at least the batch size.
+ * <p>
+ * A batch size of 1 emits a buffer for each write to the stream.
+ */
+public final class BatchingByteBufOutputStream extends OutputStream {
+
+  // Large batches grow their buffer as needed, so that small or trailing batches don't reserve the whole batch size
+  private static final int MAX_INITIAL_CAPACITY = 8192;
+
+  private final ByteBufAllocator allocator;
+  private final int batchSize;
+  private final WriteStream<? super ByteBuf> out;
+
+  private ByteBuf buffer;
+
+  public BatchingByteBufOutputStream(ByteBufAllocator allocator, int batchSize, WriteStream<? super ByteBuf> out) {
+    this.allocator = allocator;
+    this.batchSize = batchSize;
+    this.out = out;
+  }
+
+  @Override
+  public void write(int b) {
+    buffer(1).writeByte(b);
+    emitIfFull();
+  }
+
+  @Override
+  public void write(@SuppressWarnings("NullableProblems") byte[] b, int off, int len) {
+    buffer(len).writeBytes(b, off, len);
+    emitIfFull();
+  }
+
+  /**
+   * Emits any accumulated bytes, regardless of the batch size.
+   */
+  public void emit() {
+    if (buffer != null) {
+      ByteBuf emitted = buffer;
+      buffer = null;
+      out.item(emitted);
+    }
+  }
+
+  /**
+   * Releases any accumulated bytes without emitting them.
+   */
+  public void discard() {
+    if (buffer != null) {
+      buffer.release();
+      buffer = null;
+    }
+  }
+
+  private ByteBuf buffer(int len) {
+    if (buffer == null) {
+      buffer = allocator.buffer(Math.max(Math.min(batchSize, MAX_INITIAL_CAPACITY), len));
+    }
+    return buffer;
+  }
+
+  private void emitIfFull() {
+    if (buffer.readableBytes() >= batchSize) {
+      emit();
+    }
+  }
+
+}
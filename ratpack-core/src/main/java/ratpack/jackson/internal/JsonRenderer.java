@@ -17,7 +17,6 @@
 package ratpack.jackson.internal;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
 import com.google.common.reflect.TypeToken;
 import io.netty.buffer.ByteBuf;
@@ -36,30 +35,39 @@ public class JsonRenderer extends RendererSupport<JsonRender> {
 
   public static final TypeToken<Renderer<JsonRender>> TYPE = Types.intern(new TypeToken<Renderer<JsonRender>>() {});
 
-  public static final Renderer<JsonRender> INSTANCE = new JsonRenderer();
+  private final ObjectWriterCache writerCache = new ObjectWriterCache();
 
   @Override
   public void render(Context ctx, JsonRender object) throws Exception {
     ObjectWriter writer = object.getObjectWriter();
-    if (writer == null) {
-      writer = ctx.maybeGet(ObjectWriter.class)
-        .orElseGet(() -> ctx.get(ObjectMapper.class).writer());
-    }
+    Object value = object.getObject();
     Class<?> viewClass = object.getViewClass();
-    if (viewClass != null) {
-      writer = writer.withView(viewClass);
-    }
+    ByteBufAllocator allocator = ctx.get(ByteBufAllocator.class);
 
-    ByteBuf buffer = ctx.get(ByteBufAllocator.class).buffer();
+    ObjectWriterCache.TypedWriter typedWriter = null;
+    ByteBuf buffer;
+    if (writer == null) {
+      typedWriter = writerCache.typed(ctx, value == null ? Object.class : value.getClass(), viewClass);
+      writer = typedWriter.getWriter();
+      buffer = typedWriter.allocate(allocator);
+    } else {
+      if (viewClass != null) {
+        writer = writer.withView(viewClass);
+      }
+      buffer = allocator.buffer();
+    }
     OutputStream outputStream = new ByteBufOutputStream(buffer);
 
     try {
-      writer.writeValue(outputStream, object.getObject());
+      writer.writeValue(outputStream, value);
     } catch (JsonProcessingException e) {
       buffer.release();
       ctx.error(e);
       return;
     }
+    if (typedWriter != null) {
+      typedWriter.record(buffer.readableBytes());
+    }
 
     ctx.getResponse()
       .contentTypeIfNotSet(HttpHeaderConstants.JSON)
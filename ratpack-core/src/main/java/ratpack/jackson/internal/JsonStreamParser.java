@@ -0,0 +1,152 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.jackson.internal;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.google.common.reflect.TypeToken;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import org.reactivestreams.Publisher;
+import ratpack.exec.Promise;
+import ratpack.stream.Streams;
+import ratpack.stream.TransformablePublisher;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Incrementally parses a stream of JSON bytes into values, using Jackson's non-blocking parser.
+ * <p>
+ * The elements of top level arrays are emitted individually, as are any other top level values.
+ * The tokens of a single value are buffered until the value is complete, so memory use is bounded by the largest value and not the whole stream.
+ *
+ * @param <T> the type of value
+ */
+public final class JsonStreamParser<T> {
+
+  private final ObjectMapper objectMapper;
+  private final JavaType type;
+  private final JsonParser parser;
+  private final ByteArrayFeeder feeder;
+
+  private TokenBuffer tokens;
+  private int depth;
+  private boolean inRootArray;
+
+  private JsonStreamParser(ObjectMapper objectMapper, JavaType type) throws IOException {
+    this.objectMapper = objectMapper;
+    this.type = type;
+    this.parser = objectMapper.getFactory().createNonBlockingByteArrayParser();
+    this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+  }
+
+  /**
+   * Parses the given stream of bytes, which must be released by the subscriber, into a stream of values.
+   * <p>
+   * Each subscription parses with a new parser.
+   * {@code null} values are not emitted, as reactive streams cannot carry them.
+   */
+  public static <T> TransformablePublisher<T> parse(Publisher<? extends ByteBuf> bytes, TypeToken<T> type, ObjectMapper objectMapper) {
+    JavaType javaType = objectMapper.getTypeFactory().constructType(type.getType());
+    return Streams.transformable(subscriber -> {
+      JsonStreamParser<T> streamParser;
+      try {
+        streamParser = new JsonStreamParser<>(objectMapper, javaType);
+      } catch (IOException e) {
+        Streams.publish(Promise.<List<T>>error(e)).subscribe(subscriber);
+        return;
+      }
+
+      Publisher<List<T>> chunkValues = Streams.map(bytes, streamParser::feed);
+      Publisher<List<T>> trailingValues = Streams.publish(Promise.sync(() -> Collections.singletonList(streamParser.endOfInput())));
+      Streams.fanOut(Streams.concat(Arrays.asList(chunkValues, trailingValues))).subscribe(subscriber);
+    });
+  }
+
+  private List<T> feed(ByteBuf chunk) throws IOException {
+    try {
+      if (chunk.hasArray()) {
+        int offset = chunk.arrayOffset() + chunk.readerIndex();
+        feeder.feedInput(chunk.array(), offset, offset + chunk.readableBytes());
+      } else {
+        byte[] bytes = ByteBufUtil.getBytes(chunk);
+        feeder.feedInput(bytes, 0, bytes.length);
+      }
+      // The parser copies any partial token before asking for more input, so the chunk can be released once parsed
+      return parseAvailable();
+    } finally {
+      chunk.release();
+    }
+  }
+
+  private List<T> endOfInput() throws IOException {
+    feeder.endOfInput();
+    List<T> values = parseAvailable();
+    if (tokens != null || inRootArray) {
+      throw new JsonParseException(parser, "Unexpected end of JSON input");
+    }
+    parser.close();
+    return values;
+  }
+
+  private List<T> parseAvailable() throws IOException {
+    List<T> values = Collections.emptyList();
+    JsonToken token = parser.nextToken();
+    while (token != null && token != JsonToken.NOT_AVAILABLE) {
+      if (depth == 0 && token == JsonToken.START_ARRAY) {
+        inRootArray = true;
+        depth = 1;
+      } else if (inRootArray && depth == 1 && token == JsonToken.END_ARRAY) {
+        inRootArray = false;
+        depth = 0;
+      } else if (tokens != null || token != JsonToken.VALUE_NULL) {
+        // Null values are skipped before binding, as they bind to a NullNode rather than null for tree types
+        if (tokens == null) {
+          tokens = new TokenBuffer(parser);
+        }
+        tokens.copyCurrentEvent(parser);
+        if (token.isStructStart()) {
+          ++depth;
+        } else if (token.isStructEnd()) {
+          --depth;
+        }
+        if (depth == (inRootArray ? 1 : 0)) {
+          T value = objectMapper.readValue(tokens.asParser(objectMapper), type);
+          tokens = null;
+          if (value != null) {
+            if (values.isEmpty()) {
+              values = new ArrayList<>();
+            }
+            values.add(value);
+          }
+        }
+      }
+      token = parser.nextToken();
+    }
+    return values;
+  }
+
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.jackson.internal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import ratpack.api.Nullable;
+import ratpack.registry.Registry;
+
+import java.util.Optional;
+
+/**
+ * Caches the object writers used for rendering with the writer or mapper of the registry, along with an estimate of the size of their output.
+ * <p>
+ * Deriving a writer for a root type or view is relatively expensive, as is resolving the serializer for each write.
+ * Writers specialised for the runtime type of the rendered object and the view are cached, bounded by {@link #MAX_TYPED_WRITERS}.
+ * <p>
+ * Writers are keyed by the writer or mapper of the registry, along with the mapper's current configuration and serializer factory.
+ * A writer derived from a mapper is therefore not used once the mapper has been reconfigured, such as by registering a module.
+ * Writers given with the rendered object are not cached, as they are typically derived for the render.
+ */
+public final class ObjectWriterCache {
+
+  public static final int MAX_TYPED_WRITERS = 1024;
+
+  private final Cache<Key, TypedWriter> typedWriters = Caffeine.newBuilder()
+    .maximumSize(MAX_TYPED_WRITERS)
+    .build();
+
+  /**
+   * A writer derived from the writer or mapper of the given registry, for values of the given type and the given view.
+   */
+  public TypedWriter typed(Registry registry, Class<?> type, @Nullable Class<?> viewClass) {
+    Optional<ObjectWriter> registryWriter = registry.maybeGet(ObjectWriter.class);
+    if (registryWriter.isPresent()) {
+      ObjectWriter writer = registryWriter.get();
+      return typedWriters.get(new Key(writer, writer.getConfig(), null, type, viewClass), key -> derive(writer, type, viewClass));
+    } else {
+      ObjectMapper mapper = registry.get(ObjectMapper.class);
+      Key key = new Key(mapper, mapper.getSerializationConfig(), mapper.getSerializerFactory(), type, viewClass);
+      return typedWriters.get(key, k -> derive(mapper.writer(), type, viewClass));
+    }
+  }
+
+  private static TypedWriter derive(ObjectWriter writer, Class<?> type, @Nullable Class<?> viewClass) {
+    ObjectWriter typedWriter = writer.forType(type);
+    if (viewClass != null) {
+      typedWriter = typedWriter.withView(viewClass);
+    }
+    return new TypedWriter(typedWriter);
+  }
+
+  public static final class TypedWriter {
+
+    private static final int MIN_SIZE_ESTIMATE = 256;
+    private static final int MAX_SIZE_ESTIMATE = 64 * 1024;
+
+    private final ObjectWriter writer;
+
+    // Races between concurrent renders only affect the accuracy of the estimate
+    private volatile int sizeEstimate = MIN_SIZE_ESTIMATE;
+
+    private TypedWriter(ObjectWriter writer) {
+      this.writer = writer;
+    }
+
+    public ObjectWriter getWriter() {
+      return writer;
+    }
+
+    /**
+     * Allocates a buffer that is likely to fit the output, so that it need not be grown while writing.
+     */
+    public ByteBuf allocate(ByteBufAllocator allocator) {
+      return allocator.buffer(sizeEstimate);
+    }
+
+    /**
+     * Records the size of some output.
+     * <p>
+     * The estimate jumps to larger sizes immediately, and decays slowly towards smaller sizes.
+     */
+    public void record(int size) {
+      int estimate = sizeEstimate;
+      int next = size >= estimate ? size : estimate - (estimate - size) / 8;
+      sizeEstimate = Math.max(MIN_SIZE_ESTIMATE, Math.min(MAX_SIZE_ESTIMATE, next));
+    }
+
+  }
+
+  // Jackson's writers and configuration do not implement equality, and are immutable, so are compared by identity
+  private static final class Key {
+
+    private final Object source;
+    private final Object config;
+    private final Object serializerFactory;
+    private final Class<?> type;
+    private final Class<?> viewClass;
+
+    Key(Object source, Object config, @Nullable Object serializerFactory, Class<?> type, @Nullable Class<?> viewClass) {
+      this.source = source;
+      this.config = config;
+      this.serializerFactory = serializerFactory;
+      this.type = type;
+      this.viewClass = viewClass;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key key = (Key) o;
+      return source == key.source
+        && config == key.config
+        && serializerFactory == key.serializerFactory
+        && type == key.type
+        && viewClass == key.viewClass;
+    }
+
+    @Override
+    public int hashCode() {
+      int result = System.identityHashCode(source);
+      result = 31 * result + System.identityHashCode(config);
+      result = 31 * result + System.identityHashCode(serializerFactory);
+      result = 31 * result + type.hashCode();
+      return 31 * result + System.identityHashCode(viewClass);
+    }
+  }
+
+}
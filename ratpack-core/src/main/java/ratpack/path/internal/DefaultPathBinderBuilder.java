@@ -30,6 +30,7 @@ public class DefaultPathBinderBuilder implements PathBinderBuilder {
   private final ImmutableList.Builder<String> tokensBuilder = ImmutableList.builder();
   private final StringBuilder pattern = new StringBuilder();
   private final StringBuilder description = new StringBuilder();
+  private final RoutablePath.Builder routablePath = new RoutablePath.Builder();
   private boolean addedOptional;
   private boolean addedToken;
 
@@ -39,6 +40,7 @@ public class DefaultPathBinderBuilder implements PathBinderBuilder {
     }
     addedToken = true;
     tokensBuilder.add(token);
+    routablePath.unsupported();
     this.pattern.append(String.format("(?:(?:^|/)(%s))", pattern));
     appendDescriptionSegment(":").append(token).append(":").append(pattern);
     return this;
@@ -48,6 +50,7 @@ public class DefaultPathBinderBuilder implements PathBinderBuilder {
     addedOptional = true;
     addedToken = true;
     tokensBuilder.add(token);
+    routablePath.unsupported();
     this.pattern.append(String.format("(?:(?:^|/)(%s))?", pattern));
     appendDescriptionSegment(":").append(token).append("?:").append(pattern);
     return this;
@@ -59,6 +62,7 @@ public class DefaultPathBinderBuilder implements PathBinderBuilder {
     }
     addedToken = true;
     tokensBuilder.add(token);
+    routablePath.token();
     pattern.append("(?:(?:^|/)([^/?&#]+))");
     appendDescriptionSegment(":").append(token);
     return this;
@@ -68,18 +72,21 @@ public class DefaultPathBinderBuilder implements PathBinderBuilder {
     addedOptional = true;
     addedToken = true;
     tokensBuilder.add(token);
+    routablePath.optionalToken();
     pattern.append("(?:(?:^|/)([^/?&#]*))?");
     appendDescriptionSegment(":").append(token).append("?");
     return this;
   }
 
   public PathBinderBuilder literalPattern(String pattern) {
+    routablePath.unsupported();
     this.pattern.append("(?:(?:^|/)").append("(?:").append(pattern).append("))");
     appendDescriptionSegment("::").append(pattern);
     return this;
   }
 
   public PathBinderBuilder literal(String literal) {
+    routablePath.literal(literal);
     this.pattern.append("\\Q").append(literal).append("\\E");
     this.description.append(literal);
     return this;
@@ -95,7 +102,9 @@ public class DefaultPathBinderBuilder implements PathBinderBuilder {
   public PathBinder build(boolean exhaustive) {
     String regex = (addedToken ? "(\\Q\\E" : "(") + pattern + (addedToken ? "\\Q\\E)" : ")") + (exhaustive ? "(?:/|$)" : "(?:/.*)?");
     Pattern compiled = Pattern.compile(regex);
-    return new TokenPathBinder(tokensBuilder.build(), description.toString(), compiled);
+    ImmutableList<String> tokenNames = tokensBuilder.build();
+    String target = description.toString();
+    return new TokenPathBinder(tokenNames, target, compiled, routablePath.build(tokenNames, exhaustive, target));
   }
 
   public static PathBinder parse(String path, boolean exact) {
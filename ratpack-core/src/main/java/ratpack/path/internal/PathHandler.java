@@ -51,6 +51,14 @@ public class PathHandler implements Handler {
     this.handler = withPop;
   }
 
+  PathBinder getBinder() {
+    return binder;
+  }
+
+  Handler[] getHandlers() {
+    return handler;
+  }
+
   public void handle(Context ctx) throws ExecutionException {
     PathBindingStorage pathBindings = ctx.getExecution().get(PathBindingStorage.TYPE);
     PathBinding pathBinding = pathBindings.peek();
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.path.internal;
+
+import ratpack.handling.Context;
+import ratpack.handling.Handler;
+import ratpack.path.PathBinder;
+import ratpack.path.PathBinding;
+
+import java.util.*;
+
+/**
+ * Dispatches to one of many sibling {@link PathHandler path handlers}, using a trie of their path segments.
+ * <p>
+ * The cost of routing is proportional to the length of the path, instead of to the number of path handlers.
+ * Each trie node has literal children, keyed by segment, and a token child.
+ * Binders that end at a node complete their binding from there, which includes binding any optional tokens.
+ * <p>
+ * The result is the same as that of the individual path handlers.
+ * If several binders match, their handlers are inserted in their original order,
+ * so that a handler delegating to the next handler reaches the next matching binder.
+ * Paths starting with {@code /}, which only match in unusual ways, are bound by trying each binder in turn.
+ *
+ * @see #compile(List)
+ */
+public class PathRouter implements Handler {
+
+  private static final int MIN_ROUTES = 2;
+
+  private final Route[] routes;
+  private final Node root = new Node();
+  private final int maxDepth;
+
+  private PathRouter(List<Route> routes) {
+    this.routes = routes.toArray(new Route[0]);
+    int maxDepth = 0;
+    for (Route route : routes) {
+      maxDepth = Math.max(maxDepth, route.path.segments.length);
+      root.add(route, 0);
+    }
+    this.maxDepth = maxDepth;
+  }
+
+  /**
+   * Replaces each run of consecutive path handlers with routable paths with a single router.
+   *
+   * @param handlers the handlers of a chain
+   * @return the handlers of the chain, with path handlers replaced by routers
+   */
+  public static List<Handler> compile(List<Handler> handlers) {
+    List<Handler> compiled = new ArrayList<>(handlers.size());
+    List<Route> run = new ArrayList<>();
+    for (Handler handler : handlers) {
+      Route route = toRoute(handler, run.size());
+      if (route == null) {
+        flush(run, compiled);
+        compiled.add(handler);
+      } else {
+        run.add(route);
+      }
+    }
+    flush(run, compiled);
+    return compiled;
+  }
+
+  private static Route toRoute(Handler handler, int index) {
+    if (handler instanceof PathHandler) {
+      PathHandler pathHandler = (PathHandler) handler;
+      PathBinder binder = pathHandler.getBinder();
+      if (binder instanceof TokenPathBinder) {
+        RoutablePath path = ((TokenPathBinder) binder).getRoutablePath();
+        if (path != null) {
+          return new Route(index, pathHandler, binder, path, pathHandler.getHandlers());
+        }
+      }
+    }
+    return null;
+  }
+
+  private static void flush(List<Route> run, List<Handler> compiled) {
+    if (run.size() < MIN_ROUTES) {
+      for (Route route : run) {
+        compiled.add(route.pathHandler);
+      }
+    } else {
+      compiled.add(new PathRouter(new ArrayList<>(run)));
+    }
+    run.clear();
+  }
+
+  @Override
+  public void handle(Context ctx) {
+    PathBindingStorage pathBindings = ctx.getExecution().get(PathBindingStorage.TYPE);
+    List<Match> matches = match(pathBindings.peek());
+    if (matches.isEmpty()) {
+      ctx.next();
+    } else if (matches.size() == 1) {
+      Match match = matches.get(0);
+      pathBindings.push(match.binding);
+      ctx.insert(match.route.handlers);
+    } else {
+      Match first = matches.get(0);
+      List<Handler> handlers = new ArrayList<>(Arrays.asList(first.route.handlers));
+      for (Match match : matches.subList(1, matches.size())) {
+        handlers.add(new PushBinding(match.binding));
+        handlers.addAll(Arrays.asList(match.route.handlers));
+      }
+      pathBindings.push(first.binding);
+      ctx.insert(handlers.toArray(new Handler[0]));
+    }
+  }
+
+  List<Match> match(PathBinding parent) {
+    String path = parent.getPastBinding();
+    List<Match> matches = new ArrayList<>(1);
+    if (path.startsWith("/")) {
+      for (Route route : routes) {
+        route.binder.bind(parent).ifPresent(binding -> matches.add(new Match(route, binding)));
+      }
+    } else {
+      root.match(parent, path, 0, 0, new String[maxDepth], matches);
+      if (matches.size() > 1) {
+        matches.sort(Comparator.comparingInt(match -> match.route.index));
+      }
+    }
+    return matches;
+  }
+
+  static final class Route {
+    final int index;
+    final PathHandler pathHandler;
+    final PathBinder binder;
+    final RoutablePath path;
+    final Handler[] handlers;
+
+    Route(int index, PathHandler pathHandler, PathBinder binder, RoutablePath path, Handler[] handlers) {
+      this.index = index;
+      this.pathHandler = pathHandler;
+      this.binder = binder;
+      this.path = path;
+      this.handlers = handlers;
+    }
+  }
+
+  static final class Match {
+    final Route route;
+    final PathBinding binding;
+
+    Match(Route route, PathBinding binding) {
+      this.route = route;
+      this.binding = binding;
+    }
+  }
+
+  private static final class PushBinding implements Handler {
+    private final PathBinding binding;
+
+    PushBinding(PathBinding binding) {
+      this.binding = binding;
+    }
+
+    @Override
+    public void handle(Context ctx) {
+      ctx.getExecution().get(PathBindingStorage.TYPE).push(binding);
+      ctx.next();
+    }
+  }
+
+  private static final class Node {
+    private final Map<String, Node> literals = new HashMap<>();
+    private Node token;
+    private final List<Route> routes = new ArrayList<>(1);
+
+    void add(Route route, int depth) {
+      if (depth == route.path.segments.length) {
+        routes.add(route);
+      } else {
+        String segment = route.path.segments[depth];
+        Node child;
+        if (segment == null) {
+          if (token == null) {
+            token = new Node();
+          }
+          child = token;
+        } else {
+          child = literals.computeIfAbsent(segment, s -> new Node());
+        }
+        child.add(route, depth + 1);
+      }
+    }
+
+    void match(PathBinding parent, String path, int pos, int depth, String[] values, List<Match> matches) {
+      for (Route route : routes) {
+        PathBinding binding = route.path.bind(parent, path, pos, values);
+        if (binding != null) {
+          matches.add(new Match(route, binding));
+        }
+      }
+
+      if (literals.isEmpty() && token == null) {
+        return;
+      }
+
+      int start;
+      if (depth == 0) {
+        start = pos;
+      } else if (pos < path.length() && path.charAt(pos) == '/') {
+        start = pos + 1;
+      } else {
+        return;
+      }
+      int end = RoutablePath.segmentEnd(path, start);
+      String segment = path.substring(start, end);
+
+      Node literal = literals.get(segment);
+      if (literal != null) {
+        literal.match(parent, path, end, depth + 1, values, matches);
+      }
+      if (token != null && end > start && RoutablePath.isTokenValue(path, start, end)) {
+        values[depth] = segment;
+        token.match(parent, path, end, depth + 1, values, matches);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.path.internal;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import ratpack.api.Nullable;
+import ratpack.path.PathBinding;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The structure of a token path binder that consists of literal segments and tokens, followed by optional tokens.
+ * <p>
+ * Paths can be matched against such a binder segment by segment, which is what allows a {@link PathRouter} to match many binders at once.
+ * For paths that do not start with {@code /}, the result is the same as that of the binder's regular expression.
+ * Binders using patterns, or with literals that are not aligned to segments, have no routable path.
+ */
+final class RoutablePath {
+
+  // null elements are tokens
+  final String[] segments;
+  final int optionalTokens;
+
+  private final ImmutableList<String> tokenNames;
+  private final boolean exhaustive;
+  private final String description;
+
+  private RoutablePath(String[] segments, int optionalTokens, ImmutableList<String> tokenNames, boolean exhaustive, String description) {
+    this.segments = segments;
+    this.optionalTokens = optionalTokens;
+    this.tokenNames = tokenNames;
+    this.exhaustive = exhaustive;
+    this.description = description;
+  }
+
+  /**
+   * Completes a binding, once the mandatory segments have been matched.
+   *
+   * @param parent the binding being bound against
+   * @param path the path being bound (i.e. the past binding of the parent)
+   * @param pos the position in the path after the mandatory segments
+   * @param values the path values, indexed by segment
+   * @return the binding, or {@code null} if the rest of the path does not match
+   */
+  @Nullable
+  PathBinding bind(PathBinding parent, String path, int pos, String[] values) {
+    ImmutableMap.Builder<String, String> tokens = ImmutableMap.builder();
+    int tokenIndex = 0;
+    for (int i = 0; i < segments.length; ++i) {
+      if (segments[i] == null) {
+        tokens.put(tokenNames.get(tokenIndex++), TokenPathBinder.decodeURIComponent(values[i]));
+      }
+    }
+
+    int length = path.length();
+    for (int i = 0; i < optionalTokens; ++i) {
+      int start;
+      if (pos == 0 && segments.length == 0 && i == 0) {
+        start = 0;
+      } else if (pos < length && path.charAt(pos) == '/') {
+        start = pos + 1;
+      } else {
+        break;
+      }
+      int end = segmentEnd(path, start);
+      if (!isTokenValue(path, start, end)) {
+        break;
+      }
+      tokens.put(tokenNames.get(tokenIndex++), TokenPathBinder.decodeURIComponent(path.substring(start, end)));
+      pos = end;
+    }
+
+    boolean bound = pos == length || path.charAt(pos) == '/' && (!exhaustive || pos + 1 == length);
+    if (bound) {
+      return new DefaultPathBinding(path.substring(0, pos), tokens.build(), parent, description);
+    } else {
+      return null;
+    }
+  }
+
+  static int segmentEnd(String path, int start) {
+    int end = path.indexOf('/', start);
+    return end < 0 ? path.length() : end;
+  }
+
+  static boolean isTokenValue(String path, int start, int end) {
+    for (int i = start; i < end; ++i) {
+      char c = path.charAt(i);
+      if (c == '?' || c == '&' || c == '#') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  static class Builder {
+
+    private final List<String> segments = new ArrayList<>();
+    private final StringBuilder literal = new StringBuilder();
+    private int optionalTokens;
+    private boolean unsupported;
+
+    void literal(String literal) {
+      if (optionalTokens > 0 && !literal.isEmpty()) {
+        // the structure is only optional tokens after the first optional token
+        unsupported = true;
+      } else if (literal.contains("\\E")) {
+        // the binder's regex quotes literals, which doesn't work for this literal
+        unsupported = true;
+      }
+      this.literal.append(literal);
+    }
+
+    void token() {
+      flushLiteral();
+      segments.add(null);
+    }
+
+    void optionalToken() {
+      flushLiteral();
+      ++optionalTokens;
+    }
+
+    void unsupported() {
+      unsupported = true;
+    }
+
+    @Nullable
+    RoutablePath build(ImmutableList<String> tokenNames, boolean exhaustive, String description) {
+      flushLiteral();
+      if (unsupported) {
+        return null;
+      } else {
+        return new RoutablePath(segments.toArray(new String[0]), optionalTokens, tokenNames, exhaustive, description);
+      }
+    }
+
+    private void flushLiteral() {
+      if (literal.length() == 0) {
+        return;
+      }
+
+      String text = literal.toString();
+      literal.setLength(0);
+
+      // The separator before a literal that follows a token is part of the literal
+      if (!segments.isEmpty()) {
+        if (text.startsWith("/")) {
+          text = text.substring(1);
+        } else {
+          unsupported = true;
+          return;
+        }
+      }
+
+      if (text.isEmpty() || text.startsWith("/") || text.endsWith("/") || text.contains("//")) {
+        unsupported = true;
+      } else {
+        segments.addAll(Arrays.asList(text.split("/")));
+      }
+    }
+  }
+
+}
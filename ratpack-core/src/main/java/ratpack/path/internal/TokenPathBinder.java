@@ -19,6 +19,7 @@ package ratpack.path.internal;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import io.netty.handler.codec.http.QueryStringDecoder;
+import ratpack.api.Nullable;
 import ratpack.path.InvalidPathEncodingException;
 import ratpack.path.PathBinder;
 import ratpack.path.PathBinding;
@@ -33,11 +34,23 @@ public class TokenPathBinder implements PathBinder {
   private final ImmutableList<String> tokenNames;
   private final String target;
   private final Pattern regex;
+  @Nullable
+  private final RoutablePath routablePath;
 
   protected TokenPathBinder(ImmutableList<String> tokenNames, String target, Pattern regex) {
+    this(tokenNames, target, regex, null);
+  }
+
+  TokenPathBinder(ImmutableList<String> tokenNames, String target, Pattern regex, @Nullable RoutablePath routablePath) {
     this.tokenNames = tokenNames;
     this.target = target;
     this.regex = regex;
+    this.routablePath = routablePath;
+  }
+
+  @Nullable
+  RoutablePath getRoutablePath() {
+    return routablePath;
   }
 
   public Optional<PathBinding> bind(PathBinding parentBinding) {
@@ -60,7 +73,7 @@ public class TokenPathBinder implements PathBinder {
     }
   }
 
-  private String decodeURIComponent(String s) {
+  static String decodeURIComponent(String s) {
     try {
       return QueryStringDecoder.decodeComponent(s.replace("+", "%2B"));
     } catch (IllegalArgumentException cause) {
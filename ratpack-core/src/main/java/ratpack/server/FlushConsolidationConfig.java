@@ -0,0 +1,105 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.server;
+
+import java.time.Duration;
+
+/**
+ * The configuration of flush consolidation for streamed responses.
+ * <p>
+ * When streaming a response, such as {@link ratpack.http.ResponseChunks chunks} or {@link ratpack.sse.ServerSentEvents server sent events},
+ * each item is written to the connection as it is produced.
+ * By default, each item is also flushed, which costs a system call per item.
+ * With flush consolidation, items are written without flushing until
+ * {@link #getMaxBytes() max bytes} or {@link #getMaxItems() max items} are pending,
+ * or {@link #getMaxDelay() max delay} has passed since the first pending item was written.
+ * Pending items are also flushed when the connection is no longer writable, and when the stream ends.
+ *
+ * @see ServerConfig#getFlushConsolidation()
+ * @since 1.10
+ */
+public class FlushConsolidationConfig {
+
+  private int maxBytes = 32 * 1024;
+  private int maxItems = 256;
+  private Duration maxDelay = Duration.ZERO;
+
+  /**
+   * The number of pending bytes that causes a flush.
+   * <p>
+   * Defaults to 32KB.
+   *
+   * @return the number of pending bytes that causes a flush
+   */
+  public int getMaxBytes() {
+    return maxBytes;
+  }
+
+  /**
+   * The number of pending items that causes a flush.
+   * <p>
+   * Defaults to {@code 256}.
+   *
+   * @return the number of pending items that causes a flush
+   */
+  public int getMaxItems() {
+    return maxItems;
+  }
+
+  /**
+   * The maximum time that an item can be pending before it is flushed.
+   * <p>
+   * If zero, pending items are flushed once the event loop has finished its current task,
+   * which consolidates the items that a stream produces synchronously without adding latency.
+   * Larger values consolidate more items from streams that produce items asynchronously, at the expense of latency.
+   * <p>
+   * Defaults to {@link Duration#ZERO}.
+   *
+   * @return the maximum time that an item can be pending before it is flushed
+   */
+  public Duration getMaxDelay() {
+    return maxDelay;
+  }
+
+  /**
+   * Sets the number of pending bytes that causes a flush.
+   *
+   * @param maxBytes the number of pending bytes that causes a flush
+   */
+  public void setMaxBytes(int maxBytes) {
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * Sets the number of pending items that causes a flush.
+   *
+   * @param maxItems the number of pending items that causes a flush
+   */
+  public void setMaxItems(int maxItems) {
+    this.maxItems = maxItems;
+  }
+
+  /**
+   * Sets the maximum time that an item can be pending before it is flushed.
+   *
+   * @param maxDelay the maximum time that an item can be pending before it is flushed
+   */
+  public void setMaxDelay(Duration maxDelay) {
+    this.maxDelay = maxDelay;
+  }
+
+}
@@ -22,6 +22,7 @@ import io.netty.handler.ssl.SslContext;
 import ratpack.api.Nullable;
 import ratpack.config.ConfigData;
 import ratpack.config.ConfigObject;
+import ratpack.exec.BlockingPoolConfig;
 import ratpack.file.FileSystemBinding;
 import ratpack.func.Action;
 import ratpack.http.ConnectionClosedException;
@@ -36,6 +37,7 @@ import java.net.InetAddress;
 import java.net.URI;
 import java.nio.file.Path;
 import java.time.Duration;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -390,6 +392,132 @@ public interface ServerConfig extends ConfigData {
    */
   Duration getIdleTimeout();
 
+  /**
+   * Whether or not the server accepts HTTP/2 connections.
+   * <p>
+   * When {@code true}, the server will accept HTTP/2 in addition to HTTP/1.1.
+   * If an {@link #getNettySslContext() SSL context} is configured that advertises the {@code h2} protocol via ALPN
+   * (see {@link io.netty.handler.ssl.ApplicationProtocolConfig}), HTTP/2 will be negotiated during the TLS handshake.
+   * Otherwise, cleartext HTTP/2 ({@code h2c}) is accepted via either the HTTP/1.1 {@code Upgrade} mechanism or with prior knowledge.
+   * <p>
+   * Each HTTP/2 stream is handled as a distinct request, with its own execution.
+   * Clients that do not support HTTP/2 continue to be served over HTTP/1.1.
+   * <p>
+   * Defaults to {@code false}.
+   *
+   * @return whether or not the server accepts HTTP/2 connections
+   * @since 1.10
+   */
+  boolean isHttp2();
+
+  /**
+   * Whether or not path handlers are routed via a compiled trie.
+   * <p>
+   * When {@code true}, each run of consecutive path handlers in a chain (e.g. those added via {@link ratpack.handling.Chain#get(String, ratpack.handling.Handler)},
+   * {@link ratpack.handling.Chain#path(String, ratpack.handling.Handler)} or {@link ratpack.handling.Chain#prefix(String, ratpack.func.Action)})
+   * is replaced by a single handler that matches the request path against all of their paths at once, segment by segment.
+   * The cost of routing then depends on the length of the request path instead of the number of routes.
+   * <p>
+   * Routing behaves exactly as it does otherwise, including the order in which routes are tried.
+   * Paths that use regular expressions for tokens or literals are not compiled, and are matched individually.
+   * <p>
+   * Defaults to {@code false}.
+   *
+   * @return whether or not path handlers are routed via a compiled trie
+   * @since 1.10
+   */
+  boolean isCompiledRouting();
+
+  /**
+   * Whether or not blocking operations are performed on virtual threads.
+   * <p>
+   * When {@code true}, each {@link ratpack.exec.Blocking#get(ratpack.func.Factory) blocking operation} runs on a new virtual thread,
+   * instead of a thread from a cached pool of platform threads.
+   * Virtual threads are cheap to create and to block, so a large number of concurrent blocking operations
+   * does not require a correspondingly large number of platform threads.
+   * The blocking thread is bound to the execution, and {@link ratpack.exec.ExecInterceptor interceptors} are applied, as with platform threads.
+   * <p>
+   * Virtual threads require Java 21 or later. The server will fail to start if this is {@code true} on earlier versions.
+   * <p>
+   * Defaults to {@code false}.
+   *
+   * @return whether or not blocking operations are performed on virtual threads
+   * @see #getVirtualBlockingThreadCarriers()
+   * @since 1.10
+   */
+  boolean isVirtualBlockingThreads();
+
+  /**
+   * The maximum number of platform threads that carry virtual blocking threads.
+   * <p>
+   * Only used if {@link #isVirtualBlockingThreads()} is {@code true}.
+   * If the value is greater than 0, the JVM's virtual thread scheduler is limited to this many carrier threads.
+   * Blocking operations that pin their carrier (e.g. by blocking inside a {@code synchronized} block or native code)
+   * then can't use more than this many platform threads.
+   * <p>
+   * The virtual thread scheduler is shared by the whole JVM and is configured when the first virtual thread is started,
+   * by the {@code jdk.virtualThreadScheduler.parallelism} and {@code jdk.virtualThreadScheduler.maxPoolSize} system properties.
+   * This value sets both properties, unless they are already set.
+   * <p>
+   * Defaults to {@code 0}, which leaves the scheduler's default (the number of available processors).
+   *
+   * @return the maximum number of platform threads that carry virtual blocking threads, or {@code 0} for the JVM default
+   * @since 1.10
+   */
+  int getVirtualBlockingThreadCarriers();
+
+  /**
+   * The configuration of blocking pools, by name.
+   * <p>
+   * Each pool is a separate set of threads for blocking operations, that can be used via {@link ratpack.exec.Blocking#get(String, ratpack.func.Factory)}.
+   * Using separate pools for different dependencies means that when one of them is slow, it can only exhaust the threads of its own pool.
+   * Pools can limit their number of threads and queued operations, and expose {@link ratpack.exec.ExecController#getBlockingPoolStats() statistics}
+   * such as queue depth, wait time and rejections.
+   * <p>
+   * The pool named {@link ratpack.exec.Blocking#DEFAULT_POOL} configures the default pool, used by {@link ratpack.exec.Blocking#get(ratpack.func.Factory)}.
+   * If not configured, the default pool creates threads as needed without limit.
+   * The default pool is not used if {@link #isVirtualBlockingThreads() virtual blocking threads} are enabled.
+   * <p>
+   * Defaults to no configured pools.
+   *
+   * @return the configuration of blocking pools, by name
+   * @since 1.10
+   */
+  Map<String, BlockingPoolConfig> getBlockingPools();
+
+  /**
+   * The configuration of flush consolidation for streamed responses, if enabled.
+   * <p>
+   * If enabled, the items of streamed responses are written without being flushed until enough are pending, or a delay has passed.
+   * This reduces the number of system calls for streams that produce many small items at a high rate,
+   * such as {@link ratpack.http.ResponseChunks chunked JSON} or {@link ratpack.sse.ServerSentEvents server sent events}.
+   * <p>
+   * Defaults to not enabled, where each item is flushed as it is written.
+   *
+   * @return the configuration of flush consolidation for streamed responses, if enabled
+   * @see FlushConsolidationConfig
+   * @since 1.10
+   */
+  Optional<FlushConsolidationConfig> getFlushConsolidation();
+
+  /**
+   * Whether or not the response objects of a connection are reused by its subsequent requests.
+   * <p>
+   * When {@code true}, the {@link ratpack.http.Response} and its headers are allocated once per connection
+   * and reset for each request of a keep-alive connection, once the previous request's execution has completed and its response has been sent.
+   * Pipelined requests that arrive while the previous request is still in progress are given new objects.
+   * <p>
+   * This reduces allocation for servers that handle many small requests over keep-alive connections.
+   * It is only safe if the application does not retain the response, or its headers, beyond the execution of the request,
+   * including via {@link ratpack.handling.RequestOutcome#getResponse() request outcomes} that are processed asynchronously or by forked executions.
+   * <p>
+   * Defaults to {@code false}.
+   *
+   * @return whether or not the response objects of a connection are reused by its subsequent requests
+   * @since 1.10
+   */
+  boolean isRecycleResponses();
+
   /**
    * The base dir of the application, which is also the initial {@link ratpack.file.FileSystemBinding}.
    *
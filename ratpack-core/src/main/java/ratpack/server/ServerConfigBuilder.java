@@ -25,6 +25,7 @@ import ratpack.config.ConfigData;
 import ratpack.config.ConfigDataBuilder;
 import ratpack.config.ConfigSource;
 import ratpack.config.EnvironmentParser;
+import ratpack.exec.BlockingPoolConfig;
 import ratpack.func.Action;
 import ratpack.func.Function;
 import ratpack.impose.ServerConfigImposition;
@@ -313,6 +314,89 @@ public interface ServerConfigBuilder extends ConfigDataBuilder {
    */
   ServerConfigBuilder ssl(SslContext sslContext);
 
+  /**
+   * Whether or not to accept HTTP/2 connections.
+   * <p>
+   * Default value is {@code false}.
+   *
+   * @param http2 whether or not to accept HTTP/2 connections
+   * @return {@code this}
+   * @see ServerConfig#isHttp2()
+   * @since 1.10
+   */
+  ServerConfigBuilder http2(boolean http2);
+
+  /**
+   * Whether or not to route path handlers via a compiled trie.
+   * <p>
+   * Default value is {@code false}.
+   *
+   * @param compiledRouting whether or not to route path handlers via a compiled trie
+   * @return {@code this}
+   * @see ServerConfig#isCompiledRouting()
+   * @since 1.10
+   */
+  ServerConfigBuilder compiledRouting(boolean compiledRouting);
+
+  /**
+   * Whether or not to perform blocking operations on virtual threads.
+   * <p>
+   * Default value is {@code false}.
+   *
+   * @param virtualBlockingThreads whether or not to perform blocking operations on virtual threads
+   * @return {@code this}
+   * @see ServerConfig#isVirtualBlockingThreads()
+   * @since 1.10
+   */
+  ServerConfigBuilder virtualBlockingThreads(boolean virtualBlockingThreads);
+
+  /**
+   * The maximum number of platform threads that carry virtual blocking threads.
+   * <p>
+   * By default, the JVM's virtual thread scheduler default is used.
+   *
+   * @param virtualBlockingThreadCarriers the maximum number of carrier threads
+   * @return {@code this}
+   * @see ServerConfig#getVirtualBlockingThreadCarriers()
+   * @since 1.10
+   */
+  ServerConfigBuilder virtualBlockingThreadCarriers(int virtualBlockingThreadCarriers);
+
+  /**
+   * Configures a blocking pool.
+   * <p>
+   * Configuring a pool of the same name again replaces its configuration.
+   *
+   * @param name the name of the pool
+   * @param config the configuration of the pool
+   * @return {@code this}
+   * @see ServerConfig#getBlockingPools()
+   * @since 1.10
+   */
+  ServerConfigBuilder blockingPool(String name, Action<? super BlockingPoolConfig> config);
+
+  /**
+   * Enables flush consolidation for streamed responses.
+   *
+   * @param config the configuration of flush consolidation
+   * @return {@code this}
+   * @see ServerConfig#getFlushConsolidation()
+   * @since 1.10
+   */
+  ServerConfigBuilder flushConsolidation(Action<? super FlushConsolidationConfig> config);
+
+  /**
+   * Whether or not to reuse the response objects of a connection for its subsequent requests.
+   * <p>
+   * Default value is {@code false}.
+   *
+   * @param recycleResponses whether or not to reuse the response objects of a connection for its subsequent requests
+   * @return {@code this}
+   * @see ServerConfig#isRecycleResponses()
+   * @since 1.10
+   */
+  ServerConfigBuilder recycleResponses(boolean recycleResponses);
+
   /**
    * {@inheritDoc}
    */
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.server.internal;
+
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.util.Attribute;
+import io.netty.util.AttributeKey;
+import ratpack.api.Nullable;
+import ratpack.file.internal.ResponseTransmitter;
+import ratpack.http.internal.DefaultResponse;
+import ratpack.http.internal.NettyHeadersBackedMutableHeaders;
+
+/**
+ * The response objects of a channel, reused by its requests when {@link ratpack.server.ServerConfig#isRecycleResponses()} is enabled.
+ * <p>
+ * The objects are only handed out once the previous request of the channel is done with them,
+ * which is when both its execution has completed and its outcome has been notified.
+ * Requests that arrive before then, such as pipelined requests, use new objects.
+ * <p>
+ * Only accessed from the channel's event loop.
+ */
+final class ChannelResponse {
+
+  private static final AttributeKey<ChannelResponse> ATTRIBUTE_KEY = AttributeKey.valueOf(ChannelResponse.class, "response");
+
+  private static final int EXECUTION = 1;
+  private static final int OUTCOME = 2;
+
+  final HttpHeaders nettyHeaders = new DefaultHttpHeaders();
+  private final NettyHeadersBackedMutableHeaders headers = new NettyHeadersBackedMutableHeaders(nettyHeaders);
+  private DefaultResponse response;
+  private int pending;
+
+  final Runnable executionComplete = () -> pending &= ~EXECUTION;
+  final Runnable outcomeNotified = () -> pending &= ~OUTCOME;
+
+  private ChannelResponse() {
+  }
+
+  @Nullable
+  static ChannelResponse acquire(Channel channel) {
+    Attribute<ChannelResponse> attribute = channel.attr(ATTRIBUTE_KEY);
+    ChannelResponse channelResponse = attribute.get();
+    if (channelResponse == null) {
+      channelResponse = new ChannelResponse();
+      attribute.set(channelResponse);
+    } else if (channelResponse.pending != 0) {
+      return null;
+    } else {
+      channelResponse.nettyHeaders.clear();
+    }
+    channelResponse.pending = EXECUTION | OUTCOME;
+    return channelResponse;
+  }
+
+  DefaultResponse response(ByteBufAllocator byteBufAllocator, ResponseTransmitter responseTransmitter) {
+    if (response == null) {
+      response = new DefaultResponse(headers, byteBufAllocator, responseTransmitter);
+    } else {
+      response.reset(responseTransmitter);
+    }
+    return response;
+  }
+
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.server.internal;
+
+import io.netty.channel.Channel;
+import io.netty.handler.codec.http2.Http2StreamChannel;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.util.Attribute;
+import io.netty.util.AttributeKey;
+import ratpack.http.internal.ConnectionIdleTimeout;
+
+import java.net.InetSocketAddress;
+
+/**
+ * The request state that is the same for all requests of a channel.
+ * <p>
+ * Determined on the first request, and reused for subsequent requests of a keep-alive connection.
+ */
+final class ConnectionConstants {
+
+  private static final AttributeKey<ConnectionConstants> ATTRIBUTE_KEY = AttributeKey.valueOf(ConnectionConstants.class, "constants");
+
+  final InetSocketAddress remoteAddress;
+  final InetSocketAddress localAddress;
+  final ConnectionIdleTimeout idleTimeout;
+  final boolean ssl;
+  final boolean http2;
+
+  private ConnectionConstants(Channel channel) {
+    this.remoteAddress = (InetSocketAddress) channel.remoteAddress();
+    this.localAddress = (InetSocketAddress) channel.localAddress();
+    this.idleTimeout = ConnectionIdleTimeout.of(channel);
+    this.ssl = channel.pipeline().get(SslHandler.class) != null;
+    this.http2 = channel instanceof Http2StreamChannel;
+  }
+
+  static ConnectionConstants of(Channel channel) {
+    Attribute<ConnectionConstants> attribute = channel.attr(ATTRIBUTE_KEY);
+    ConnectionConstants constants = attribute.get();
+    if (constants == null) {
+      constants = new ConnectionConstants(channel);
+      attribute.set(constants);
+    }
+    return constants;
+  }
+
+}
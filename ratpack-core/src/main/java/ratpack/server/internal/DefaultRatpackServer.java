@@ -20,13 +20,7 @@ import com.google.common.reflect.TypeToken;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.buffer.ByteBufAllocator;
 import io.netty.channel.*;
-import io.netty.channel.socket.SocketChannel;
 import io.netty.handler.codec.http.HttpRequest;
-import io.netty.handler.codec.http.HttpRequestDecoder;
-import io.netty.handler.codec.http.HttpResponseEncoder;
-import io.netty.handler.ssl.SslContext;
-import io.netty.handler.ssl.SslHandler;
-import io.netty.handler.stream.ChunkedWriteHandler;
 import io.netty.util.AttributeKey;
 import io.netty.util.ReferenceCountUtil;
 import io.netty.util.ResourceLeakDetector;
@@ -38,11 +32,11 @@ import ratpack.exec.Promise;
 import ratpack.exec.Throttle;
 import ratpack.exec.internal.DefaultExecController;
 import ratpack.exec.internal.ExecThreadBinding;
+import ratpack.exec.internal.VirtualThreads;
 import ratpack.func.Action;
 import ratpack.func.Function;
 import ratpack.handling.Handler;
 import ratpack.handling.HandlerDecorator;
-import ratpack.http.internal.ConnectionIdleTimeout;
 import ratpack.impose.Impositions;
 import ratpack.impose.UserRegistryImposition;
 import ratpack.registry.Registry;
@@ -56,7 +50,6 @@ import ratpack.util.Exceptions;
 import ratpack.util.Types;
 import ratpack.util.internal.TransportDetector;
 
-import javax.net.ssl.SSLEngine;
 import java.io.FileOutputStream;
 import java.net.InetSocketAddress;
 import java.nio.file.Path;
@@ -125,7 +118,10 @@ public class DefaultRatpackServer implements RatpackServer {
       }
 
       serverConfig = definitionBuild.getServerConfig();
-      execController = new DefaultExecController(serverConfig.getThreads());
+      if (serverConfig.isVirtualBlockingThreads() && serverConfig.getVirtualBlockingThreadCarriers() > 0) {
+        VirtualThreads.limitCarriers(serverConfig.getVirtualBlockingThreadCarriers());
+      }
+      execController = new DefaultExecController(serverConfig.getThreads(), serverConfig.isVirtualBlockingThreads(), serverConfig.getBlockingPools());
       ChannelHandler channelHandler = ExecThreadBinding.bindFor(true, execController, () -> buildHandler(definitionBuild));
       channel = buildChannel(serverConfig, channelHandler);
 
@@ -230,8 +226,7 @@ public class DefaultRatpackServer implements RatpackServer {
 
   protected Channel buildChannel(final ServerConfig serverConfig, final ChannelHandler handlerAdapter) throws InterruptedException {
 
-    SslContext sslContext = serverConfig.getNettySslContext();
-    this.useSsl = sslContext != null;
+    this.useSsl = serverConfig.getNettySslContext() != null;
 
     ServerBootstrap serverBootstrap = new ServerBootstrap();
 
@@ -261,32 +256,7 @@ public class DefaultRatpackServer implements RatpackServer {
       .channel(TransportDetector.getServerSocketChannelImpl())
       .option(ChannelOption.ALLOCATOR, ByteBufAllocator.DEFAULT)
       .childOption(ChannelOption.ALLOCATOR, ByteBufAllocator.DEFAULT)
-      .childHandler(new ChannelInitializer<SocketChannel>() {
-        @Override
-        protected void initChannel(SocketChannel ch) throws Exception {
-          ChannelPipeline pipeline = ch.pipeline();
-
-          new ConnectionIdleTimeout(pipeline, serverConfig.getIdleTimeout());
-
-          if (sslContext != null) {
-            SSLEngine sslEngine = sslContext.newEngine(ByteBufAllocator.DEFAULT);
-            pipeline.addLast("ssl", new SslHandler(sslEngine));
-          }
-
-          pipeline.addLast("decoder", new HttpRequestDecoder(
-            serverConfig.getMaxInitialLineLength(),
-            serverConfig.getMaxHeaderSize(),
-            serverConfig.getMaxChunkSize(),
-            false)
-          );
-          pipeline.addLast("encoder", new HttpResponseEncoder());
-          pipeline.addLast("deflater", new IgnorableHttpContentCompressor());
-          pipeline.addLast("chunkedWriter", new ChunkedWriteHandler());
-          pipeline.addLast("adapter", handlerAdapter);
-
-          ch.config().setAutoRead(false);
-        }
-      })
+      .childHandler(new HttpChannelInitializer(serverConfig, handlerAdapter))
       .bind(buildSocketAddress(serverConfig))
       .sync()
       .channel();
@@ -17,14 +17,15 @@
 package ratpack.server.internal;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.channel.*;
 import io.netty.handler.codec.http.*;
-import io.netty.handler.ssl.SslHandler;
 import io.netty.handler.stream.ChunkedNioStream;
 import io.netty.util.AttributeKey;
 import io.netty.util.ReferenceCountUtil;
 import io.netty.util.concurrent.Future;
 import io.netty.util.concurrent.GenericFutureListener;
+import org.reactivestreams.Publisher;
 import org.reactivestreams.Subscriber;
 import org.reactivestreams.Subscription;
 import org.slf4j.Logger;
@@ -33,6 +34,8 @@ import ratpack.api.Nullable;
 import ratpack.exec.Blocking;
 import ratpack.exec.Execution;
 import ratpack.exec.Promise;
+import ratpack.file.FileIo;
+import ratpack.file.internal.ByteRanges;
 import ratpack.file.internal.ResponseTransmitter;
 import ratpack.func.Action;
 import ratpack.handling.RequestOutcome;
@@ -42,7 +45,10 @@ import ratpack.http.Request;
 import ratpack.http.RequestBodyTooLargeException;
 import ratpack.http.SentResponse;
 import ratpack.http.internal.*;
+import ratpack.server.FlushConsolidationConfig;
+import ratpack.stream.Streams;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.nio.channels.FileChannel;
@@ -54,6 +60,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.function.Consumer;
 
 public class DefaultResponseTransmitter implements ResponseTransmitter {
@@ -64,13 +71,19 @@ public class DefaultResponseTransmitter implements ResponseTransmitter {
 
   private static final Runnable NOOP_RUNNABLE = () -> {
   };
-  private final AtomicBoolean transmitted;
+  private static final AtomicIntegerFieldUpdater<DefaultResponseTransmitter> TRANSMITTED_UPDATER =
+    AtomicIntegerFieldUpdater.newUpdater(DefaultResponseTransmitter.class, "transmitted");
+
+  private volatile int transmitted;
   private final Channel channel;
   private final Clock clock;
   private final Request ratpackRequest;
   private final HttpHeaders responseHeaders;
   private final RequestBody requestBody;
   private final boolean isSsl;
+  private final boolean isHttp2;
+  @Nullable
+  private final FlushConsolidationConfig flushConsolidation;
 
   private List<Action<? super RequestOutcome>> outcomeListeners;
 
@@ -78,24 +91,39 @@ public class DefaultResponseTransmitter implements ResponseTransmitter {
   private Instant stopTime;
 
   private Runnable onWritabilityChanged = NOOP_RUNNABLE;
+  private Runnable afterOutcome = NOOP_RUNNABLE;
 
-  public DefaultResponseTransmitter(
-    AtomicBoolean transmitted,
+  DefaultResponseTransmitter(
     Channel channel,
+    ConnectionConstants connectionConstants,
     Clock clock,
     HttpRequest nettyRequest,
     Request ratpackRequest,
     HttpHeaders responseHeaders,
-    @Nullable RequestBody requestBody
+    @Nullable RequestBody requestBody,
+    @Nullable FlushConsolidationConfig flushConsolidation
   ) {
-    this.transmitted = transmitted;
     this.channel = channel;
     this.clock = clock;
     this.ratpackRequest = ratpackRequest;
     this.responseHeaders = responseHeaders;
     this.requestBody = requestBody;
     this.isKeepAlive = HttpUtil.isKeepAlive(nettyRequest);
-    this.isSsl = channel.pipeline().get(SslHandler.class) != null;
+    this.isSsl = connectionConstants.ssl;
+    this.isHttp2 = connectionConstants.http2;
+    this.flushConsolidation = flushConsolidation;
+  }
+
+  boolean isTransmitted() {
+    return transmitted == 1;
+  }
+
+  void setTransmitted() {
+    transmitted = 1;
+  }
+
+  void afterOutcome(Runnable afterOutcome) {
+    this.afterOutcome = afterOutcome;
   }
 
   private void drainRequestBody(Consumer<Throwable> next) {
@@ -122,7 +150,7 @@ public class DefaultResponseTransmitter implements ResponseTransmitter {
   }
 
   private ChannelFuture pre(HttpResponseStatus responseStatus, boolean flushHeaders) {
-    if (transmitted.compareAndSet(false, true)) {
+    if (TRANSMITTED_UPDATER.compareAndSet(this, 0, 1)) {
       stopTime = clock.instant();
       try {
         if (responseHeaders.contains(HttpHeaderNames.CONNECTION, HttpHeaderValues.CLOSE, true)) {
@@ -193,6 +221,7 @@ public class DefaultResponseTransmitter implements ResponseTransmitter {
   }
 
   private static final Set<OpenOption> OPEN_OPTIONS = Collections.singleton(StandardOpenOption.READ);
+  private static final int FILE_RANGE_BUFFER_SIZE = 8192;
 
   @Override
   public void transmit(HttpResponseStatus status, Path file) {
@@ -201,9 +230,10 @@ public class DefaultResponseTransmitter implements ResponseTransmitter {
     } else {
       String sizeString = responseHeaders.getAsString(HttpHeaderConstants.CONTENT_LENGTH);
       long size = sizeString == null ? 0 : Long.parseLong(sizeString);
-      boolean compress = !responseHeaders.contains(HttpHeaderConstants.CONTENT_ENCODING, HttpHeaderConstants.IDENTITY, true);
+      // The compressor leaves responses that already have a content encoding (including identity) as they are
+      boolean compress = !responseHeaders.contains(HttpHeaderConstants.CONTENT_ENCODING);
 
-      if (!isSsl && !compress && file.getFileSystem().equals(FileSystems.getDefault())) {
+      if (!isSsl && !isHttp2 && !compress && file.getFileSystem().equals(FileSystems.getDefault())) {
         FileChannel fileChannel;
         try {
           fileChannel = FileChannel.open(file, OPEN_OPTIONS);
@@ -222,8 +252,51 @@ public class DefaultResponseTransmitter implements ResponseTransmitter {
     }
   }
 
+  @Override
+  public void transmit(HttpResponseStatus status, Path file, ByteRanges ranges) {
+    if (isHead()) {
+      transmit(status, LastHttpContent.EMPTY_LAST_CONTENT, false);
+    } else if (!isSsl && !isHttp2 && file.getFileSystem().equals(FileSystems.getDefault())) {
+      ChannelFuture channelFuture = pre(status, false);
+      if (channelFuture == null) {
+        isKeepAlive = false;
+        post(status);
+        return;
+      }
+
+      // Each region opens the file lazily, and closes it when released
+      File regionFile = file.toFile();
+      for (int i = 0; i < ranges.getCount(); ++i) {
+        if (ranges.isMultipart()) {
+          channel.write(new DefaultHttpContent(ranges.partHeader(i, channel.alloc())));
+        }
+        channel.write(new DefaultFileRegion(regionFile, ranges.getStart(i), ranges.getLength(i)));
+      }
+      if (ranges.isMultipart()) {
+        channel.write(new DefaultHttpContent(ranges.trailer(channel.alloc())));
+      }
+      post(status);
+    } else {
+      ByteBufAllocator allocator = channel.alloc();
+      List<Publisher<? extends ByteBuf>> parts = new ArrayList<>(ranges.getCount() * 2 + 1);
+      for (int i = 0; i < ranges.getCount(); ++i) {
+        int part = i;
+        if (ranges.isMultipart()) {
+          parts.add(Streams.publish(Promise.sync(() -> Collections.singletonList(ranges.partHeader(part, allocator)))));
+        }
+        long start = ranges.getStart(i);
+        parts.add(FileIo.readStream(FileIo.open(file), allocator, FILE_RANGE_BUFFER_SIZE, start, start + ranges.getLength(i)));
+      }
+      if (ranges.isMultipart()) {
+        parts.add(Streams.publish(Promise.sync(() -> Collections.singletonList(ranges.trailer(allocator)))));
+      }
+      Streams.concat(parts, ByteBuf::release).subscribe(transmitter(status));
+    }
+  }
+
   @Override
   public Subscriber<ByteBuf> transmitter(HttpResponseStatus responseStatus) {
+    StreamFlusher flusher = flushConsolidation == null ? null : new StreamFlusher(channel, flushConsolidation);
     return new Subscriber<ByteBuf>() {
       private Subscription subscription;
 
@@ -242,6 +315,9 @@ public class DefaultResponseTransmitter implements ResponseTransmitter {
         channel.closeFuture().removeListener(cancelOnCloseListener);
         if (done.compareAndSet(false, true)) {
           subscription.cancel();
+          if (flusher != null) {
+            flusher.cancel();
+          }
           post(responseStatus);
         }
       }
@@ -286,7 +362,13 @@ public class DefaultResponseTransmitter implements ResponseTransmitter {
       public void onNext(ByteBuf o) {
         o.touch();
         if (channel.isOpen()) {
-          channel.writeAndFlush(new DefaultHttpContent(o)).addListener(cancelOnFailure);
+          if (flusher == null) {
+            channel.writeAndFlush(new DefaultHttpContent(o)).addListener(cancelOnFailure);
+          } else {
+            int size = o.readableBytes();
+            channel.write(new DefaultHttpContent(o)).addListener(cancelOnFailure);
+            flusher.written(size);
+          }
           if (channel.isWritable()) {
             subscription.request(1);
           }
@@ -304,6 +386,9 @@ public class DefaultResponseTransmitter implements ResponseTransmitter {
         LOGGER.warn("Exception thrown transmitting stream", t);
         if (done.compareAndSet(false, true)) {
           channel.closeFuture().removeListener(cancelOnCloseListener);
+          if (flusher != null) {
+            flusher.cancel();
+          }
           post(responseStatus);
         }
       }
@@ -312,6 +397,9 @@ public class DefaultResponseTransmitter implements ResponseTransmitter {
       public void onComplete() {
         if (done.compareAndSet(false, true)) {
           channel.closeFuture().removeListener(cancelOnCloseListener);
+          if (flusher != null) {
+            flusher.cancel();
+          }
           post(responseStatus);
         }
       }
@@ -359,6 +447,7 @@ public class DefaultResponseTransmitter implements ResponseTransmitter {
         }
       }
     }
+    afterOutcome.run();
   }
 
   public void writabilityChanged() {
@@ -23,7 +23,9 @@ import ratpack.api.Nullable;
 import ratpack.config.ConfigData;
 import ratpack.config.ConfigObject;
 import ratpack.config.internal.DelegatingConfigData;
+import ratpack.exec.BlockingPoolConfig;
 import ratpack.file.FileSystemBinding;
+import ratpack.server.FlushConsolidationConfig;
 import ratpack.server.NoBaseDirException;
 import ratpack.server.ServerConfig;
 
@@ -32,6 +34,7 @@ import java.net.InetAddress;
 import java.net.URI;
 import java.nio.file.Path;
 import java.time.Duration;
+import java.util.Map;
 import java.util.Optional;
 
 public class DefaultServerConfig extends DelegatingConfigData implements ServerConfig {
@@ -136,6 +139,41 @@ public class DefaultServerConfig extends DelegatingConfigData implements ServerC
     return serverConfigData.getIdleTimeout();
   }
 
+  @Override
+  public boolean isHttp2() {
+    return serverConfigData.isHttp2();
+  }
+
+  @Override
+  public boolean isCompiledRouting() {
+    return serverConfigData.isCompiledRouting();
+  }
+
+  @Override
+  public boolean isVirtualBlockingThreads() {
+    return serverConfigData.isVirtualBlockingThreads();
+  }
+
+  @Override
+  public int getVirtualBlockingThreadCarriers() {
+    return serverConfigData.getVirtualBlockingThreadCarriers();
+  }
+
+  @Override
+  public Map<String, BlockingPoolConfig> getBlockingPools() {
+    return serverConfigData.getBlockingPools();
+  }
+
+  @Override
+  public Optional<FlushConsolidationConfig> getFlushConsolidation() {
+    return serverConfigData.getFlushConsolidation();
+  }
+
+  @Override
+  public boolean isRecycleResponses() {
+    return serverConfigData.isRecycleResponses();
+  }
+
   @Override
   public FileSystemBinding getBaseDir() throws NoBaseDirException {
     return baseDir.orElseThrow(() -> new NoBaseDirException("No base dir has been set"));
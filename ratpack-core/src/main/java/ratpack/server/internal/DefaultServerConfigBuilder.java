@@ -32,14 +32,17 @@ import ratpack.config.internal.DefaultConfigDataBuilder;
 import ratpack.config.internal.module.JdkSslContextDeserializer;
 import ratpack.config.internal.module.NettySslContextDeserializer;
 import ratpack.config.internal.module.ServerConfigDataDeserializer;
+import ratpack.exec.BlockingPoolConfig;
 import ratpack.file.FileSystemBinding;
 import ratpack.func.Action;
 import ratpack.impose.ForceDevelopmentImposition;
 import ratpack.impose.ForceServerListenPortImposition;
 import ratpack.impose.Impositions;
 import ratpack.impose.ServerConfigImposition;
+import ratpack.server.FlushConsolidationConfig;
 import ratpack.server.ServerConfig;
 import ratpack.server.ServerConfigBuilder;
+import ratpack.util.Exceptions;
 
 import javax.net.ssl.SSLContext;
 import java.net.InetAddress;
@@ -209,6 +212,46 @@ public class DefaultServerConfigBuilder implements ServerConfigBuilder {
     return addToServer(n -> n.putPOJO("ssl", sslContext));
   }
 
+  @Override
+  public ServerConfigBuilder http2(boolean http2) {
+    return addToServer(n -> n.put("http2", http2));
+  }
+
+  @Override
+  public ServerConfigBuilder compiledRouting(boolean compiledRouting) {
+    return addToServer(n -> n.put("compiledRouting", compiledRouting));
+  }
+
+  @Override
+  public ServerConfigBuilder virtualBlockingThreads(boolean virtualBlockingThreads) {
+    return addToServer(n -> n.put("virtualBlockingThreads", virtualBlockingThreads));
+  }
+
+  @Override
+  public ServerConfigBuilder virtualBlockingThreadCarriers(int virtualBlockingThreadCarriers) {
+    if (virtualBlockingThreadCarriers < 1) {
+      throw new IllegalArgumentException("'virtualBlockingThreadCarriers' must be > 0");
+    }
+    return addToServer(n -> n.put("virtualBlockingThreadCarriers", virtualBlockingThreadCarriers));
+  }
+
+  @Override
+  public ServerConfigBuilder blockingPool(String name, Action<? super BlockingPoolConfig> config) {
+    BlockingPoolConfig poolConfig = Exceptions.uncheck(() -> config.with(new BlockingPoolConfig()));
+    return addToServer(n -> n.with("blockingPools").putPOJO(name, poolConfig));
+  }
+
+  @Override
+  public ServerConfigBuilder flushConsolidation(Action<? super FlushConsolidationConfig> config) {
+    FlushConsolidationConfig flushConsolidationConfig = Exceptions.uncheck(() -> config.with(new FlushConsolidationConfig()));
+    return addToServer(n -> n.putPOJO("flushConsolidation", flushConsolidationConfig));
+  }
+
+  @Override
+  public ServerConfigBuilder recycleResponses(boolean recycleResponses) {
+    return addToServer(n -> n.put("recycleResponses", recycleResponses));
+  }
+
   @Override
   public ServerConfigBuilder configureObjectMapper(Action<ObjectMapper> action) {
     configDataBuilder.configureObjectMapper(action);
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.server.internal;
+
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.*;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.handler.codec.http.HttpRequestDecoder;
+import io.netty.handler.codec.http.HttpResponseEncoder;
+import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.codec.http.HttpServerUpgradeHandler;
+import io.netty.handler.codec.http2.*;
+import io.netty.handler.ssl.ApplicationProtocolNames;
+import io.netty.handler.ssl.ApplicationProtocolNegotiationHandler;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.stream.ChunkedWriteHandler;
+import io.netty.handler.timeout.IdleStateEvent;
+import io.netty.util.AsciiString;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ratpack.api.Nullable;
+import ratpack.http.internal.ConnectionIdleTimeout;
+import ratpack.server.ServerConfig;
+
+import javax.net.ssl.SSLEngine;
+
+/**
+ * Initializes accepted connections, for HTTP/1.1 and optionally HTTP/2.
+ * <p>
+ * When HTTP/2 is in use, each stream is a child channel of the connection.
+ * Streams are given the same handlers as HTTP/1.1 connections (after converting frames to HTTP objects),
+ * so that each stream is processed as an independent request by the {@link NettyHandlerAdapter}.
+ */
+public class HttpChannelInitializer extends ChannelInitializer<SocketChannel> {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(HttpChannelInitializer.class);
+
+  private static final String[] HTTP_OBJECT_HANDLER_NAMES = {"deflater", "chunkedWriter", "adapter"};
+
+  private final ServerConfig serverConfig;
+  private final ChannelHandler handlerAdapter;
+  @Nullable
+  private final SslContext sslContext;
+  private final boolean http2;
+  private final StreamInitializer streamInitializer = new StreamInitializer();
+
+  public HttpChannelInitializer(ServerConfig serverConfig, ChannelHandler handlerAdapter) {
+    this.serverConfig = serverConfig;
+    this.handlerAdapter = handlerAdapter;
+    this.sslContext = serverConfig.getNettySslContext();
+
+    boolean negotiable = sslContext == null || isH2Negotiable(sslContext);
+    if (serverConfig.isHttp2() && !negotiable) {
+      LOGGER.warn("HTTP/2 is enabled, but the SSL context does not advertise '{}' via ALPN. Only HTTP/1.1 will be used.", ApplicationProtocolNames.HTTP_2);
+    }
+    this.http2 = serverConfig.isHttp2() && negotiable;
+  }
+
+  @SuppressWarnings("deprecation")
+  private static boolean isH2Negotiable(SslContext sslContext) {
+    return sslContext.applicationProtocolNegotiator().protocols().contains(ApplicationProtocolNames.HTTP_2);
+  }
+
+  @Override
+  protected void initChannel(SocketChannel ch) {
+    ChannelPipeline pipeline = ch.pipeline();
+
+    new ConnectionIdleTimeout(pipeline, serverConfig.getIdleTimeout());
+
+    if (sslContext != null) {
+      SSLEngine sslEngine = sslContext.newEngine(ByteBufAllocator.DEFAULT);
+      pipeline.addLast("ssl", new SslHandler(sslEngine));
+      if (http2) {
+        pipeline.addLast("alpn", new ProtocolNegotiationHandler());
+      } else {
+        addHttp1Handlers(pipeline);
+      }
+    } else if (http2) {
+      addCleartextHandlers(pipeline);
+    } else {
+      addHttp1Handlers(pipeline);
+    }
+
+    ch.config().setAutoRead(false);
+  }
+
+  private void addHttp1Handlers(ChannelPipeline pipeline) {
+    pipeline.addLast("decoder", new HttpRequestDecoder(
+      serverConfig.getMaxInitialLineLength(),
+      serverConfig.getMaxHeaderSize(),
+      serverConfig.getMaxChunkSize(),
+      false)
+    );
+    pipeline.addLast("encoder", new HttpResponseEncoder());
+    addHttpObjectHandlers(pipeline);
+  }
+
+  private void addHttpObjectHandlers(ChannelPipeline pipeline) {
+    pipeline.addLast("deflater", new IgnorableHttpContentCompressor());
+    pipeline.addLast("chunkedWriter", new ChunkedWriteHandler());
+    pipeline.addLast("adapter", handlerAdapter);
+  }
+
+  // Accepts HTTP/1.1, HTTP/1.1 with an upgrade to h2c, and h2c with prior knowledge.
+  private void addCleartextHandlers(ChannelPipeline pipeline) {
+    HttpServerCodec sourceCodec = new HttpServerCodec(
+      serverConfig.getMaxInitialLineLength(),
+      serverConfig.getMaxHeaderSize(),
+      serverConfig.getMaxChunkSize(),
+      false
+    );
+
+    HttpServerUpgradeHandler upgradeHandler = new HttpServerUpgradeHandler(sourceCodec, protocol -> {
+      if (AsciiString.contentEquals(Http2CodecUtil.HTTP_UPGRADE_PROTOCOL_NAME, protocol)) {
+        return new Http2ServerUpgradeCodec(newFrameCodec(), new Http2ConnectionSwitch(false));
+      } else {
+        return null;
+      }
+    }, serverConfig.getMaxContentLength());
+
+    pipeline.addLast("h2c", new CleartextHttp2ServerUpgradeHandler(sourceCodec, upgradeHandler, new Http2ConnectionSwitch(true)));
+    addHttpObjectHandlers(pipeline);
+  }
+
+  private Http2FrameCodec newFrameCodec() {
+    return Http2FrameCodecBuilder.forServer()
+      .initialSettings(Http2Settings.defaultSettings().maxHeaderListSize(serverConfig.getMaxHeaderSize()))
+      .build();
+  }
+
+  private class ProtocolNegotiationHandler extends ApplicationProtocolNegotiationHandler {
+
+    ProtocolNegotiationHandler() {
+      super(ApplicationProtocolNames.HTTP_1_1);
+    }
+
+    @Override
+    public void channelActive(ChannelHandlerContext ctx) throws Exception {
+      ctx.read();
+      super.channelActive(ctx);
+    }
+
+    @Override
+    protected void configurePipeline(ChannelHandlerContext ctx, String protocol) {
+      if (ApplicationProtocolNames.HTTP_2.equals(protocol)) {
+        NettyHandlerAdapter.storeClientCertificate(ctx.channel(), ctx.pipeline().get(SslHandler.class).engine());
+        ctx.pipeline().addLast(new Http2ConnectionSwitch(true));
+      } else if (ApplicationProtocolNames.HTTP_1_1.equals(protocol)) {
+        addHttp1Handlers(ctx.pipeline());
+        ctx.read();
+      } else {
+        throw new IllegalStateException("Unsupported application protocol: " + protocol);
+      }
+    }
+  }
+
+  /**
+   * Converts the connection pipeline to HTTP/2, once it is known that the connection will use HTTP/2.
+   */
+  private class Http2ConnectionSwitch extends ChannelHandlerAdapter {
+
+    private final boolean addFrameCodec;
+
+    Http2ConnectionSwitch(boolean addFrameCodec) {
+      this.addFrameCodec = addFrameCodec;
+    }
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) {
+      ChannelPipeline pipeline = ctx.pipeline();
+      for (String name : HTTP_OBJECT_HANDLER_NAMES) {
+        if (pipeline.get(name) != null) {
+          pipeline.remove(name);
+        }
+      }
+
+      String previous = ctx.name();
+      if (addFrameCodec) {
+        pipeline.addAfter(previous, "h2Codec", newFrameCodec());
+        previous = "h2Codec";
+      }
+      pipeline.addAfter(previous, "h2Multiplexer", new Http2MultiplexHandler(streamInitializer));
+      pipeline.addAfter("h2Multiplexer", "h2Idle", new Http2IdleConnectionHandler());
+      pipeline.remove(this);
+
+      // Backpressure is applied per stream, via the stream channels
+      ctx.channel().config().setAutoRead(true);
+    }
+  }
+
+  private class StreamInitializer extends ChannelInitializer<Http2StreamChannel> {
+    @Override
+    protected void initChannel(Http2StreamChannel ch) {
+      ChannelPipeline pipeline = ch.pipeline();
+      new ConnectionIdleTimeout(pipeline, serverConfig.getIdleTimeout());
+      pipeline.addLast("codec", new Http2StreamFrameToHttpObjectCodec(true));
+      addHttpObjectHandlers(pipeline);
+      ch.config().setAutoRead(false);
+    }
+  }
+
+  private static class Http2IdleConnectionHandler extends ChannelInboundHandlerAdapter {
+    @Override
+    public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+      if (evt instanceof IdleStateEvent) {
+        Http2FrameCodec frameCodec = ctx.pipeline().get(Http2FrameCodec.class);
+        if (frameCodec == null || frameCodec.connection().numActiveStreams() == 0) {
+          ConnectionClosureReason.setIdle(ctx.channel());
+          ctx.close();
+        }
+      } else {
+        super.userEventTriggered(ctx, evt);
+      }
+    }
+  }
+
+}
@@ -38,21 +38,19 @@ import ratpack.handling.internal.DefaultContext;
 import ratpack.handling.internal.DescribingHandler;
 import ratpack.handling.internal.DescribingHandlers;
 import ratpack.http.Headers;
-import ratpack.http.MutableHeaders;
 import ratpack.http.Response;
 import ratpack.http.internal.*;
 import ratpack.registry.Registry;
 import ratpack.render.internal.DefaultRenderController;
+import ratpack.server.FlushConsolidationConfig;
 import ratpack.server.ServerConfig;
 
 import javax.net.ssl.SSLEngine;
 import javax.net.ssl.SSLPeerUnverifiedException;
 import java.io.IOException;
-import java.net.InetSocketAddress;
 import java.nio.CharBuffer;
 import java.nio.channels.ClosedChannelException;
 import java.time.Clock;
-import java.util.concurrent.atomic.AtomicBoolean;
 
 @ChannelHandler.Sharable
 public class NettyHandlerAdapter extends ChannelInboundHandlerAdapter {
@@ -69,14 +67,20 @@ public class NettyHandlerAdapter extends ChannelInboundHandlerAdapter {
   private final DefaultContext.ApplicationConstants applicationConstants;
 
   private final Registry serverRegistry;
+  private final ServerConfig serverConfig;
   private final boolean development;
+  private final FlushConsolidationConfig flushConsolidation;
+  private final boolean recycleResponses;
   private final Clock clock;
 
   public NettyHandlerAdapter(Registry serverRegistry, Handler handler) throws Exception {
     this.handlers = ChainHandler.unpack(handler);
     this.serverRegistry = serverRegistry;
     this.applicationConstants = new DefaultContext.ApplicationConstants(this.serverRegistry, new DefaultRenderController(), serverRegistry.get(ExecController.class), Handlers.notFound());
-    this.development = serverRegistry.get(ServerConfig.class).isDevelopment();
+    this.serverConfig = serverRegistry.get(ServerConfig.class);
+    this.development = serverConfig.isDevelopment();
+    this.flushConsolidation = serverConfig.getFlushConsolidation().orElse(null);
+    this.recycleResponses = serverConfig.isRecycleResponses();
     this.clock = serverRegistry.get(Clock.class);
   }
 
@@ -137,10 +141,7 @@ public class NettyHandlerAdapter extends ChannelInboundHandlerAdapter {
     if (requestBody != null) {
       channel.attr(BODY_ACCUMULATOR_KEY).set(requestBody);
     }
-    InetSocketAddress remoteAddress = (InetSocketAddress) channel.remoteAddress();
-    InetSocketAddress socketAddress = (InetSocketAddress) channel.localAddress();
-
-    ConnectionIdleTimeout connectionIdleTimeout = ConnectionIdleTimeout.of(channel);
+    ConnectionConstants connectionConstants = ConnectionConstants.of(channel);
 
     DefaultRequest request = new DefaultRequest(
       clock.instant(),
@@ -148,25 +149,24 @@ public class NettyHandlerAdapter extends ChannelInboundHandlerAdapter {
       nettyRequest.method(),
       nettyRequest.protocolVersion(),
       nettyRequest.uri(),
-      remoteAddress,
-      socketAddress,
-      serverRegistry.get(ServerConfig.class),
+      connectionConstants.remoteAddress,
+      connectionConstants.localAddress,
+      serverConfig,
       requestBody,
-      connectionIdleTimeout,
-      channel.attr(CLIENT_CERT_KEY).get()
+      connectionConstants.idleTimeout,
+      clientCertificate(channel)
     );
 
-    HttpHeaders nettyHeaders = new DefaultHttpHeaders();
-    MutableHeaders responseHeaders = new NettyHeadersBackedMutableHeaders(nettyHeaders);
-    AtomicBoolean transmitted = new AtomicBoolean(false);
+    ChannelResponse channelResponse = recycleResponses ? ChannelResponse.acquire(channel) : null;
+    HttpHeaders nettyHeaders = channelResponse == null ? new DefaultHttpHeaders() : channelResponse.nettyHeaders;
 
-    DefaultResponseTransmitter responseTransmitter = new DefaultResponseTransmitter(transmitted, channel, clock, nettyRequest, request, nettyHeaders, requestBody);
+    DefaultResponseTransmitter responseTransmitter = new DefaultResponseTransmitter(channel, connectionConstants, clock, nettyRequest, request, nettyHeaders, requestBody, flushConsolidation);
 
-    ctx.channel().attr(DefaultResponseTransmitter.ATTRIBUTE_KEY).set(responseTransmitter);
+    channel.attr(DefaultResponseTransmitter.ATTRIBUTE_KEY).set(responseTransmitter);
 
     Action<Action<Object>> subscribeHandler = thing -> {
-      transmitted.set(true);
-      ctx.channel().attr(CHANNEL_SUBSCRIBER_ATTRIBUTE_KEY).set(thing);
+      responseTransmitter.setTransmitted();
+      channel.attr(CHANNEL_SUBSCRIBER_ATTRIBUTE_KEY).set(thing);
     };
 
     DefaultContext.RequestConstants requestConstants = new DefaultContext.RequestConstants(
@@ -177,11 +177,17 @@ public class NettyHandlerAdapter extends ChannelInboundHandlerAdapter {
       subscribeHandler
     );
 
-    Response response = new DefaultResponse(responseHeaders, ctx.alloc(), responseTransmitter);
+    Response response;
+    if (channelResponse == null) {
+      response = new DefaultResponse(new NettyHeadersBackedMutableHeaders(nettyHeaders), ctx.alloc(), responseTransmitter);
+    } else {
+      responseTransmitter.afterOutcome(channelResponse.outcomeNotified);
+      response = channelResponse.response(ctx.alloc(), responseTransmitter);
+    }
     requestConstants.response = response;
 
     DefaultContext.start(channel.eventLoop(), requestConstants, serverRegistry, handlers, execution -> {
-      if (!transmitted.get()) {
+      if (!responseTransmitter.isTransmitted()) {
         Handler lastHandler = requestConstants.handler;
         StringBuilder description = new StringBuilder();
         description
@@ -218,6 +224,9 @@ public class NettyHandlerAdapter extends ChannelInboundHandlerAdapter {
         response.getHeaders().set(HttpHeaderConstants.CONTENT_LENGTH, body.readableBytes());
         responseTransmitter.transmit(HttpResponseStatus.INTERNAL_SERVER_ERROR, body);
       }
+      if (channelResponse != null) {
+        channelResponse.executionComplete.run();
+      }
     });
   }
 
@@ -238,20 +247,34 @@ public class NettyHandlerAdapter extends ChannelInboundHandlerAdapter {
       ctx.close();
     }
     if (evt instanceof SslHandshakeCompletionEvent && ((SslHandshakeCompletionEvent) evt).isSuccess()) {
-      SSLEngine engine = ctx.pipeline().get(SslHandler.class).engine();
-      if (engine.getWantClientAuth() || engine.getNeedClientAuth()) {
-        try {
-          @SuppressWarnings("deprecation") javax.security.cert.X509Certificate clientCert = engine.getSession().getPeerCertificateChain()[0];
-          ctx.channel().attr(CLIENT_CERT_KEY).set(clientCert);
-        } catch (SSLPeerUnverifiedException ignore) {
-          // ignore - there is no way to avoid this exception that I can determine
-        }
-      }
+      storeClientCertificate(ctx.channel(), ctx.pipeline().get(SslHandler.class).engine());
     }
 
     super.userEventTriggered(ctx, evt);
   }
 
+  static void storeClientCertificate(Channel channel, SSLEngine engine) {
+    if (engine.getWantClientAuth() || engine.getNeedClientAuth()) {
+      try {
+        @SuppressWarnings("deprecation") javax.security.cert.X509Certificate clientCert = engine.getSession().getPeerCertificateChain()[0];
+        channel.attr(CLIENT_CERT_KEY).set(clientCert);
+      } catch (SSLPeerUnverifiedException ignore) {
+        // ignore - there is no way to avoid this exception that I can determine
+      }
+    }
+  }
+
+  // HTTP/2 streams are child channels, the certificate is associated with the connection
+  @SuppressWarnings("deprecation")
+  private static javax.security.cert.X509Certificate clientCertificate(Channel channel) {
+    javax.security.cert.X509Certificate clientCert = channel.attr(CLIENT_CERT_KEY).get();
+    if (clientCert == null && channel.parent() != null) {
+      return channel.parent().attr(CLIENT_CERT_KEY).get();
+    } else {
+      return clientCert;
+    }
+  }
+
   @Override
   public void channelWritabilityChanged(ChannelHandlerContext ctx) {
     DefaultResponseTransmitter responseTransmitter = ctx.channel().attr(DefaultResponseTransmitter.ATTRIBUTE_KEY).get();
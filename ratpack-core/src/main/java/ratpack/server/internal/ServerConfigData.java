@@ -16,8 +16,11 @@
 
 package ratpack.server.internal;
 
+import com.google.common.collect.ImmutableMap;
 import io.netty.handler.ssl.SslContext;
+import ratpack.exec.BlockingPoolConfig;
 import ratpack.file.FileSystemBinding;
+import ratpack.server.FlushConsolidationConfig;
 import ratpack.server.ServerConfig;
 
 import java.net.InetAddress;
@@ -26,6 +29,7 @@ import java.net.URISyntaxException;
 import java.net.UnknownHostException;
 import java.nio.file.Path;
 import java.time.Duration;
+import java.util.Map;
 import java.util.Optional;
 
 public class ServerConfigData {
@@ -51,6 +55,13 @@ public class ServerConfigData {
 
   private Duration idleTimeout = Duration.ZERO;
   private boolean registerShutdownHook = true;
+  private boolean http2;
+  private boolean compiledRouting;
+  private boolean virtualBlockingThreads;
+  private int virtualBlockingThreadCarriers;
+  private Map<String, BlockingPoolConfig> blockingPools = ImmutableMap.of();
+  private FlushConsolidationConfig flushConsolidation;
+  private boolean recycleResponses;
 
   public ServerConfigData(FileSystemBinding baseDir, InetAddress address, int port, boolean development, URI publicAddress) {
     this.baseDir = baseDir;
@@ -229,4 +240,60 @@ public class ServerConfigData {
   public void setRegisterShutdownHook(boolean registerShutdownHook) {
     this.registerShutdownHook = registerShutdownHook;
   }
+
+  public boolean isHttp2() {
+    return http2;
+  }
+
+  public void setHttp2(boolean http2) {
+    this.http2 = http2;
+  }
+
+  public boolean isCompiledRouting() {
+    return compiledRouting;
+  }
+
+  public void setCompiledRouting(boolean compiledRouting) {
+    this.compiledRouting = compiledRouting;
+  }
+
+  public boolean isVirtualBlockingThreads() {
+    return virtualBlockingThreads;
+  }
+
+  public void setVirtualBlockingThreads(boolean virtualBlockingThreads) {
+    this.virtualBlockingThreads = virtualBlockingThreads;
+  }
+
+  public int getVirtualBlockingThreadCarriers() {
+    return virtualBlockingThreadCarriers;
+  }
+
+  public void setVirtualBlockingThreadCarriers(int virtualBlockingThreadCarriers) {
+    this.virtualBlockingThreadCarriers = virtualBlockingThreadCarriers;
+  }
+
+  public Map<String, BlockingPoolConfig> getBlockingPools() {
+    return blockingPools;
+  }
+
+  public void setBlockingPools(Map<String, BlockingPoolConfig> blockingPools) {
+    this.blockingPools = blockingPools;
+  }
+
+  public Optional<FlushConsolidationConfig> getFlushConsolidation() {
+    return Optional.ofNullable(flushConsolidation);
+  }
+
+  public void setFlushConsolidation(FlushConsolidationConfig flushConsolidation) {
+    this.flushConsolidation = flushConsolidation;
+  }
+
+  public boolean isRecycleResponses() {
+    return recycleResponses;
+  }
+
+  public void setRecycleResponses(boolean recycleResponses) {
+    this.recycleResponses = recycleResponses;
+  }
 }
@@ -110,7 +110,7 @@ public abstract class ServerRegistry {
         .add(OptionalRenderer.TYPE, OptionalRenderer.INSTANCE)
         .add(RenderableRenderer.TYPE, RenderableRenderer.INSTANCE)
         .add(CharSequenceRenderer.TYPE, CharSequenceRenderer.INSTANCE)
-        .add(JsonRenderer.TYPE, JsonRenderer.INSTANCE)
+        .add(JsonRenderer.TYPE, new JsonRenderer())
         .add(FormParser.TYPE, FormParser.INSTANCE)
         .add(JsonParser.TYPE, JsonParser.INSTANCE)
         .add(Clock.class, Clock.systemDefaultZone())
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.server.internal;
+
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoop;
+import io.netty.util.concurrent.Future;
+import ratpack.server.FlushConsolidationConfig;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consolidates the flushes of the items of a streamed response.
+ * <p>
+ * Items are written by the transmitter without flushing, and reported to this object, which flushes once enough are pending.
+ * Accounting happens on the channel's event loop, as items may be written from other threads.
+ */
+final class StreamFlusher {
+
+  private final Channel channel;
+  private final EventLoop eventLoop;
+  private final int maxBytes;
+  private final int maxItems;
+  private final long maxDelayNanos;
+  private final Runnable scheduledFlush = this::scheduledFlush;
+
+  private int pendingBytes;
+  private int pendingItems;
+  private Future<?> scheduled;
+
+  StreamFlusher(Channel channel, FlushConsolidationConfig config) {
+    this.channel = channel;
+    this.eventLoop = channel.eventLoop();
+    this.maxBytes = config.getMaxBytes();
+    this.maxItems = config.getMaxItems();
+    this.maxDelayNanos = config.getMaxDelay().toNanos();
+  }
+
+  /**
+   * Records that an item of the given size has been written, flushing if due.
+   */
+  void written(int size) {
+    if (eventLoop.inEventLoop()) {
+      onWritten(size);
+    } else {
+      eventLoop.execute(() -> onWritten(size));
+    }
+  }
+
+  /**
+   * Stops any scheduled flush, as the stream has ended.
+   * <p>
+   * The end of the response is written and flushed by the transmitter, which flushes any pending items.
+   */
+  void cancel() {
+    if (eventLoop.inEventLoop()) {
+      cancelScheduled();
+    } else {
+      eventLoop.execute(this::cancelScheduled);
+    }
+  }
+
+  private void onWritten(int size) {
+    pendingBytes += size;
+    ++pendingItems;
+    // If the channel is no longer writable, the transmitter waits for pending writes to drain, which requires a flush
+    if (pendingBytes >= maxBytes || pendingItems >= maxItems || !channel.isWritable()) {
+      cancelScheduled();
+      flush();
+    } else if (scheduled == null) {
+      if (maxDelayNanos == 0) {
+        scheduled = eventLoop.submit(scheduledFlush);
+      } else {
+        scheduled = eventLoop.schedule(scheduledFlush, maxDelayNanos, TimeUnit.NANOSECONDS);
+      }
+    }
+  }
+
+  private void scheduledFlush() {
+    scheduled = null;
+    flush();
+  }
+
+  private void flush() {
+    pendingBytes = 0;
+    pendingItems = 0;
+    channel.flush();
+  }
+
+  private void cancelScheduled() {
+    if (scheduled != null) {
+      scheduled.cancel(false);
+      scheduled = null;
+    }
+  }
+
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.sse;
+
+/**
+ * An event that has been encoded, ready to be sent to any number of clients.
+ * <p>
+ * The event is encoded once, when it is created, and its bytes are shared by every {@link ServerSentEvents} stream that it is sent on.
+ * This avoids encoding the same event for each client when broadcasting events to many clients,
+ * such as when each client's stream is subscribed to a {@link ratpack.stream.TransformablePublisher#multicast() multicast} publisher of encoded events.
+ * <p>
+ * Encoded events are immutable.
+ * The methods that set the values of the event throw {@link UnsupportedOperationException}.
+ *
+ * @param <T> the type of item that the event was created from
+ * @see ServerSentEvents#encode(Object, ratpack.func.Action)
+ * @see ServerSentEvents#serverSentEvents(org.reactivestreams.Publisher)
+ * @since 1.10
+ */
+public interface EncodedEvent<T> extends Event<T> {
+
+}
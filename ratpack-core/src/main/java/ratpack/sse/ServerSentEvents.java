@@ -16,6 +16,7 @@
 
 package ratpack.sse;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
 import org.reactivestreams.Publisher;
 import ratpack.func.Action;
@@ -23,7 +24,9 @@ import ratpack.handling.Context;
 import ratpack.http.Response;
 import ratpack.http.internal.HttpHeaderConstants;
 import ratpack.render.Renderable;
+import ratpack.sse.internal.DefaultEncodedEvent;
 import ratpack.sse.internal.DefaultEvent;
+import ratpack.sse.internal.EventBatchingPublisher;
 import ratpack.sse.internal.ServerSentEventEncoder;
 import ratpack.stream.Streams;
 
@@ -84,6 +87,7 @@ import ratpack.stream.Streams;
 public class ServerSentEvents implements Renderable {
 
   private final Publisher<? extends Event<?>> publisher;
+  private final int batchSize;
 
   /**
    * Creates a new renderable object wrapping the event stream.
@@ -100,17 +104,94 @@ public class ServerSentEvents implements Renderable {
    * @return a {@link ratpack.handling.Context#render(Object) renderable} object
    */
   public static <T> ServerSentEvents serverSentEvents(Publisher<T> publisher, Action<? super Event<T>> action) {
-    return new ServerSentEvents(Streams.map(publisher, item -> {
-      Event<T> event = action.with(new DefaultEvent<>(item));
-      if (event.getData() == null && event.getId() == null && event.getEvent() == null && event.getComment() == null) {
-        throw new IllegalArgumentException("You must supply at least one of data, event, id or comment");
-      }
-      return event;
-    }));
+    return new ServerSentEvents(Streams.map(publisher, item -> validate(action.with(new DefaultEvent<>(item)))), 1);
   }
 
-  private ServerSentEvents(Publisher<? extends Event<?>> publisher) {
+  /**
+   * Creates a new renderable object wrapping a stream of events.
+   * <p>
+   * This is typically used with {@link #encode(Object, Action) encoded} events that are shared by many streams,
+   * as they are only encoded once.
+   * <pre class="java">{@code
+   * import ratpack.sse.EncodedEvent;
+   * import ratpack.sse.ServerSentEvents;
+   * import ratpack.stream.Streams;
+   * import ratpack.stream.TransformablePublisher;
+   * import ratpack.test.embed.EmbeddedApp;
+   *
+   * import java.util.Arrays;
+   *
+   * import static org.junit.Assert.assertEquals;
+   *
+   * public class Example {
+   *   public static void main(String[] args) throws Exception {
+   *     TransformablePublisher<EncodedEvent<Integer>> events = Streams.publish(Arrays.asList(1, 2))
+   *       .map(i -> ServerSentEvents.encode(i, e -> e.id(i.toString()).data("event " + i)));
+   *
+   *     EmbeddedApp.fromHandler(ctx ->
+   *       ctx.render(ServerSentEvents.serverSentEvents(events))
+   *     ).test(httpClient ->
+   *       assertEquals("id: 1\ndata: event 1\n\nid: 2\ndata: event 2\n\n", httpClient.getText())
+   *     );
+   *   }
+   * }
+   * }</pre>
+   *
+   * @param publisher the event stream
+   * @return a {@link ratpack.handling.Context#render(Object) renderable} object
+   * @since 1.10
+   */
+  public static ServerSentEvents serverSentEvents(Publisher<? extends Event<?>> publisher) {
+    return new ServerSentEvents(Streams.map(publisher, ServerSentEvents::validate), 1);
+  }
+
+  /**
+   * Creates an event for the given item, and encodes it so that it can be sent to any number of clients.
+   * <p>
+   * The action <b>MUST</b> set one of {@code id}, {@code event}, {@code data} or {@code comment}.
+   *
+   * @param item the item to create the event from
+   * @param action the conversion of the item to an event
+   * @param <T> the type of item
+   * @return an encoded event
+   * @throws Exception any thrown by {@code action}
+   * @see EncodedEvent
+   * @since 1.10
+   */
+  public static <T> EncodedEvent<T> encode(T item, Action<? super Event<T>> action) throws Exception {
+    return new DefaultEncodedEvent<>(validate(action.with(new DefaultEvent<>(item))));
+  }
+
+  private static <E extends Event<?>> E validate(E event) {
+    if (event.getData() == null && event.getId() == null && event.getEvent() == null && event.getComment() == null) {
+      throw new IllegalArgumentException("You must supply at least one of data, event, id or comment");
+    }
+    return event;
+  }
+
+  private ServerSentEvents(Publisher<? extends Event<?>> publisher, int batchSize) {
     this.publisher = publisher;
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Creates a copy of this object that combines events into fewer writes.
+   * <p>
+   * By default, each event is written to the connection separately, as a chunk of the response.
+   * With batching, up to {@code maxEvents} events are requested at a time from the stream,
+   * and the events that are available when the connection is ready for more are written together as one chunk.
+   * Events are not held back waiting for others, so batching does not delay events.
+   * This reduces the cost of streams that emit events in bursts, or faster than the connection can send them.
+   *
+   * @param maxEvents the maximum number of events to combine into one write
+   * @return a {@link ratpack.handling.Context#render(Object) renderable} object that combines events into fewer writes
+   * @since 1.10
+   */
+  public ServerSentEvents batching(int maxEvents) {
+    if (maxEvents < 1) {
+      throw new IllegalArgumentException("maxEvents must be > 0");
+    }
+    return new ServerSentEvents(publisher, maxEvents);
   }
 
   /**
@@ -133,7 +214,11 @@ public class ServerSentEvents implements Renderable {
     response.getHeaders().add(HttpHeaderConstants.TRANSFER_ENCODING, HttpHeaderConstants.CHUNKED);
     response.getHeaders().add(HttpHeaderConstants.CACHE_CONTROL, HttpHeaderConstants.NO_CACHE_FULL);
     response.getHeaders().add(HttpHeaderConstants.PRAGMA, HttpHeaderConstants.NO_CACHE);
-    response.sendStream(Streams.map(publisher, i -> ServerSentEventEncoder.INSTANCE.encode(i, bufferAllocator)));
+    Publisher<ByteBuf> events = Streams.map(publisher, i -> ServerSentEventEncoder.INSTANCE.encode(i, bufferAllocator));
+    if (batchSize > 1) {
+      events = new EventBatchingPublisher(events, bufferAllocator, batchSize);
+    }
+    response.sendStream(events);
   }
 
 }
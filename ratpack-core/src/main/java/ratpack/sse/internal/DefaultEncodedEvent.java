@@ -0,0 +1,126 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.sse.internal;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import ratpack.func.Function;
+import ratpack.sse.EncodedEvent;
+import ratpack.sse.Event;
+
+public class DefaultEncodedEvent<T> implements EncodedEvent<T> {
+
+  private final T item;
+  private final String id;
+  private final String event;
+  private final String data;
+  private final String comment;
+
+  // Heap memory, so that it can be shared by any number of streams without reference counting.
+  // This is not free: the transport copies heap buffers into direct memory when each connection writes them,
+  // so the saving over encoding per connection is the encoding work, not the copy.
+  private final byte[] bytes;
+
+  public DefaultEncodedEvent(Event<T> event) throws Exception {
+    this.item = event.getItem();
+    this.id = event.getId();
+    this.event = event.getEvent();
+    this.data = event.getData();
+    this.comment = event.getComment();
+    this.bytes = ServerSentEventEncoder.INSTANCE.encodeToBytes(event);
+  }
+
+  /**
+   * A buffer of the encoded event, which does not need to be released.
+   */
+  public ByteBuf getContent() {
+    return Unpooled.wrappedBuffer(bytes);
+  }
+
+  public int getLength() {
+    return bytes.length;
+  }
+
+  @Override
+  public T getItem() {
+    return item;
+  }
+
+  @Override
+  public String getId() {
+    return id;
+  }
+
+  @Override
+  public String getEvent() {
+    return event;
+  }
+
+  @Override
+  public String getData() {
+    return data;
+  }
+
+  @Override
+  public String getComment() {
+    return comment;
+  }
+
+  @Override
+  public Event<T> id(Function<? super T, String> function) {
+    throw immutable();
+  }
+
+  @Override
+  public Event<T> id(String id) {
+    throw immutable();
+  }
+
+  @Override
+  public Event<T> event(Function<? super T, String> function) {
+    throw immutable();
+  }
+
+  @Override
+  public Event<T> event(String event) {
+    throw immutable();
+  }
+
+  @Override
+  public Event<T> data(Function<? super T, String> function) {
+    throw immutable();
+  }
+
+  @Override
+  public Event<T> data(String data) {
+    throw immutable();
+  }
+
+  @Override
+  public Event<T> comment(String comment) {
+    throw immutable();
+  }
+
+  private static UnsupportedOperationException immutable() {
+    return new UnsupportedOperationException("encoded events are immutable");
+  }
+
+  @Override
+  public String toString() {
+    return "EncodedEvent{id='" + id + '\'' + ", event='" + event + '\'' + ", data='" + data + '\'' + '}';
+  }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.sse.internal;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.CompositeByteBuf;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import ratpack.stream.TransformablePublisher;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Combines the encoded events that are available when the subscriber wants more into a single buffer.
+ * <p>
+ * Events are requested from upstream up to the max number of events at a time.
+ * Events that are emitted synchronously in response, or that arrive while the subscriber has no demand,
+ * are combined into one composite buffer, which is written to the connection as one chunk.
+ * Events that arrive while the subscriber has demand are emitted immediately, so that batching does not delay events.
+ */
+public class EventBatchingPublisher implements TransformablePublisher<ByteBuf> {
+
+  private final Publisher<? extends ByteBuf> upstream;
+  private final ByteBufAllocator allocator;
+  private final int maxEvents;
+
+  public EventBatchingPublisher(Publisher<? extends ByteBuf> upstream, ByteBufAllocator allocator, int maxEvents) {
+    if (maxEvents < 1) {
+      throw new IllegalArgumentException("maxEvents must be > 0");
+    }
+    this.upstream = upstream;
+    this.allocator = allocator;
+    this.maxEvents = maxEvents;
+  }
+
+  @Override
+  public void subscribe(Subscriber<? super ByteBuf> subscriber) {
+    upstream.subscribe(new BatchingSubscriber(subscriber));
+  }
+
+  private final class BatchingSubscriber implements Subscriber<ByteBuf>, Subscription {
+
+    private final Subscriber<? super ByteBuf> downstream;
+    private final AtomicInteger wip = new AtomicInteger();
+
+    private Subscription subscription;
+
+    // Guarded by this
+    private final Deque<ByteBuf> pending = new ArrayDeque<>();
+    private long demand;
+    private int outstanding;
+    private boolean upstreamDone;
+    private Throwable upstreamError;
+    private boolean finished;
+
+    BatchingSubscriber(Subscriber<? super ByteBuf> downstream) {
+      this.downstream = downstream;
+    }
+
+    @Override
+    public void onSubscribe(Subscription subscription) {
+      this.subscription = subscription;
+      downstream.onSubscribe(this);
+    }
+
+    @Override
+    public void onNext(ByteBuf item) {
+      boolean accepted;
+      synchronized (this) {
+        accepted = !finished;
+        if (accepted) {
+          --outstanding;
+          pending.add(item);
+        }
+      }
+      if (accepted) {
+        drain();
+      } else {
+        item.release();
+      }
+    }
+
+    @Override
+    public void onError(Throwable t) {
+      synchronized (this) {
+        upstreamError = t;
+        upstreamDone = true;
+      }
+      drain();
+    }
+
+    @Override
+    public void onComplete() {
+      synchronized (this) {
+        upstreamDone = true;
+      }
+      drain();
+    }
+
+    @Override
+    public void request(long n) {
+      if (n < 1) {
+        cancel();
+        downstream.onError(new IllegalArgumentException("3.9 While the Subscription is not cancelled, Subscription.request(long n) MUST throw a java.lang.IllegalArgumentException if the argument is <= 0."));
+        return;
+      }
+      synchronized (this) {
+        demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+      }
+      drain();
+    }
+
+    @Override
+    public void cancel() {
+      List<ByteBuf> discarded;
+      synchronized (this) {
+        if (finished) {
+          return;
+        }
+        finished = true;
+        discarded = new ArrayList<>(pending);
+        pending.clear();
+      }
+      subscription.cancel();
+      discarded.forEach(ByteBuf::release);
+    }
+
+    private void drain() {
+      if (wip.getAndIncrement() != 0) {
+        return;
+      }
+      int missed = 1;
+      do {
+        while (true) {
+          ByteBuf batch = null;
+          boolean terminate = false;
+          Throwable error = null;
+          int toRequest = 0;
+          synchronized (this) {
+            if (finished) {
+              return;
+            }
+            if (demand > 0 && !pending.isEmpty()) {
+              batch = combine();
+              if (demand != Long.MAX_VALUE) {
+                --demand;
+              }
+            } else if (pending.isEmpty() && upstreamDone) {
+              finished = true;
+              terminate = true;
+              error = upstreamError;
+            } else if (demand > 0 && outstanding == 0 && !upstreamDone) {
+              toRequest = maxEvents;
+              outstanding = maxEvents;
+            }
+          }
+
+          if (batch != null) {
+            downstream.onNext(batch);
+          } else if (terminate) {
+            if (error == null) {
+              downstream.onComplete();
+            } else {
+              downstream.onError(error);
+            }
+            return;
+          } else if (toRequest > 0) {
+            // Events emitted synchronously are collected, and emitted as one batch on the next iteration
+            subscription.request(toRequest);
+          } else {
+            break;
+          }
+        }
+        missed = wip.addAndGet(-missed);
+      } while (missed != 0);
+    }
+
+    private ByteBuf combine() {
+      if (pending.size() == 1) {
+        return pending.poll();
+      }
+      CompositeByteBuf composite = allocator.compositeBuffer(pending.size());
+      ByteBuf event = pending.poll();
+      while (event != null) {
+        composite.addComponent(true, event);
+        event = pending.poll();
+      }
+      return composite;
+    }
+  }
+
+}
@@ -18,7 +18,9 @@ package ratpack.sse.internal;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.buffer.Unpooled;
+import io.netty.buffer.UnpooledByteBufAllocator;
 import ratpack.sse.Event;
 
 import java.nio.charset.StandardCharsets;
@@ -36,7 +38,13 @@ public class ServerSentEventEncoder {
 
   private static final byte NEWLINE = '\n';
 
+  private static final ByteBufAllocator HEAP_ALLOCATOR = new UnpooledByteBufAllocator(false);
+
   public ByteBuf encode(Event<?> event, ByteBufAllocator bufferAllocator) throws Exception {
+    if (event instanceof DefaultEncodedEvent) {
+      return ((DefaultEncodedEvent<?>) event).getContent();
+    }
+
     String eventId = event.getId();
     String eventType = event.getEvent();
     String eventData = event.getData();
@@ -80,6 +88,15 @@ public class ServerSentEventEncoder {
     return buffer.writeByte(NEWLINE);
   }
 
+  public byte[] encodeToBytes(Event<?> event) throws Exception {
+    ByteBuf buffer = encode(event, HEAP_ALLOCATOR);
+    try {
+      return ByteBufUtil.getBytes(buffer);
+    } finally {
+      buffer.release();
+    }
+  }
+
   private void writeMultiline(ByteBuf buffer, byte[] prefix, String value) {
     int from = 0;
     if (value != null) {
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.websocket;
+
+/**
+ * The configuration of per-message compression for a websocket, as per <a href="https://tools.ietf.org/html/rfc7692">RFC 7692</a>.
+ * <p>
+ * Compression is negotiated during the handshake.
+ * If the client does not offer the {@code permessage-deflate} extension, or offers parameters that are not allowed by this configuration,
+ * the websocket is established without compression.
+ * <p>
+ * Compressing messages trades CPU and memory for bandwidth.
+ * Each compressed websocket keeps a deflater and an inflater, which with context takeover retain their window between messages.
+ * <pre class="java-chain-dsl">{@code
+ * import ratpack.websocket.WebSockets;
+ *
+ * chain.get("ws", ctx ->
+ *   WebSockets.websocket(ctx, ws -> null)
+ *     .connect(spec -> spec
+ *       .onMessage(msg -> msg.getConnection().send(msg.getText()))
+ *       .compression(c -> c.level(4).minFrameSize(512))
+ *     )
+ * );
+ * }</pre>
+ *
+ * @see WebSocketSpec#compression(ratpack.func.Action)
+ * @since 1.10
+ */
+public interface WebSocketCompressionSpec {
+
+  /**
+   * The compression level to use, from {@code 0} (no compression) to {@code 9} (best compression).
+   * <p>
+   * Defaults to {@code 6}.
+   *
+   * @param level the compression level
+   * @return {@code this}
+   */
+  WebSocketCompressionSpec level(int level);
+
+  /**
+   * The window size, in bits, that the client is asked to compress its messages with, from {@code 8} to {@code 15}.
+   * <p>
+   * The window is only constrained if the client offers the {@code client_max_window_bits} parameter.
+   * Smaller windows reduce the memory used to decompress messages from the client, at the expense of compression.
+   * Values other than {@code 15} require <a href="http://www.jcraft.com/jzlib/">JZlib</a> to be on the classpath.
+   * <p>
+   * Defaults to {@code 15}.
+   *
+   * @param windowBits the window size, in bits, that the client is asked to compress with
+   * @return {@code this}
+   */
+  WebSocketCompressionSpec clientMaxWindowBits(int windowBits);
+
+  /**
+   * Whether clients may ask for a smaller window for the messages sent to them, with the {@code server_max_window_bits} parameter.
+   * <p>
+   * Defaults to {@code true} if <a href="http://www.jcraft.com/jzlib/">JZlib</a> is on the classpath, as it is required to compress with smaller windows.
+   *
+   * @param allow whether clients may ask for a smaller window
+   * @return {@code this}
+   */
+  WebSocketCompressionSpec allowServerMaxWindowBits(boolean allow);
+
+  /**
+   * Whether clients may ask for each message sent to them to be compressed independently, with the {@code server_no_context_takeover} parameter.
+   * <p>
+   * If not allowed, compression is not used with clients that ask for it.
+   * <p>
+   * Defaults to {@code false}.
+   *
+   * @param allow whether clients may ask for each message to be compressed independently
+   * @return {@code this}
+   */
+  WebSocketCompressionSpec allowServerNoContextTakeover(boolean allow);
+
+  /**
+   * Whether to ask the client to compress each message independently, with the {@code client_no_context_takeover} parameter.
+   * <p>
+   * This allows the inflater for the client's messages to be reset between messages, at the expense of compression.
+   * <p>
+   * Defaults to {@code false}.
+   *
+   * @param noContextTakeover whether to ask the client to compress each message independently
+   * @return {@code this}
+   */
+  WebSocketCompressionSpec clientNoContextTakeover(boolean noContextTakeover);
+
+  /**
+   * The size, in bytes, of the smallest message that is compressed.
+   * <p>
+   * Smaller messages are sent uncompressed, as compressing them costs more than it saves.
+   * <p>
+   * Defaults to {@code 0}, which compresses all messages.
+   *
+   * @param minFrameSize the size of the smallest message that is compressed
+   * @return {@code this}
+   */
+  WebSocketCompressionSpec minFrameSize(int minFrameSize);
+
+}
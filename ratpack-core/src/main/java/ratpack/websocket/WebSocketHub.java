@@ -0,0 +1,118 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.websocket;
+
+import io.netty.buffer.ByteBuf;
+import ratpack.api.NonBlocking;
+
+/**
+ * A group of websockets that messages can be broadcast to.
+ * <p>
+ * A hub is an efficient way to send the same messages to many websockets.
+ * Each message is encoded once, and its frame is shared by all of the websockets.
+ * The websockets are grouped by the event loop that serves them,
+ * so that broadcasting a message costs one task per event loop instead of one task per websocket.
+ * <p>
+ * Websockets that cannot keep up are shed.
+ * If a websocket's connection is not writable when a message is broadcast, due to the client not reading messages quickly enough,
+ * the message is dropped for that websocket.
+ * Once more than the hub's maximum number of consecutive messages have been dropped, the websocket is closed with status {@code 1013} (try again later).
+ * <p>
+ * Websockets leave the hub when they are closed.
+ * <pre class="java-chain-dsl">{@code
+ * import ratpack.websocket.WebSocketHub;
+ * import ratpack.websocket.WebSockets;
+ *
+ * WebSocketHub hub = WebSockets.hub();
+ *
+ * chain
+ *   .get("updates", ctx ->
+ *     WebSockets.websocket(ctx, ws -> {
+ *       hub.join(ws);
+ *       return null;
+ *     }).connect(spec -> {})
+ *   )
+ *   .post("updates", ctx ->
+ *     ctx.getRequest().getBody().then(body -> {
+ *       hub.broadcast(body.getText());
+ *       ctx.render("sent to " + hub.getSize());
+ *     })
+ *   );
+ * }</pre>
+ *
+ * @see WebSockets#hub()
+ * @since 1.10
+ */
+public interface WebSocketHub {
+
+  /**
+   * Adds the given websocket to this hub, so that it receives subsequently broadcast messages.
+   * <p>
+   * The websocket must have been opened by Ratpack.
+   * It leaves the hub when it is closed.
+   *
+   * @param webSocket the websocket to add
+   */
+  void join(WebSocket webSocket);
+
+  /**
+   * Removes the given websocket from this hub.
+   *
+   * @param webSocket the websocket to remove
+   */
+  void leave(WebSocket webSocket);
+
+  /**
+   * The number of websockets in this hub.
+   *
+   * @return the number of websockets in this hub
+   */
+  int getSize();
+
+  /**
+   * Sends the given text to all websockets in this hub.
+   *
+   * @param text the text to send
+   */
+  @NonBlocking
+  void broadcast(String text);
+
+  /**
+   * Sends the given UTF-8 encoded text to all websockets in this hub.
+   * <p>
+   * This method takes ownership of the buffer, and releases it once it has been sent.
+   *
+   * @param text the text to send
+   */
+  @NonBlocking
+  void broadcast(ByteBuf text);
+
+  /**
+   * The number of messages that have been dropped for websockets that were not writable.
+   *
+   * @return the number of messages that have been dropped
+   */
+  long getDroppedMessages();
+
+  /**
+   * The number of websockets that have been closed for dropping too many messages.
+   *
+   * @return the number of websockets that have been closed for dropping too many messages
+   */
+  long getShedWebSockets();
+
+}
@@ -28,4 +28,17 @@ public interface WebSocketSpec<T> {
 
   WebSocketSpec<T> onMessage(Action<WebSocketMessage<T>> action);
 
+  /**
+   * Enables per-message compression, if the client supports it.
+   * <p>
+   * By default, messages are not compressed.
+   *
+   * @param action the configuration of compression
+   * @return {@code this}
+   * @throws Exception any thrown by {@code action}
+   * @see WebSocketCompressionSpec
+   * @since 1.10
+   */
+  WebSocketSpec<T> compression(Action<? super WebSocketCompressionSpec> action) throws Exception;
+
 }
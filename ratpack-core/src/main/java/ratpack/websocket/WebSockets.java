@@ -26,6 +26,7 @@ import ratpack.handling.Context;
 import ratpack.server.ServerConfig;
 import ratpack.stream.Streams;
 import ratpack.websocket.internal.DefaultWebSocketConnector;
+import ratpack.websocket.internal.DefaultWebSocketHub;
 import ratpack.websocket.internal.WebSocketEngine;
 import ratpack.websocket.internal.WebsocketBroadcastSubscriber;
 
@@ -98,4 +99,32 @@ public abstract class WebSockets {
       }
     });
   }
+
+  /**
+   * Creates a hub for broadcasting messages to many websockets, that closes websockets as soon as they cannot keep up.
+   * <p>
+   * Equivalent to {@code hub(0)}.
+   *
+   * @return a new websocket hub
+   * @see #hub(int)
+   * @since 1.10
+   */
+  public static WebSocketHub hub() {
+    return hub(0);
+  }
+
+  /**
+   * Creates a hub for broadcasting messages to many websockets.
+   * <p>
+   * Messages are dropped for websockets whose connection is not writable when the message is broadcast.
+   * A websocket that has had more than {@code maxDroppedMessages} consecutive messages dropped is closed.
+   *
+   * @param maxDroppedMessages the number of consecutive messages that can be dropped for a websocket before it is closed
+   * @return a new websocket hub
+   * @see WebSocketHub
+   * @since 1.10
+   */
+  public static WebSocketHub hub(int maxDroppedMessages) {
+    return new DefaultWebSocketHub(ByteBufAllocator.DEFAULT, maxDroppedMessages);
+  }
 }
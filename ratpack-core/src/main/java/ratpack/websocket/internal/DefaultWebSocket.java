@@ -36,6 +36,10 @@ public class DefaultWebSocket implements WebSocket {
     this.open = open;
   }
 
+  public Channel getChannel() {
+    return channel;
+  }
+
   @Override
   public void close() {
     close(1000, null);
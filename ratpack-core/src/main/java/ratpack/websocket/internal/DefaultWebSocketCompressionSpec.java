@@ -0,0 +1,199 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.websocket.internal;
+
+import io.netty.channel.ChannelPipeline;
+import io.netty.handler.codec.compression.ZlibCodecFactory;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.websocketx.WebSocketFrameDecoder;
+import io.netty.handler.codec.http.websocketx.WebSocketFrameEncoder;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketExtensionData;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketExtensionFilter;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketExtensionFilterProvider;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketServerExtension;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketServerExtensionHandshaker;
+import io.netty.handler.codec.http.websocketx.extensions.compression.PerMessageDeflateServerExtensionHandshaker;
+import ratpack.websocket.WebSocketCompressionSpec;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static io.netty.handler.codec.http.HttpHeaderNames.SEC_WEBSOCKET_EXTENSIONS;
+
+/**
+ * Negotiates the permessage-deflate extension.
+ * <p>
+ * Netty's {@code WebSocketServerExtensionHandler} negotiates extensions as the upgrade request passes through the pipeline,
+ * which has already happened by the time a handler connects a websocket.
+ * Instead, the offers are read from the request here, and the extension's encoder and decoder are added to the pipeline once the handshake completes.
+ */
+public class DefaultWebSocketCompressionSpec implements WebSocketCompressionSpec {
+
+  private static final int MAX_WINDOW_BITS = 15;
+
+  private int level = 6;
+  private int clientMaxWindowBits = MAX_WINDOW_BITS;
+  private boolean allowServerMaxWindowBits = ZlibCodecFactory.isSupportingWindowSizeAndMemLevel();
+  private boolean allowServerNoContextTakeover;
+  private boolean clientNoContextTakeover;
+  private int minFrameSize;
+
+  @Override
+  public WebSocketCompressionSpec level(int level) {
+    if (level < 0 || level > 9) {
+      throw new IllegalArgumentException("level must be between 0 and 9: " + level);
+    }
+    this.level = level;
+    return this;
+  }
+
+  @Override
+  public WebSocketCompressionSpec clientMaxWindowBits(int windowBits) {
+    if (windowBits < 8 || windowBits > MAX_WINDOW_BITS) {
+      throw new IllegalArgumentException("windowBits must be between 8 and 15: " + windowBits);
+    }
+    if (windowBits != MAX_WINDOW_BITS && !ZlibCodecFactory.isSupportingWindowSizeAndMemLevel()) {
+      throw new IllegalStateException("JZlib must be on the classpath to use a window smaller than 15 bits");
+    }
+    this.clientMaxWindowBits = windowBits;
+    return this;
+  }
+
+  @Override
+  public WebSocketCompressionSpec allowServerMaxWindowBits(boolean allow) {
+    if (allow && !ZlibCodecFactory.isSupportingWindowSizeAndMemLevel()) {
+      throw new IllegalStateException("JZlib must be on the classpath to allow a window smaller than 15 bits");
+    }
+    this.allowServerMaxWindowBits = allow;
+    return this;
+  }
+
+  @Override
+  public WebSocketCompressionSpec allowServerNoContextTakeover(boolean allow) {
+    this.allowServerNoContextTakeover = allow;
+    return this;
+  }
+
+  @Override
+  public WebSocketCompressionSpec clientNoContextTakeover(boolean noContextTakeover) {
+    this.clientNoContextTakeover = noContextTakeover;
+    return this;
+  }
+
+  @Override
+  public WebSocketCompressionSpec minFrameSize(int minFrameSize) {
+    if (minFrameSize < 0) {
+      throw new IllegalArgumentException("minFrameSize must be >= 0: " + minFrameSize);
+    }
+    this.minFrameSize = minFrameSize;
+    return this;
+  }
+
+  /**
+   * Accepts the first acceptable offer of the extension in the given request headers, adding the response header for it.
+   *
+   * @return the accepted extension, or {@code null} if none was acceptable
+   */
+  WebSocketServerExtension negotiate(HttpHeaders requestHeaders, HttpHeaders responseHeaders) {
+    WebSocketServerExtensionHandshaker handshaker = new PerMessageDeflateServerExtensionHandshaker(
+      level, allowServerMaxWindowBits, clientMaxWindowBits, allowServerNoContextTakeover, clientNoContextTakeover, filterProvider()
+    );
+    for (String header : requestHeaders.getAll(SEC_WEBSOCKET_EXTENSIONS)) {
+      for (WebSocketExtensionData offer : parse(header)) {
+        WebSocketServerExtension extension = handshaker.handshakeExtension(offer);
+        if (extension != null) {
+          responseHeaders.add(SEC_WEBSOCKET_EXTENSIONS, format(extension.newReponseData()));
+          return extension;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Adds the encoder and decoder of the accepted extension, once the handshake has installed the websocket codec.
+   */
+  static void install(ChannelPipeline pipeline, WebSocketServerExtension extension) {
+    // The extension handlers must be after both frame codecs, so that inbound frames are decompressed after decoding, and outbound frames compressed before encoding
+    String decoderName = pipeline.context(WebSocketFrameDecoder.class).name();
+    String encoderName = pipeline.context(WebSocketFrameEncoder.class).name();
+    List<String> names = pipeline.names();
+    String codecName = names.indexOf(decoderName) > names.indexOf(encoderName) ? decoderName : encoderName;
+    pipeline.addAfter(codecName, "wsextensionencoder", extension.newExtensionEncoder());
+    pipeline.addAfter(codecName, "wsextensiondecoder", extension.newExtensionDecoder());
+  }
+
+  private WebSocketExtensionFilterProvider filterProvider() {
+    if (minFrameSize == 0) {
+      return WebSocketExtensionFilterProvider.DEFAULT;
+    }
+    int minFrameSize = this.minFrameSize;
+    WebSocketExtensionFilter encoderFilter = frame -> frame.content().readableBytes() < minFrameSize;
+    return new WebSocketExtensionFilterProvider() {
+      @Override
+      public WebSocketExtensionFilter encoderFilter() {
+        return encoderFilter;
+      }
+
+      @Override
+      public WebSocketExtensionFilter decoderFilter() {
+        return WebSocketExtensionFilter.NEVER_SKIP;
+      }
+    };
+  }
+
+  private static List<WebSocketExtensionData> parse(String header) {
+    List<WebSocketExtensionData> offers = new ArrayList<>();
+    for (String offer : header.split(",")) {
+      String[] parts = offer.split(";");
+      String name = parts[0].trim();
+      if (name.isEmpty()) {
+        continue;
+      }
+      Map<String, String> parameters = new LinkedHashMap<>();
+      for (int i = 1; i < parts.length; ++i) {
+        String parameter = parts[i].trim();
+        int equals = parameter.indexOf('=');
+        if (equals == -1) {
+          parameters.put(parameter, null);
+        } else {
+          String value = parameter.substring(equals + 1).trim();
+          if (value.length() > 1 && value.startsWith("\"") && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1);
+          }
+          parameters.put(parameter.substring(0, equals).trim(), value);
+        }
+      }
+      offers.add(new WebSocketExtensionData(name, parameters));
+    }
+    return offers;
+  }
+
+  private static String format(WebSocketExtensionData data) {
+    StringBuilder builder = new StringBuilder(data.name());
+    for (Map.Entry<String, String> parameter : data.parameters().entrySet()) {
+      builder.append("; ").append(parameter.getKey());
+      if (parameter.getValue() != null) {
+        builder.append('=').append(parameter.getValue());
+      }
+    }
+    return builder.toString();
+  }
+
+}
@@ -33,6 +33,7 @@ public class DefaultWebSocketConnector<T> implements WebSocketConnector<T> {
 
     private String path = "/";
     private int maxLength;
+    private DefaultWebSocketCompressionSpec compression;
 
     private Spec(int maxLength) {
       this.maxLength = maxLength;
@@ -61,6 +62,13 @@ public class DefaultWebSocketConnector<T> implements WebSocketConnector<T> {
       this.maxLength = maxLength;
       return this;
     }
+
+    @Override
+    public WebSocketSpec<T> compression(Action<? super WebSocketCompressionSpec> action) throws Exception {
+      compression = new DefaultWebSocketCompressionSpec();
+      action.execute(compression);
+      return this;
+    }
   }
 
   public DefaultWebSocketConnector(Context context, Function<WebSocket, T> open) {
@@ -72,7 +80,7 @@ public class DefaultWebSocketConnector<T> implements WebSocketConnector<T> {
   public void connect(Action<? super WebSocketSpec<T>> specAction) throws Exception {
     Spec spec = new Spec(context.get(ServerConfig.class).getMaxContentLength());
     specAction.execute(spec);
-    WebSocketEngine.connect(context, spec.path, spec.maxLength, new BuiltWebSocketHandler<>(open, spec.closeHandler, spec.messageHandler));
+    WebSocketEngine.connect(context, spec.path, spec.maxLength, spec.compression, new BuiltWebSocketHandler<>(open, spec.closeHandler, spec.messageHandler));
 
   }
 
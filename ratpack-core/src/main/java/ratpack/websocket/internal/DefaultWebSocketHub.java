@@ -0,0 +1,172 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.websocket.internal;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoop;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import ratpack.websocket.WebSocket;
+import ratpack.websocket.WebSocketHub;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+public class DefaultWebSocketHub implements WebSocketHub {
+
+  private static final int TRY_AGAIN_LATER = 1013;
+
+  private final ByteBufAllocator allocator;
+  private final int maxDroppedMessages;
+
+  private final ConcurrentMap<EventLoop, Group> groups = new ConcurrentHashMap<>();
+  private final AtomicInteger size = new AtomicInteger();
+  private final LongAdder droppedMessages = new LongAdder();
+  private final LongAdder shedWebSockets = new LongAdder();
+
+  public DefaultWebSocketHub(ByteBufAllocator allocator, int maxDroppedMessages) {
+    if (maxDroppedMessages < 0) {
+      throw new IllegalArgumentException("maxDroppedMessages must be >= 0");
+    }
+    this.allocator = allocator;
+    this.maxDroppedMessages = maxDroppedMessages;
+  }
+
+  @Override
+  public void join(WebSocket webSocket) {
+    Channel channel = channel(webSocket);
+    Group group = groups.computeIfAbsent(channel.eventLoop(), Group::new);
+    if (group.members.putIfAbsent(webSocket, new Member(webSocket, channel)) == null) {
+      size.incrementAndGet();
+      channel.closeFuture().addListener(future -> leave(webSocket));
+    }
+  }
+
+  @Override
+  public void leave(WebSocket webSocket) {
+    Group group = groups.get(channel(webSocket).eventLoop());
+    if (group != null && group.members.remove(webSocket) != null) {
+      size.decrementAndGet();
+    }
+  }
+
+  @Override
+  public int getSize() {
+    return size.get();
+  }
+
+  @Override
+  public void broadcast(String text) {
+    broadcast(ByteBufUtil.writeUtf8(allocator, text));
+  }
+
+  @Override
+  public void broadcast(ByteBuf text) {
+    TextWebSocketFrame frame = new TextWebSocketFrame(text);
+    try {
+      for (Group group : groups.values()) {
+        if (!group.members.isEmpty()) {
+          group.send(frame.retainedDuplicate());
+        }
+      }
+    } finally {
+      frame.release();
+    }
+  }
+
+  @Override
+  public long getDroppedMessages() {
+    return droppedMessages.sum();
+  }
+
+  @Override
+  public long getShedWebSockets() {
+    return shedWebSockets.sum();
+  }
+
+  private static Channel channel(WebSocket webSocket) {
+    if (webSocket instanceof DefaultWebSocket) {
+      return ((DefaultWebSocket) webSocket).getChannel();
+    } else {
+      throw new IllegalArgumentException("Only websockets opened by Ratpack can join a hub: " + webSocket);
+    }
+  }
+
+  private final class Group {
+
+    private final EventLoop eventLoop;
+    private final ConcurrentMap<WebSocket, Member> members = new ConcurrentHashMap<>();
+
+    Group(EventLoop eventLoop) {
+      this.eventLoop = eventLoop;
+    }
+
+    void send(TextWebSocketFrame frame) {
+      try {
+        eventLoop.execute(() -> {
+          try {
+            for (Member member : members.values()) {
+              member.send(frame);
+            }
+          } finally {
+            frame.release();
+          }
+        });
+      } catch (RejectedExecutionException e) {
+        // The event loop is shutting down, along with its connections
+        frame.release();
+      }
+    }
+  }
+
+  private final class Member {
+
+    private final WebSocket webSocket;
+    private final Channel channel;
+
+    // Only accessed on the channel's event loop
+    private int consecutiveDroppedMessages;
+
+    Member(WebSocket webSocket, Channel channel) {
+      this.webSocket = webSocket;
+      this.channel = channel;
+    }
+
+    void send(TextWebSocketFrame frame) {
+      if (!channel.isActive()) {
+        return;
+      }
+      if (channel.isWritable()) {
+        consecutiveDroppedMessages = 0;
+        channel.writeAndFlush(frame.retainedDuplicate(), channel.voidPromise());
+      } else {
+        droppedMessages.increment();
+        if (++consecutiveDroppedMessages > maxDroppedMessages) {
+          shedWebSockets.increment();
+          leave(webSocket);
+          webSocket.close(TRY_AGAIN_LATER, "Slow consumer");
+        }
+      }
+    }
+  }
+
+}
@@ -20,10 +20,14 @@ import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
 import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.HttpMethod;
 import io.netty.handler.codec.http.HttpVersion;
 import io.netty.handler.codec.http.websocketx.*;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketServerExtension;
+import ratpack.api.Nullable;
 import ratpack.handling.Context;
 import ratpack.handling.direct.DirectChannelAccess;
 import ratpack.http.Request;
@@ -44,8 +48,12 @@ import static ratpack.util.Exceptions.uncheck;
 
 public class WebSocketEngine {
 
-  @SuppressWarnings("deprecation")
   public static <T> void connect(final Context context, String path, int maxLength, final WebSocketHandler<T> handler) {
+    connect(context, path, maxLength, null, handler);
+  }
+
+  @SuppressWarnings("deprecation")
+  public static <T> void connect(final Context context, String path, int maxLength, @Nullable DefaultWebSocketCompressionSpec compression, final WebSocketHandler<T> handler) {
     PublicAddress publicAddress = context.get(PublicAddress.class);
     URI address = publicAddress.get(context);
     URI httpPath = address.resolve(path);
@@ -57,7 +65,7 @@ public class WebSocketEngine {
       throw uncheck(e);
     }
 
-    WebSocketServerHandshakerFactory factory = new WebSocketServerHandshakerFactory(wsPath.toString(), null, false, maxLength);
+    WebSocketServerHandshakerFactory factory = new WebSocketServerHandshakerFactory(wsPath.toString(), null, compression != null, maxLength);
 
     Request request = context.getRequest();
     HttpMethod method = valueOf(request.getMethod().getName());
@@ -67,27 +75,32 @@ public class WebSocketEngine {
 
     final WebSocketServerHandshaker handshaker = factory.newHandshaker(nettyRequest);
 
+    HttpHeaders responseHeaders = new DefaultHttpHeaders();
+    WebSocketServerExtension extension = compression == null ? null : compression.negotiate(request.getHeaders().getNettyHeaders(), responseHeaders);
+
     final DirectChannelAccess directChannelAccess = context.getDirectChannelAccess();
     final Channel channel = directChannelAccess.getChannel();
     if (!channel.config().isAutoRead()) {
       channel.config().setAutoRead(true);
     }
 
-    handshaker.handshake(channel, nettyRequest).addListener(new HandshakeFutureListener<>(context, handshaker, handler));
+    handshaker.handshake(channel, nettyRequest, responseHeaders, channel.newPromise()).addListener(new HandshakeFutureListener<>(context, handshaker, extension, handler));
   }
 
   private static class HandshakeFutureListener<T> implements ChannelFutureListener {
 
     private final Context context;
     private final WebSocketServerHandshaker handshaker;
+    private final WebSocketServerExtension extension;
     private final WebSocketHandler<T> handler;
 
     private volatile T openResult;
     private final CountDownLatch openLatch = new CountDownLatch(1);
 
-    public HandshakeFutureListener(Context context, WebSocketServerHandshaker handshaker, WebSocketHandler<T> handler) {
+    public HandshakeFutureListener(Context context, WebSocketServerHandshaker handshaker, @Nullable WebSocketServerExtension extension, WebSocketHandler<T> handler) {
       this.context = context;
       this.handshaker = handshaker;
+      this.extension = extension;
       this.handler = handler;
     }
 
@@ -105,6 +118,10 @@ public class WebSocketEngine {
         final DirectChannelAccess directAccessChannel = context.getDirectChannelAccess();
         final Channel channel = directAccessChannel.getChannel();
 
+        if (extension != null) {
+          DefaultWebSocketCompressionSpec.install(channel.pipeline(), extension);
+        }
+
         channel.closeFuture().addListener(fu -> {
             try {
               handler.onClose(new DefaultWebSocketClose<>(true, openResult));
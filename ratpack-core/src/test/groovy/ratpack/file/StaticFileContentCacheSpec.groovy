@@ -0,0 +1,117 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.file
+
+import ratpack.test.internal.RatpackGroovyDslSpec
+
+import java.nio.file.Files
+import java.nio.file.attribute.FileTime
+
+import static io.netty.handler.codec.http.HttpHeaderNames.*
+import static io.netty.handler.codec.http.HttpResponseStatus.NOT_MODIFIED
+import static io.netty.handler.codec.http.HttpResponseStatus.OK
+
+class StaticFileContentCacheSpec extends RatpackGroovyDslSpec {
+
+  def setup() {
+    handlers {
+      files { dir("public").indexFiles("index.html").cacheContent(16, 1024) }
+    }
+  }
+
+  def "serves small files from memory with an etag"() {
+    given:
+    write "public/static.txt", "hello!"
+
+    expect:
+    3.times {
+      with(get("static.txt")) {
+        statusCode == OK.code()
+        body.text == "hello!"
+        headers.get(CONTENT_LENGTH) == "6"
+        headers.get(CONTENT_TYPE) == "text/plain"
+        headers.get(ETAG) != null
+      }
+    }
+  }
+
+  def "serves not modified if the etag matches"() {
+    given:
+    write "public/static.txt", "hello!"
+    def etag = get("static.txt").headers.get(ETAG)
+
+    when:
+    requestSpec { it.headers.set(IF_NONE_MATCH, "\"other\", $etag") }
+
+    then:
+    with(get("static.txt")) {
+      statusCode == NOT_MODIFIED.code()
+      headers.get(ETAG) == etag
+    }
+  }
+
+  def "serves new content when file changes"() {
+    given:
+    def file = write "public/static.txt", "hello!"
+
+    expect:
+    getText("static.txt") == "hello!"
+
+    when:
+    def lastModified = Files.getLastModifiedTime(file)
+    file.text = "changed"
+    Files.setLastModifiedTime(file, FileTime.fromMillis(lastModified.toMillis() + 2000))
+
+    then:
+    getText("static.txt") == "changed"
+  }
+
+  def "serves larger files from the file system"() {
+    given:
+    write "public/large.txt", "a" * 32
+
+    expect:
+    with(get("large.txt")) {
+      body.text == "a" * 32
+      headers.get(CONTENT_LENGTH) == "32"
+      headers.get(ETAG) == null
+    }
+  }
+
+  def "caches index files"() {
+    given:
+    write "public/dir/index.html", "index"
+
+    expect:
+    getText("dir/") == "index"
+    getText("dir/") == "index"
+  }
+
+  def "head requests have content length"() {
+    given:
+    write "public/static.txt", "hello!"
+
+    expect:
+    getText("static.txt") == "hello!"
+    with(head("static.txt")) {
+      statusCode == OK.code()
+      body.text.isEmpty()
+      headers.get(CONTENT_LENGTH) == "6"
+    }
+  }
+
+}
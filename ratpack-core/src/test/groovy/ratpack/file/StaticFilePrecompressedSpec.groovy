@@ -0,0 +1,169 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.file
+
+import ratpack.file.internal.DefaultFileHandlerSpec
+import ratpack.test.internal.RatpackGroovyDslSpec
+import spock.lang.Unroll
+
+import java.nio.file.Files
+import java.nio.file.attribute.FileTime
+import java.util.zip.GZIPInputStream
+import java.util.zip.GZIPOutputStream
+
+import static io.netty.handler.codec.http.HttpHeaderNames.*
+
+class StaticFilePrecompressedSpec extends RatpackGroovyDslSpec {
+
+  def setup() {
+    requestSpec { it.decompressResponse(false) }
+  }
+
+  void serveFiles(@DelegatesTo(FileHandlerSpec) Closure<?> config) {
+    handlers {
+      // ensure that originals are not compressed on the fly, so their content is as written
+      all { response.noCompress(); next() }
+      files(config)
+    }
+  }
+
+  void acceptEncoding(String value) {
+    requestSpec { it.headers.set(ACCEPT_ENCODING, value) }
+  }
+
+  byte[] gzip(String text) {
+    def bytes = new ByteArrayOutputStream()
+    new GZIPOutputStream(bytes).withStream { it.write(text.bytes) }
+    bytes.toByteArray()
+  }
+
+  def "serves gzip variant when accepted"() {
+    given:
+    write "public/app.js", "original"
+    Files.write(path("public/app.js.gz"), gzip("original"))
+    acceptEncoding "gzip, deflate"
+
+    when:
+    serveFiles { dir("public").precompressed("br", "gzip") }
+
+    then:
+    with(get("app.js")) {
+      headers.get(CONTENT_ENCODING) == "gzip"
+      headers.get(CONTENT_TYPE) == "application/javascript"
+      headers.get(VARY) == ACCEPT_ENCODING.toString()
+      new GZIPInputStream(body.inputStream).text == "original"
+    }
+  }
+
+  @Unroll
+  def "serves #expected for accept encoding '#accept'"() {
+    given:
+    write "public/app.js", "original"
+    write "public/app.js.br", "br"
+    write "public/app.js.gz", "gzip"
+    acceptEncoding accept
+
+    when:
+    serveFiles { dir("public").precompressed("br", "gzip") }
+
+    then:
+    with(get("app.js")) {
+      body.text == expected
+      headers.get(CONTENT_ENCODING) == (expected == "original" ? null : expected)
+    }
+
+    where:
+    accept               | expected
+    "gzip, br"           | "br"
+    "gzip"               | "gzip"
+    "br;q=0, gzip"       | "gzip"
+    "br;q=0, gzip;q=0.0" | "original"
+    "*"                  | "br"
+    "*, br;q=0"          | "gzip"
+    "identity"           | "original"
+  }
+
+  def "serves original when variant does not exist"() {
+    given:
+    write "public/app.js", "original"
+    acceptEncoding "br, gzip"
+
+    when:
+    serveFiles { dir("public").precompressed("br", "gzip") }
+
+    then:
+    with(get("app.js")) {
+      body.text == "original"
+      headers.get(VARY) == ACCEPT_ENCODING.toString()
+    }
+  }
+
+  def "ignores variant older than the original"() {
+    given:
+    def original = write "public/app.js", "original"
+    def variant = write "public/app.js.br", "br"
+    Files.setLastModifiedTime(variant, FileTime.fromMillis(Files.getLastModifiedTime(original).toMillis() - 10000))
+    acceptEncoding "br"
+
+    when:
+    serveFiles { dir("public").precompressed("br") }
+
+    then:
+    getText("app.js") == "original"
+  }
+
+  def "variants are not served unless enabled"() {
+    given:
+    write "public/app.js", "original"
+    write "public/app.js.br", "br"
+    acceptEncoding "br"
+
+    when:
+    serveFiles { dir("public") }
+
+    then:
+    getText("app.js") == "original"
+  }
+
+  def "can combine with content cache"() {
+    given:
+    write "public/app.js", "original"
+    write "public/app.js.br", "br"
+    acceptEncoding "br"
+
+    when:
+    serveFiles { dir("public").precompressed("br").cacheContent(1024, 4096) }
+
+    then:
+    2.times {
+      with(get("app.js")) {
+        body.text == "br"
+        headers.get(CONTENT_ENCODING) == "br"
+        headers.get(CONTENT_TYPE) == "application/javascript"
+      }
+    }
+  }
+
+  def "unsupported encodings are rejected"() {
+    when:
+    new DefaultFileHandlerSpec().precompressed("deflate")
+
+    then:
+    thrown IllegalArgumentException
+  }
+
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.file
+
+import ratpack.http.internal.HttpHeaderDateFormat
+import ratpack.test.internal.RatpackGroovyDslSpec
+import spock.lang.Unroll
+
+import java.nio.file.Files
+
+import static io.netty.handler.codec.http.HttpHeaderNames.*
+import static io.netty.handler.codec.http.HttpResponseStatus.*
+
+class StaticFileRangeSpec extends RatpackGroovyDslSpec {
+
+  static final String CONTENT = "0123456789"
+
+  def setup() {
+    write "public/file.txt", CONTENT
+    requestSpec { it.decompressResponse(false) }
+    handlers {
+      files { dir "public" }
+    }
+  }
+
+  void range(String value) {
+    requestSpec { it.headers.set(RANGE, value) }
+  }
+
+  def "full responses advertise range support"() {
+    expect:
+    with(get("file.txt")) {
+      statusCode == OK.code()
+      headers.get(ACCEPT_RANGES) == "bytes"
+      body.text == CONTENT
+    }
+  }
+
+  @Unroll
+  def "serves range '#header'"() {
+    when:
+    range header
+
+    then:
+    with(get("file.txt")) {
+      statusCode == PARTIAL_CONTENT.code()
+      headers.get(CONTENT_RANGE) == contentRange
+      headers.get(CONTENT_LENGTH) == body.text.length().toString()
+      headers.get(CONTENT_TYPE) == "text/plain"
+      body.text == expected
+    }
+
+    where:
+    header           | contentRange    | expected
+    "bytes=0-4"      | "bytes 0-4/10"  | "01234"
+    "bytes=5-"       | "bytes 5-9/10"  | "56789"
+    "bytes=-3"       | "bytes 7-9/10"  | "789"
+    "bytes=-30"      | "bytes 0-9/10"  | CONTENT
+    "bytes=8-100"    | "bytes 8-9/10"  | "89"
+    "bytes=20-,2-2"  | "bytes 2-2/10"  | "2"
+  }
+
+  def "serves multiple ranges as multipart"() {
+    when:
+    range "bytes=0-1, 5-6"
+
+    then:
+    with(get("file.txt")) {
+      statusCode == PARTIAL_CONTENT.code()
+      def boundary = headers.get(CONTENT_TYPE) - "multipart/byteranges; boundary="
+      headers.get(CONTENT_LENGTH) == body.text.length().toString()
+      body.text == "\r\n--$boundary\r\n" +
+        "Content-Type: text/plain\r\n" +
+        "Content-Range: bytes 0-1/10\r\n\r\n" +
+        "01" +
+        "\r\n--$boundary\r\n" +
+        "Content-Type: text/plain\r\n" +
+        "Content-Range: bytes 5-6/10\r\n\r\n" +
+        "56" +
+        "\r\n--$boundary--\r\n"
+    }
+  }
+
+  def "unsatisfiable ranges are rejected"() {
+    when:
+    range "bytes=10-"
+
+    then:
+    with(get("file.txt")) {
+      statusCode == REQUESTED_RANGE_NOT_SATISFIABLE.code()
+      headers.get(CONTENT_RANGE) == "bytes */10"
+    }
+  }
+
+  @Unroll
+  def "invalid range '#header' is ignored"() {
+    when:
+    range header
+
+    then:
+    with(get("file.txt")) {
+      statusCode == OK.code()
+      body.text == CONTENT
+    }
+
+    where:
+    header << ["bytes=5-2", "items=0-1", "bytes=a-b", "bytes=" + (["0-0"] * 17).join(",")]
+  }
+
+  def "range is only served if the if-range date matches"() {
+    given:
+    def lastModified = Files.getLastModifiedTime(path("public/file.txt")).toMillis()
+
+    when:
+    requestSpec { it.headers.set(RANGE, "bytes=0-0").set(IF_RANGE, HttpHeaderDateFormat.get().format(new Date(lastModified))) }
+
+    then:
+    get("file.txt").statusCode == PARTIAL_CONTENT.code()
+
+    when:
+    resetRequest()
+    requestSpec { it.headers.set(RANGE, "bytes=0-0").set(IF_RANGE, HttpHeaderDateFormat.get().format(new Date(lastModified - 10000))) }
+
+    then:
+    get("file.txt").statusCode == OK.code()
+  }
+
+  def "ranges are not compressed"() {
+    when:
+    requestSpec { it.headers.set(RANGE, "bytes=0-4").set(ACCEPT_ENCODING, "gzip") }
+
+    then:
+    with(get("file.txt")) {
+      statusCode == PARTIAL_CONTENT.code()
+      headers.get(CONTENT_ENCODING) == null
+      body.text == "01234"
+    }
+  }
+
+}
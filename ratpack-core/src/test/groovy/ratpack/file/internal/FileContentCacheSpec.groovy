@@ -0,0 +1,118 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.file.internal
+
+import io.netty.buffer.ByteBuf
+import io.netty.buffer.UnpooledByteBufAllocator
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import ratpack.exec.util.ParallelBatch
+import ratpack.test.exec.ExecHarness
+import ratpack.test.internal.BaseRatpackSpec
+import spock.lang.AutoCleanup
+import spock.util.concurrent.PollingConditions
+
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.nio.file.attribute.BasicFileAttributes
+import java.util.concurrent.atomic.AtomicInteger
+
+class FileContentCacheSpec extends BaseRatpackSpec {
+
+  @Rule
+  TemporaryFolder temporaryFolder
+
+  // A single thread, so that the loads start in order, and joining loads are not blocked by the first read
+  @AutoCleanup
+  ExecHarness harness = ExecHarness.harness(1)
+
+  def cache = new FileContentCache(16, 1024)
+
+  def cleanup() {
+    cache.@cache.invalidateAll()
+  }
+
+  def "concurrent loads of the same file read it once"() {
+    given:
+    def file = temporaryFolder.newFile("static.txt").toPath()
+    file.text = "hello!"
+    def attributes = Files.readAttributes(file, BasicFileAttributes)
+    def reads = new AtomicInteger()
+    def allocator = new UnpooledByteBufAllocator(true) {
+      @Override
+      ByteBuf directBuffer(int initialCapacity, int maxCapacity) {
+        reads.incrementAndGet()
+        // Hold the read until the other loads are waiting for it
+        new PollingConditions(timeout: 10).eventually {
+          assert cache.@loads[file].numberOfDependents == 4
+        }
+        super.directBuffer(initialCapacity, maxCapacity)
+      }
+    }
+
+    when:
+    def contents = harness.yield {
+      ParallelBatch.of((1..5).collect { cache.load(file, attributes, "text/plain", allocator) }).yield()
+    }.valueOrThrow
+
+    then:
+    reads.get() == 1
+    contents*.toString(StandardCharsets.UTF_8) == ["hello!"] * 5
+    cache.get(file, attributes) != null
+
+    cleanup:
+    contents*.release()
+  }
+
+  def "a load that joined one for other attributes reads the file again"() {
+    given:
+    def file = temporaryFolder.newFile("static.txt").toPath()
+    file.text = "hello!"
+    def oldAttributes = Files.readAttributes(file, BasicFileAttributes)
+    file.text = "changed"
+    def newAttributes = Files.readAttributes(file, BasicFileAttributes)
+    def reads = new AtomicInteger()
+    def allocator = new UnpooledByteBufAllocator(true) {
+      @Override
+      ByteBuf directBuffer(int initialCapacity, int maxCapacity) {
+        if (reads.incrementAndGet() == 1) {
+          new PollingConditions(timeout: 10).eventually {
+            assert cache.@loads[file].numberOfDependents == 1
+          }
+        }
+        super.directBuffer(initialCapacity, maxCapacity)
+      }
+    }
+
+    when:
+    def contents = harness.yield {
+      ParallelBatch.of([
+        cache.load(file, oldAttributes, "text/plain", allocator),
+        cache.load(file, newAttributes, "text/plain", allocator)
+      ]).yield()
+    }.valueOrThrow
+
+    then:
+    reads.get() == 2
+    contents[1].toString(StandardCharsets.UTF_8) == "changed"
+    cache.get(file, newAttributes) != null
+
+    cleanup:
+    contents*.release()
+  }
+
+}
@@ -97,4 +97,28 @@ class ExpectContinueSpec extends RatpackGroovyDslSpec {
     con.inputStream.text == "ok"
   }
 
+  def "rejects expect continue with body larger than route max content length without receiving body"() {
+    when:
+    handlers {
+      maxContentLength 1024
+      post { request.body.then { render "ok" } }
+    }
+
+    def bytes = ("a" * 1024 * 10).bytes
+
+    HttpURLConnection con = applicationUnderTest.address.toURL().openConnection()
+    con.requestMethod = "POST"
+    con.setRequestProperty("Expect", "100-Continue")
+    con.fixedLengthStreamingMode = bytes.length
+    con.doInput = true
+    con.doOutput = true
+    con.connect()
+
+    con.outputStream << new ByteArrayInputStream(bytes)
+
+    then:
+    thrown ProtocolException // server didn't ok to continue
+    con.responseCode == 413
+  }
+
 }
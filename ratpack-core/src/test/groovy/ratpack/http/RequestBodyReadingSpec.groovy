@@ -23,6 +23,8 @@ import ratpack.test.internal.RatpackGroovyDslSpec
 import ratpack.test.internal.SimpleErrorHandler
 import spock.util.concurrent.BlockingVariable
 
+import java.util.concurrent.atomic.AtomicInteger
+
 class RequestBodyReadingSpec extends RatpackGroovyDslSpec {
 
   def "can not read body"() {
@@ -215,6 +217,77 @@ class RequestBodyReadingSpec extends RatpackGroovyDslSpec {
     postText("allow") == "foo".multiply(16)
   }
 
+  def "route max content length rejects large bodies before handling"() {
+    given:
+    def handled = new AtomicInteger()
+
+    when:
+    handlers {
+      prefix("small") {
+        maxContentLength 16
+        post {
+          handled.incrementAndGet()
+          request.body.then { body ->
+            response.send new String(body.bytes, "utf8")
+          }
+        }
+      }
+    }
+
+    then:
+    requestSpec { RequestSpec requestSpec -> requestSpec.body.text("bar".multiply(16)) }
+    post("small").statusCode == 413
+    handled.get() == 0
+
+    and:
+    requestSpec { RequestSpec requestSpec -> requestSpec.body.text("foo") }
+    postText("small") == "foo"
+    handled.get() == 1
+  }
+
+  def "route max content length applies to bodies of unknown length"() {
+    when:
+    handlers {
+      maxContentLength 16
+      post {
+        request.body.then { body ->
+          response.send new String(body.bytes, "utf8")
+        }
+      }
+    }
+
+    then:
+    requestSpec { RequestSpec requestSpec -> requestSpec.body.stream({ it << "bar".multiply(16) }) }
+    post().statusCode == 413
+  }
+
+  def "route max content length can be larger than server max content length"() {
+    when:
+    serverConfig {
+      maxContentLength 16
+    }
+    handlers {
+      prefix("large") {
+        maxContentLength 1024
+        post {
+          request.body.then { body ->
+            response.send new String(body.bytes, "utf8")
+          }
+        }
+      }
+      post {
+        request.body.then { body ->
+          response.send new String(body.bytes, "utf8")
+        }
+      }
+    }
+
+    then:
+    requestSpec { RequestSpec requestSpec -> requestSpec.body.text("bar".multiply(16)) }
+    postText("large") == "bar".multiply(16)
+    post().statusCode == 413
+  }
+
   def "can read body only once"() {
     when:
     handlers {
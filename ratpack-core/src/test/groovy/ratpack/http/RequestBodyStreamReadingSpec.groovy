@@ -33,6 +33,8 @@ import spock.util.concurrent.BlockingVariable
 
 import java.nio.charset.Charset
 import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.util.zip.CRC32
 
 class RequestBodyStreamReadingSpec extends RatpackGroovyDslSpec {
 
@@ -346,6 +348,69 @@ class RequestBodyStreamReadingSpec extends RatpackGroovyDslSpec {
     file.text == string
   }
 
+  def "can write request body to file"() {
+    given:
+    def bytes = RandomStringUtils.random(1024 * 1024 * 2).getBytes(StandardCharsets.UTF_8)
+    def file = baseDir.path("out.bin")
+    def crc32 = new CRC32()
+    crc32.update(bytes)
+
+    when:
+    handlers {
+      post { ctx ->
+        request.getBodyTo(file, bytes.length).then { body ->
+          render "$body.length:$body.crc32"
+        }
+      }
+    }
+
+    then:
+    requestSpec { it.body.bytes bytes }
+    postText() == "$bytes.length:$crc32.value"
+    file.bytes == bytes
+  }
+
+  def "can write request body to existing file"() {
+    given:
+    def file = baseDir.write("out.txt", "existing content that is longer than the body")
+
+    when:
+    handlers {
+      post {
+        request.getBodyTo(file).then { body ->
+          render body.length.toString()
+        }
+      }
+    }
+
+    then:
+    requestSpec { it.body.text "foo" }
+    postText() == "3"
+    file.text == "foo"
+  }
+
+  def "deletes file when request body is too large to write to file"() {
+    given:
+    def file = baseDir.path("out.txt")
+
+    when:
+    serverConfig {
+      maxContentLength 16
+    }
+    handlers {
+      post {
+        request.getBodyTo(file).then { body ->
+          render body.length.toString()
+        }
+      }
+    }
+
+    then:
+    requestSpec { RequestSpec requestSpec -> requestSpec.body.stream({ it << "bar" * 100000 }) }
+    post().statusCode == 413
+    !Files.exists(file)
+  }
+
   def "request body stream errors when client closes connection unexpectedly"() {
     when:
     def error = new BlockingVariable<Throwable>()
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.http
+
+import io.netty.channel.Channel
+import io.netty.channel.ChannelHandlerContext
+import io.netty.channel.ChannelOutboundHandlerAdapter
+import ratpack.stream.Streams
+import ratpack.test.internal.RatpackGroovyDslSpec
+
+import java.time.Duration
+import java.util.concurrent.atomic.AtomicInteger
+
+import static ratpack.http.ResponseChunks.stringChunks
+import static ratpack.stream.Streams.publish
+
+class ResponseFlushConsolidationSpec extends RatpackGroovyDslSpec {
+
+  def flushes = new AtomicInteger()
+
+  def "can stream many small items"() {
+    given:
+    serverConfig {
+      flushConsolidation { it.maxItems = 10; it.maxBytes = 100 }
+    }
+    handlers {
+      get {
+        countFlushes(directChannelAccess.channel)
+        render stringChunks(publish((1..1000).collect { it.toString() }))
+      }
+    }
+
+    expect:
+    text == (1..1000).join("")
+
+    and: "items are flushed 10 at a time, plus the headers and the end of the response"
+    flushes.get() >= 100
+    flushes.get() <= 110
+  }
+
+  def "each item is flushed without consolidation"() {
+    given:
+    handlers {
+      get {
+        countFlushes(directChannelAccess.channel)
+        render stringChunks(publish((1..1000).collect { it.toString() }))
+      }
+    }
+
+    expect:
+    text == (1..1000).join("")
+    flushes.get() >= 1000
+  }
+
+  def "can stream items produced asynchronously"() {
+    given:
+    serverConfig {
+      flushConsolidation { it.maxDelay = Duration.ofMillis(50) }
+    }
+    handlers {
+      get { ctx ->
+        render stringChunks(Streams.periodically(ctx, Duration.ofMillis(10)) {
+          it < 20 ? it.toString() : null
+        })
+      }
+    }
+
+    expect:
+    text == (0..<20).join("")
+  }
+
+  def "can stream items produced asynchronously with no delay"() {
+    given:
+    serverConfig {
+      flushConsolidation { it.maxDelay = Duration.ZERO }
+    }
+    handlers {
+      get { ctx ->
+        render stringChunks(Streams.periodically(ctx, Duration.ofMillis(10)) {
+          it < 5 ? it.toString() : null
+        })
+      }
+    }
+
+    expect:
+    text == (0..<5).join("")
+  }
+
+  def "can stream more than the channel can buffer"() {
+    given:
+    def item = "a" * 8192
+    serverConfig {
+      flushConsolidation { it.maxItems = Integer.MAX_VALUE; it.maxBytes = Integer.MAX_VALUE; it.maxDelay = Duration.ofMinutes(1) }
+    }
+    handlers {
+      get {
+        render stringChunks(publish([item] * 1000))
+      }
+    }
+
+    expect:
+    text.length() == item.length() * 1000
+  }
+
+  private void countFlushes(Channel channel) {
+    def counter = flushes
+    channel.pipeline().addFirst(new ChannelOutboundHandlerAdapter() {
+      @Override
+      void flush(ChannelHandlerContext ctx) throws Exception {
+        counter.incrementAndGet()
+        ctx.flush()
+      }
+    })
+  }
+
+}
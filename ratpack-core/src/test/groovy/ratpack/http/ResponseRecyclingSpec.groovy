@@ -0,0 +1,80 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.http
+
+import ratpack.test.internal.RatpackGroovyDslSpec
+
+class ResponseRecyclingSpec extends RatpackGroovyDslSpec {
+
+  List<Response> responses = []
+
+  def setup() {
+    handlers {
+      get("first") {
+        responses << response
+        response.headers.set("X-First", "true")
+        response.cookie("first", "true")
+        response.status(201)
+        render "first"
+      }
+      get("second") {
+        responses << response
+        render "second"
+      }
+    }
+  }
+
+  // HttpURLConnection reuses the connection of a fully read response
+  private HttpURLConnection request(String path) {
+    def connection = (HttpURLConnection) new URL("${applicationUnderTest.address}$path").openConnection()
+    connection.inputStream.text
+    connection
+  }
+
+  def "response is reused by subsequent requests of a connection"() {
+    given:
+    serverConfig {
+      recycleResponses(true)
+    }
+
+    when:
+    def first = request("first")
+    def second = request("second")
+
+    then:
+    first.responseCode == 201
+    first.getHeaderField("X-First") == "true"
+    first.getHeaderField("Set-Cookie").startsWith("first=true")
+    second.responseCode == 200
+    second.getHeaderField("X-First") == null
+    second.getHeaderField("Set-Cookie") == null
+    responses.size() == 2
+    responses[0].is(responses[1])
+  }
+
+  def "response is not reused by default"() {
+    when:
+    request("first")
+    def second = request("second")
+
+    then:
+    second.getHeaderField("X-First") == null
+    responses.size() == 2
+    !responses[0].is(responses[1])
+  }
+
+}
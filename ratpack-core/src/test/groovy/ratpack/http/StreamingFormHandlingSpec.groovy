@@ -0,0 +1,151 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.http
+
+import io.netty.buffer.ByteBuf
+import ratpack.form.Form
+import ratpack.test.internal.RatpackGroovyDslSpec
+import spock.util.concurrent.BlockingVariable
+import spock.util.concurrent.PollingConditions
+
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.nio.file.Path
+
+class StreamingFormHandlingSpec extends RatpackGroovyDslSpec {
+
+  static final String BOUNDARY = "xyz"
+
+  void multipart(Map<String, String> fields, Map<String, String> files) {
+    def body = new StringBuilder()
+    fields.each { name, value ->
+      body << "--$BOUNDARY\r\nContent-Disposition: form-data; name=\"$name\"\r\n\r\n$value\r\n"
+    }
+    files.each { name, value ->
+      body << "--$BOUNDARY\r\nContent-Disposition: form-data; name=\"$name\"; filename=\"${name}.txt\"\r\nContent-Type: text/plain\r\n\r\n$value\r\n"
+    }
+    body << "--$BOUNDARY--\r\n"
+    requestSpec {
+      it.body.type("multipart/form-data; boundary=$BOUNDARY").text(body.toString())
+    }
+  }
+
+  def "can stream form with fields and small files in memory"() {
+    given:
+    handlers {
+      post {
+        Form.stream(context, 1024).then { form ->
+          def file = form.file("small")
+          render "${form.getAll("a")} ${form.b} ${file.fileName} ${file.contentType.type} ${file.tempFile.present} ${file.text}"
+        }
+      }
+    }
+
+    when:
+    multipart([a: "1", b: "2"], [small: "content"])
+
+    then:
+    postText() == "[1] 2 small.txt text/plain false content"
+  }
+
+  def "large files are written to temporary files that are deleted when the request completes"() {
+    given:
+    def content = "a" * 100_000
+    def tempFile = new BlockingVariable<Path>()
+    handlers {
+      post {
+        Form.stream(context, 1024).then { form ->
+          def file = form.file("large")
+          tempFile.set(file.tempFile.get())
+          assert Files.size(file.tempFile.get()) == content.length()
+          file.contentStream.toList().then { List<ByteBuf> chunks ->
+            def received = chunks.collect { def text = it.toString(StandardCharsets.UTF_8); it.release(); text }.join()
+            render "${received == content} ${file.text == content} ${form.name}"
+          }
+        }
+      }
+    }
+
+    when:
+    multipart([name: "value"], [large: content])
+
+    then:
+    postText() == "true true value"
+    new PollingConditions().eventually {
+      assert !Files.exists(tempFile.get())
+    }
+  }
+
+  def "in memory files can be streamed"() {
+    given:
+    handlers {
+      post {
+        Form.stream(context, 1024).then { form ->
+          form.file("small").contentStream.toList().then { List<ByteBuf> chunks ->
+            render chunks*.toString(StandardCharsets.UTF_8).join()
+            chunks*.release()
+          }
+        }
+      }
+    }
+
+    when:
+    multipart([:], [small: "content"])
+
+    then:
+    postText() == "content"
+  }
+
+  def "can stream url encoded forms"() {
+    given:
+    handlers {
+      post {
+        Form.stream(context, 1024).then { form ->
+          render form.toString()
+        }
+      }
+    }
+
+    when:
+    requestSpec {
+      it.body.type(MediaType.APPLICATION_FORM).text("a=1&b=2&b=3")
+    }
+
+    then:
+    postText() == "[a:[1], b:[2, 3]]"
+  }
+
+  def "body larger than max content length is rejected"() {
+    given:
+    handlers {
+      post {
+        Form.stream(context, 100, 10).onError {
+          render it.class.name
+        } then {
+          render "ok"
+        }
+      }
+    }
+
+    when:
+    multipart([:], [large: "a" * 1000])
+
+    then:
+    postText() == RequestBodyTooLargeException.name
+  }
+
+}
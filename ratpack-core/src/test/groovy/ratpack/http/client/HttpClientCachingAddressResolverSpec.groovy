@@ -0,0 +1,201 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.http.client
+
+import io.netty.bootstrap.Bootstrap
+import io.netty.buffer.Unpooled
+import io.netty.channel.Channel
+import io.netty.channel.ChannelHandlerContext
+import io.netty.channel.ChannelInitializer
+import io.netty.channel.SimpleChannelInboundHandler
+import io.netty.channel.nio.NioEventLoopGroup
+import io.netty.channel.socket.DatagramChannel
+import io.netty.channel.socket.nio.NioDatagramChannel
+import io.netty.handler.codec.dns.*
+import io.netty.resolver.ResolvedAddressTypes
+import io.netty.resolver.dns.SingletonDnsServerAddressStreamProvider
+import ratpack.func.Action
+import ratpack.http.client.internal.DefaultHttpClient
+import ratpack.test.exec.ExecHarness
+import spock.lang.AutoCleanup
+
+import java.time.Duration
+import java.util.concurrent.atomic.AtomicInteger
+
+class HttpClientCachingAddressResolverSpec extends BaseHttpClientSpec {
+
+  @AutoCleanup
+  ExecHarness exec = ExecHarness.harness()
+
+  @AutoCleanup
+  StubDnsServer dns = new StubDnsServer()
+
+  @AutoCleanup
+  HttpClient http
+
+  def "resolved addresses are cached across connections"() {
+    given:
+    dns.records["service.test"] = ["127.0.0.1"]
+    otherApp { get { render "ok" } }
+    http = client()
+    def uri = "http://service.test:${otherApp.address.port}/".toURI()
+
+    when:
+    def responses = (1..3).collect {
+      exec.yield { http.get(uri) }.valueOrThrow.body.text
+    }
+
+    then:
+    responses == ["ok"] * 3
+    dns.queries.get() == 1
+    with(dnsCacheStats) {
+      hitCount == 2
+      missCount == 1
+    }
+  }
+
+  def "failed lookups are cached for the negative ttl"() {
+    given:
+    http = client { it.negativeTtl(negativeTtl) }
+
+    when:
+    2.times {
+      try {
+        resolve("missing.test")
+      } catch (UnknownHostException ignore) {
+      }
+    }
+
+    then:
+    dns.queries.get() == queries
+    dnsCacheStats.negativeHitCount == negativeHits
+
+    where:
+    negativeTtl           | queries | negativeHits
+    Duration.ofMinutes(1) | 1       | 1
+    Duration.ZERO         | 2       | 0
+  }
+
+  def "connections are spread across addresses"() {
+    given:
+    dns.records["service.test"] = ["127.0.0.1", "127.0.0.2"]
+    http = client { it.roundRobin(roundRobin) }
+
+    when:
+    def addresses = (1..50).collect { resolve("service.test") } as Set
+
+    then:
+    addresses == expected as Set
+    dns.queries.get() == 1
+
+    where:
+    roundRobin | expected
+    true       | ["127.0.0.1", "127.0.0.2"]
+    false      | ["127.0.0.1"]
+  }
+
+  def "ttl must not be negative"() {
+    when:
+    client { it.minTtl(Duration.ofSeconds(-1)) }
+
+    then:
+    thrown IllegalArgumentException
+  }
+
+  HttpClient client(Action<? super CachingAddressResolverSpec> action = Action.noop()) {
+    HttpClient.of {
+      it.execController(exec.controller).cachingAddressResolver { spec ->
+        spec.resolver {
+          it.nameServerProvider(new SingletonDnsServerAddressStreamProvider(dns.address))
+            .resolvedAddressTypes(ResolvedAddressTypes.IPV4_ONLY)
+            .searchDomains([])
+        }
+        action.execute(spec)
+      }
+    }
+  }
+
+  String resolve(String host) {
+    def resolver = (http as DefaultHttpClient).resolver.getResolver(exec.controller.eventLoopGroup.next())
+    def future = resolver.resolve(InetSocketAddress.createUnresolved(host, 80)).await()
+    if (future.success) {
+      (future.getNow() as InetSocketAddress).address.hostAddress
+    } else {
+      throw future.cause()
+    }
+  }
+
+  def getDnsCacheStats() {
+    (http as DefaultHttpClient).httpClientStats.dnsCacheStats
+  }
+
+  static class StubDnsServer implements Closeable {
+
+    final Map<String, List<String>> records = [:]
+    final AtomicInteger queries = new AtomicInteger()
+    final NioEventLoopGroup group = new NioEventLoopGroup(1)
+    final Channel channel
+
+    StubDnsServer() {
+      channel = new Bootstrap()
+        .group(group)
+        .channel(NioDatagramChannel)
+        .handler(new ChannelInitializer<DatagramChannel>() {
+          @Override
+          protected void initChannel(DatagramChannel ch) {
+            ch.pipeline().addLast(new DatagramDnsQueryDecoder(), new DatagramDnsResponseEncoder(), new SimpleChannelInboundHandler<DatagramDnsQuery>() {
+              @Override
+              protected void channelRead0(ChannelHandlerContext ctx, DatagramDnsQuery query) {
+                ctx.writeAndFlush(respond(query))
+              }
+            })
+          }
+        })
+        .bind(new InetSocketAddress("127.0.0.1", 0))
+        .sync()
+        .channel()
+    }
+
+    InetSocketAddress getAddress() {
+      channel.localAddress() as InetSocketAddress
+    }
+
+    private DatagramDnsResponse respond(DatagramDnsQuery query) {
+      queries.incrementAndGet()
+      DnsQuestion question = query.recordAt(DnsSection.QUESTION)
+      def response = new DatagramDnsResponse(query.recipient(), query.sender(), query.id())
+      response.addRecord(DnsSection.QUESTION, question)
+      def addresses = records[question.name() - ~/\.$/]
+      if (addresses == null) {
+        response.setCode(DnsResponseCode.NXDOMAIN)
+      } else {
+        addresses.each {
+          def content = Unpooled.wrappedBuffer(InetAddress.getByName(it).address)
+          response.addRecord(DnsSection.ANSWER, new DefaultDnsRawRecord(question.name(), DnsRecordType.A, 60, content))
+        }
+      }
+      response
+    }
+
+    @Override
+    void close() {
+      channel.close().sync()
+      group.shutdownGracefully().sync()
+    }
+  }
+
+}
@@ -65,4 +65,39 @@ class HttpClientConnectionPoolSpec extends BaseHttpClientSpec {
     requests.findAll { it.error }.size() == 2
   }
 
+  def "requests rejected by the pool queue are counted"() {
+    given:
+    def resumeRequestLatch = new CountDownLatch(2)
+
+    def poolingHttpClient = clientOf {
+      it.poolSize(1).poolQueueSize(1).enableMetricsCollection(true)
+    }
+
+    otherApp {
+      get {
+        resumeRequestLatch.await()
+        render "ok"
+      }
+    }
+
+    when:
+    def request = poolingHttpClient.get(otherAppUrl()).
+      map { r -> r.body.text }.
+      wiretap {
+        if (it.error) {
+          resumeRequestLatch.countDown()
+        }
+      }
+
+    harness.yield {
+      ParallelBatch.of([request] * 4).yieldAll()
+    }
+
+    then:
+    with(poolingHttpClient.getHttpClientStats().latenciesPerHost[otherAppUrl().host]) {
+      rejectedAcquireCount == 2
+      total.snapshot().count == 2
+    }
+  }
+
 }
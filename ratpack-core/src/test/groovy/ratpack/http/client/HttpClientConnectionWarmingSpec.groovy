@@ -0,0 +1,200 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.http.client
+
+import io.netty.handler.ssl.SslContextBuilder
+import io.netty.handler.ssl.util.SelfSignedCertificate
+import ratpack.groovy.test.embed.GroovyEmbeddedApp
+import ratpack.http.client.internal.DefaultHttpClient
+import ratpack.http.client.internal.HostStats
+import ratpack.test.exec.ExecHarness
+import spock.lang.AutoCleanup
+import spock.lang.Shared
+import spock.util.concurrent.PollingConditions
+
+import java.time.Duration
+
+class HttpClientConnectionWarmingSpec extends BaseHttpClientSpec {
+
+  @AutoCleanup
+  ExecHarness harness = ExecHarness.harness()
+
+  @AutoCleanup
+  HttpClient http
+
+  PollingConditions polling = new PollingConditions()
+
+  @Shared
+  SelfSignedCertificate cert = new SelfSignedCertificate("localhost")
+
+  def cleanupSpec() {
+    cert.delete()
+  }
+
+  def "connections are opened to prewarmed targets when the client is built"() {
+    given:
+    otherApp { get { render "ok" } }
+
+    when:
+    http = HttpClient.of {
+      it.execController(harness.controller)
+        .poolSize(3)
+        .minIdleConnections(2)
+        .prewarm(otherAppUrl())
+    }
+
+    then:
+    polling.within(2) {
+      with(hostStats) {
+        idleConnectionCount == 2
+        activeConnectionCount == 0
+        warmedConnectionCount == 2
+      }
+    }
+
+    when:
+    def text = harness.yield { http.get(otherAppUrl()) }.valueOrThrow.body.text
+
+    then:
+    text == "ok"
+    polling.within(2) {
+      with(hostStats) {
+        idleConnectionCount == 2
+        warmedConnectionCount == 2
+      }
+    }
+  }
+
+  def "copies of a client prewarm the same targets"() {
+    given:
+    otherApp { get { render "ok" } }
+    def original = HttpClient.of {
+      it.execController(harness.controller)
+        .poolSize(3)
+        .minIdleConnections(2)
+        .prewarm(otherAppUrl())
+    }
+    polling.within(2) {
+      assert (original as DefaultHttpClient).httpClientStats.statsPerHost[otherAppUrl().host].warmedConnectionCount == 2
+    }
+
+    when:
+    http = original.copyWith { it.execController(harness.controller) }
+
+    then:
+    polling.within(2) {
+      with(hostStats) {
+        idleConnectionCount == 2
+        warmedConnectionCount == 2
+      }
+    }
+
+    cleanup:
+    original?.close()
+  }
+
+  def "connections to TLS targets are prewarmed with the given SSL context"() {
+    given:
+    def serverContext = SslContextBuilder.forServer(cert.certificate(), cert.privateKey()).build()
+    otherApp = GroovyEmbeddedApp.of {
+      serverConfig { ssl serverContext }
+      handlers { get { render "ok" } }
+    }
+    def clientContext = SslContextBuilder.forClient().trustManager(cert.cert()).build()
+
+    when: "the self signed certificate is only trusted by the given context"
+    http = HttpClient.of {
+      it.execController(harness.controller)
+        .poolSize(3)
+        .minIdleConnections(2)
+        .prewarm(otherAppUrl(), clientContext)
+    }
+
+    then:
+    polling.within(2) {
+      with(hostStats) {
+        idleConnectionCount == 2
+        warmedConnectionCount == 2
+      }
+    }
+
+    when:
+    def text = harness.yield { http.get(otherAppUrl()) { it.sslContext(clientContext) } }.valueOrThrow.body.text
+
+    then:
+    text == "ok"
+    hostStats.warmedConnectionCount == 2
+  }
+
+  def "minimum idle connections are opened when the first request is made"() {
+    given:
+    otherApp { get { render "ok" } }
+    http = HttpClient.of {
+      it.execController(harness.controller)
+        .poolSize(4)
+        .minIdleConnections(3)
+    }
+
+    when:
+    def text = harness.yield { http.get(otherAppUrl()) }.valueOrThrow.body.text
+
+    then:
+    text == "ok"
+    polling.within(2) {
+      hostStats.idleConnectionCount == 3
+    }
+  }
+
+  def "closed idle connections are replaced on health check"() {
+    given:
+    otherApp { get { render "ok" } }
+
+    when:
+    http = HttpClient.of {
+      it.execController(harness.controller)
+        .poolSize(2)
+        .minIdleConnections(1)
+        .idleTimeout(Duration.ofMillis(200))
+        .healthCheckInterval(Duration.ofMillis(100))
+        .prewarm(otherAppUrl())
+    }
+
+    then:
+    polling.within(5) {
+      with(hostStats) {
+        evictedConnectionCount >= 1
+        warmedConnectionCount >= 2
+        idleConnectionCount <= 1
+      }
+    }
+  }
+
+  def "prewarming requires pooling"() {
+    when:
+    HttpClient.of {
+      it.execController(harness.controller).prewarm("http://localhost:8080".toURI())
+    }
+
+    then:
+    thrown IllegalStateException
+  }
+
+  HostStats getHostStats() {
+    (http as DefaultHttpClient).httpClientStats.statsPerHost[otherAppUrl().host]
+  }
+
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ratpack.http.client
+
+import ratpack.exec.Execution
+import ratpack.exec.util.retry.AttemptRetryPolicy
+import ratpack.exec.util.retry.FixedDelay
+import ratpack.func.Action
+import ratpack.http.client.internal.DefaultHttpClient
+import ratpack.test.exec.ExecHarness
+import spock.lang.AutoCleanup
+import spock.util.concurrent.PollingConditions
+
+import java.time.Duration
+import java.util.concurrent.atomic.AtomicInteger
+
+class HttpClientHedgingSpec extends BaseHttpClientSpec {
+
+  @AutoCleanup
+  ExecHarness harness = ExecHarness.harness()
+
+  @AutoCleanup
+  HttpClient http
+
+  def requests = new AtomicInteger()
+  def intercepts = new AtomicInteger()
+
+  def "backup request is sent when response is slow"() {
+    given:
+    otherApp {
+      get {
+        if (requests.getAndIncrement() == 0) {
+          Execution.sleep(Duration.ofSeconds(5)).then { render "slow" }
+        } else {
+          render "fast"
+        }
+      }
+    }
+    http = HttpClient.of {
+      it.execController(harness.controller)
+        .poolSize(2)
+        .requestIntercept { Execution.current(); intercepts.incrementAndGet() }
+    }
+
+    when:
+    def result = harness.yield { http.get(otherAppUrl()) { it.hedge(Duration.ofMillis(200)) } }
+
+    then: "the backup is configured on the execution"
+    result.valueOrThrow.body.text == "fast"
+    requests.get() == 2
+    intercepts.get() == 2
+
+    and: "the slow request's connection is closed, and only the winning connection is returned to the pool"
+    new PollingConditions(timeout: 5).eventually {
+      with((http as DefaultHttpClient).httpClientStats.statsPerHost[otherAppUrl().host]) {
+        activeConnectionCount == 0
+        idleConnectionCount == 1
+      }
+    }
+  }
+
+  def "backup request is not sent when response is fast"() {
+    given:
+    def delay = Duration.ofMillis(500)
+    otherApp { get { requests.incrementAndGet(); render "ok" } }
+    http = HttpClient.of { it.execController(harness.controller).poolSize(2).requestIntercept { intercepts.incrementAndGet() } }
+
+    when: "the execution outlives the hedge delay, so that a backup that was not cancelled would be sent"
+    def result = harness.yield {
+      http.get(otherAppUrl()) { it.hedge(delay) }.flatMap { response ->
+        Execution.sleep(delay.multipliedBy(2)).map { response }
+      }
+    }
+
+    then: "the backup is never configured"
+    result.valueOrThrow.body.text == "ok"
+    requests.get() == 1
+    intercepts.get() == 1
+  }
+
+  def "backup request is sent after the percentile of previous response times"() {
+    given:
+    otherApp {
+      get("warm") { render "ok" }
+      get {
+        if (requests.getAndIncrement() == 0) {
+          Execution.sleep(Duration.ofSeconds(5)).then { render "slow" }
+        } else {
+          render "fast"
+        }
+      }
+    }
+    http = HttpClient.of { it.execController(harness.controller).poolSize(2).enableMetricsCollection(true) }
+    100.times { harness.yield { http.get(otherAppUrl("warm")) }.valueOrThrow }
+
+    when: "the default delay would let the slow response win"
+    def result = harness.yield { http.get(otherAppUrl()) { it.hedge(99, Duration.ofSeconds(30)) } }
+
+    then:
+    result.valueOrThrow.body.text == "fast"
+    requests.get() == 2
+  }
+
+  def "default delay is used until enough requests have been made for the percentile"() {
+    given:
+    otherApp {
+      get("warm") { render "ok" }
+      get {
+        requests.incrementAndGet()
+        Execution.sleep(Duration.ofSeconds(1)).then { render "slow" }
+      }
+    }
+    http = HttpClient.of { it.execController(harness.controller).poolSize(2).enableMetricsCollection(true) }
+    99.times { harness.yield { http.get(otherAppUrl("warm")) }.valueOrThrow }
+
+    when: "the percentile of the previous requests would send a backup"
+    def result = harness.yield { http.get(otherAppUrl()) { it.hedge(99, Duration.ofSeconds(5)) } }
+
+    then:
+    result.valueOrThrow.body.text == "slow"
+    requests.get() == 1
+  }
+
+  def "backup request is not sent when retry budget is exhausted"() {
+    given:
+    otherApp {
+      get {
+        requests.incrementAndGet()
+        Execution.sleep(Duration.ofMillis(500)).then { render "ok" }
+      }
+    }
+    http = HttpClient.of {
+      it.execController(harness.controller)
+        .poolSize(2)
+        .retryBudget(0, 0)
+        .requestIntercept { intercepts.incrementAndGet() }
+    }
+
+    when:
+    def result = harness.yield { http.get(otherAppUrl()) { it.hedge(Duration.ofMillis(50)) } }
+
+    then: "the backup is never configured"
+    result.valueOrThrow.body.text == "ok"
+    requests.get() == 1
+    intercepts.get() == 1
+  }
+
+  def "failed requests are retried"() {
+    given:
+    otherApp {
+      get {
+        if (requests.getAndIncrement() == 0) {
+          directChannelAccess.channel.close()
+        } else {
+          render "ok"
+        }
+      }
+    }
+    http = HttpClient.of { it.execController(harness.controller) }
+
+    when:
+    def result = harness.yield {
+      http.get(otherAppUrl()) {
+        it.retry { AttemptRetryPolicy.of { it.maxAttempts(3).delay(FixedDelay.of(Duration.ZERO)) } }
+      }
+    }
+
+    then:
+    result.valueOrThrow.body.text == "ok"
+    requests.get() == 2
+  }
+
+  def "each request gets its own retry policy"() {
+    given:
+    otherApp {
+      get {
+        // Fails the first attempt of each request
+        if (requests.getAndIncrement() % 2 == 0) {
+          directChannelAccess.channel.close()
+        } else {
+          render "ok"
+        }
+      }
+    }
+    http = HttpClient.of { it.execController(harness.controller) }
+    Action<RequestSpec> retryOnce = { RequestSpec spec ->
+      spec.retry { AttemptRetryPolicy.of { it.maxAttempts(1).delay(FixedDelay.of(Duration.ZERO)) } }
+    }
+
+    when:
+    def results = (1..2).collect {
+      harness.yield { http.get(otherAppUrl(), retryOnce) }
+    }
+
+    then:
+    results*.valueOrThrow*.body*.text == ["ok", "ok"]
+    requests.get() == 4
+  }
+
+  def "retries are limited by the retry budget"() {
+    given:
+    def attempts = new AtomicInteger()
+    http = HttpClient.of {
+      it.execController(harness.controller)
+        .retryBudget(0, 2)
+        .requestIntercept { attempts.incrementAndGet() }
+    }
+
+    when:
+    def result = harness.yield {
+      http.get("http://localhost:${unusedPort()}".toURI()) {
+        it.retry { AttemptRetryPolicy.of { it.maxAttempts(10).delay(FixedDelay.of(Duration.ZERO)) } }
+      }
+    }
+
+    then:
+    result.throwable instanceof ConnectException
+    attempts.get() == 3
+  }
+
+  private static int unusedPort() {
+    new ServerSocket(0).withCloseable { it.localPort }
+  }
+
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.http.client
+
+import io.netty.handler.codec.http2.Http2StreamChannel
+import io.netty.handler.ssl.ApplicationProtocolNames
+import io.netty.handler.ssl.SslContextBuilder
+import io.netty.handler.ssl.util.SelfSignedCertificate
+import ratpack.exec.Blocking
+import ratpack.exec.util.ParallelBatch
+import ratpack.groovy.handling.GroovyChain
+import ratpack.groovy.test.embed.GroovyEmbeddedApp
+import ratpack.server.Http2Spec
+import ratpack.test.exec.ExecHarness
+import spock.lang.AutoCleanup
+import spock.lang.Shared
+
+import java.nio.charset.StandardCharsets
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class HttpClientHttp2Spec extends BaseHttpClientSpec {
+
+  @AutoCleanup
+  def harness = ExecHarness.harness(1)
+
+  @Shared
+  SelfSignedCertificate cert = new SelfSignedCertificate("localhost")
+
+  def cleanupSpec() {
+    cert.delete()
+  }
+
+  void http2OtherApp(@DelegatesTo(value = GroovyChain, strategy = Closure.DELEGATE_FIRST) Closure<?> closure) {
+    otherApp = GroovyEmbeddedApp.of {
+      serverConfig {
+        http2 true
+      }
+      handlers(closure)
+    }
+  }
+
+  void tlsOtherApp(boolean enableHttp2, @DelegatesTo(value = GroovyChain, strategy = Closure.DELEGATE_FIRST) Closure<?> closure) {
+    def serverContextBuilder = SslContextBuilder.forServer(cert.certificate(), cert.privateKey())
+    if (enableHttp2) {
+      serverContextBuilder.applicationProtocolConfig(Http2Spec.alpn(ApplicationProtocolNames.HTTP_2, ApplicationProtocolNames.HTTP_1_1))
+    }
+    def serverContext = serverContextBuilder.build()
+    otherApp = GroovyEmbeddedApp.of {
+      serverConfig {
+        http2 enableHttp2
+        ssl serverContext
+      }
+      handlers(closure)
+    }
+  }
+
+  def tlsRequest = { RequestSpec spec ->
+    spec.sslContext(SslContextBuilder.forClient()
+      .trustManager(cert.cert())
+      .applicationProtocolConfig(Http2Spec.alpn(ApplicationProtocolNames.HTTP_2, ApplicationProtocolNames.HTTP_1_1))
+      .build())
+  }
+
+  def "negotiates http2 via ALPN over TLS"() {
+    given:
+    def http = clientOf {
+      it.poolSize(1).http2(true)
+    }
+
+    tlsOtherApp(true) {
+      get {
+        render "${directChannelAccess.channel instanceof Http2StreamChannel}"
+      }
+    }
+
+    when:
+    def responses = harness.yield {
+      ParallelBatch.of((1..2).collect { http.get(otherAppUrl(), tlsRequest).map { it.body.text } }).yield()
+    }.valueOrThrow
+
+    then:
+    responses == ["true", "true"]
+  }
+
+  def "falls back to http/1.1 when the TLS server does not support ALPN"() {
+    given:
+    def http = clientOf {
+      it.poolSize(1).http2(true)
+    }
+
+    tlsOtherApp(false) {
+      get {
+        render "${directChannelAccess.channel instanceof Http2StreamChannel}"
+      }
+    }
+
+    when:
+    def responses = (1..2).collect {
+      harness.yield { http.get(otherAppUrl(), tlsRequest).map { it.body.text } }.valueOrThrow
+    }
+
+    then:
+    responses == ["false", "false"]
+  }
+
+  def "concurrent requests are multiplexed over a single connection"() {
+    given:
+    def requestsLatch = new CountDownLatch(3)
+    def http = clientOf {
+      it.poolSize(1).http2(true)
+    }
+
+    http2OtherApp {
+      get {
+        def channel = directChannelAccess.channel
+        requestsLatch.countDown()
+        Blocking.get { requestsLatch.await(10, TimeUnit.SECONDS) }.then { allArrived ->
+          render "$allArrived:${channel instanceof Http2StreamChannel}:${channel.parent()?.id()?.asLongText()}"
+        }
+      }
+    }
+
+    when:
+    def responses = harness.yield {
+      ParallelBatch.of((1..3).collect { http.get(otherAppUrl()).map { it.body.text } }).yield()
+    }.valueOrThrow
+
+    then:
+    responses.size() == 3
+    responses.every { it.startsWith("true:true:") }
+    responses.unique(false).size() == 1
+  }
+
+  def "can stream response over http2"() {
+    given:
+    def http = clientOf {
+      it.poolSize(1).http2(true)
+    }
+
+    http2OtherApp {
+      get {
+        render "a" * 100_000
+      }
+    }
+
+    when:
+    def text = harness.yield {
+      http.requestStream(otherAppUrl()) {}.flatMap { response ->
+        response.body.reduce("") { acc, buffer ->
+          try {
+            acc + buffer.toString(StandardCharsets.UTF_8)
+          } finally {
+            buffer.release()
+          }
+        }
+      }
+    }.valueOrThrow
+
+    then:
+    text == "a" * 100_000
+  }
+
+  def "request fails if cleartext server does not support http2"() {
+    given:
+    def http = clientOf {
+      it.poolSize(1).http2(true)
+    }
+
+    otherApp {
+      get {
+        render "ok"
+      }
+    }
+
+    when:
+    def result = harness.yield {
+      http.get(otherAppUrl()).map { it.body.text }
+    }
+
+    then:
+    result.error
+  }
+
+}
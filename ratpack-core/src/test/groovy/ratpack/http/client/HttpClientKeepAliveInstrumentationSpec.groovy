@@ -176,4 +176,33 @@ class HttpClientKeepAliveInstrumentationSpec extends BaseHttpClientSpec {
     }
   }
 
+  def "request latencies can be tracked"() {
+    given:
+    otherApp {
+      get {
+        render "ok"
+      }
+    }
+    handlers {
+      get {
+        render poolingHttpClient.get(otherAppUrl()).map { it.body.text }
+      }
+    }
+
+    expect:
+    text == "ok"
+    text == "ok"
+
+    and:
+    with(poolingHttpClient.getHttpClientStats().latenciesPerHost[otherAppUrl().host]) {
+      poolWait.snapshot().count == 2
+      connect.snapshot().count == 1
+      tlsHandshake.snapshot().count == 0
+      timeToFirstByte.snapshot().count == 2
+      total.snapshot().count == 2
+      total.snapshot().max >= timeToFirstByte.snapshot().max
+      rejectedAcquireCount == 0
+    }
+  }
+
 }
@@ -0,0 +1,337 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ratpack.http.client
+
+import io.netty.buffer.ByteBuf
+import io.netty.buffer.UnpooledByteBufAllocator
+import ratpack.exec.Execution
+import ratpack.exec.util.ParallelBatch
+import ratpack.func.Action
+import ratpack.test.exec.ExecHarness
+import spock.lang.AutoCleanup
+import spock.util.concurrent.PollingConditions
+
+import java.time.Duration
+import java.util.concurrent.atomic.AtomicInteger
+
+class HttpClientResponseCacheSpec extends BaseHttpClientSpec {
+
+  @AutoCleanup
+  ExecHarness harness = ExecHarness.harness()
+
+  @AutoCleanup
+  HttpClient http
+
+  PollingConditions polling = new PollingConditions()
+
+  def requests = new AtomicInteger()
+
+  def setup() {
+    client({ }, { })
+  }
+
+  void client(Action<? super ResponseCacheSpec> cache, Action<? super HttpClientSpec> spec) {
+    http?.close()
+    http = HttpClient.of { spec.execute(it.execController(harness.controller).poolSize(4).responseCache(cache)) }
+  }
+
+  ReceivedResponse cachedGet(Map<String, String> headers = [:], String path = "") {
+    harness.yield {
+      http.get(otherAppUrl(path)) { spec -> headers.each { spec.headers.set(it.key, it.value) } }
+    }.valueOrThrow
+  }
+
+  static List<ByteBuf> cachedBuffers(HttpClient client) {
+    client.@responseCache.@entries.asMap().values().collect { it.@content } as List<ByteBuf>
+  }
+
+  def "fresh responses are served from the cache"() {
+    given:
+    otherApp {
+      get {
+        response.headers.set("Cache-Control", "max-age=60")
+        render "response ${requests.incrementAndGet()}"
+      }
+    }
+
+    when:
+    def first = cachedGet()
+    def second = cachedGet()
+
+    then:
+    first.body.text == "response 1"
+    second.body.text == "response 1"
+    second.headers.get("Cache-Control") == "max-age=60"
+    second.headers.get("Age") == "0"
+    requests.get() == 1
+  }
+
+  def "responses that may not be stored are not cached"() {
+    given:
+    otherApp {
+      get {
+        response.headers.set("Cache-Control", cacheControl)
+        render "response ${requests.incrementAndGet()}"
+      }
+    }
+
+    when:
+    cachedGet()
+    def second = cachedGet()
+
+    then:
+    second.body.text == "response 2"
+    requests.get() == 2
+
+    where:
+    cacheControl << ["no-store", "private, max-age=60", "max-age=0"]
+  }
+
+  def "requests that may not be served from the cache are sent"() {
+    given:
+    otherApp {
+      get {
+        response.headers.set("Cache-Control", "max-age=60")
+        render "response ${requests.incrementAndGet()}"
+      }
+    }
+
+    when:
+    cachedGet()
+    def second = cachedGet(headers)
+
+    then:
+    second.body.text == "response 2"
+    requests.get() == 2
+
+    where:
+    headers << [["Cache-Control": "no-store"], ["Cache-Control": "no-cache"], ["Authorization": "Basic Zm9vOmJhcg=="]]
+  }
+
+  def "stale responses are revalidated with their etag"() {
+    given:
+    def ifNoneMatch = []
+    otherApp {
+      get {
+        requests.incrementAndGet()
+        ifNoneMatch << request.headers.get("If-None-Match")
+        response.headers.set("Cache-Control", "no-cache")
+        response.headers.set("ETag", '"v1"')
+        if (request.headers.get("If-None-Match") == '"v1"') {
+          response.status(304).send()
+        } else {
+          render "content"
+        }
+      }
+    }
+
+    when:
+    def first = cachedGet()
+    def second = cachedGet()
+
+    then:
+    first.body.text == "content"
+    second.status.code == 200
+    second.body.text == "content"
+    requests.get() == 2
+    ifNoneMatch == [null, '"v1"']
+  }
+
+  def "responses are cached per value of the headers they vary on"() {
+    given:
+    otherApp {
+      get {
+        requests.incrementAndGet()
+        response.headers.set("Cache-Control", "max-age=60")
+        response.headers.set("Vary", "X-Variant")
+        render "variant ${request.headers.get("X-Variant")}"
+      }
+    }
+
+    expect:
+    cachedGet("X-Variant": "a").body.text == "variant a"
+    cachedGet("X-Variant": "b").body.text == "variant b"
+    cachedGet("X-Variant": "a").body.text == "variant a"
+    cachedGet("X-Variant": "b").body.text == "variant b"
+    requests.get() == 2
+  }
+
+  def "concurrent misses result in a single request"() {
+    given:
+    otherApp {
+      get {
+        requests.incrementAndGet()
+        Execution.sleep(Duration.ofMillis(500)).then {
+          response.headers.set("Cache-Control", "max-age=60")
+          render "content"
+        }
+      }
+    }
+
+    when:
+    def texts = harness.yield {
+      ParallelBatch.of((1..5).collect { http.get(otherAppUrl()).map { it.body.text } }).yield()
+    }.valueOrThrow
+
+    then:
+    texts == ["content"] * 5
+    requests.get() == 1
+  }
+
+  def "stale responses are served while being revalidated in the background"() {
+    given:
+    otherApp {
+      get {
+        response.headers.set("Cache-Control", "max-age=0, stale-while-revalidate=60")
+        render "response ${requests.incrementAndGet()}"
+      }
+    }
+
+    when:
+    cachedGet()
+    def second = cachedGet()
+
+    then:
+    second.body.text == "response 1"
+    polling.within(2) {
+      assert cachedGet().body.text != "response 1"
+    }
+  }
+
+  def "request interceptor is only applied to requests that are sent"() {
+    given:
+    def intercepted = new AtomicInteger()
+    client({ }, { it.requestIntercept { intercepted.incrementAndGet() } })
+    otherApp {
+      get {
+        response.headers.set("Cache-Control", "max-age=60")
+        render "response ${requests.incrementAndGet()}"
+      }
+    }
+
+    when:
+    cachedGet()
+
+    then:
+    intercepted.get() == 1
+
+    when:
+    def hit = cachedGet()
+
+    then:
+    hit.body.text == "response 1"
+    intercepted.get() == 1
+    requests.get() == 1
+  }
+
+  def "request body is only created for requests that are sent"() {
+    given:
+    def bodies = new AtomicInteger()
+    otherApp {
+      all {
+        response.headers.set("Cache-Control", "max-age=60")
+        request.body.then { render "response ${requests.incrementAndGet()}" }
+      }
+    }
+
+    when:
+    def response = harness.yield {
+      http.get(otherAppUrl()) { it.body.stream { bodies.incrementAndGet(); it << "body" } }
+    }.valueOrThrow
+
+    then:
+    response.body.text == "response 1"
+    bodies.get() == 1
+  }
+
+  def "responses can be cached off heap"() {
+    given:
+    client({ it.offHeap(true) }, { })
+    otherApp {
+      get {
+        response.headers.set("Cache-Control", "max-age=60")
+        render "response ${requests.incrementAndGet()}"
+      }
+    }
+
+    when:
+    cachedGet()
+    def second = cachedGet()
+
+    then:
+    second.body.text == "response 1"
+    requests.get() == 1
+    cachedBuffers(http)*.direct == [true]
+  }
+
+  def "responses are evicted and released beyond the max size"() {
+    given:
+    // Records the buffers the cache copies responses into, which are exactly the size of the response
+    List<ByteBuf> buffers = [].asSynchronized()
+    def allocator = new UnpooledByteBufAllocator(true) {
+      @Override
+      protected ByteBuf newDirectBuffer(int initialCapacity, int maxCapacity) {
+        def buffer = super.newDirectBuffer(initialCapacity, maxCapacity)
+        if (maxCapacity == 1000) {
+          buffers << buffer
+        }
+        buffer
+      }
+    }
+    client({ it.maxSize(3000).offHeap(true) }, { it.byteBufAllocator(allocator) })
+    otherApp {
+      get(":name") {
+        response.headers.set("Cache-Control", "max-age=60")
+        render pathTokens.name * 1000
+      }
+    }
+
+    when:
+    ["a", "b", "c"].each { cachedGet([:], it) }
+
+    then:
+    buffers.size() == 3
+    polling.eventually {
+      assert cachedBuffers(http).size() == 2
+      assert buffers.count { it.refCnt() == 0 } == 1
+    }
+  }
+
+  def "cached responses are released when the client is closed"() {
+    given:
+    otherApp {
+      get(":name") {
+        response.headers.set("Cache-Control", "max-age=60")
+        render "response ${pathTokens.name}"
+      }
+    }
+
+    when:
+    cachedGet([:], "a")
+    cachedGet([:], "b")
+    def buffers = cachedBuffers(http)
+    http.close()
+
+    then:
+    buffers.size() == 2
+    polling.eventually {
+      assert buffers*.refCnt() == [0, 0]
+    }
+  }
+
+}
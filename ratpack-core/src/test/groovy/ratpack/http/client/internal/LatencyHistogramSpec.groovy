@@ -0,0 +1,86 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.http.client.internal
+
+import ratpack.test.internal.BaseRatpackSpec
+
+class LatencyHistogramSpec extends BaseRatpackSpec {
+
+  def "buckets are contiguous"() {
+    expect:
+    (0..<959).every { LatencyHistogram.highestValue(it) + 1 == LatencyHistogram.highestValue(it + 1) - bucketWidth(it + 1) + 1 }
+    LatencyHistogram.highestValue(959) == Long.MAX_VALUE
+    [0L, 1L, 15L, 16L, 17L, 1000L, 123456789L, Long.MAX_VALUE].every {
+      def index = LatencyHistogram.index(it)
+      it <= LatencyHistogram.highestValue(index) && (index == 0 || it > LatencyHistogram.highestValue(index - 1))
+    }
+  }
+
+  def "percentiles are accurate to within the bucket width"() {
+    given:
+    def histogram = new LatencyHistogram()
+    (1..10000).each { histogram.record(it * 1000L) }
+
+    when:
+    def snapshot = histogram.snapshot()
+
+    then:
+    snapshot.count == 10000
+    snapshot.mean == 5000500
+    within(snapshot.getValueAtPercentile(50), 5000000)
+    within(snapshot.getValueAtPercentile(99), 9900000)
+    within(snapshot.max, 10000000)
+  }
+
+  def "snapshots can be taken for an interval"() {
+    given:
+    def histogram = new LatencyHistogram()
+    histogram.record(1000000)
+    def first = histogram.snapshot()
+    histogram.record(10)
+    histogram.record(20)
+
+    when:
+    def interval = histogram.snapshot().since(first)
+
+    then:
+    interval.count == 2
+    interval.mean == 15
+    interval.max == 20
+    interval.getValueAtPercentile(50) == 10
+  }
+
+  def "empty snapshots have zero values"() {
+    when:
+    def snapshot = new LatencyHistogram().snapshot()
+
+    then:
+    snapshot.count == 0
+    snapshot.mean == 0
+    snapshot.max == 0
+    snapshot.getValueAtPercentile(99) == 0
+  }
+
+  private static long bucketWidth(int index) {
+    index < 32 ? 1 : 1L << (index.intdiv(16) - 1)
+  }
+
+  private static boolean within(long actual, long expected) {
+    Math.abs(actual - expected) <= expected / 16
+  }
+
+}
@@ -18,6 +18,7 @@ package ratpack.jackson
 
 import com.fasterxml.jackson.annotation.JsonView
 import com.fasterxml.jackson.databind.ObjectMapper
+import com.fasterxml.jackson.databind.SerializationFeature
 import com.google.common.base.StandardSystemProperty
 import groovy.transform.Canonical
 import ratpack.stream.Streams
@@ -172,4 +173,85 @@ class JacksonRenderingSpec extends RatpackGroovyDslSpec {
     text == '{"open":"foo"}'
   }
 
+  def "views of the same type are rendered independently"() {
+    when:
+    handlers {
+      get(":view?") {
+        def view = [public: Views.Public, secret: Views.Secret][pathTokens.view]
+        render json(new Model("foo", "bar"), (Class) view)
+      }
+    }
+
+    then:
+    getText("public") == '{"open":"foo"}'
+    getText("secret") == '{"open":"foo","secret":"bar"}'
+    getText() == '{"open":"foo","secret":"bar"}'
+    getText("public") == '{"open":"foo"}'
+  }
+
+  def "can render objects of varying size"() {
+    when:
+    handlers {
+      get(":size") {
+        render json(new User(username: "a" * pathTokens.size.toInteger(), password: "b"))
+      }
+    }
+
+    then:
+    [10, 100_000, 10, 1_000_000, 500].each {
+      assert getText(it.toString()) == /{"username":"${"a" * it}","password":"b"}/
+    }
+  }
+
+  def "mapper configuration changes are used by subsequent renders"() {
+    given:
+    def mapper = new ObjectMapper()
+
+    when:
+    handlers {
+      register { add(ObjectMapper, mapper) }
+      get {
+        render json([a: 1])
+      }
+    }
+
+    then:
+    text == '{"a":1}'
+
+    when:
+    mapper.enable(SerializationFeature.INDENT_OUTPUT)
+
+    then:
+    text.contains("\n")
+  }
+
+  def "can stream list in batches"() {
+    given:
+    def data = (1..1000).collect { [id: it] }
+
+    when:
+    handlers {
+      get(":batchSize") {
+        render chunkedJsonList(context, Streams.publish(data), pathTokens.batchSize.toInteger())
+      }
+    }
+
+    then:
+    ["1", "100", "8192", "1000000"].each {
+      assert getText(it) == "[" + data.collect { /{"id":${it.id}}/ }.join(",") + "]"
+    }
+  }
+
+  def "can stream empty list in batches"() {
+    when:
+    handlers {
+      get {
+        render chunkedJsonList(context, Streams.publish([]), 8192)
+      }
+    }
+
+    then:
+    text == "[]"
+  }
+
 }
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.jackson
+
+import com.fasterxml.jackson.core.JsonParseException
+import com.fasterxml.jackson.databind.JsonNode
+import ratpack.http.client.RequestSpec
+import ratpack.test.internal.RatpackGroovyDslSpec
+import spock.lang.Unroll
+
+import static ratpack.util.Types.listOf
+
+class JacksonStreamParsingSpec extends RatpackGroovyDslSpec {
+
+  static class Person {
+    String name
+  }
+
+  void json(String body) {
+    requestSpec { RequestSpec requestSpec ->
+      requestSpec.body.type("application/json").text(body)
+    }
+  }
+
+  def "can stream array elements"() {
+    given:
+    handlers {
+      post {
+        Jackson.fromJsonStream(context, Person).map { it.name }.toList().then {
+          render it.join(",")
+        }
+      }
+    }
+
+    when:
+    json '[{"name": "a"}, {"name": "b"}, {"name": "c"}]'
+
+    then:
+    postText() == "a,b,c"
+  }
+
+  def "can stream large arrays split across many chunks"() {
+    given:
+    def count = 10_000
+    handlers {
+      post {
+        Jackson.fromJsonStream(context, JsonNode).reduce(0) { total, node -> total + node.get("name").asText().length() }.then {
+          render it.toString()
+        }
+      }
+    }
+
+    when:
+    json "[" + (1..count).collect { /{"name": "${"a" * 10}", "nested": {"values": [1, [2], {"3": 4}]}}/ }.join(",") + "]"
+
+    then:
+    postText() == (count * 10).toString()
+  }
+
+  @Unroll
+  def "can stream top level values from #body"() {
+    given:
+    handlers {
+      post {
+        Jackson.fromJsonStream(context, JsonNode).toList().then {
+          render it.toString()
+        }
+      }
+    }
+
+    when:
+    json body
+
+    then:
+    postText() == expected
+
+    where:
+    body                  | expected
+    '{"a": 1}'            | '[{"a":1}]'
+    '{"a": 1} {"a": 2}'   | '[{"a":1}, {"a":2}]'
+    '1 2 3'               | '[1, 2, 3]'
+    '[[1, 2], [3]]'       | '[[1,2], [3]]'
+    '[1, null, 2]'        | '[1, 2]'
+    'null 1 null'         | '[1]'
+    '[[1, null], null]'   | '[[1,null]]'
+    '[{"a": null}]'       | '[{"a":null}]'
+    '[]'                  | '[]'
+    ''                    | '[]'
+  }
+
+  def "can stream generic types"() {
+    given:
+    handlers {
+      post {
+        Jackson.fromJsonStream(context, listOf(Integer)).map { it.sum() }.toList().then {
+          render it.toString()
+        }
+      }
+    }
+
+    when:
+    json '[[1, 2], [3, 4]]'
+
+    then:
+    postText() == "[3, 7]"
+  }
+
+  @Unroll
+  def "malformed json '#body' is an error"() {
+    given:
+    handlers {
+      post {
+        Jackson.fromJsonStream(context, JsonNode).toList().onError {
+          render it.class.name
+        } then {
+          render "ok"
+        }
+      }
+    }
+
+    when:
+    json body
+
+    then:
+    postText() == JsonParseException.name
+
+    where:
+    body << ['[1, 2', '[{"a": }]', '{"a": 1']
+  }
+
+}
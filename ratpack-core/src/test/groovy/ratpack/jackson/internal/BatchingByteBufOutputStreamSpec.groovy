@@ -0,0 +1,107 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.jackson.internal
+
+import io.netty.buffer.ByteBuf
+import io.netty.buffer.UnpooledByteBufAllocator
+import ratpack.stream.WriteStream
+import spock.lang.Specification
+
+import java.nio.charset.StandardCharsets
+
+class BatchingByteBufOutputStreamSpec extends Specification {
+
+  List<ByteBuf> items = []
+  WriteStream<ByteBuf> out = [item: { items << it }, error: {}, complete: {}] as WriteStream<ByteBuf>
+
+  def cleanup() {
+    items*.release()
+  }
+
+  List<String> emitted() {
+    items.collect { it.toString(StandardCharsets.UTF_8) }
+  }
+
+  def "emits a buffer once the batch size is reached"() {
+    given:
+    def stream = new BatchingByteBufOutputStream(UnpooledByteBufAllocator.DEFAULT, 10, out)
+
+    when:
+    5.times { stream.write("abc".bytes) }
+
+    then:
+    emitted() == ["abcabcabcabc"]
+
+    when:
+    2.times { stream.write("abc".bytes) }
+    stream.emit()
+
+    then:
+    emitted() == ["abcabcabcabc", "abcabcabc"]
+  }
+
+  def "emits each write with a batch size of 1"() {
+    given:
+    def stream = new BatchingByteBufOutputStream(UnpooledByteBufAllocator.DEFAULT, 1, out)
+
+    when:
+    stream.write("ab".bytes)
+    stream.write((int) ('c' as char))
+    stream.emit()
+
+    then:
+    emitted() == ["ab", "c"]
+  }
+
+  def "does not emit nothing"() {
+    given:
+    def stream = new BatchingByteBufOutputStream(UnpooledByteBufAllocator.DEFAULT, 10, out)
+
+    when:
+    stream.emit()
+
+    then:
+    items.empty
+  }
+
+  def "does not reserve large batch sizes up front"() {
+    given:
+    def stream = new BatchingByteBufOutputStream(UnpooledByteBufAllocator.DEFAULT, 1024 * 1024, out)
+
+    when:
+    stream.write("abc".bytes)
+    stream.emit()
+
+    then:
+    emitted() == ["abc"]
+    items[0].capacity() < 1024 * 1024
+  }
+
+  def "discards accumulated bytes"() {
+    given:
+    def stream = new BatchingByteBufOutputStream(UnpooledByteBufAllocator.DEFAULT, 10, out)
+
+    when:
+    stream.write("abc".bytes)
+    stream.discard()
+    stream.emit()
+
+    then:
+    items.empty
+  }
+
+}
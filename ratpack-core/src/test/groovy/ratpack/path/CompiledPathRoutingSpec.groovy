@@ -0,0 +1,111 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.path
+
+import ratpack.test.internal.RatpackGroovyDslSpec
+
+import static io.netty.handler.codec.http.HttpResponseStatus.METHOD_NOT_ALLOWED
+import static io.netty.handler.codec.http.HttpResponseStatus.NOT_FOUND
+
+class CompiledPathRoutingSpec extends RatpackGroovyDslSpec {
+
+  def setup() {
+    serverConfig {
+      compiledRouting true
+    }
+  }
+
+  def "can route by exact path with tokens"() {
+    when:
+    handlers {
+      get("users") { render "users" }
+      get("users/:id") { render "user ${pathTokens.id}" }
+      get("users/:id/posts/:post?") { render "posts ${pathTokens.id} ${pathTokens.post}" }
+      get("users/new") { render "new" }
+    }
+
+    then:
+    getText("users") == "users"
+    getText("users/1") == "user 1"
+    getText("users/a%20b") == "user a b"
+    getText("users/1/posts") == "posts 1 null"
+    getText("users/1/posts/2") == "posts 1 2"
+    getText("users/new") == "user new"
+    get("users/1/other").statusCode == NOT_FOUND.code()
+    get("other").statusCode == NOT_FOUND.code()
+  }
+
+  def "can route by prefix"() {
+    when:
+    handlers {
+      prefix("api/:version") {
+        get("items/:id") { render "${pathTokens.version} ${pathTokens.id}" }
+        get("items") { render "items ${allPathTokens.version}" }
+      }
+      prefix("api") {
+        all { render "api ${pathBinding.pastBinding}" }
+      }
+    }
+
+    then:
+    getText("api/v1/items/2") == "v1 2"
+    getText("api/v1/items") == "items v1"
+    getText("api/v1/other") == "api v1/other"
+    getText("api") == "api "
+  }
+
+  def "falls through to later matching routes"() {
+    when:
+    handlers {
+      path("a/:b") { next() }
+      path("a/b") { render "literal ${pathBinding.boundTo}" }
+      path(":a/:b") { render "tokens" }
+    }
+
+    then:
+    getText("a/b") == "literal a/b"
+    getText("a/c") == "tokens"
+    getText("c/d") == "tokens"
+  }
+
+  def "responds with method not allowed"() {
+    when:
+    handlers {
+      get("a") { render "a" }
+      get("b") { render "b" }
+    }
+
+    then:
+    getText("a") == "a"
+    post("a").statusCode == METHOD_NOT_ALLOWED.code()
+    get("c").statusCode == NOT_FOUND.code()
+  }
+
+  def "leading slashes in the path are matched as-is after skipping the first"() {
+    when:
+    handlers {
+      get("bar") { render "0" }
+      get(":a") { render "a=${pathTokens.a}" }
+    }
+
+    then:
+    new URL("${applicationUnderTest.address}bar").text == "0"
+    new URL("${applicationUnderTest.address}baz").text == "a=baz"
+    new URL("${applicationUnderTest.address}/bar").text == "a=bar"
+  }
+
+}
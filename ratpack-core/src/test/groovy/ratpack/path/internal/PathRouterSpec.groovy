@@ -0,0 +1,113 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.path.internal
+
+import ratpack.handling.Context
+import ratpack.handling.Handler
+import ratpack.handling.Handlers
+import ratpack.path.PathBinder
+import ratpack.path.PathBinding
+import ratpack.test.internal.BaseRatpackSpec
+
+class PathRouterSpec extends BaseRatpackSpec {
+
+  static final Handler NOOP = { Context ctx -> ctx.next() } as Handler
+
+  static final List<String> PATTERNS = [
+    "", "a", "a/b", "a/b/c", "ab", "a/:b", "a/:b/c", "a/:b/:c", ":a", ":a/b", ":a/:b",
+    ":a?", ":a/:b?", ":a/:b?/:c?", "a/:b?", "a/:b?/:c?", "a/b/:c?", ":a/b/:c/d", "a/:b/c/:d?",
+    "a.b", "a:b", "café/:b"
+  ]
+
+  static final List<String> PATHS = [
+    "", "/", "a", "a/", "a//", "ab", "a/b", "a/b/", "a/b/c", "a/b/c/", "a/b/c/d", "a/x/c", "a/x/c/d", "a/x/c/d/",
+    "x", "x/", "x/b", "x/b/c", "x/b/c/d", "x/y/z", "a/x?y", "a/x?y/c", "x#y", "a&b/c", "a/%20b", "a/x+y",
+    "a//c", "a/b//", "//a", "/a", "/a/b", "/b/c", "a.b", "axb", "a:b", "café/b", "a/b/c/d/e/f"
+  ]
+
+  def "compiled routing binds as path handlers do"() {
+    given:
+    def binders = PATTERNS.collectMany { [PathBinder.parse(it, true), PathBinder.parse(it, false)] }
+    def router = compile(binders.collect { Handlers.path(it, NOOP) })
+
+    expect:
+    PATHS.each { path ->
+      def parent = new RootPathBinding(path)
+      def expected = binders.collect { it.bind(parent).orElse(null) }.findAll { it != null }
+      def actual = router.match(parent)*.binding
+      assert describe(actual) == describe(expected), "path: '$path'"
+    }
+  }
+
+  def "compiled routing binds nested paths as path handlers do"() {
+    given:
+    def binders = PATTERNS.collect { PathBinder.parse(it, true) }
+    def router = compile(binders.collect { Handlers.path(it, NOOP) })
+    def parent = PathBinder.parse(":id", false).bind(new RootPathBinding("1/a/b")).get()
+
+    expect:
+    describe(router.match(parent)*.binding) == describe(binders.collect { it.bind(parent).orElse(null) }.findAll { it != null })
+    router.match(parent)*.binding.first().allTokens == [id: "1"]
+  }
+
+  def "only runs of routable path handlers are compiled"() {
+    given:
+    def other = NOOP
+    def handlers = [
+      Handlers.path("a", NOOP),
+      Handlers.path("b", NOOP),
+      other,
+      Handlers.path("c", NOOP),
+      other,
+      Handlers.path("d", NOOP),
+      Handlers.path("e/:f:\\d+", NOOP),
+      Handlers.path("g", NOOP)
+    ]
+
+    when:
+    def compiled = PathRouter.compile(handlers)
+
+    then:
+    compiled.size() == 7
+    compiled[0] instanceof PathRouter
+    compiled[1].is(other)
+    compiled[2].is(handlers[3])
+    compiled[3].is(other)
+    compiled[4].is(handlers[5])
+    compiled[5].is(handlers[6])
+    compiled[6].is(handlers[7])
+  }
+
+  def "binders with patterns or unaligned literals are not routable"() {
+    expect:
+    (PathBinder.parse(pattern, true) as TokenPathBinder).routablePath == null
+
+    where:
+    pattern << ["::a.*", "a/:b:\\d+", "a/:b?:\\d+", "a/:b?/c", "a/", "a//b", ":a/"]
+  }
+
+  private static PathRouter compile(List<Handler> handlers) {
+    def compiled = PathRouter.compile(handlers)
+    assert compiled.size() == 1
+    compiled[0] as PathRouter
+  }
+
+  private static List<String> describe(List<PathBinding> bindings) {
+    bindings.collect { "$it.description -> '$it.boundTo' '$it.pastBinding' $it.tokens".toString() }
+  }
+
+}
@@ -0,0 +1,278 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.server
+
+import io.netty.bootstrap.Bootstrap
+import io.netty.buffer.ByteBufAllocator
+import io.netty.channel.Channel
+import io.netty.channel.ChannelHandlerContext
+import io.netty.channel.ChannelInitializer
+import io.netty.channel.SimpleChannelInboundHandler
+import io.netty.channel.nio.NioEventLoopGroup
+import io.netty.channel.socket.nio.NioSocketChannel
+import io.netty.handler.codec.http.DefaultFullHttpRequest
+import io.netty.handler.codec.http.FullHttpResponse
+import io.netty.handler.codec.http.HttpHeaderNames
+import io.netty.handler.codec.http.HttpMethod
+import io.netty.handler.codec.http.HttpObjectAggregator
+import io.netty.handler.codec.http.HttpVersion
+import io.netty.handler.codec.http2.Http2FrameCodecBuilder
+import io.netty.handler.codec.http2.Http2MultiplexHandler
+import io.netty.handler.codec.http2.Http2StreamChannel
+import io.netty.handler.codec.http2.Http2StreamChannelBootstrap
+import io.netty.handler.codec.http2.Http2StreamFrameToHttpObjectCodec
+import io.netty.handler.codec.http2.HttpConversionUtil
+import io.netty.handler.ssl.ApplicationProtocolConfig
+import io.netty.handler.ssl.ApplicationProtocolNames
+import io.netty.handler.ssl.SslContext
+import io.netty.handler.ssl.SslContextBuilder
+import io.netty.handler.ssl.util.SelfSignedCertificate
+import io.netty.util.CharsetUtil
+import ratpack.test.internal.RatpackGroovyDslSpec
+import spock.lang.Shared
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.TimeUnit
+
+class Http2Spec extends RatpackGroovyDslSpec {
+
+  // The type of the first HTTP/2 frame sent by a server, its SETTINGS
+  private static final int SETTINGS_FRAME_TYPE = 0x4
+
+  @Shared
+  SelfSignedCertificate cert = new SelfSignedCertificate("localhost")
+
+  def cleanupSpec() {
+    cert.delete()
+  }
+
+  static ApplicationProtocolConfig alpn(String... protocols) {
+    new ApplicationProtocolConfig(
+      ApplicationProtocolConfig.Protocol.ALPN,
+      ApplicationProtocolConfig.SelectorFailureBehavior.NO_ADVERTISE,
+      ApplicationProtocolConfig.SelectedListenerFailureBehavior.ACCEPT,
+      protocols
+    )
+  }
+
+  SslContext serverContext() {
+    SslContextBuilder.forServer(cert.certificate(), cert.privateKey())
+      .applicationProtocolConfig(alpn(ApplicationProtocolNames.HTTP_2, ApplicationProtocolNames.HTTP_1_1))
+      .build()
+  }
+
+  String negotiatedProtocol(String... protocols) {
+    def group = new NioEventLoopGroup(1)
+    try {
+      def clientContext = SslContextBuilder.forClient()
+        .trustManager(cert.cert())
+        .applicationProtocolConfig(alpn(protocols))
+        .build()
+      def sslHandler = clientContext.newHandler(ByteBufAllocator.DEFAULT, application.address.host, application.address.port)
+      def channel = new Bootstrap()
+        .group(group)
+        .channel(NioSocketChannel)
+        .handler(sslHandler)
+        .connect(application.address.host, application.address.port)
+        .sync()
+        .channel()
+      sslHandler.handshakeFuture().sync()
+      def protocol = sslHandler.applicationProtocol()
+      channel.close().sync()
+      protocol
+    } finally {
+      group.shutdownGracefully()
+    }
+  }
+
+  def "http/1.1 requests are served when http2 is enabled"() {
+    when:
+    serverConfig {
+      http2 true
+    }
+    handlers {
+      get {
+        render "ok"
+      }
+    }
+
+    then:
+    text == "ok"
+    text == "ok"
+  }
+
+  def "can upgrade cleartext connection to http2"() {
+    given:
+    def streamChannel = new LinkedBlockingQueue<Boolean>()
+
+    when:
+    serverConfig {
+      http2 true
+    }
+    handlers {
+      get {
+        streamChannel.put(directChannelAccess.channel instanceof Http2StreamChannel)
+        render "ok"
+      }
+    }
+
+    def socket = withSocket {
+      write("GET / HTTP/1.1\r\n")
+      write("Host: localhost\r\n")
+      write("Connection: Upgrade, HTTP2-Settings\r\n")
+      write("Upgrade: h2c\r\n")
+      write("HTTP2-Settings: AAMAAABkAARAAAAAAAIAAAAA\r\n")
+      write("\r\n")
+      flush()
+    }
+
+    def input = new DataInputStream(socket.inputStream)
+
+    then:
+    readHead(input).startsWith("HTTP/1.1 101 Switching Protocols\r\n")
+
+    and: "the server continues with HTTP/2 frames, and serves the upgraded request as stream 1"
+    def frameHeader = new byte[9]
+    input.readFully(frameHeader)
+    frameHeader[3] == SETTINGS_FRAME_TYPE
+    streamChannel.poll(10, TimeUnit.SECONDS)
+
+    cleanup:
+    socket?.close()
+  }
+
+  def "negotiates http2 via ALPN over TLS"() {
+    when:
+    serverConfig {
+      http2 true
+      ssl serverContext()
+    }
+    handlers {
+      get {
+        render "ok"
+      }
+    }
+
+    then:
+    negotiatedProtocol(ApplicationProtocolNames.HTTP_2, ApplicationProtocolNames.HTTP_1_1) == ApplicationProtocolNames.HTTP_2
+  }
+
+  def "falls back to http/1.1 over TLS when the client does not offer http2"() {
+    when:
+    serverConfig {
+      http2 true
+      ssl serverContext()
+    }
+    handlers {
+      get {
+        render "${directChannelAccess.channel instanceof Http2StreamChannel}"
+      }
+    }
+
+    then:
+    negotiatedProtocol(ApplicationProtocolNames.HTTP_1_1) == ApplicationProtocolNames.HTTP_1_1
+
+    and: "clients that do not use ALPN are served HTTP/1.1"
+    requestSpec { it.sslContext(SslContextBuilder.forClient().trustManager(cert.cert()).build()) }
+    text == "false"
+  }
+
+  def "can serve concurrent streams over a single connection with prior knowledge"() {
+    given:
+    def group = new NioEventLoopGroup(1)
+    def responses = new ConcurrentHashMap<String, String>()
+    def latch = new CountDownLatch(3)
+
+    when:
+    serverConfig {
+      http2 true
+    }
+    handlers {
+      get(":id") {
+        def channel = directChannelAccess.channel
+        render "${pathTokens.id}:${channel instanceof Http2StreamChannel}:${channel.parent().id().asLongText()}"
+      }
+    }
+
+    def connection = new Bootstrap()
+      .group(group)
+      .channel(NioSocketChannel)
+      .handler(new ChannelInitializer<Channel>() {
+        @Override
+        protected void initChannel(Channel ch) {
+          ch.pipeline().addLast(Http2FrameCodecBuilder.forClient().build(), new Http2MultiplexHandler(new SimpleChannelInboundHandler<Object>() {
+            @Override
+            protected void channelRead0(ChannelHandlerContext ctx, Object msg) {
+            }
+          }))
+        }
+      })
+      .connect(application.address.host, application.address.port)
+      .sync()
+      .channel()
+
+    (1..3).each { i ->
+      def stream = new Http2StreamChannelBootstrap(connection)
+        .handler(new ChannelInitializer<Http2StreamChannel>() {
+          @Override
+          protected void initChannel(Http2StreamChannel ch) {
+            ch.pipeline().addLast(new Http2StreamFrameToHttpObjectCodec(false), new HttpObjectAggregator(1024), new SimpleChannelInboundHandler<FullHttpResponse>() {
+              @Override
+              protected void channelRead0(ChannelHandlerContext ctx, FullHttpResponse msg) {
+                responses.put(i.toString(), msg.content().toString(CharsetUtil.UTF_8))
+                latch.countDown()
+              }
+            })
+          }
+        })
+        .open()
+        .sync()
+        .getNow()
+
+      def request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/$i")
+      request.headers().set(HttpHeaderNames.HOST, "localhost")
+      request.headers().set(HttpConversionUtil.ExtensionHeaderNames.SCHEME.text(), "http")
+      stream.writeAndFlush(request)
+    }
+
+    then:
+    latch.await(10, TimeUnit.SECONDS)
+    responses.size() == 3
+    responses.every { id, body -> body.startsWith("$id:true:") }
+    responses.values()*.split(":")*.getAt(2).unique().size() == 1
+
+    cleanup:
+    group.shutdownGracefully()
+  }
+
+  private static String readHead(InputStream input) {
+    def head = new ByteArrayOutputStream()
+    def last = 0
+    while (last != 0x0d0a0d0a) {
+      int b = input.read()
+      if (b < 0) {
+        throw new EOFException("connection closed before the end of the response head")
+      }
+      head.write(b)
+      last = (last << 8) | b
+    }
+    head.toString(CharsetUtil.US_ASCII.name())
+  }
+
+}
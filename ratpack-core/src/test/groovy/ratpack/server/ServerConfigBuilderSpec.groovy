@@ -21,6 +21,7 @@ import ratpack.test.internal.BaseRatpackSpec
 
 import javax.net.ssl.SSLContext
 import java.nio.file.Paths
+import java.time.Duration
 
 class ServerConfigBuilderSpec extends BaseRatpackSpec {
 
@@ -220,4 +221,91 @@ class ServerConfigBuilderSpec extends BaseRatpackSpec {
     expect:
     builder.portFile(Paths.get("test_port_file.txt")).build().portFile.get().toString() == "test_port_file.txt"
   }
+
+  def "new builder has http2 disabled"() {
+    expect:
+    !builder.build().http2
+  }
+
+  def "set http2"() {
+    expect:
+    builder.http2(true).build().http2
+  }
+
+  def "new builder has compiled routing disabled"() {
+    expect:
+    !builder.build().compiledRouting
+  }
+
+  def "set compiled routing"() {
+    expect:
+    builder.compiledRouting(true).build().compiledRouting
+  }
+
+  def "new builder has virtual blocking threads disabled"() {
+    expect:
+    !builder.build().virtualBlockingThreads
+    builder.build().virtualBlockingThreadCarriers == 0
+  }
+
+  def "set virtual blocking threads"() {
+    expect:
+    builder.virtualBlockingThreads(true).build().virtualBlockingThreads
+    builder.virtualBlockingThreadCarriers(4).build().virtualBlockingThreadCarriers == 4
+  }
+
+  def "virtual blocking thread carriers must be positive"() {
+    when:
+    builder.virtualBlockingThreadCarriers(0)
+
+    then:
+    thrown IllegalArgumentException
+  }
+
+  def "new builder has no blocking pools"() {
+    expect:
+    builder.build().blockingPools.isEmpty()
+  }
+
+  def "set blocking pools"() {
+    when:
+    def config = builder
+      .blockingPool("jdbc") { it.maxThreads = 10; it.queueSize = 100 }
+      .blockingPool("default") { it.coreThreads = 2 }
+      .build()
+
+    then:
+    config.blockingPools.keySet() == ["jdbc", "default"] as Set
+    config.blockingPools.jdbc.maxThreads == 10
+    config.blockingPools.jdbc.queueSize == 100
+    config.blockingPools.default.coreThreads == 2
+    config.blockingPools.default.maxThreads == Integer.MAX_VALUE
+  }
+
+  def "flush consolidation is not enabled by default"() {
+    expect:
+    !builder.build().flushConsolidation.present
+  }
+
+  def "enable flush consolidation"() {
+    when:
+    def config = builder
+      .flushConsolidation { it.maxItems = 10; it.maxDelay = Duration.ofMillis(5) }
+      .build()
+
+    then:
+    config.flushConsolidation.get().maxItems == 10
+    config.flushConsolidation.get().maxBytes == 32 * 1024
+    config.flushConsolidation.get().maxDelay == Duration.ofMillis(5)
+  }
+
+  def "new builder has response recycling disabled"() {
+    expect:
+    !builder.build().recycleResponses
+  }
+
+  def "set response recycling"() {
+    expect:
+    builder.recycleResponses(true).build().recycleResponses
+  }
 }
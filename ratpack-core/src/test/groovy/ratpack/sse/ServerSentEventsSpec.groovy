@@ -23,6 +23,7 @@ import ratpack.stream.TransformablePublisher
 
 import java.time.Duration
 import java.util.concurrent.CountDownLatch
+import java.util.concurrent.atomic.AtomicInteger
 import java.util.zip.GZIPInputStream
 
 import static io.netty.handler.codec.http.HttpResponseStatus.OK
@@ -206,4 +207,44 @@ data: Event 3
     getText() == "Event 0Event 1Event 2Event 3Event 4Event 5Event 6Event 7Event 8Event 9"
   }
 
+  def "can send encoded events to many streams"() {
+    given:
+    def encodings = new AtomicInteger()
+    def events = (1..3).collect { i ->
+      ServerSentEvents.encode(i) {
+        encodings.incrementAndGet()
+        it.id(i.toString()).data("Event $i".toString())
+      }
+    }
+
+    and:
+    handlers {
+      all {
+        render serverSentEvents(publish(events))
+      }
+    }
+
+    when:
+    def texts = (1..3).collect { getText() }
+
+    then:
+    texts.every { it == "id: 1\ndata: Event 1\n\nid: 2\ndata: Event 2\n\nid: 3\ndata: Event 3\n\n" }
+    encodings.get() == 3
+  }
+
+  def "can batch server sent events"() {
+    given:
+    handlers {
+      all {
+        def events = serverSentEvents(publish(1..100)) {
+          it.id(it.item.toString()).data("Event ${it.item}".toString())
+        }
+        render events.batching(8)
+      }
+    }
+
+    expect:
+    getText() == (1..100).collect { "id: $it\ndata: Event $it\n\n" }.join("")
+  }
+
 }
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.sse.internal
+
+import io.netty.buffer.ByteBuf
+import io.netty.buffer.ByteBufAllocator
+import io.netty.buffer.Unpooled
+import io.netty.util.CharsetUtil
+import org.reactivestreams.Subscriber
+import org.reactivestreams.Subscription
+import ratpack.stream.Streams
+import ratpack.test.internal.BaseRatpackSpec
+
+class EventBatchingPublisherSpec extends BaseRatpackSpec {
+
+  List<String> received = []
+  boolean complete
+  Subscription subscription
+
+  Subscriber<ByteBuf> subscriber = new Subscriber<ByteBuf>() {
+    @Override
+    void onSubscribe(Subscription s) {
+      subscription = s
+    }
+
+    @Override
+    void onNext(ByteBuf byteBuf) {
+      received << byteBuf.toString(CharsetUtil.UTF_8)
+      byteBuf.release()
+    }
+
+    @Override
+    void onError(Throwable t) {
+      throw t
+    }
+
+    @Override
+    void onComplete() {
+      complete = true
+    }
+  }
+
+  static List<ByteBuf> buffers(List<String> strings) {
+    strings.collect { Unpooled.copiedBuffer(it, CharsetUtil.UTF_8) }
+  }
+
+  def "combines events that are available into one buffer"() {
+    given:
+    def publisher = new EventBatchingPublisher(Streams.publish(buffers(["a", "b", "c", "d", "e"])), ByteBufAllocator.DEFAULT, 2)
+    publisher.subscribe(subscriber)
+
+    when:
+    subscription.request(1)
+
+    then:
+    received == ["ab"]
+
+    when:
+    subscription.request(2)
+
+    then:
+    received == ["ab", "cd", "e"]
+    complete
+  }
+
+  Subscriber<? super ByteBuf> upstream
+  long upstreamRequested
+  boolean upstreamCancelled
+
+  EventBatchingPublisher manual(int maxEvents) {
+    new EventBatchingPublisher({ Subscriber<? super ByteBuf> s ->
+      upstream = s
+      s.onSubscribe(new Subscription() {
+        @Override
+        void request(long n) {
+          upstreamRequested += n
+        }
+
+        @Override
+        void cancel() {
+          upstreamCancelled = true
+        }
+      })
+    }, ByteBufAllocator.DEFAULT, maxEvents)
+  }
+
+  def "emits events that arrive while there is demand immediately"() {
+    given:
+    manual(4).subscribe(subscriber)
+
+    when:
+    subscription.request(1)
+
+    then:
+    upstreamRequested == 4
+    received.empty
+
+    when:
+    upstream.onNext(Unpooled.copiedBuffer("a", CharsetUtil.UTF_8))
+
+    then:
+    received == ["a"]
+
+    when:
+    upstream.onNext(Unpooled.copiedBuffer("b", CharsetUtil.UTF_8))
+    upstream.onNext(Unpooled.copiedBuffer("c", CharsetUtil.UTF_8))
+    subscription.request(1)
+
+    then:
+    received == ["a", "bc"]
+    upstreamRequested == 4
+  }
+
+  def "releases pending events when cancelled"() {
+    given:
+    manual(4).subscribe(subscriber)
+    def pending = Unpooled.copiedBuffer("a", CharsetUtil.UTF_8)
+
+    when:
+    subscription.request(1)
+    upstream.onNext(Unpooled.copiedBuffer("a", CharsetUtil.UTF_8))
+    upstream.onNext(pending)
+    subscription.cancel()
+
+    then:
+    received == ["a"]
+    pending.refCnt() == 0
+    upstreamCancelled
+  }
+
+}
@@ -80,6 +80,42 @@ class ServerSentEventStreamEncoderSpec extends RatpackGroovyDslSpec {
     thrown IllegalArgumentException
   }
 
+  def "encoded events are encoded the same as events"() {
+    given:
+    def encoded = ServerSentEvents.encode("foo") { it.id("fooId").comment("a\ncomment").data("foo\nbar") }
+
+    when:
+    def byteBuf = encoder.encode(encoded, ByteBufAllocator.DEFAULT)
+    def string = byteBuf.toString(CharsetUtil.UTF_8)
+    byteBuf.release()
+
+    then:
+    string == ": a\n: comment\nid: fooId\ndata: foo\ndata: bar\n\n"
+    encoded.item == "foo"
+    encoded.id == "fooId"
+    encoded.data == "foo\nbar"
+  }
+
+  def "encoded events are immutable"() {
+    given:
+    def encoded = ServerSentEvents.encode("foo") { it.data("foo") }
+
+    when:
+    encoded.data("bar")
+
+    then:
+    thrown UnsupportedOperationException
+    encoded.data == "foo"
+  }
+
+  def "encoded events must have a value"() {
+    when:
+    ServerSentEvents.encode("foo") {}
+
+    then:
+    thrown IllegalArgumentException
+  }
+
   public <T> Event serverSentEvent(T t, Action<? super Event> action) {
     toList(ServerSentEvents.serverSentEvents(Streams.publish([t]), action).publisher).get(0)
   }
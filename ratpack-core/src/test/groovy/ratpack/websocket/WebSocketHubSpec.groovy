@@ -0,0 +1,111 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.websocket
+
+import ratpack.func.Function
+import ratpack.test.internal.RatpackGroovyDslSpec
+import spock.util.concurrent.PollingConditions
+
+import java.util.concurrent.TimeUnit
+
+class WebSocketHubSpec extends RatpackGroovyDslSpec {
+
+  WebSocketHub hub = WebSockets.hub()
+  List<RecordingWebSocketClient> clients = []
+
+  def setup() {
+    handlers {
+      get("ws") {
+        WebSockets.websocket(context, { hub.join(it); null } as Function).connect {}
+      }
+      get("broadcast") {
+        hub.broadcast(request.queryParams.text)
+        render "ok"
+      }
+    }
+  }
+
+  def cleanup() {
+    clients*.closeBlocking()
+  }
+
+  RecordingWebSocketClient connect() {
+    def client = new RecordingWebSocketClient(new URI("ws://localhost:$server.bindPort/ws"))
+    clients << client
+    assert client.connectBlocking()
+    client
+  }
+
+  def "broadcasts to all websockets"() {
+    given:
+    server.start()
+    def client1 = connect()
+    def client2 = connect()
+    new PollingConditions().eventually {
+      assert hub.size == 2
+    }
+
+    when:
+    getText("broadcast?text=foo")
+    getText("broadcast?text=bar")
+
+    then:
+    [client1, client2].each {
+      assert it.receivedText.poll(5, TimeUnit.SECONDS) == "foo"
+      assert it.receivedText.poll(5, TimeUnit.SECONDS) == "bar"
+    }
+    hub.droppedMessages == 0
+  }
+
+  def "websockets leave when closed"() {
+    given:
+    server.start()
+    def client1 = connect()
+    def client2 = connect()
+    new PollingConditions().eventually {
+      assert hub.size == 2
+    }
+
+    when:
+    client1.closeBlocking()
+
+    then:
+    new PollingConditions().eventually {
+      assert hub.size == 1
+    }
+
+    when:
+    getText("broadcast?text=foo")
+
+    then:
+    client2.receivedText.poll(5, TimeUnit.SECONDS) == "foo"
+  }
+
+  def "can broadcast to no websockets"() {
+    expect:
+    getText("broadcast?text=foo") == "ok"
+  }
+
+  def "only websockets opened by ratpack can join"() {
+    when:
+    hub.join(Mock(WebSocket))
+
+    then:
+    thrown IllegalArgumentException
+  }
+
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.websocket
+
+import ratpack.func.Action
+import ratpack.func.Function
+import ratpack.test.internal.RatpackGroovyDslSpec
+
+import java.util.zip.Inflater
+
+class WebSocketPerMessageDeflateSpec extends RatpackGroovyDslSpec {
+
+  static final String LARGE = "compressible " * 100
+
+  Socket socket
+  Inflater inflater = new Inflater(true)
+
+  def cleanup() {
+    socket?.close()
+    inflater.end()
+  }
+
+  void app(Action<? super WebSocketCompressionSpec> compression) {
+    handlers {
+      get {
+        WebSockets.websocket(context, { ws ->
+          ws.send(LARGE)
+          ws.send("small")
+          null
+        } as Function).connect { spec ->
+          if (compression) {
+            spec.compression(compression)
+          }
+        }
+      }
+    }
+  }
+
+  String handshake(String extensions) {
+    socket = new Socket("localhost", server.bindPort)
+    socket.soTimeout = 5000
+    def request = "GET / HTTP/1.1\r\n" +
+      "Host: localhost:$server.bindPort\r\n" +
+      "Upgrade: websocket\r\n" +
+      "Connection: Upgrade\r\n" +
+      "Sec-WebSocket-Key: dGhlIHNhbXBsZSBub25jZQ==\r\n" +
+      "Sec-WebSocket-Version: 13\r\n" +
+      (extensions ? "Sec-WebSocket-Extensions: $extensions\r\n" : "") +
+      "\r\n"
+    socket.outputStream.write(request.getBytes("US-ASCII"))
+    socket.outputStream.flush()
+
+    def response = new StringBuilder()
+    while (!response.toString().endsWith("\r\n\r\n")) {
+      response.append((char) socket.inputStream.read())
+    }
+    response.toString()
+  }
+
+  Map readFrame() {
+    def input = new DataInputStream(socket.inputStream)
+    int header = input.readUnsignedByte()
+    long length = input.readUnsignedByte() & 0x7F
+    if (length == 126) {
+      length = input.readUnsignedShort()
+    } else if (length == 127) {
+      length = input.readLong()
+    }
+    def payload = new byte[(int) length]
+    input.readFully(payload)
+    [fin: (header & 0x80) != 0, compressed: (header & 0x40) != 0, opcode: header & 0x0F, payload: payload]
+  }
+
+  // Shared between messages, as the server uses context takeover by default
+  String inflate(byte[] payload) {
+    def input = Arrays.copyOf(payload, payload.length + 4)
+    input[payload.length + 2] = (byte) 0xFF
+    input[payload.length + 3] = (byte) 0xFF
+    inflater.setInput(input)
+    def out = new ByteArrayOutputStream()
+    def buffer = new byte[1024]
+    while (!inflater.needsInput()) {
+      out.write(buffer, 0, inflater.inflate(buffer))
+    }
+    new String(out.toByteArray(), "UTF-8")
+  }
+
+  def "compresses messages when the client offers permessage-deflate"() {
+    given:
+    app {}
+
+    when:
+    def response = handshake("permessage-deflate; client_max_window_bits")
+
+    then:
+    response.startsWith("HTTP/1.1 101")
+    response.toLowerCase().contains("sec-websocket-extensions: permessage-deflate")
+
+    when:
+    def large = readFrame()
+    def small = readFrame()
+
+    then:
+    large.fin && large.compressed && large.opcode == 1
+    large.payload.length < LARGE.length()
+    inflate(large.payload) == LARGE
+    small.compressed
+    inflate(small.payload) == "small"
+  }
+
+  def "does not compress messages smaller than min frame size"() {
+    given:
+    app { it.minFrameSize(100) }
+
+    when:
+    handshake("permessage-deflate")
+    def large = readFrame()
+    def small = readFrame()
+
+    then:
+    large.compressed
+    inflate(large.payload) == LARGE
+    !small.compressed
+    new String(small.payload, "UTF-8") == "small"
+  }
+
+  def "asks client not to use context takeover"() {
+    given:
+    app { it.clientNoContextTakeover(true) }
+
+    when:
+    def response = handshake("permessage-deflate")
+
+    then:
+    response.toLowerCase().contains("client_no_context_takeover")
+  }
+
+  def "does not compress when client does not offer permessage-deflate"() {
+    given:
+    app {}
+
+    when:
+    def response = handshake(null)
+    def large = readFrame()
+
+    then:
+    !response.toLowerCase().contains("sec-websocket-extensions")
+    !large.compressed
+    new String(large.payload, "UTF-8") == LARGE
+  }
+
+  def "does not compress when compression is not enabled"() {
+    given:
+    app(null)
+
+    when:
+    def response = handshake("permessage-deflate")
+    def large = readFrame()
+
+    then:
+    !response.toLowerCase().contains("sec-websocket-extensions")
+    !large.compressed
+    new String(large.payload, "UTF-8") == LARGE
+  }
+
+  def "does not compress when client asks for server no context takeover and it is not allowed"() {
+    given:
+    app {}
+
+    when:
+    def response = handshake("permessage-deflate; server_no_context_takeover")
+
+    then:
+    !response.toLowerCase().contains("sec-websocket-extensions")
+  }
+
+}
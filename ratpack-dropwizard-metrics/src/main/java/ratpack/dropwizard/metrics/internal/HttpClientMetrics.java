@@ -24,7 +24,9 @@ import ratpack.dropwizard.metrics.DropwizardMetricsConfig;
 import ratpack.exec.ExecController;
 import ratpack.http.client.HttpClient;
 import ratpack.http.client.internal.DefaultHttpClient;
+import ratpack.http.client.internal.DnsCacheStats;
 import ratpack.http.client.internal.HttpClientStats;
+import ratpack.http.client.internal.LatencyHistogram;
 import ratpack.service.Service;
 import ratpack.service.StartEvent;
 
@@ -40,11 +42,15 @@ public class HttpClientMetrics implements Service, Runnable {
   private static final String TOTAL_ACTIVE_CONNECTIONS = getMetricName("total.active.connections");
   private static final String TOTAL_IDLE_CONNECTIONS = getMetricName("total.idle.connections");
   private static final String TOTAL_CONNECTIONS = getMetricName("total.connections");
+  private static final String DNS_CACHE_HITS = getMetricName("dns.cache.hits");
+  private static final String DNS_CACHE_NEGATIVE_HITS = getMetricName("dns.cache.negative.hits");
+  private static final String DNS_CACHE_MISSES = getMetricName("dns.cache.misses");
 
   private final HttpClient httpClient;
   private final MetricRegistry metricRegistry;
   private final DropwizardMetricsConfig config;
   private final ConcurrentMap<String, HttpMetricGauge> gauges;
+  private final ConcurrentMap<String, LatencyHistogram.Snapshot> latencySnapshots = new ConcurrentHashMap<>();
 
   @Inject
   public HttpClientMetrics(
@@ -85,6 +91,35 @@ public class HttpClientMetrics implements Service, Runnable {
       gauge(getHostMetricName(host, "total.connections"))
           .setValue(stats.getTotalConnectionCount());
       });
+    httpClientStats.getLatenciesPerHost().forEach((host, latencies) -> {
+      latencyGauges(getHostMetricName(host, "latency.pool.wait"), latencies.getPoolWait());
+      latencyGauges(getHostMetricName(host, "latency.connect"), latencies.getConnect());
+      latencyGauges(getHostMetricName(host, "latency.tls.handshake"), latencies.getTlsHandshake());
+      latencyGauges(getHostMetricName(host, "latency.first.byte"), latencies.getTimeToFirstByte());
+      latencyGauges(getHostMetricName(host, "latency.total"), latencies.getTotal());
+      gauge(getHostMetricName(host, "rejected.acquires")).setValue(latencies.getRejectedAcquireCount());
+    });
+    DnsCacheStats dnsCacheStats = httpClientStats.getDnsCacheStats();
+    if (dnsCacheStats != null) {
+      gauge(DNS_CACHE_HITS).setValue(dnsCacheStats.getHitCount());
+      gauge(DNS_CACHE_NEGATIVE_HITS).setValue(dnsCacheStats.getNegativeHitCount());
+      gauge(DNS_CACHE_MISSES).setValue(dnsCacheStats.getMissCount());
+    }
+  }
+
+  /**
+   * Publishes the count, mean, percentiles and max, in nanoseconds, of the latencies recorded since the previous poll.
+   */
+  private void latencyGauges(String name, LatencyHistogram histogram) {
+    LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+    LatencyHistogram.Snapshot previous = latencySnapshots.put(name, snapshot);
+    LatencyHistogram.Snapshot interval = previous == null ? snapshot : snapshot.since(previous);
+    gauge(name + ".count").setValue(interval.getCount());
+    gauge(name + ".mean").setValue(interval.getMean());
+    gauge(name + ".p50").setValue(interval.getValueAtPercentile(50));
+    gauge(name + ".p95").setValue(interval.getValueAtPercentile(95));
+    gauge(name + ".p99").setValue(interval.getValueAtPercentile(99));
+    gauge(name + ".max").setValue(interval.getMax());
   }
 
   private HttpMetricGauge gauge(String name) {
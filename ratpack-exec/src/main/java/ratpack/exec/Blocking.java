@@ -25,7 +25,10 @@ import ratpack.func.Factory;
 
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 /**
@@ -33,6 +36,13 @@ import java.util.function.Supplier;
  */
 public abstract class Blocking {
 
+  /**
+   * The name of the default blocking pool, used by {@link #get(Factory)} and {@link #op(Block)}.
+   *
+   * @since 1.10
+   */
+  public static final String DEFAULT_POOL = "default";
+
   private Blocking() {
   }
 
@@ -51,37 +61,69 @@ public abstract class Blocking {
    * @return a promise for the return value of the given blocking operation
    */
   public static <T> Promise<T> get(Factory<T> factory) {
+    return get(ExecController::getBlockingExecutor, factory);
+  }
+
+  /**
+   * Performs a blocking operation on a thread of the named pool, returning a promise for its value.
+   * <p>
+   * This method is the same as {@link #get(Factory)}, except that the operation is performed by the named {@link ExecController#getBlockingExecutor(String) blocking pool}.
+   * Using separate pools for different dependencies (e.g. a database and a remote service) means that when one of them is slow,
+   * it can only exhaust the threads of its own pool.
+   * <p>
+   * If the pool can't accept the operation, because all of its threads are busy and its queue is full,
+   * the promise fails with a {@link java.util.concurrent.RejectedExecutionException}.
+   *
+   * @param pool the name of the blocking pool
+   * @param factory the operation that blocks
+   * @param <T> the type of value created by the operation
+   * @return a promise for the return value of the given blocking operation
+   * @since 1.10
+   */
+  public static <T> Promise<T> get(String pool, Factory<T> factory) {
+    return get(controller -> controller.getBlockingExecutor(pool), factory);
+  }
+
+  private static <T> Promise<T> get(Function<ExecController, Executor> executorFunction, Factory<T> factory) {
     return new DefaultPromise<>(downstream -> {
       DefaultExecution execution = DefaultExecution.require();
       EventLoop eventLoop = execution.getEventLoop();
+      Executor executor = executorFunction.apply(execution.getController());
       execution.delimit(downstream::error, continuation ->
-        eventLoop.execute(() ->
-          CompletableFuture.supplyAsync(
-            new Supplier<Result<T>>() {
-              Result<T> result;
-
-              @Override
-              public Result<T> get() {
-                try {
-                  execution.bindToThread();
-                  DefaultExecution.intercept(execution, ExecInterceptor.ExecType.BLOCKING, execution.getAllInterceptors().iterator(), () -> {
-                    try {
-                      result = Result.success(factory.create());
-                    } catch (Throwable e) {
-                      result = Result.error(e);
-                    }
-                  });
-                  return result;
-                } catch (Throwable e) {
-                  DefaultExecution.interceptorError(e);
-                  return result;
-                } finally {
-                  execution.unbindFromThread();
+        eventLoop.execute(() -> {
+          CompletableFuture<Result<T>> future;
+          try {
+            future = CompletableFuture.supplyAsync(
+              new Supplier<Result<T>>() {
+                Result<T> result;
+
+                @Override
+                public Result<T> get() {
+                  try {
+                    execution.bindToThread();
+                    DefaultExecution.intercept(execution, ExecInterceptor.ExecType.BLOCKING, execution.getAllInterceptors().iterator(), () -> {
+                      try {
+                        result = Result.success(factory.create());
+                      } catch (Throwable e) {
+                        result = Result.error(e);
+                      }
+                    });
+                    return result;
+                  } catch (Throwable e) {
+                    DefaultExecution.interceptorError(e);
+                    return result;
+                  } finally {
+                    execution.unbindFromThread();
+                  }
                 }
-              }
-            }, execution.getController().getBlockingExecutor()
-          ).thenAcceptAsync(v -> continuation.resume(() -> downstream.accept(v)), eventLoop)
-        )
+              }, executor
+            );
+          } catch (RejectedExecutionException e) {
+            continuation.resume(() -> downstream.error(e));
+            return;
+          }
+          future.thenAcceptAsync(v -> continuation.resume(() -> downstream.accept(v)), eventLoop);
+        })
       );
     });
   }
@@ -228,7 +270,20 @@ public abstract class Blocking {
   }
 
   public static Operation op(Block block) {
-    return Blocking.<Void>get(() -> {
+    return op(DEFAULT_POOL, block);
+  }
+
+  /**
+   * Performs a blocking operation on a thread of the named pool.
+   *
+   * @param pool the name of the blocking pool
+   * @param block the operation that blocks
+   * @return an operation for the blocking operation
+   * @see #get(String, Factory)
+   * @since 1.10
+   */
+  public static Operation op(String pool, Block block) {
+    return Blocking.<Void>get(pool, () -> {
       block.execute();
       return null;
     }).operation();
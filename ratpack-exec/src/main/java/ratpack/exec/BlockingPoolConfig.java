@@ -0,0 +1,126 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.exec;
+
+import java.time.Duration;
+
+/**
+ * The configuration of a pool of threads for {@link Blocking blocking} operations.
+ * <p>
+ * A pool uses up to {@link #getCoreThreads() core threads} threads, then queues up to {@link #getQueueSize() queue size} operations,
+ * then uses up to {@link #getMaxThreads() max threads} threads.
+ * Operations submitted beyond that are rejected, failing with a {@link java.util.concurrent.RejectedExecutionException}.
+ * <p>
+ * The defaults are those of the default blocking pool: threads are created as needed, without limit, and no operations are queued.
+ *
+ * @see ratpack.server.ServerConfig#getBlockingPools()
+ * @since 1.10
+ */
+public class BlockingPoolConfig {
+
+  private int coreThreads;
+  private int maxThreads = Integer.MAX_VALUE;
+  private int queueSize;
+  private Duration keepAlive = Duration.ofSeconds(60);
+
+  /**
+   * The number of threads to keep in the pool, even if idle.
+   * <p>
+   * Defaults to {@code 0}.
+   *
+   * @return the number of threads to keep in the pool
+   */
+  public int getCoreThreads() {
+    return coreThreads;
+  }
+
+  /**
+   * The maximum number of threads in the pool.
+   * <p>
+   * Defaults to {@link Integer#MAX_VALUE}.
+   *
+   * @return the maximum number of threads in the pool
+   */
+  public int getMaxThreads() {
+    return maxThreads;
+  }
+
+  /**
+   * The maximum number of operations waiting for a thread.
+   * <p>
+   * Operations are only queued once all core threads are busy.
+   * If {@code 0}, operations are never queued.
+   * <p>
+   * If there are no {@link #getCoreThreads() core threads}, operations are only queued once all {@link #getMaxThreads() max threads} are busy,
+   * and threads that are idle for the {@link #getKeepAlive() keep alive} time are stopped.
+   * <p>
+   * Defaults to {@code 0}.
+   *
+   * @return the maximum number of operations waiting for a thread
+   */
+  public int getQueueSize() {
+    return queueSize;
+  }
+
+  /**
+   * How long threads beyond the core threads can be idle, before they are stopped.
+   * <p>
+   * Defaults to 60 seconds.
+   *
+   * @return how long threads beyond the core threads can be idle
+   */
+  public Duration getKeepAlive() {
+    return keepAlive;
+  }
+
+  /**
+   * Sets the number of threads to keep in the pool, even if idle.
+   *
+   * @param coreThreads the number of threads to keep in the pool
+   */
+  public void setCoreThreads(int coreThreads) {
+    this.coreThreads = coreThreads;
+  }
+
+  /**
+   * Sets the maximum number of threads in the pool.
+   *
+   * @param maxThreads the maximum number of threads in the pool
+   */
+  public void setMaxThreads(int maxThreads) {
+    this.maxThreads = maxThreads;
+  }
+
+  /**
+   * Sets the maximum number of operations waiting for a thread.
+   *
+   * @param queueSize the maximum number of operations waiting for a thread
+   */
+  public void setQueueSize(int queueSize) {
+    this.queueSize = queueSize;
+  }
+
+  /**
+   * Sets how long threads beyond the core threads can be idle, before they are stopped.
+   *
+   * @param keepAlive how long threads beyond the core threads can be idle
+   */
+  public void setKeepAlive(Duration keepAlive) {
+    this.keepAlive = keepAlive;
+  }
+
+}
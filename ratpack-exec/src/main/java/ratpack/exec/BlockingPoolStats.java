@@ -0,0 +1,90 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.exec;
+
+import java.time.Duration;
+
+/**
+ * Statistics of a pool of threads for {@link Blocking blocking} operations.
+ * <p>
+ * The values are a snapshot at the time of the call.
+ * Counts are cumulative, since the creation of the pool.
+ *
+ * @see ExecController#getBlockingPoolStats()
+ * @since 1.10
+ */
+public interface BlockingPoolStats {
+
+  /**
+   * The name of the pool.
+   *
+   * @return the name of the pool
+   */
+  String getName();
+
+  /**
+   * The number of threads in the pool.
+   *
+   * @return the number of threads in the pool
+   */
+  int getPoolSize();
+
+  /**
+   * The number of threads that are performing an operation.
+   *
+   * @return the number of threads that are performing an operation
+   */
+  int getActiveCount();
+
+  /**
+   * The number of operations waiting for a thread.
+   *
+   * @return the number of operations waiting for a thread
+   */
+  int getQueueSize();
+
+  /**
+   * The number of operations that have been performed.
+   *
+   * @return the number of operations that have been performed
+   */
+  long getCompletedCount();
+
+  /**
+   * The number of operations that were rejected, because the pool and its queue were full.
+   *
+   * @return the number of operations that were rejected
+   */
+  long getRejectedCount();
+
+  /**
+   * The total time that operations have waited for a thread.
+   * <p>
+   * The mean wait time over an interval can be calculated from the changes of this value and of the number of started operations.
+   *
+   * @return the total time that operations have waited for a thread
+   */
+  Duration getTotalWaitTime();
+
+  /**
+   * The number of operations that have started on a thread.
+   *
+   * @return the number of operations that have started on a thread
+   */
+  long getStartedCount();
+
+}
@@ -19,6 +19,8 @@ package ratpack.exec;
 import io.netty.channel.EventLoopGroup;
 import ratpack.exec.internal.ExecThreadBinding;
 
+import java.util.Collections;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
@@ -69,6 +71,40 @@ public interface ExecController extends AutoCloseable {
 
   ExecutorService getBlockingExecutor();
 
+  /**
+   * The executor of the named blocking pool.
+   * <p>
+   * Blocking pools isolate blocking operations with different dependencies from each other,
+   * so that one slow dependency exhausting its pool does not prevent other blocking operations.
+   * Named pools are configured by {@link ratpack.server.ServerConfig#getBlockingPools()}.
+   * The pool named {@link Blocking#DEFAULT_POOL} is the {@link #getBlockingExecutor() default blocking executor}.
+   *
+   * @param pool the name of the pool
+   * @return the executor of the named blocking pool
+   * @throws IllegalArgumentException if there is no pool with the given name
+   * @see Blocking#get(String, ratpack.func.Factory)
+   * @since 1.10
+   */
+  default ExecutorService getBlockingExecutor(String pool) throws IllegalArgumentException {
+    if (Blocking.DEFAULT_POOL.equals(pool)) {
+      return getBlockingExecutor();
+    } else {
+      throw new IllegalArgumentException("No blocking pool named '" + pool + "'");
+    }
+  }
+
+  /**
+   * Statistics of the blocking pools, by name.
+   * <p>
+   * Pools of virtual threads are not included, as they have no threads to run out of.
+   *
+   * @return statistics of the blocking pools, by name
+   * @since 1.10
+   */
+  default Map<String, ? extends BlockingPoolStats> getBlockingPoolStats() {
+    return Collections.emptyMap();
+  }
+
   /**
    * The event loop group used by Netty for this application.
    * <p>
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.exec.internal;
+
+import ratpack.exec.BlockingPoolConfig;
+import ratpack.exec.BlockingPoolStats;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread pool for blocking operations, that records how long operations wait for a thread and how many are rejected.
+ */
+public class BlockingPool extends ThreadPoolExecutor implements BlockingPoolStats {
+
+  private final String name;
+  private final LongAdder started = new LongAdder();
+  private final LongAdder waitNanos = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+
+  public BlockingPool(String name, BlockingPoolConfig config, ThreadFactory threadFactory) {
+    super(
+      corePoolSize(config),
+      config.getMaxThreads(),
+      config.getKeepAlive().toNanos(),
+      TimeUnit.NANOSECONDS,
+      config.getQueueSize() > 0 ? new LinkedBlockingQueue<>(config.getQueueSize()) : new SynchronousQueue<>(),
+      threadFactory
+    );
+    this.name = name;
+    if (queuesWithoutCoreThreads(config) && !config.getKeepAlive().isZero()) {
+      allowCoreThreadTimeOut(true);
+    }
+    setRejectedExecutionHandler((r, executor) -> {
+      rejected.increment();
+      throw new RejectedExecutionException("Blocking pool '" + name + "' is exhausted (" + executor.getActiveCount() + " active threads, " + executor.getQueue().size() + " queued operations)");
+    });
+  }
+
+  // A thread pool executor only adds threads beyond the core threads once its queue is full.
+  // Without core threads, a queueing pool would run all operations on a single thread until then,
+  // so threads up to the max are used as core threads that stop when idle instead.
+  private static int corePoolSize(BlockingPoolConfig config) {
+    return queuesWithoutCoreThreads(config) ? config.getMaxThreads() : config.getCoreThreads();
+  }
+
+  private static boolean queuesWithoutCoreThreads(BlockingPoolConfig config) {
+    return config.getQueueSize() > 0 && config.getCoreThreads() == 0;
+  }
+
+  @Override
+  public void execute(Runnable command) {
+    super.execute(new TimedCommand(command));
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public int getQueueSize() {
+    return getQueue().size();
+  }
+
+  @Override
+  public long getCompletedCount() {
+    return getCompletedTaskCount();
+  }
+
+  @Override
+  public long getRejectedCount() {
+    return rejected.sum();
+  }
+
+  @Override
+  public Duration getTotalWaitTime() {
+    return Duration.ofNanos(waitNanos.sum());
+  }
+
+  @Override
+  public long getStartedCount() {
+    return started.sum();
+  }
+
+  private final class TimedCommand implements Runnable {
+    private final Runnable delegate;
+    private final long submittedAt = System.nanoTime();
+
+    TimedCommand(Runnable delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public void run() {
+      waitNanos.add(System.nanoTime() - submittedAt);
+      started.increment();
+      delegate.run();
+    }
+  }
+
+}
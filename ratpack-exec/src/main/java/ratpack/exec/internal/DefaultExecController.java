@@ -17,6 +17,7 @@
 package ratpack.exec.internal;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import io.netty.channel.EventLoop;
 import io.netty.channel.EventLoopGroup;
 import io.netty.util.concurrent.DefaultThreadFactory;
@@ -29,6 +30,8 @@ import ratpack.registry.RegistrySpec;
 import ratpack.util.internal.InternalRatpackError;
 import ratpack.util.internal.TransportDetector;
 
+import java.util.Collections;
+import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -42,6 +45,7 @@ public class DefaultExecController implements ExecControllerInternal {
   private static final Logger LOGGER = LoggerFactory.getLogger(ExecController.class);
 
   private final ExecutorService blockingExecutor;
+  private final ImmutableMap<String, ExecutorService> blockingPools;
   private final EventLoopGroup eventLoopGroup;
   private final int numThreads;
   private final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
@@ -57,9 +61,46 @@ public class DefaultExecController implements ExecControllerInternal {
   }
 
   public DefaultExecController(int numThreads) {
+    this(numThreads, false);
+  }
+
+  /**
+   * Creates an exec controller.
+   *
+   * @param numThreads the number of compute threads
+   * @param virtualBlockingThreads whether to perform blocking operations on virtual threads, instead of a cached pool of platform threads
+   * @throws UnsupportedOperationException if virtual blocking threads are requested and the JVM does not support them
+   */
+  public DefaultExecController(int numThreads, boolean virtualBlockingThreads) {
+    this(numThreads, virtualBlockingThreads, Collections.emptyMap());
+  }
+
+  /**
+   * Creates an exec controller.
+   *
+   * @param numThreads the number of compute threads
+   * @param virtualBlockingThreads whether to perform blocking operations of the default pool on virtual threads
+   * @param blockingPools the configuration of blocking pools by name, which may include the default pool
+   * @throws UnsupportedOperationException if virtual blocking threads are requested and the JVM does not support them
+   */
+  public DefaultExecController(int numThreads, boolean virtualBlockingThreads, Map<String, BlockingPoolConfig> blockingPools) {
     this.numThreads = numThreads;
     this.eventLoopGroup = TransportDetector.eventLoopGroup(numThreads, new ExecControllerBindingThreadFactory(true, "ratpack-compute", Thread.MAX_PRIORITY));
-    this.blockingExecutor = Executors.newCachedThreadPool(new ExecControllerBindingThreadFactory(false, "ratpack-blocking", Thread.NORM_PRIORITY));
+    if (virtualBlockingThreads) {
+      this.blockingExecutor = VirtualThreads.newThreadPerTaskExecutor(new VirtualBlockingThreadFactory(VirtualThreads.threadFactory("ratpack-blocking-virtual-")));
+    } else {
+      BlockingPoolConfig config = blockingPools.getOrDefault(Blocking.DEFAULT_POOL, new BlockingPoolConfig());
+      this.blockingExecutor = new BlockingPool(Blocking.DEFAULT_POOL, config, new ExecControllerBindingThreadFactory(false, "ratpack-blocking", Thread.NORM_PRIORITY));
+    }
+
+    ImmutableMap.Builder<String, ExecutorService> pools = ImmutableMap.builder();
+    pools.put(Blocking.DEFAULT_POOL, blockingExecutor);
+    blockingPools.forEach((name, config) -> {
+      if (!name.equals(Blocking.DEFAULT_POOL)) {
+        pools.put(name, new BlockingPool(name, config, new ExecControllerBindingThreadFactory(false, "ratpack-blocking-" + name, Thread.NORM_PRIORITY)));
+      }
+    });
+    this.blockingPools = pools.build();
   }
 
   @Override
@@ -102,7 +143,7 @@ public class DefaultExecController implements ExecControllerInternal {
       }
       onClose = this.onClose.poll();
     }
-    blockingExecutor.shutdown();
+    blockingPools.values().forEach(ExecutorService::shutdown);
     eventLoopGroup.shutdownGracefully(0, 0, TimeUnit.SECONDS);
   }
 
@@ -116,6 +157,26 @@ public class DefaultExecController implements ExecControllerInternal {
     return blockingExecutor;
   }
 
+  @Override
+  public ExecutorService getBlockingExecutor(String pool) throws IllegalArgumentException {
+    ExecutorService executor = blockingPools.get(pool);
+    if (executor == null) {
+      throw new IllegalArgumentException("No blocking pool named '" + pool + "' (pools: " + blockingPools.keySet() + ")");
+    }
+    return executor;
+  }
+
+  @Override
+  public Map<String, BlockingPoolStats> getBlockingPoolStats() {
+    ImmutableMap.Builder<String, BlockingPoolStats> stats = ImmutableMap.builder();
+    blockingPools.forEach((name, executor) -> {
+      if (executor instanceof BlockingPoolStats) {
+        stats.put(name, (BlockingPoolStats) executor);
+      }
+    });
+    return stats.build();
+  }
+
   @Override
   public EventLoopGroup getEventLoopGroup() {
     return eventLoopGroup;
@@ -139,6 +200,27 @@ public class DefaultExecController implements ExecControllerInternal {
     }
   }
 
+  private class VirtualBlockingThreadFactory implements ThreadFactory {
+    private final ThreadFactory delegate;
+
+    VirtualBlockingThreadFactory(ThreadFactory delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public Thread newThread(Runnable r) {
+      return delegate.newThread(() -> {
+        ExecThreadBinding.bind(false, DefaultExecController.this);
+        Thread.currentThread().setContextClassLoader(contextClassLoader);
+        try {
+          r.run();
+        } finally {
+          ExecThreadBinding.unbind();
+        }
+      });
+    }
+  }
+
   @Override
   public int getNumThreads() {
     return numThreads;
@@ -82,10 +82,13 @@ public class DefaultExecution implements Execution {
 
     this.execStream = new InitialExecStream(() -> action.execute(this));
 
-    this.interceptors = Iterables.concat(
-      controller.getInterceptors(),
-      ImmutableList.copyOf(registry.getAll(ExecInterceptor.class))
-    );
+    ImmutableList<? extends ExecInterceptor> registryInterceptors = ImmutableList.copyOf(registry.getAll(ExecInterceptor.class));
+    if (registryInterceptors.isEmpty()) {
+      // Avoids allocating a concatenating iterator for every segment
+      this.interceptors = controller.getInterceptors();
+    } else {
+      this.interceptors = Iterables.concat(controller.getInterceptors(), registryInterceptors);
+    }
 
     for (ExecInitializer initializer : controller.getInitializers()) {
       initializer.init(this);
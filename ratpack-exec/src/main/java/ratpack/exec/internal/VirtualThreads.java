@@ -0,0 +1,131 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.exec.internal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ratpack.util.Exceptions;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Access to the virtual threads of Java 21 and later, via reflection.
+ */
+public abstract class VirtualThreads {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(VirtualThreads.class);
+
+  private static final String PARALLELISM_PROPERTY = "jdk.virtualThreadScheduler.parallelism";
+  private static final String MAX_POOL_SIZE_PROPERTY = "jdk.virtualThreadScheduler.maxPoolSize";
+
+  private static final Method OF_VIRTUAL;
+  private static final Method BUILDER_NAME;
+  private static final Method BUILDER_FACTORY;
+  private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+  private static final Throwable UNAVAILABILITY_CAUSE;
+
+  static {
+    Method ofVirtual = null;
+    Method builderName = null;
+    Method builderFactory = null;
+    Method newThreadPerTaskExecutor = null;
+    Throwable unavailabilityCause = null;
+    try {
+      ofVirtual = Thread.class.getMethod("ofVirtual");
+      Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+      builderName = builderType.getMethod("name", String.class, long.class);
+      builderFactory = builderType.getMethod("factory");
+      newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+      // Fails on Java 19 and 20 unless preview features are enabled
+      builderFactory.invoke(ofVirtual.invoke(null));
+    } catch (Throwable t) {
+      unavailabilityCause = t instanceof InvocationTargetException ? t.getCause() : t;
+    }
+    OF_VIRTUAL = ofVirtual;
+    BUILDER_NAME = builderName;
+    BUILDER_FACTORY = builderFactory;
+    NEW_THREAD_PER_TASK_EXECUTOR = newThreadPerTaskExecutor;
+    UNAVAILABILITY_CAUSE = unavailabilityCause;
+  }
+
+  private VirtualThreads() {
+  }
+
+  /**
+   * Whether virtual threads are available in this JVM.
+   *
+   * @return whether virtual threads are available in this JVM
+   */
+  public static boolean isAvailable() {
+    return UNAVAILABILITY_CAUSE == null;
+  }
+
+  /**
+   * Creates a factory for virtual threads, named with the given prefix and a sequence number.
+   *
+   * @param prefix the prefix of the thread names
+   * @return a factory for virtual threads
+   * @throws UnsupportedOperationException if virtual threads are not available
+   */
+  public static ThreadFactory threadFactory(String prefix) {
+    requireAvailable();
+    return Exceptions.uncheck(() -> (ThreadFactory) BUILDER_FACTORY.invoke(BUILDER_NAME.invoke(OF_VIRTUAL.invoke(null), prefix, 0L)));
+  }
+
+  /**
+   * Creates an executor that runs each task on a new thread from the given factory.
+   *
+   * @param threadFactory the factory for the threads
+   * @return an executor that runs each task on a new thread
+   * @throws UnsupportedOperationException if virtual threads are not available
+   */
+  public static ExecutorService newThreadPerTaskExecutor(ThreadFactory threadFactory) {
+    requireAvailable();
+    return Exceptions.uncheck(() -> (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, threadFactory));
+  }
+
+  /**
+   * Limits the number of platform (carrier) threads that the JVM's virtual thread scheduler uses.
+   * <p>
+   * The scheduler is global to the JVM, and reads its configuration when the first virtual thread is started.
+   * Limits that have been set by system properties are left alone.
+   *
+   * @param carriers the maximum number of carrier threads
+   */
+  public static void limitCarriers(int carriers) {
+    String value = Integer.toString(carriers);
+    for (String property : new String[]{PARALLELISM_PROPERTY, MAX_POOL_SIZE_PROPERTY}) {
+      String existing = System.getProperty(property);
+      if (existing == null) {
+        System.setProperty(property, value);
+      } else if (!existing.equals(value)) {
+        LOGGER.warn("Not limiting virtual thread carriers to {} as system property {} is already set to {}", value, property, existing);
+      }
+    }
+  }
+
+  private static void requireAvailable() {
+    if (UNAVAILABILITY_CAUSE != null) {
+      throw new UnsupportedOperationException("Virtual threads are not available in this JVM (Java " + System.getProperty("java.version") + "), Java 21 or later is required", UNAVAILABILITY_CAUSE);
+    }
+  }
+
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.stream;
+
+/**
+ * What a {@link Streams#multicast(org.reactivestreams.Publisher, int, MulticastOverflow) bounded multicast publisher} does when a subscriber falls too far behind.
+ *
+ * @since 1.10
+ */
+public enum MulticastOverflow {
+
+  /**
+   * The subscriber skips the oldest items it has not yet received, so that it receives the most recent items.
+   * <p>
+   * Other subscribers are not affected.
+   */
+  DROP_OLDEST,
+
+  /**
+   * New items are dropped while the slowest subscriber has a full buffer.
+   * <p>
+   * As the buffer is shared, dropped items are not received by any subscriber.
+   * This preserves the order and continuity of the items each subscriber receives, at the expense of all subscribers missing items.
+   */
+  DROP_NEWEST,
+
+  /**
+   * The subscriber is cancelled, and receives a {@link MulticastOverflowException}.
+   * <p>
+   * Other subscribers are not affected.
+   */
+  DISCONNECT
+
+}
@@ -482,6 +482,37 @@ public class Streams {
     return new MulticastPublisher<>(publisher);
   }
 
+  /**
+   * Returns a publisher that will stream events emitted from the given publisher to all of its subscribers, buffering a bounded number of items.
+   * <p>
+   * Unlike {@link #multicast(Publisher)}, the items are held in a single buffer of the given capacity that is shared by all subscribers,
+   * with each subscriber reading from the buffer at its own pace as it signals demand.
+   * The memory used is therefore bounded by the capacity, regardless of the number of subscribers or how slow they are.
+   * Publishing an item does not wait for any subscriber.
+   * <p>
+   * A subscriber that falls more than {@code capacity} items behind is dealt with according to the given overflow strategy.
+   * This makes this publisher suited to broadcasting frequent updates to many consumers, such as WebSocket or server sent event clients,
+   * where a slow consumer should neither hold up other consumers nor cause items to be buffered without limit.
+   * <p>
+   * As with {@link #multicast(Publisher)}, subscribers do not receive items that were emitted before they subscribed,
+   * and the given publisher is subscribed to when the first subscriber requests items.
+   * Items are shared between subscribers, so should be immutable.
+   * {@link io.netty.util.ReferenceCounted Reference counted} items are owned by the returned publisher,
+   * which releases them once they are no longer buffered.
+   * Each subscriber is given its own reference to such items, which it must release,
+   * where {@link io.netty.buffer.ByteBuf byte buffers} are given as {@link io.netty.buffer.ByteBuf#retainedDuplicate() retained duplicates}.
+   *
+   * @param publisher a data source
+   * @param capacity the maximum number of items that a subscriber can be behind
+   * @param overflow what to do with a subscriber that falls more than {@code capacity} items behind
+   * @param <T> the type of item
+   * @return a publisher that respects back pressure for each of its subscribers, within the given capacity
+   * @since 1.10
+   */
+  public static <T> TransformablePublisher<T> multicast(Publisher<T> publisher, int capacity, MulticastOverflow overflow) {
+    return new BoundedMulticastPublisher<>(publisher, capacity, overflow);
+  }
+
   /**
    * Returns a publisher that publishes each element from Collections that are produced from the given input publisher.
    * <p>
@@ -98,6 +98,18 @@ public interface TransformablePublisher<T> extends Publisher<T> {
     return Streams.multicast(this);
   }
 
+  /**
+   * See {@link Streams#multicast(Publisher, int, MulticastOverflow)}.
+   *
+   * @param capacity the maximum number of items that a subscriber can be behind
+   * @param overflow what to do with a subscriber that falls more than {@code capacity} items behind
+   * @return a publisher that respects back pressure for each of its subscribers, within the given capacity
+   * @since 1.10
+   */
+  default TransformablePublisher<T> multicast(int capacity, MulticastOverflow overflow) {
+    return Streams.multicast(this, capacity, overflow);
+  }
+
   /**
    * See {@link Streams#toPromise(Publisher)}.
    *
@@ -0,0 +1,335 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.stream.internal;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.util.IllegalReferenceCountException;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.ReferenceCounted;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import ratpack.stream.MulticastOverflow;
+import ratpack.stream.MulticastOverflowException;
+import ratpack.stream.TransformablePublisher;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A multicast publisher that buffers items in a ring shared by all subscribers.
+ * <p>
+ * The upstream items are written to the ring, and each subscriber reads from it at its own position, as it has demand.
+ * Publishing an item costs a write to the ring and a signal to each subscriber, and the memory per subscriber is constant.
+ * Subscribers that fall more than the capacity behind are dealt with according to the {@link MulticastOverflow overflow strategy}.
+ * <p>
+ * The ring owns the items written to it, and releases {@link ReferenceCounted reference counted} items when they are overwritten,
+ * or once all subscribers have passed them.
+ * Each subscriber is given its own reference to such items, which for {@link ByteBuf byte buffers} is a retained duplicate.
+ * <p>
+ * The position of the slowest subscriber is cached, and only recomputed when the ring appears full or every half capacity items,
+ * as subscribers only ever move forward.
+ * <p>
+ * The upstream items are written by a single thread at a time, as per the reactive streams spec.
+ * Each subscriber is drained by a single thread at a time, which may be the publishing thread or the thread requesting more items.
+ */
+public class BoundedMulticastPublisher<T> implements TransformablePublisher<T> {
+
+  private final Publisher<? extends T> upstreamPublisher;
+  private final int capacity;
+  private final MulticastOverflow overflow;
+
+  private final AtomicReferenceArray<T> ring;
+  private final int mask;
+  // The sequence of the next item to be published, where item n is at ring[n & mask]
+  private final AtomicLong published = new AtomicLong();
+
+  // Only accessed by the publishing thread
+  private final int gateRefreshInterval;
+  private long gate;
+  private long nextGateRefresh;
+  private long cleared;
+
+  private final Set<RingSubscription> subscriptions = ConcurrentHashMap.newKeySet();
+  private final AtomicBoolean requestedUpstream = new AtomicBoolean();
+
+  private volatile boolean upstreamFinished;
+  private volatile Throwable upstreamError;
+
+  public BoundedMulticastPublisher(Publisher<? extends T> upstreamPublisher, int capacity, MulticastOverflow overflow) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("capacity must be > 0");
+    }
+    this.upstreamPublisher = upstreamPublisher;
+    this.capacity = capacity;
+    this.overflow = overflow;
+    // The ring has at least one more slot than the capacity, so that the slot being written is never one that can be read
+    int ringSize = Integer.highestOneBit(capacity) << 1;
+    this.ring = new AtomicReferenceArray<>(ringSize);
+    this.mask = ringSize - 1;
+    this.gateRefreshInterval = Math.max(1, capacity >> 1);
+  }
+
+  @Override
+  public void subscribe(Subscriber<? super T> subscriber) {
+    if (upstreamFinished) {
+      subscriber.onSubscribe(new Subscription() {
+        @Override
+        public void request(long n) {
+        }
+
+        @Override
+        public void cancel() {
+        }
+      });
+      subscriber.onError(new IllegalStateException("The upstream publisher has completed, either successfully or with error.  No further subscriptions will be accepted"));
+    } else {
+      RingSubscription subscription = new RingSubscription(subscriber);
+      subscriptions.add(subscription);
+      subscriber.onSubscribe(subscription);
+    }
+  }
+
+  private void tryUpstreamSubscribe() {
+    if (requestedUpstream.compareAndSet(false, true)) {
+      upstreamPublisher.subscribe(new Subscriber<T>() {
+        @Override
+        public void onSubscribe(Subscription s) {
+          s.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(T item) {
+          publish(item);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+          upstreamError = t;
+          upstreamFinished = true;
+          signalAll();
+          clearIfUnused();
+        }
+
+        @Override
+        public void onComplete() {
+          upstreamFinished = true;
+          signalAll();
+          clearIfUnused();
+        }
+      });
+    }
+  }
+
+  private void publish(T item) {
+    long sequence = published.get();
+    if (sequence - gate >= capacity || sequence >= nextGateRefresh) {
+      gate = slowestPosition(sequence);
+      nextGateRefresh = sequence + gateRefreshInterval;
+    }
+    if (overflow == MulticastOverflow.DROP_NEWEST && sequence - gate >= capacity) {
+      ReferenceCountUtil.release(item);
+      return;
+    }
+
+    // Items before the gate have been passed by all subscribers; items before the ring size behind are overwritten instead
+    for (long passed = Math.max(cleared, sequence - mask); passed < gate; ++passed) {
+      ReferenceCountUtil.release(ring.getAndSet((int) passed & mask, null));
+    }
+    cleared = Math.max(cleared, gate);
+
+    T overwritten = ring.getAndSet((int) sequence & mask, item);
+    published.set(sequence + 1);
+    // Released after publishing, so that subscribers reading the overwritten item see that it was overwritten
+    ReferenceCountUtil.release(overwritten);
+    signalAll();
+  }
+
+  private long slowestPosition(long sequence) {
+    long slowest = sequence;
+    for (RingSubscription subscription : subscriptions) {
+      slowest = Math.min(slowest, subscription.position);
+    }
+    return slowest;
+  }
+
+  private void clearIfUnused() {
+    if (upstreamFinished && subscriptions.isEmpty()) {
+      for (int i = 0; i < ring.length(); ++i) {
+        ReferenceCountUtil.release(ring.getAndSet(i, null));
+      }
+    }
+  }
+
+  /**
+   * A reference to the given item for a subscriber.
+   *
+   * @return the reference, or {@code null} if the item has been released
+   */
+  @SuppressWarnings("unchecked")
+  private static <T> T retain(T item) {
+    try {
+      if (item instanceof ByteBuf) {
+        return (T) ((ByteBuf) item).retainedDuplicate();
+      } else if (item instanceof ReferenceCounted) {
+        return (T) ((ReferenceCounted) item).retain();
+      } else {
+        return item;
+      }
+    } catch (IllegalReferenceCountException e) {
+      return null;
+    }
+  }
+
+  private void signalAll() {
+    for (RingSubscription subscription : subscriptions) {
+      subscription.drain();
+    }
+  }
+
+  private final class RingSubscription implements Subscription {
+
+    private final Subscriber<? super T> subscriber;
+    private final AtomicLong demand = new AtomicLong();
+    private final AtomicInteger wip = new AtomicInteger();
+
+    // The sequence of the next item to deliver; subscribers only receive items published after they subscribe
+    private volatile long position = published.get();
+    private volatile boolean done;
+
+    RingSubscription(Subscriber<? super T> subscriber) {
+      this.subscriber = subscriber;
+    }
+
+    @Override
+    public void request(long n) {
+      if (n < 1) {
+        finish();
+        subscriber.onError(new IllegalArgumentException("3.9 While the Subscription is not cancelled, Subscription.request(long n) MUST throw a java.lang.IllegalArgumentException if the argument is <= 0."));
+        return;
+      }
+      long current;
+      long next;
+      do {
+        current = demand.get();
+        next = current + n < 0 ? Long.MAX_VALUE : current + n;
+      } while (!demand.compareAndSet(current, next));
+      tryUpstreamSubscribe();
+      drain();
+    }
+
+    @Override
+    public void cancel() {
+      finish();
+    }
+
+    private void finish() {
+      done = true;
+      subscriptions.remove(this);
+      clearIfUnused();
+    }
+
+    private void drain() {
+      if (wip.getAndIncrement() != 0) {
+        return;
+      }
+      int missed = 1;
+      do {
+        if (done) {
+          return;
+        }
+        // Read before the published sequence, so that when finished, all items have been published
+        boolean finished = upstreamFinished;
+        long available = published.get();
+        long requested = demand.get();
+        long next = position;
+        long emitted = 0;
+
+        while (next != available) {
+          if (available - next > capacity && !overflow(available)) {
+            return;
+          }
+          next = Math.max(next, available - capacity);
+          if (emitted == requested) {
+            break;
+          }
+          T item = ring.get((int) next & mask);
+          T reference = item == null ? null : retain(item);
+          if (done) {
+            // The ring may have been cleared when this subscription was cancelled
+            ReferenceCountUtil.release(reference);
+            return;
+          }
+          // The item may have been overwritten while being read, if this subscriber is at the limit
+          long latest = published.get();
+          if (latest - next > capacity) {
+            ReferenceCountUtil.release(reference);
+            available = latest;
+            continue;
+          }
+          position = ++next;
+          if (reference == null) {
+            // Cleared before this subscriber was registered
+            continue;
+          }
+          ++emitted;
+          subscriber.onNext(reference);
+          if (done) {
+            return;
+          }
+        }
+        position = next;
+
+        if (finished && next == available) {
+          finish();
+          Throwable error = upstreamError;
+          if (error == null) {
+            subscriber.onComplete();
+          } else {
+            subscriber.onError(error);
+          }
+          return;
+        }
+
+        if (emitted != 0 && requested != Long.MAX_VALUE) {
+          demand.addAndGet(-emitted);
+        }
+        missed = wip.addAndGet(-missed);
+      } while (missed != 0);
+    }
+
+    /**
+     * Handles falling too far behind.
+     *
+     * @return whether to continue delivering items
+     */
+    private boolean overflow(long available) {
+      if (overflow == MulticastOverflow.DISCONNECT) {
+        finish();
+        subscriber.onError(new MulticastOverflowException("Subscriber fell more than " + capacity + " items behind (position: " + position + ", published: " + available + ")"));
+        return false;
+      } else {
+        return true;
+      }
+    }
+
+  }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.exec
+
+import ratpack.exec.internal.DefaultExecController
+import ratpack.test.internal.BaseRatpackSpec
+import spock.util.concurrent.BlockingVariable
+import spock.util.concurrent.PollingConditions
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.TimeUnit
+
+class BlockingPoolSpec extends BaseRatpackSpec {
+
+  DefaultExecController controller
+
+  def cleanup() {
+    controller?.close()
+  }
+
+  void pools(Map<String, Closure<?>> pools) {
+    controller = new DefaultExecController(1, false, pools.collectEntries { name, configurer ->
+      def config = new BlockingPoolConfig()
+      configurer.call(config)
+      [name, config]
+    })
+  }
+
+  def "operations run on threads of the named pool"() {
+    given:
+    pools(jdbc: { it.maxThreads = 2 })
+    def result = new BlockingVariable<String>()
+
+    when:
+    controller.fork().start {
+      Blocking.get("jdbc") { Thread.currentThread().name } then { result.set(it) }
+    }
+
+    then:
+    result.get().startsWith("ratpack-blocking-jdbc-")
+  }
+
+  def "operations without a pool run on the default pool"() {
+    given:
+    pools(jdbc: {})
+    def result = new BlockingVariable<String>()
+
+    when:
+    controller.fork().start {
+      Blocking.get { Thread.currentThread().name } then { result.set(it) }
+    }
+
+    then:
+    result.get().startsWith("ratpack-blocking-")
+    !result.get().startsWith("ratpack-blocking-jdbc-")
+  }
+
+  def "using an unknown pool is an error"() {
+    given:
+    pools([:])
+    def result = new BlockingVariable<Throwable>()
+
+    when:
+    controller.fork().onError { result.set(it) }.start {
+      Blocking.get("jdbc") { 1 } then {}
+    }
+
+    then:
+    result.get() instanceof IllegalArgumentException
+  }
+
+  def "operations are rejected when the pool is full"() {
+    given:
+    pools(jdbc: { it.maxThreads = 1 })
+    def started = new CountDownLatch(1)
+    def release = new CountDownLatch(1)
+    def result = new BlockingVariable<Throwable>()
+
+    when:
+    controller.fork().start {
+      Blocking.get("jdbc") { started.countDown(); release.await(10, TimeUnit.SECONDS) } then {}
+    }
+    started.await(10, TimeUnit.SECONDS)
+    controller.fork().onError { result.set(it) }.start {
+      Blocking.get("jdbc") { 1 } then {}
+    }
+
+    then:
+    result.get() instanceof RejectedExecutionException
+    controller.blockingPoolStats.jdbc.rejectedCount == 1
+
+    cleanup:
+    release.countDown()
+  }
+
+  def "queued pool without core threads runs operations in parallel up to max threads"() {
+    given:
+    pools(jdbc: { it.maxThreads = 2; it.queueSize = 10 })
+    def running = new CountDownLatch(2)
+    def release = new CountDownLatch(1)
+    def results = new LinkedBlockingQueue<Boolean>()
+
+    when:
+    3.times {
+      controller.fork().start {
+        Blocking.get("jdbc") {
+          running.countDown()
+          running.await(10, TimeUnit.SECONDS) && release.await(10, TimeUnit.SECONDS)
+        } then { results.put(it) }
+      }
+    }
+
+    then:
+    running.await(10, TimeUnit.SECONDS)
+    new PollingConditions(timeout: 10).eventually {
+      assert controller.blockingPoolStats.jdbc.queueSize == 1
+    }
+
+    when:
+    release.countDown()
+
+    then:
+    3.times { assert results.poll(10, TimeUnit.SECONDS) }
+    controller.blockingPoolStats.jdbc.rejectedCount == 0
+  }
+
+  def "stats are available for configured pools"() {
+    given:
+    pools(jdbc: { it.maxThreads = 2 }, default: { it.coreThreads = 1 })
+    def result = new BlockingVariable<Integer>()
+
+    when:
+    controller.fork().start {
+      Blocking.get("jdbc") { 1 } then { result.set(it) }
+    }
+    result.get()
+
+    then:
+    controller.blockingPoolStats.keySet() == ["default", "jdbc"] as Set
+    with(controller.blockingPoolStats.jdbc) {
+      name == "jdbc"
+      startedCount == 1
+      rejectedCount == 0
+      queueSize == 0
+      !totalWaitTime.negative
+    }
+  }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.exec
+
+import ratpack.exec.internal.DefaultExecController
+import ratpack.exec.internal.VirtualThreads
+import ratpack.test.internal.RatpackGroovyDslSpec
+import spock.lang.IgnoreIf
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+@IgnoreIf({ !VirtualThreads.available })
+class VirtualBlockingThreadsSpec extends RatpackGroovyDslSpec {
+
+  def setup() {
+    serverConfig {
+      virtualBlockingThreads true
+    }
+  }
+
+  def "blocking operations run on virtual threads bound to the execution"() {
+    when:
+    handlers {
+      get {
+        def execution = Execution.current()
+        Blocking.get {
+          [Thread.currentThread().virtual, Execution.current().is(execution), Thread.currentThread().name.startsWith("ratpack-blocking-virtual-")]
+        } then {
+          render it.toString()
+        }
+      }
+    }
+
+    then:
+    text == [true, true, true].toString()
+  }
+
+  def "interceptors are applied and can block on promises"() {
+    when:
+    def events = [].asSynchronized()
+    bindings {
+      bindInstance ExecInterceptor, { execution, execType, continuation ->
+        events << execType
+        continuation.execute()
+      } as ExecInterceptor
+    }
+    handlers {
+      get {
+        Blocking.op {
+          Blocking.on(Promise.value(1))
+        } then {
+          render "ok"
+        }
+      }
+    }
+
+    then:
+    text == "ok"
+    events.contains(ExecInterceptor.ExecType.BLOCKING)
+  }
+
+  def "can run many concurrent blocking operations"() {
+    given:
+    def count = 2000
+    def latch = new CountDownLatch(count)
+    def controller = new DefaultExecController(1, true)
+
+    when:
+    count.times {
+      controller.fork().start {
+        Blocking.get {
+          latch.countDown()
+          latch.await(10, TimeUnit.SECONDS)
+        } then {
+        }
+      }
+    }
+
+    then:
+    latch.await(10, TimeUnit.SECONDS)
+
+    cleanup:
+    controller.close()
+  }
+
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.stream.internal
+
+import io.netty.buffer.Unpooled
+import org.reactivestreams.Publisher
+import org.reactivestreams.Subscriber
+import org.reactivestreams.Subscription
+import ratpack.stream.MulticastOverflow
+import ratpack.stream.MulticastOverflowException
+import ratpack.stream.Streams
+import ratpack.test.internal.BaseRatpackSpec
+
+class BoundedMulticastPublisherSpec extends BaseRatpackSpec {
+
+  Subscriber<Integer> upstream
+  boolean upstreamRequested
+
+  Publisher<Integer> source = { Subscriber<Integer> s ->
+    upstream = s
+    s.onSubscribe(new Subscription() {
+      @Override
+      void request(long n) {
+        upstreamRequested = true
+      }
+
+      @Override
+      void cancel() {
+      }
+    })
+  } as Publisher<Integer>
+
+  void emit(Iterable<Integer> items) {
+    items.each { upstream.onNext(it) }
+  }
+
+  def "subscribers receive items according to their own demand"() {
+    given:
+    def p = Streams.multicast(source, 10, MulticastOverflow.DROP_OLDEST)
+    def fast = CollectingSubscriber.subscribe(p)
+    def slow = CollectingSubscriber.subscribe(p)
+
+    expect:
+    !upstreamRequested
+
+    when:
+    fast.subscription.request(Long.MAX_VALUE)
+    slow.subscription.request(2)
+    emit(1..5)
+
+    then:
+    upstreamRequested
+    fast.received == [1, 2, 3, 4, 5]
+    slow.received == [1, 2]
+
+    when:
+    slow.subscription.request(10)
+    upstream.onComplete()
+
+    then:
+    slow.received == [1, 2, 3, 4, 5]
+    fast.complete
+    slow.complete
+  }
+
+  def "subscribers do not receive items published before subscribing"() {
+    given:
+    def p = Streams.multicast(source, 10, MulticastOverflow.DROP_OLDEST)
+    def first = CollectingSubscriber.subscribe(p)
+    first.subscription.request(Long.MAX_VALUE)
+    emit(1..3)
+
+    when:
+    def second = CollectingSubscriber.subscribe(p)
+    second.subscription.request(Long.MAX_VALUE)
+    emit(4..5)
+
+    then:
+    first.received == [1, 2, 3, 4, 5]
+    second.received == [4, 5]
+  }
+
+  def "slow subscribers skip the oldest items with drop oldest"() {
+    given:
+    def p = Streams.multicast(source, 3, MulticastOverflow.DROP_OLDEST)
+    def fast = CollectingSubscriber.subscribe(p)
+    def slow = CollectingSubscriber.subscribe(p)
+    fast.subscription.request(Long.MAX_VALUE)
+    slow.subscription.request(1)
+
+    when:
+    emit(1..10)
+    slow.subscription.request(10)
+
+    then:
+    fast.received == (1..10).toList()
+    slow.received == [1, 8, 9, 10]
+  }
+
+  def "items are dropped for all subscribers while the slowest is full with drop newest"() {
+    given:
+    def p = Streams.multicast(source, 3, MulticastOverflow.DROP_NEWEST)
+    def fast = CollectingSubscriber.subscribe(p)
+    def slow = CollectingSubscriber.subscribe(p)
+    fast.subscription.request(Long.MAX_VALUE)
+    slow.subscription.request(1)
+
+    when:
+    emit(1..10)
+    slow.subscription.request(10)
+    emit(11..12)
+
+    then:
+    fast.received == [1, 2, 3, 4, 11, 12]
+    slow.received == [1, 2, 3, 4, 11, 12]
+  }
+
+  def "slow subscribers are disconnected with disconnect"() {
+    given:
+    def p = Streams.multicast(source, 3, MulticastOverflow.DISCONNECT)
+    def fast = CollectingSubscriber.subscribe(p)
+    def slow = CollectingSubscriber.subscribe(p)
+    fast.subscription.request(Long.MAX_VALUE)
+    slow.subscription.request(1)
+
+    when:
+    emit(1..10)
+    upstream.onComplete()
+
+    then:
+    fast.received == (1..10).toList()
+    fast.complete
+    slow.received == [1]
+    slow.error instanceof MulticastOverflowException
+    !slow.complete
+  }
+
+  def "errors are propagated after buffered items"() {
+    given:
+    def p = Streams.multicast(source, 10, MulticastOverflow.DROP_OLDEST)
+    def s = CollectingSubscriber.subscribe(p)
+    s.subscription.request(1)
+    def error = new RuntimeException("!")
+
+    when:
+    emit(1..3)
+    upstream.onError(error)
+
+    then:
+    s.received == [1]
+    s.error == null
+
+    when:
+    s.subscription.request(5)
+
+    then:
+    s.received == [1, 2, 3]
+    s.error == error
+  }
+
+  def "cancelled subscribers receive no more items"() {
+    given:
+    def p = Streams.multicast(source, 10, MulticastOverflow.DROP_NEWEST)
+    def cancelled = CollectingSubscriber.subscribe(p)
+    def other = CollectingSubscriber.subscribe(p)
+    cancelled.subscription.request(1)
+    other.subscription.request(Long.MAX_VALUE)
+
+    when:
+    emit(1..2)
+    cancelled.subscription.cancel()
+    emit(3..20)
+
+    then:
+    cancelled.received == [1]
+    other.received == (1..20).toList()
+  }
+
+  def "rejects subscriptions after the upstream has completed"() {
+    given:
+    def p = Streams.multicast(source, 10, MulticastOverflow.DROP_OLDEST)
+    CollectingSubscriber.subscribe(p).subscription.request(1)
+    upstream.onComplete()
+
+    when:
+    def late = CollectingSubscriber.subscribe(p)
+
+    then:
+    late.error instanceof IllegalStateException
+  }
+
+  def "reference counted items are released once overwritten or passed by all subscribers"() {
+    given:
+    def p = Streams.multicast(source, 2, MulticastOverflow.DROP_OLDEST)
+    def s = CollectingSubscriber.subscribe(p)
+    s.subscription.request(Long.MAX_VALUE)
+    def items = (1..6).collect { Unpooled.buffer(1).writeByte(it) }
+
+    when:
+    emit(items)
+
+    then:
+    s.received*.getByte(0) == [1, 2, 3, 4, 5, 6]
+    [s.received, items].transpose().every { received, item -> !received.is(item) }
+
+    when:
+    s.received*.release()
+
+    then:
+    items*.refCnt() == [0, 0, 0, 0, 0, 1]
+
+    when:
+    upstream.onComplete()
+
+    then:
+    s.complete
+    items*.refCnt() == [0, 0, 0, 0, 0, 0]
+  }
+
+  def "items dropped with drop newest are released"() {
+    given:
+    def p = Streams.multicast(source, 1, MulticastOverflow.DROP_NEWEST)
+    def s = CollectingSubscriber.subscribe(p)
+    s.subscription.request(1)
+    def items = (1..3).collect { Unpooled.buffer(1).writeByte(it) }
+
+    when:
+    emit(items)
+
+    then:
+    s.received*.getByte(0) == [1]
+    items*.refCnt() == [1, 1, 0]
+
+    cleanup:
+    s.received*.release()
+    items[1].release()
+  }
+
+}
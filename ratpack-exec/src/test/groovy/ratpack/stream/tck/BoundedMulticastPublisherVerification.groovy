@@ -0,0 +1,53 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.stream.tck
+
+import org.reactivestreams.Publisher
+import org.reactivestreams.tck.PublisherVerification
+import org.reactivestreams.tck.TestEnvironment
+import ratpack.stream.MulticastOverflow
+import ratpack.stream.Streams
+
+import java.time.Duration
+import java.util.concurrent.Executors
+
+class BoundedMulticastPublisherVerification extends PublisherVerification<Integer> {
+
+  private static final int CAPACITY = 1024
+
+  public BoundedMulticastPublisherVerification() {
+    super(new TestEnvironment(300L))
+  }
+
+  @Override
+  Publisher<Integer> createPublisher(long elements) {
+    Streams.multicast(Streams.periodically(Executors.newSingleThreadScheduledExecutor(), Duration.ofNanos(100)) {
+      it < elements ? it : null
+    }, CAPACITY, MulticastOverflow.DROP_OLDEST)
+  }
+
+  @Override
+  long maxElementsFromPublisher() {
+    CAPACITY - 1 // finite streams must fit the ring, so no subscriber has items overwritten
+  }
+
+  @Override
+  Publisher<Integer> createFailedPublisher() {
+    null // because subscription always succeeds. Nothing is attempted until a request is received.
+  }
+
+}
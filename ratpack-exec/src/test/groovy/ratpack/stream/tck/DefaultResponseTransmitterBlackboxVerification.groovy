@@ -26,10 +26,10 @@ import io.netty.handler.codec.http.HttpResponseStatus
 import org.reactivestreams.Subscriber
 import org.reactivestreams.tck.SubscriberBlackboxVerification
 import org.reactivestreams.tck.TestEnvironment
+import ratpack.server.internal.ConnectionConstants
 import ratpack.server.internal.DefaultResponseTransmitter
 
 import java.time.Clock
-import java.util.concurrent.atomic.AtomicBoolean
 
 import static org.mockito.Matchers.any
 import static org.mockito.Mockito.*
@@ -48,6 +48,8 @@ class DefaultResponseTransmitterBlackboxVerification extends SubscriberBlackboxV
     when(channel.isOpen()).thenReturn(true)
     when(channel.writeAndFlush(any()).addListener(any())).thenReturn(channelFuture)
     when(channel.isWritable()).thenReturn(true)
+    when(channel.remoteAddress()).thenReturn(new InetSocketAddress(0))
+    when(channel.localAddress()).thenReturn(new InetSocketAddress(0))
 
     FullHttpRequest nettyRequest = mock(FullHttpRequest, RETURNS_DEEP_STUBS)
     when(nettyRequest.retain()).thenReturn(nettyRequest)
@@ -56,8 +58,7 @@ class DefaultResponseTransmitterBlackboxVerification extends SubscriberBlackboxV
 
     HttpHeaders responseHeaders = mock(HttpHeaders)
 
-
-    new DefaultResponseTransmitter(new AtomicBoolean(), channel, Clock.systemDefaultZone(), nettyRequest, null, responseHeaders, null).transmitter(HttpResponseStatus.OK)
+    new DefaultResponseTransmitter(channel, ConnectionConstants.of(channel), Clock.systemDefaultZone(), nettyRequest, null, responseHeaders, null, null).transmitter(HttpResponseStatus.OK)
   }
 
   @Override
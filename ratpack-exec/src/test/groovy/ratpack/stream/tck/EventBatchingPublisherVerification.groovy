@@ -0,0 +1,49 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.stream.tck
+
+import io.netty.buffer.ByteBuf
+import io.netty.buffer.Unpooled
+import io.netty.buffer.UnpooledByteBufAllocator
+import org.reactivestreams.Publisher
+import org.reactivestreams.tck.PublisherVerification
+import org.reactivestreams.tck.TestEnvironment
+import ratpack.sse.internal.EventBatchingPublisher
+
+import static ratpack.stream.Streams.publish
+
+class EventBatchingPublisherVerification extends PublisherVerification<ByteBuf> {
+
+  private static final int BATCH_SIZE = 2
+
+  EventBatchingPublisherVerification() {
+    super(new TestEnvironment())
+  }
+
+  @Override
+  Publisher<ByteBuf> createPublisher(long elements) {
+    // The upstream emits each requested batch synchronously, so every downstream element combines exactly BATCH_SIZE events
+    def events = publish(0l..<Math.min(elements, Long.MAX_VALUE.intdiv(BATCH_SIZE)) * BATCH_SIZE).map { Unpooled.copyLong(it) }
+    new EventBatchingPublisher(events, UnpooledByteBufAllocator.DEFAULT, BATCH_SIZE)
+  }
+
+  @Override
+  Publisher<ByteBuf> createFailedPublisher() {
+    null // because subscription always succeeds. Nothing is attempted until a request is received.
+  }
+
+}
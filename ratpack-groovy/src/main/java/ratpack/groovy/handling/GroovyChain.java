@@ -304,6 +304,14 @@ public interface GroovyChain extends Chain {
     return insert(getRegistry().get(action));
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  default GroovyChain maxContentLength(long maxContentLength) {
+    return from(Chain.super.maxContentLength(maxContentLength));
+  }
+
   /**
    * Inserts the given nested handler chain.
    * <p>
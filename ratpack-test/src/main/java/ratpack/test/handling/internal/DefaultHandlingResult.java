@@ -26,6 +26,7 @@ import org.reactivestreams.Subscriber;
 import org.slf4j.LoggerFactory;
 import ratpack.api.Nullable;
 import ratpack.exec.ExecController;
+import ratpack.file.internal.ByteRanges;
 import ratpack.file.internal.ResponseTransmitter;
 import ratpack.func.Action;
 import ratpack.handling.Context;
@@ -115,6 +116,11 @@ public class DefaultHandlingResult implements HandlingResult {
         latch.countDown();
       }
 
+      @Override
+      public void transmit(HttpResponseStatus status, Path file, ByteRanges ranges) {
+        transmit(status, file);
+      }
+
       @Override
       public Subscriber<ByteBuf> transmitter(HttpResponseStatus status) {
         throw new UnsupportedOperationException("streaming not supported while unit testing");
@@ -356,7 +356,7 @@ public class DefaultRequestFixture implements RequestFixture {
       build();
     return Exceptions.uncheck(() -> {
       ServerConfig serverConfig = serverConfigBuilder.build();
-      DefaultExecController execController = new DefaultExecController(serverConfig.getThreads());
+      DefaultExecController execController = new DefaultExecController(serverConfig.getThreads(), serverConfig.isVirtualBlockingThreads(), serverConfig.getBlockingPools());
       return ServerRegistry.serverRegistry(new TestServer(), Impositions.none(), execController, serverConfig, r -> userRegistry.join(registryBuilder.build()));
     });
   }